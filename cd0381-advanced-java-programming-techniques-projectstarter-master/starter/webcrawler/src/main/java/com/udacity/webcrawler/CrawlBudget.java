@@ -0,0 +1,216 @@
+package com.udacity.webcrawler;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hard limits on how much a single crawl may download, on top of {@code "maxDepth"} and
+ * {@code "timeout"}. A limit of 0 means unlimited.
+ *
+ * <p>The total page and byte budgets stop the whole crawl: once either is reached, no new page is
+ * fetched and no new work is scheduled. The per-host and per-seed budgets only turn away pages
+ * from the host, or reached from the start page, that used up its share.
+ */
+public final class CrawlBudget {
+
+    /**
+     * A budget that never stops a crawl.
+     */
+    public static final CrawlBudget UNLIMITED = new CrawlBudget(0, 0, 0, 0);
+
+    /**
+     * The budgets a crawl can run into, named after their configuration options.
+     */
+    enum Limit {
+        PAGES("maxPages"),
+        BYTES("maxBytes"),
+        PAGES_PER_HOST("maxPagesPerHost"),
+        PAGES_PER_SEED("maxPagesPerSeed");
+
+        private final String option;
+
+        Limit(String option) {
+            this.option = option;
+        }
+
+        String option() {
+            return option;
+        }
+    }
+
+    private final int maxPages;
+    private final long maxBytes;
+    private final int maxPagesPerHost;
+    private final int maxPagesPerSeed;
+
+    /**
+     * Creates a budget. Each limit that is 0 (or negative) is unlimited.
+     */
+    public CrawlBudget(int maxPages, long maxBytes, int maxPagesPerHost, int maxPagesPerSeed) {
+        this.maxPages = Math.max(0, maxPages);
+        this.maxBytes = Math.max(0, maxBytes);
+        this.maxPagesPerHost = Math.max(0, maxPagesPerHost);
+        this.maxPagesPerSeed = Math.max(0, maxPagesPerSeed);
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int getMaxPagesPerHost() {
+        return maxPagesPerHost;
+    }
+
+    public int getMaxPagesPerSeed() {
+        return maxPagesPerSeed;
+    }
+
+    /**
+     * Starts tracking a single crawl against this budget.
+     *
+     * @param seedCount the number of start pages of the crawl.
+     */
+    Tracker start(int seedCount) {
+        return new Tracker(seedCount);
+    }
+
+    /**
+     * Returns the host of the given URL, in lower case, or an empty string if it has none. Unlike
+     * {@link java.net.URI#getHost()}, this never fails and does not allocate more than the result.
+     */
+    static String hostOf(String url) {
+        int start = url.indexOf("://");
+        if (start < 0) {
+            return "";
+        }
+        start += 3;
+        int end = start;
+        while (end < url.length()) {
+            char c = url.charAt(end);
+            if (c == '/' || c == ':' || c == '?' || c == '#') {
+                break;
+            }
+            end++;
+        }
+        int userInfo = url.lastIndexOf('@', end - 1);
+        if (userInfo >= start) {
+            start = userInfo + 1;
+        }
+        return url.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The spending of a single crawl. Safe to use from any number of threads; every check is a few
+     * atomic operations, and a tracker for an unlimited budget only does a volatile read.
+     */
+    final class Tracker {
+        private final AtomicInteger pages = new AtomicInteger();
+        private final AtomicLong bytes = new AtomicLong();
+        private final ConcurrentMap<String, AtomicInteger> pagesByHost;
+        private final AtomicIntegerArray pagesBySeed;
+        // Set once, by the first total budget to be reached. Read before every page.
+        private final AtomicReference<Limit> exhausted = new AtomicReference<>();
+        // The exhausted total budget, once it has turned a page away. A crawl that ends with the
+        // last page its budget allows was not cut short.
+        private final AtomicReference<Limit> turnedAway = new AtomicReference<>();
+        // The first per-host or per-seed budget that turned a page away.
+        private final AtomicReference<Limit> firstCapped = new AtomicReference<>();
+
+        private Tracker(int seedCount) {
+            this.pagesByHost = maxPagesPerHost > 0 ? new ConcurrentHashMap<>() : null;
+            this.pagesBySeed = maxPagesPerSeed > 0 ? new AtomicIntegerArray(seedCount) : null;
+        }
+
+        /**
+         * Returns whether a total budget has been reached, in which case the crawl should not fetch
+         * or schedule anything else. This alone does not mean that the budget stopped the crawl;
+         * see {@link #turnedAway()}.
+         */
+        boolean isExhausted() {
+            return exhausted.get() != null;
+        }
+
+        /**
+         * Records that the crawl left out a page it would otherwise have crawled, because a total
+         * budget was reached. Does nothing if none was.
+         */
+        void turnedAway() {
+            Limit limit = exhausted.get();
+            if (limit != null) {
+                turnedAway.compareAndSet(null, limit);
+            }
+        }
+
+        /**
+         * Charges one page, found from the given start page, against the budget.
+         *
+         * @param seed the index of the start page the URL was reached from.
+         * @return whether the page may be fetched.
+         */
+        boolean tryStartPage(String url, int seed) {
+            if (exhausted.get() != null) {
+                turnedAway();
+                return false;
+            }
+            if (pagesBySeed != null && pagesBySeed.incrementAndGet(seed) > maxPagesPerSeed) {
+                pagesBySeed.decrementAndGet(seed);
+                firstCapped.compareAndSet(null, Limit.PAGES_PER_SEED);
+                return false;
+            }
+            if (pagesByHost != null) {
+                AtomicInteger hostPages = pagesByHost.computeIfAbsent(hostOf(url), host -> new AtomicInteger());
+                if (hostPages.incrementAndGet() > maxPagesPerHost) {
+                    hostPages.decrementAndGet();
+                    if (pagesBySeed != null) {
+                        pagesBySeed.decrementAndGet(seed);
+                    }
+                    firstCapped.compareAndSet(null, Limit.PAGES_PER_HOST);
+                    return false;
+                }
+            }
+            if (maxPages > 0) {
+                int started = pages.incrementAndGet();
+                if (started >= maxPages) {
+                    // Stop scheduling work that could never be fetched as soon as the last page is.
+                    exhausted.compareAndSet(null, Limit.PAGES);
+                }
+                if (started > maxPages) {
+                    turnedAway.compareAndSet(null, Limit.PAGES);
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Charges the size of a downloaded page against the budget.
+         */
+        void addBytes(long count) {
+            if (maxBytes > 0 && bytes.addAndGet(count) >= maxBytes) {
+                exhausted.compareAndSet(null, Limit.BYTES);
+            }
+        }
+
+        /**
+         * Returns the configuration option of the budget that stopped the crawl, or an empty string
+         * if the crawl was not cut short. A total budget takes precedence over a per-host or
+         * per-seed budget that turned pages away.
+         */
+        String stoppedBy() {
+            Limit limit = turnedAway.get();
+            if (limit == null) {
+                limit = firstCapped.get();
+            }
+            return limit == null ? "" : limit.option();
+        }
+    }
+}
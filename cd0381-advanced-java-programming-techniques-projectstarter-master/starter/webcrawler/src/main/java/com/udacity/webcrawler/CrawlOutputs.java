@@ -0,0 +1,138 @@
+package com.udacity.webcrawler;
+
+import java.util.Objects;
+
+/**
+ * The optional outputs of a crawl, besides its {@link com.udacity.webcrawler.json.CrawlResult}:
+ * the files it writes, the pages it ranks and the server that exposes its metrics. An empty path,
+ * or a count or port of 0, disables the output.
+ */
+public final class CrawlOutputs {
+
+    /**
+     * Outputs that are all disabled.
+     */
+    public static final CrawlOutputs NONE = new Builder().build();
+
+    private final String linkGraphPath;
+    private final int topPageCount;
+    private final String indexPath;
+    private final String pageResultsPath;
+    private final int metricsPort;
+    private final String flightRecordingPath;
+    private final String traceLogPath;
+
+    private CrawlOutputs(Builder builder) {
+        this.linkGraphPath = builder.linkGraphPath;
+        this.topPageCount = builder.topPageCount;
+        this.indexPath = builder.indexPath;
+        this.pageResultsPath = builder.pageResultsPath;
+        this.metricsPort = builder.metricsPort;
+        this.flightRecordingPath = builder.flightRecordingPath;
+        this.traceLogPath = builder.traceLogPath;
+    }
+
+    /**
+     * Returns the path where the link graph is written in CSR binary form, or an empty string.
+     */
+    public String getLinkGraphPath() {
+        return linkGraphPath;
+    }
+
+    /**
+     * Returns how many of the highest-PageRank pages, hubs and authorities to report in the crawl
+     * result, or 0.
+     */
+    public int getTopPageCount() {
+        return topPageCount;
+    }
+
+    /**
+     * Returns the path where the inverted index of the crawled pages is written, or an empty
+     * string.
+     */
+    public String getIndexPath() {
+        return indexPath;
+    }
+
+    /**
+     * Returns the path where one NDJSON record per crawled page is streamed, or an empty string.
+     */
+    public String getPageResultsPath() {
+        return pageResultsPath;
+    }
+
+    /**
+     * Returns the port on which live crawl metrics are served, or 0.
+     */
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    /**
+     * Returns the path where a JDK Flight Recorder recording of the crawl is written, or an empty
+     * string.
+     */
+    public String getFlightRecordingPath() {
+        return flightRecordingPath;
+    }
+
+    /**
+     * Returns the path where the trace of every crawled URL is written, or an empty string.
+     */
+    public String getTraceLogPath() {
+        return traceLogPath;
+    }
+
+    /**
+     * A builder for {@link CrawlOutputs}. Outputs that are not set stay disabled.
+     */
+    public static final class Builder {
+        private String linkGraphPath = "";
+        private int topPageCount;
+        private String indexPath = "";
+        private String pageResultsPath = "";
+        private int metricsPort;
+        private String flightRecordingPath = "";
+        private String traceLogPath = "";
+
+        public Builder setLinkGraphPath(String linkGraphPath) {
+            this.linkGraphPath = Objects.requireNonNull(linkGraphPath);
+            return this;
+        }
+
+        public Builder setTopPageCount(int topPageCount) {
+            this.topPageCount = topPageCount;
+            return this;
+        }
+
+        public Builder setIndexPath(String indexPath) {
+            this.indexPath = Objects.requireNonNull(indexPath);
+            return this;
+        }
+
+        public Builder setPageResultsPath(String pageResultsPath) {
+            this.pageResultsPath = Objects.requireNonNull(pageResultsPath);
+            return this;
+        }
+
+        public Builder setMetricsPort(int metricsPort) {
+            this.metricsPort = metricsPort;
+            return this;
+        }
+
+        public Builder setFlightRecordingPath(String flightRecordingPath) {
+            this.flightRecordingPath = Objects.requireNonNull(flightRecordingPath);
+            return this;
+        }
+
+        public Builder setTraceLogPath(String traceLogPath) {
+            this.traceLogPath = Objects.requireNonNull(traceLogPath);
+            return this;
+        }
+
+        public CrawlOutputs build() {
+            return new CrawlOutputs(this);
+        }
+    }
+}
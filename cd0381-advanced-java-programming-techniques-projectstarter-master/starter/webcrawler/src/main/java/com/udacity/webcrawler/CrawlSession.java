@@ -0,0 +1,207 @@
+package com.udacity.webcrawler;
+
+import com.udacity.webcrawler.graph.CsrGraph;
+import com.udacity.webcrawler.graph.CsrGraphWriter;
+import com.udacity.webcrawler.graph.Hits;
+import com.udacity.webcrawler.graph.LinkGraphRecorder;
+import com.udacity.webcrawler.graph.PageRank;
+import com.udacity.webcrawler.graph.TopPages;
+import com.udacity.webcrawler.index.InvertedIndexBuilder;
+import com.udacity.webcrawler.index.InvertedIndexWriter;
+import com.udacity.webcrawler.jfr.CrawlRecording;
+import com.udacity.webcrawler.json.CrawlResult;
+import com.udacity.webcrawler.json.PageResultWriter;
+import com.udacity.webcrawler.metrics.CrawlMetrics;
+import com.udacity.webcrawler.metrics.MetricsServer;
+import com.udacity.webcrawler.parser.PageParser;
+import com.udacity.webcrawler.trace.TraceLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The {@link CrawlOutputs} of a single crawl, from the moment they are opened until the crawl's
+ * files are written. Both crawlers report every page to it in the same way, so that the outputs
+ * agree whichever crawler runs.
+ *
+ * <p>Pages may be reported from many threads at once. Each disabled output is {@code null}.
+ */
+final class CrawlSession implements AutoCloseable {
+
+    private final CrawlOutputs outputs;
+    private final int popularWordCount;
+    private final CrawlMetrics metrics;
+    private final LinkGraphRecorder linkGraph;
+    private final InvertedIndexBuilder index;
+    private PageResultWriter pageResults;
+    private TraceLog trace;
+    private MetricsServer metricsServer;
+    private CrawlRecording recording;
+
+    private CrawlSession(CrawlOutputs outputs, int popularWordCount, CrawlMetrics metrics) {
+        this.outputs = outputs;
+        this.popularWordCount = popularWordCount;
+        this.metrics = metrics;
+        this.linkGraph = outputs.getLinkGraphPath().isEmpty() && outputs.getTopPageCount() == 0
+                ? null : new LinkGraphRecorder();
+        this.index = outputs.getIndexPath().isEmpty() ? null : new InvertedIndexBuilder();
+    }
+
+    /**
+     * Opens the enabled outputs, and starts serving the given metrics if they are enabled.
+     *
+     * @param popularWordCount how many of each page's words to write to its page result.
+     * @throws UncheckedIOException if an output cannot be opened. Outputs that were already
+     *                              opened are closed.
+     */
+    static CrawlSession open(CrawlOutputs outputs, int popularWordCount, CrawlMetrics metrics) {
+        CrawlSession session = new CrawlSession(outputs, popularWordCount, metrics);
+        try {
+            if (!outputs.getPageResultsPath().isEmpty()) {
+                session.pageResults = PageResultWriter.open(Path.of(outputs.getPageResultsPath()));
+            }
+            if (!outputs.getTraceLogPath().isEmpty()) {
+                session.trace = TraceLog.open(Path.of(outputs.getTraceLogPath()));
+            }
+            if (outputs.getMetricsPort() > 0) {
+                session.metricsServer = MetricsServer.start(outputs.getMetricsPort(), metrics);
+            }
+            if (!outputs.getFlightRecordingPath().isEmpty()) {
+                session.recording = CrawlRecording.start(Path.of(outputs.getFlightRecordingPath()));
+            }
+        } catch (IOException e) {
+            try {
+                session.close();
+            } catch (UncheckedIOException suppressed) {
+                e.addSuppressed(suppressed.getCause());
+            }
+            throw new UncheckedIOException("Failed to open crawl output", e);
+        }
+        return session;
+    }
+
+    CrawlMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Records that the given URLs, found at the given depth, were queued for crawling.
+     */
+    void scheduled(List<String> urls, int depth) {
+        metrics.enqueued(urls.size());
+        if (trace != null) {
+            for (String url : urls) {
+                trace.scheduled(url, depth);
+            }
+        }
+    }
+
+    /**
+     * Records that the page at the given URL is being fetched.
+     */
+    void started(String url, int depth) {
+        metrics.fetchStarted();
+        if (trace != null) {
+            trace.started(url, depth);
+        }
+    }
+
+    /**
+     * Records that the page at the given URL could not be fetched or parsed.
+     *
+     * @param error a short name for the kind of error, usually the exception's simple name.
+     */
+    void failed(String url, int depth, String error) {
+        metrics.fetchFailed(error);
+        if (trace != null) {
+            trace.failed(url, depth, error);
+        }
+    }
+
+    /**
+     * Records the result of parsing the page at the given URL, which may be a failure, in every
+     * enabled output.
+     */
+    void parsed(String url, int depth, PageParser.Result result) {
+        if (result.getError().isEmpty()) {
+            metrics.fetchSucceeded(result.getByteCount());
+            if (trace != null) {
+                trace.finished(url, depth, result.getByteCount(), result.getLinks().size());
+            }
+        } else {
+            failed(url, depth, result.getError());
+        }
+        if (linkGraph != null) {
+            linkGraph.record(url, result.getLinks());
+        }
+        if (index != null) {
+            index.add(url, result.getWordCounts());
+        }
+        if (pageResults != null) {
+            // Not probed, so that the profile of WordCounts.sort only has the sort that ends the
+            // crawl, not one sort per page.
+            Map<String, Integer> topWords =
+                    WordCounts.sort(result.getWordCounts(), popularWordCount);
+            pageResults.write(url, depth, result, topWords);
+        }
+    }
+
+    /**
+     * Writes the inverted index and the link graph, once every page has been reported, and ranks
+     * the crawled pages into the given result if ranking is enabled.
+     *
+     * @param pool the pool to rank the pages on, or {@code null} to use the common pool.
+     */
+    void finish(ForkJoinPool pool, CrawlResult.Builder result) {
+        if (index != null) {
+            try {
+                new InvertedIndexWriter(index.build()).write(Path.of(outputs.getIndexPath()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write inverted index", e);
+            }
+        }
+        if (linkGraph == null) {
+            return;
+        }
+        CsrGraph graph = linkGraph.build();
+        if (!outputs.getLinkGraphPath().isEmpty()) {
+            try {
+                new CsrGraphWriter(graph).write(Path.of(outputs.getLinkGraphPath()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write link graph", e);
+            }
+        }
+        int limit = outputs.getTopPageCount();
+        if (limit == 0) {
+            return;
+        }
+        PageRank pageRank = new PageRank();
+        Hits hits = new Hits();
+        double[] ranks = pool == null ? pageRank.compute(graph) : pageRank.compute(graph, pool);
+        Hits.Scores scores = pool == null ? hits.compute(graph) : hits.compute(graph, pool);
+        result.setTopPages(TopPages.select(graph, ranks, limit))
+                .setTopHubs(TopPages.select(graph, scores.getHubs(), limit))
+                .setTopAuthorities(TopPages.select(graph, scores.getAuthorities(), limit));
+    }
+
+    /**
+     * Closes the outputs that are written while the crawl runs, and stops the metrics server.
+     *
+     * @throws UncheckedIOException if an output could not be written.
+     */
+    @Override
+    public void close() {
+        try (PageResultWriter ignored = pageResults;
+             TraceLog ignoredTrace = trace;
+             MetricsServer ignoredServer = metricsServer;
+             CrawlRecording ignoredRecording = recording) {
+            // Closed in the reverse order they were opened in.
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write crawl output", e);
+        }
+    }
+}
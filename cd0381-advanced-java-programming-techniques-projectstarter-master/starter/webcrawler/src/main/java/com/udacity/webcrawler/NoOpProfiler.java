@@ -1,10 +1,14 @@
 package com.udacity.webcrawler;
 
+import com.udacity.webcrawler.profiler.CrawlTelemetry;
+import com.udacity.webcrawler.profiler.Probe;
 import com.udacity.webcrawler.profiler.Profiler;
 
 import java.io.Writer;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A fake {@link Profiler} implementation that does nothing.
@@ -17,6 +21,19 @@ public final class NoOpProfiler implements Profiler {
     return Objects.requireNonNull(delegate);
   }
 
+  @Override
+  public Probe probe(Class<?> owner, String methodName) {
+    Objects.requireNonNull(owner);
+    Objects.requireNonNull(methodName);
+    return Probe.NONE;
+  }
+
+  @Override
+  public CrawlTelemetry startTelemetry(ForkJoinPool pool, Collection<Thread> threads) {
+    Objects.requireNonNull(threads);
+    return CrawlTelemetry.NONE;
+  }
+
   @Override
   public void writeData(Path path) {
     Objects.requireNonNull(path);
@@ -26,4 +43,14 @@ public final class NoOpProfiler implements Profiler {
   public void writeData(Writer writer) {
     Objects.requireNonNull(writer);
   }
+
+  @Override
+  public void writeFoldedStacks(Path path) {
+    Objects.requireNonNull(path);
+  }
+
+  @Override
+  public void writeFoldedStacks(Writer writer) {
+    Objects.requireNonNull(writer);
+  }
 }
@@ -1,8 +1,15 @@
 package com.udacity.webcrawler;
 
+import com.udacity.webcrawler.jfr.MergeEvent;
+import com.udacity.webcrawler.jfr.ScheduleEvent;
 import com.udacity.webcrawler.json.CrawlResult;
+import com.udacity.webcrawler.metrics.CrawlMetrics;
 import com.udacity.webcrawler.parser.PageParser;
 import com.udacity.webcrawler.parser.PageParserFactory;
+import com.udacity.webcrawler.profiler.CrawlTelemetry;
+import com.udacity.webcrawler.profiler.Probe;
+import com.udacity.webcrawler.profiler.Profiled;
+import com.udacity.webcrawler.profiler.Profiler;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -26,45 +33,80 @@ final class ParallelWebCrawler implements WebCrawler {
     private final Duration timeout;
     private final int popularWordCount;
     private final ForkJoinPool pool;
+    // Every worker thread the pool has started, so that the profiler can report their allocations.
+    private final Set<Thread> workers = ConcurrentHashMap.newKeySet();
     private final List<Pattern> ignoredUrls;
     private final int maxDepth;
     private final PageParserFactory parserFactory;
+    private final CrawlOutputs outputs;
+    private final CrawlBudget budget;
+    private final Profiler profiler;
+    private final Probe sortProbe;
+    private final Probe computeProbe;
 
     @Inject
     ParallelWebCrawler(
             Clock clock,
-            PageParserFactory pageParserFactory,
+            PageParserFactory parserFactory,
             @Timeout Duration timeout,
             @PopularWordCount int popularWordCount,
             @TargetParallelism int threadCount,
             @IgnoredUrls List<Pattern> ignoredUrls,
             @MaxDepth int maxDepth,
-            PageParserFactory parserFactory) {
+            CrawlOutputs outputs,
+            CrawlBudget budget,
+            Profiler profiler) {
 
         this.clock = clock;
         this.timeout = timeout;
         this.popularWordCount = popularWordCount;
-        this.pool = new ForkJoinPool(Math.min(threadCount, getMaxParallelism()));
+        this.pool = new ForkJoinPool(
+                Math.min(threadCount, getMaxParallelism()), this::newWorker, null, false);
         this.ignoredUrls = List.copyOf(ignoredUrls);
         this.maxDepth = maxDepth;
         this.parserFactory = parserFactory;
+        this.outputs = outputs;
+        this.budget = budget;
+        this.profiler = profiler;
+        this.sortProbe = profiler.probe(WordCounts.class, "sort");
+        this.computeProbe = profiler.probe(CrawlTask.class, "compute");
     }
 
     @Override
     public CrawlResult crawl(List<String> startingUrls) {
-        Instant deadline = clock.instant().plus(timeout);
-
-        ConcurrentMap<String, Integer> wordCounts = new ConcurrentHashMap<>();
-        ConcurrentSkipListSet<String> visitedUrls = new ConcurrentSkipListSet<>();
+        CrawlSession session =
+                CrawlSession.open(outputs, popularWordCount, new CrawlMetrics(pool));
+        CrawlContext context = new CrawlContext(
+                clock.instant().plus(timeout), List.copyOf(startingUrls), session,
+                budget.start(startingUrls.size()));
+
+        workers.removeIf(worker -> !worker.isAlive());
+        try (session; CrawlTelemetry ignoredTelemetry = profiler.startTelemetry(pool, workers)) {
+            for (int seed = 0; seed < startingUrls.size(); seed++) {
+                String url = startingUrls.get(seed);
+                session.scheduled(List.of(url), 0);
+                pool.invoke(new CrawlTask(url, maxDepth, seed, context));
+            }
+        }
 
-        startingUrls.forEach(url -> pool.invoke(new CrawlTask(url, deadline, maxDepth, wordCounts, visitedUrls)));
+        CrawlResult.Builder result = new CrawlResult.Builder()
+                .setWordCounts(sortWordCounts(context.wordCounts))
+                .setUrlsVisited(context.visitedUrls.size())
+                .setStoppedBy(context.budget.stoppedBy());
+        session.finish(pool, result);
+        return result.build();
+    }
 
-        Map<String, Integer> sortedWordCounts = WordCounts.sort(wordCounts, popularWordCount);
+    private ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        workers.add(worker);
+        return worker;
+    }
 
-        return new CrawlResult.Builder()
-                .setWordCounts(sortedWordCounts)
-                .setUrlsVisited(visitedUrls.size())
-                .build();
+    private Map<String, Integer> sortWordCounts(Map<String, Integer> counts) {
+        try (Probe.Call ignored = sortProbe.start()) {
+            return WordCounts.sort(counts, popularWordCount);
+        }
     }
 
     private static CrawlResult emptyResult() {
@@ -74,25 +116,54 @@ final class ParallelWebCrawler implements WebCrawler {
                 .build();
     }
 
+    /**
+     * State shared by every {@link CrawlTask} of a single crawl.
+     */
+    private static final class CrawlContext {
+        private final Instant deadline;
+        private final ConcurrentMap<String, Integer> wordCounts = new ConcurrentHashMap<>();
+        private final Set<String> visitedUrls = new ConcurrentSkipListSet<>();
+        // Indexed by seed, which is the index of the start page a URL was reached from.
+        private final List<String> startPages;
+        private final CrawlSession session;
+        private final CrawlBudget.Tracker budget;
+
+        CrawlContext(Instant deadline, List<String> startPages, CrawlSession session,
+                     CrawlBudget.Tracker budget) {
+            this.deadline = deadline;
+            this.startPages = startPages;
+            this.session = session;
+            this.budget = budget;
+        }
+    }
+
     private class CrawlTask extends RecursiveTask<Boolean> {
         private final String url;
-        private final Instant deadline;
         private final int depth;
-        private final ConcurrentMap<String, Integer> wordCounts;
-        private final Set<String> visitedUrls;
+        // The index of the start page this URL was reached from.
+        private final int seed;
+        private final CrawlContext context;
 
-        CrawlTask(String url, Instant deadline, int depth,
-                  ConcurrentMap<String, Integer> wordCounts, Set<String> visitedUrls) {
+        CrawlTask(String url, int depth, int seed, CrawlContext context) {
             this.url = url;
-            this.deadline = deadline;
             this.depth = depth;
-            this.wordCounts = wordCounts;
-            this.visitedUrls = visitedUrls;
+            this.seed = seed;
+            this.context = context;
         }
 
         @Override
+        @Profiled
         protected Boolean compute() {
-            if (depth == 0 || clock.instant().isAfter(deadline)) {
+            try (Probe.Call ignored = computeProbe.start()) {
+                return crawl();
+            }
+        }
+
+        private boolean crawl() {
+            CrawlSession session = context.session;
+            session.metrics().dequeued();
+            // A budget that ran out turns the page away below, once it is known to be a new page.
+            if (depth == 0 || clock.instant().isAfter(context.deadline)) {
                 return false;
             }
 
@@ -101,27 +172,60 @@ final class ParallelWebCrawler implements WebCrawler {
             }
 
             // Avoid revisiting URLs
-            if (!visitedUrls.add(url)) {
+            if (!context.visitedUrls.add(url)) {
                 return false;
             }
+            if (!context.budget.tryStartPage(url, seed)) {
+                // Over budget, so the page was never attempted.
+                context.visitedUrls.remove(url);
+                return false;
+            }
+            session.metrics().visited();
 
             PageParser.Result result;
+            session.started(url, maxDepth - depth);
             try{
-                result = parserFactory.get(url).parse();
+                result = parserFactory
+                        .get(url, maxDepth - depth, context.startPages.get(seed)).parse();
             }catch (Exception e){
+                session.failed(url, maxDepth - depth, e.getClass().getSimpleName());
                 return false;
             }
+            context.budget.addBytes(result.getByteCount());
+
+            MergeEvent mergeEvent = new MergeEvent();
+            mergeEvent.begin();
+            result.getWordCounts().forEach((word, count) -> context.wordCounts.merge(word, count, Integer::sum));
+            mergeEvent.finish(url, maxDepth - depth, result.getByteCount());
+
+            session.parsed(url, maxDepth - depth, result);
+
+            if (context.budget.isExhausted()) {
+                // Do not fork a subtree that would only be turned away, but tell whether one of
+                // the links would have been new.
+                if (depth > 1 && result.getLinks().stream().anyMatch(this::isNew)) {
+                    context.budget.turnedAway();
+                }
+                return true;
+            }
 
-            result.getWordCounts().forEach((word, count) -> wordCounts.merge(word, count, Integer::sum));
-
+            ScheduleEvent scheduleEvent = new ScheduleEvent();
+            scheduleEvent.begin();
             List<CrawlTask> subtasks = result.getLinks().stream()
-                    .map(link -> new CrawlTask(link, deadline, depth - 1, wordCounts, visitedUrls))
+                    .map(link -> new CrawlTask(link, depth - 1, seed, context))
                     .toList();
+            scheduleEvent.finish(url, maxDepth - depth, result.getByteCount());
 
+            session.scheduled(result.getLinks(), maxDepth - depth + 1);
             invokeAll(subtasks);
 
             return true;
         }
+
+        private boolean isNew(String link) {
+            return !context.visitedUrls.contains(link)
+                    && ignoredUrls.stream().noneMatch(pattern -> pattern.matcher(link).matches());
+        }
     }
 
     @Override
@@ -1,8 +1,13 @@
 package com.udacity.webcrawler;
 
+import com.udacity.webcrawler.jfr.MergeEvent;
 import com.udacity.webcrawler.json.CrawlResult;
+import com.udacity.webcrawler.metrics.CrawlMetrics;
 import com.udacity.webcrawler.parser.PageParser;
 import com.udacity.webcrawler.parser.PageParserFactory;
+import com.udacity.webcrawler.profiler.CrawlTelemetry;
+import com.udacity.webcrawler.profiler.Probe;
+import com.udacity.webcrawler.profiler.Profiler;
 
 import javax.inject.Inject;
 import java.time.Clock;
@@ -26,6 +31,10 @@ final class SequentialWebCrawler implements WebCrawler {
     private final int popularWordCount;
     private final int maxDepth;
     private final List<Pattern> ignoredUrls;
+    private final CrawlOutputs outputs;
+    private final CrawlBudget budget;
+    private final Profiler profiler;
+    private final Probe sortProbe;
 
     @Inject
     SequentialWebCrawler(
@@ -34,7 +43,10 @@ final class SequentialWebCrawler implements WebCrawler {
             @Timeout Duration timeout,
             @PopularWordCount int popularWordCount,
             @MaxDepth int maxDepth,
-            @IgnoredUrls List<Pattern> ignoredUrls) {
+            @IgnoredUrls List<Pattern> ignoredUrls,
+            CrawlOutputs outputs,
+            CrawlBudget budget,
+            Profiler profiler) {
 
         this.clock = clock;
         this.parserFactory = parserFactory;
@@ -42,34 +54,48 @@ final class SequentialWebCrawler implements WebCrawler {
         this.popularWordCount = popularWordCount;
         this.maxDepth = maxDepth;
         this.ignoredUrls = List.copyOf(ignoredUrls); // Defensive copy for immutability
+        this.outputs = outputs;
+        this.budget = budget;
+        this.profiler = profiler;
+        this.sortProbe = profiler.probe(WordCounts.class, "sort");
     }
 
     @Override
     public CrawlResult crawl(List<String> startingUrls) {
-        Instant deadline = clock.instant().plus(timeout);
-        Map<String, Integer> counts = new HashMap<>();
-        Set<String> visitedUrls = new HashSet<>();
-
-        for (String url : startingUrls) {
-            crawlInternal(url, deadline, maxDepth, counts, visitedUrls);
+        CrawlSession session = CrawlSession.open(outputs, popularWordCount, new CrawlMetrics());
+        CrawlContext context = new CrawlContext(
+                clock.instant().plus(timeout), List.copyOf(startingUrls), session,
+                budget.start(startingUrls.size()));
+
+        try (session;
+             CrawlTelemetry ignoredTelemetry =
+                     profiler.startTelemetry(null, List.of(Thread.currentThread()))) {
+            for (int seed = 0; seed < startingUrls.size(); seed++) {
+                String url = startingUrls.get(seed);
+                session.scheduled(List.of(url), 0);
+                crawlInternal(url, maxDepth, seed, context);
+            }
         }
 
-        Map<String, Integer> sortedCounts = WordCounts.sort(counts, popularWordCount);
-
-        return new CrawlResult.Builder()
-                .setWordCounts(sortedCounts)
-                .setUrlsVisited(visitedUrls.size())
-                .build();
+        CrawlResult.Builder result = new CrawlResult.Builder()
+                .setWordCounts(sortWordCounts(context.counts))
+                .setUrlsVisited(context.visitedUrls.size())
+                .setStoppedBy(context.budget.stoppedBy());
+        session.finish(null, result);
+        return result.build();
     }
 
-    private void crawlInternal(
-            String url,
-            Instant deadline,
-            int maxDepth,
-            Map<String, Integer> counts,
-            Set<String> visitedUrls) {
+    private Map<String, Integer> sortWordCounts(Map<String, Integer> counts) {
+        try (Probe.Call ignored = sortProbe.start()) {
+            return WordCounts.sort(counts, popularWordCount);
+        }
+    }
 
-        if (maxDepth == 0 || clock.instant().isAfter(deadline)) {
+    private void crawlInternal(String url, int depth, int seed, CrawlContext context) {
+        CrawlSession session = context.session;
+        session.metrics().dequeued();
+        // A budget that ran out turns the page away below, once it is known to be a new page.
+        if (depth == 0 || clock.instant().isAfter(context.deadline)) {
             return;
         }
 
@@ -77,17 +103,70 @@ final class SequentialWebCrawler implements WebCrawler {
             return;
         }
 
-        if (!visitedUrls.add(url)) {
+        if (!context.visitedUrls.add(url)) {
             return; // Already visited
         }
+        if (!context.budget.tryStartPage(url, seed)) {
+            context.visitedUrls.remove(url); // Over budget, so never attempted
+            return;
+        }
+        session.metrics().visited();
+
+        PageParser.Result result;
+        session.started(url, maxDepth - depth);
+        try {
+            result = parserFactory.get(url, maxDepth - depth, context.startPages.get(seed))
+                    .parse();
+        } catch (RuntimeException e) {
+            session.failed(url, maxDepth - depth, e.getClass().getSimpleName());
+            throw e;
+        }
+        context.budget.addBytes(result.getByteCount());
 
-        PageParser.Result result = parserFactory.get(url).parse();
-
+        MergeEvent mergeEvent = new MergeEvent();
+        mergeEvent.begin();
         result.getWordCounts()
-                .forEach((word, count) -> counts.merge(word, count, Integer::sum));
+                .forEach((word, count) -> context.counts.merge(word, count, Integer::sum));
+        mergeEvent.finish(url, maxDepth - depth, result.getByteCount());
 
+        session.parsed(url, maxDepth - depth, result);
+
+        if (context.budget.isExhausted()) {
+            // Stop instead of turning every link away, but tell whether one would have been new.
+            if (depth > 1 && result.getLinks().stream().anyMatch(link -> isNew(link, context))) {
+                context.budget.turnedAway();
+            }
+            return;
+        }
+        session.scheduled(result.getLinks(), maxDepth - depth + 1);
         for (String link : result.getLinks()) {
-            crawlInternal(link, deadline, maxDepth - 1, counts, visitedUrls);
+            crawlInternal(link, depth - 1, seed, context);
+        }
+    }
+
+    private boolean isNew(String url, CrawlContext context) {
+        return !context.visitedUrls.contains(url)
+                && ignoredUrls.stream().noneMatch(pattern -> pattern.matcher(url).matches());
+    }
+
+    /**
+     * State shared by every step of a single crawl.
+     */
+    private static final class CrawlContext {
+        private final Instant deadline;
+        private final Map<String, Integer> counts = new HashMap<>();
+        private final Set<String> visitedUrls = new HashSet<>();
+        // Indexed by seed, which is the index of the start page a URL was reached from.
+        private final List<String> startPages;
+        private final CrawlSession session;
+        private final CrawlBudget.Tracker budget;
+
+        CrawlContext(Instant deadline, List<String> startPages, CrawlSession session,
+                     CrawlBudget.Tracker budget) {
+            this.deadline = deadline;
+            this.startPages = startPages;
+            this.session = session;
+            this.budget = budget;
         }
     }
 }
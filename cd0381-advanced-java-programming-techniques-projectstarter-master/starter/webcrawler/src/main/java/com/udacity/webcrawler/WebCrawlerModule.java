@@ -1,31 +1,102 @@
 package com.udacity.webcrawler;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Key;
 import com.google.inject.Provides;
-import com.google.inject.binder.ScopedBindingBuilder;
+import com.google.inject.ProvisionException;
+import com.google.inject.TypeLiteral;
 import com.udacity.webcrawler.json.CrawlerConfiguration;
-import com.udacity.webcrawler.parser.PageParser;
-import com.udacity.webcrawler.parser.PageParserFactory;
+import com.udacity.webcrawler.parser.ParserModule;
 import com.udacity.webcrawler.profiler.Profiler;
 
+import javax.inject.Provider;
 import javax.inject.Singleton;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Pattern;
 
 
 /**
  * Guice module that sets up dependency injection for the WebCrawler.
+ *
+ * <p>The {@link Profiler} is not bound here, so that the caller can install either the real
+ * profiler or a no-op one next to this module.
  */
 public final class WebCrawlerModule extends AbstractModule {
 
-    private PageParserFactory PageParserFactory;
+    private final CrawlerConfiguration config;
 
     public WebCrawlerModule(CrawlerConfiguration config) {
+        this.config = config;
     }
 
     @Override
     protected void configure() {
-        // Bind PageParser to use PageParserProvider
-        ScopedBindingBuilder provider = bind(PageParser.class);
-        // Bind Profiler class so it can be injected
-        bind(Profiler.class).asEagerSingleton();
+        bind(Clock.class).toInstance(Clock.systemUTC());
+        bind(Key.get(Duration.class, Timeout.class)).toInstance(config.getTimeout());
+        bind(Key.get(Integer.class, MaxDepth.class)).toInstance(config.getMaxDepth());
+        bind(Key.get(Integer.class, PopularWordCount.class))
+                .toInstance(config.getPopularWordCount());
+        bind(Key.get(new TypeLiteral<List<Pattern>>() {}, IgnoredUrls.class))
+                .toInstance(config.getIgnoredUrls());
+
+        install(new ParserModule.Builder()
+                .setTimeout(config.getTimeout())
+                .setIgnoredWords(config.getIgnoredWords())
+                .setWarcRecordPath(config.getWarcRecordPath())
+                .setWarcReplayPath(config.getWarcReplayPath())
+                .setStreamingParser(config.isStreamingParser())
+                .setLocalCorpusPath(config.getLocalCorpusPath())
+                .build());
+    }
+
+    @Provides
+    @Singleton
+    WebCrawler provideWebCrawler(
+            Provider<SequentialWebCrawler> sequential,
+            Provider<ParallelWebCrawler> parallel,
+            @TargetParallelism int targetParallelism,
+            Profiler profiler) {
+        WebCrawler crawler;
+        String override = config.getImplementationOverride();
+        if (override.equals(SequentialWebCrawler.class.getName())) {
+            crawler = sequential.get();
+        } else if (override.equals(ParallelWebCrawler.class.getName())) {
+            crawler = parallel.get();
+        } else if (!override.isEmpty()) {
+            throw new ProvisionException("Implementation not found: " + override);
+        } else {
+            crawler = targetParallelism > 1 ? parallel.get() : sequential.get();
+        }
+        return profiler.wrap(WebCrawler.class, crawler);
+    }
+
+    @Provides
+    @TargetParallelism
+    int provideTargetParallelism() {
+        if (config.getParallelism() > 0) {
+            return config.getParallelism();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    @Provides
+    CrawlOutputs provideCrawlOutputs() {
+        return new CrawlOutputs.Builder()
+                .setLinkGraphPath(config.getLinkGraphPath())
+                .setTopPageCount(config.getTopPageCount())
+                .setIndexPath(config.getIndexPath())
+                .setPageResultsPath(config.getPageResultsPath())
+                .setMetricsPort(config.getMetricsPort())
+                .setFlightRecordingPath(config.getFlightRecordingPath())
+                .setTraceLogPath(config.getTraceLogPath())
+                .build();
+    }
+
+    @Provides
+    CrawlBudget provideCrawlBudget() {
+        return new CrawlBudget(config.getMaxPages(), config.getMaxBytes(),
+                config.getMaxPagesPerHost(), config.getMaxPagesPerSeed());
     }
-    }
\ No newline at end of file
+}
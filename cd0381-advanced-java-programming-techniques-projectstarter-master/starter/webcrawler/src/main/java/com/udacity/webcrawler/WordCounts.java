@@ -1,5 +1,7 @@
 package com.udacity.webcrawler;
 
+import com.udacity.webcrawler.profiler.Profiled;
+
 import java.util.Comparator;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -10,15 +12,20 @@ import java.util.stream.Collectors;
 final class WordCounts {
 
     /**
-     * Sorts the given word counts by popularity.
+     * Sorts the given word counts by popularity. Ties are broken as documented by
+     * {@link com.udacity.webcrawler.json.CrawlResult#getWordCounts()}: longer words first, then
+     * alphabetically.
      *
      * @param counts           The map of word counts.
      * @param popularWordCount The number of top popular words to return.
      * @return A new map with the popular words and their counts.
      */
+    @Profiled
     public static Map<String, Integer> sort(Map<String, Integer> counts, int popularWordCount) {
         return counts.entrySet().stream()
-                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(entry -> entry.getKey().length(), Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
                 .limit(popularWordCount)
                 .collect(Collectors.toMap(
                         Map.Entry::getKey,
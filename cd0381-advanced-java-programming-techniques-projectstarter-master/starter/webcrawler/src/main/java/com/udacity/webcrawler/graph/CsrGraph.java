@@ -0,0 +1,136 @@
+package com.udacity.webcrawler.graph;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An immutable directed link graph in compressed sparse row (CSR) form.
+ *
+ * <p>Nodes are numbered {@code 0..nodeCount()-1}. The out-links of node {@code v} are stored in
+ * {@code targets[offsets[v]]} through {@code targets[offsets[v + 1] - 1]}, sorted ascending and
+ * without duplicates.
+ */
+public final class CsrGraph {
+
+    private final String[] urls;
+    private final int[] offsets;
+    private final int[] targets;
+
+    CsrGraph(String[] urls, int[] offsets, int[] targets) {
+        this.urls = Objects.requireNonNull(urls);
+        this.offsets = Objects.requireNonNull(offsets);
+        this.targets = Objects.requireNonNull(targets);
+        if (offsets.length != urls.length + 1) {
+            throw new IllegalArgumentException("offsets must have nodeCount + 1 entries");
+        }
+    }
+
+    /**
+     * Builds a graph from parallel arrays of edge endpoints.
+     *
+     * @param urls    the URL of each node, indexed by node ID.
+     * @param sources the source node of each edge.
+     * @param dests   the destination node of each edge.
+     * @param edges   the number of valid entries in {@code sources} and {@code dests}.
+     */
+    static CsrGraph fromEdges(String[] urls, int[] sources, int[] dests, int edges) {
+        int n = urls.length;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < edges; i++) {
+            offsets[sources[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] cursor = Arrays.copyOf(offsets, n);
+        int[] targets = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            targets[cursor[sources[i]]++] = dests[i];
+        }
+
+        // Sort and de-duplicate each row in place, compacting the target array as we go.
+        int write = 0;
+        int rowStart = 0;
+        for (int v = 0; v < n; v++) {
+            int rowEnd = offsets[v + 1];
+            Arrays.sort(targets, rowStart, rowEnd);
+            offsets[v] = write;
+            for (int i = rowStart; i < rowEnd; i++) {
+                if (i == rowStart || targets[i] != targets[i - 1]) {
+                    targets[write++] = targets[i];
+                }
+            }
+            rowStart = rowEnd;
+        }
+        offsets[n] = write;
+        return new CsrGraph(urls, offsets, Arrays.copyOf(targets, write));
+    }
+
+    /**
+     * Returns the number of nodes (distinct URLs) in the graph.
+     */
+    public int nodeCount() {
+        return urls.length;
+    }
+
+    /**
+     * Returns the number of distinct edges in the graph.
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the URL of the given node.
+     */
+    public String url(int node) {
+        return urls[node];
+    }
+
+    /**
+     * Returns the number of distinct out-links of the given node.
+     */
+    public int outDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /**
+     * Returns the index into {@link #target(int)} of the first out-link of the given node.
+     */
+    public int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * Returns the destination node of the edge at the given index.
+     */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Returns a new graph with every edge reversed, so that rows list in-links instead of
+     * out-links.
+     */
+    public CsrGraph transpose() {
+        int n = urls.length;
+        int[] sources = new int[targets.length];
+        for (int v = 0; v < n; v++) {
+            Arrays.fill(sources, offsets[v], offsets[v + 1], v);
+        }
+        return fromEdges(urls, targets, sources, targets.length);
+    }
+
+    int[] offsets() {
+        return offsets;
+    }
+
+    int[] targets() {
+        return targets;
+    }
+
+    String[] urls() {
+        return urls;
+    }
+}
@@ -0,0 +1,114 @@
+package com.udacity.webcrawler.graph;
+
+import com.udacity.webcrawler.io.VarInts;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads a {@link CsrGraph} from a file written by {@link CsrGraphWriter}.
+ *
+ * <p>The file is memory-mapped rather than read through a stream, so decoding runs straight over
+ * the page cache without an intermediate copy.
+ */
+public final class CsrGraphReader {
+
+    private CsrGraphReader() {
+    }
+
+    /**
+     * Reads the graph stored at the given {@link Path}.
+     *
+     * @throws IOException if the file cannot be read or is not a CSR graph file.
+     */
+    public static CsrGraph read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Decodes a graph from the given buffer, starting at its current position.
+     *
+     * @throws IOException if the buffer does not contain a CSR graph.
+     */
+    public static CsrGraph read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 5 || buffer.getInt() != CsrGraphWriter.MAGIC) {
+            throw new IOException("not a CSR graph file");
+        }
+        byte version = buffer.get();
+        if (version != CsrGraphWriter.VERSION) {
+            throw new IOException("unsupported CSR graph version: " + version);
+        }
+
+        // Every node takes at least two bytes (its degree and its URL length) and every edge at
+        // least one, so the counts can be checked before anything is allocated for them.
+        int nodeCount = readCount(buffer, "node count");
+        int edgeCount = readCount(buffer, "edge count");
+        if (nodeCount > buffer.remaining() / 2 || edgeCount > buffer.remaining()) {
+            throw new IOException("truncated CSR graph: " + nodeCount + " nodes and " + edgeCount
+                    + " edges in " + buffer.remaining() + " bytes");
+        }
+        int[] offsets = new int[nodeCount + 1];
+        int[] targets = new int[edgeCount];
+        int edge = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            int degree = readCount(buffer, "out-degree");
+            if (degree > edgeCount - edge) {
+                throw new IOException("node " + v + " has more edges than the graph");
+            }
+            int previous = 0;
+            for (int i = 0; i < degree; i++) {
+                int gap = readCount(buffer, "link");
+                if (gap >= nodeCount - previous) {
+                    throw new IOException("node " + v + " links to a node that does not exist");
+                }
+                previous += gap;
+                targets[edge++] = previous;
+            }
+            offsets[v + 1] = edge;
+        }
+        if (edge != edgeCount) {
+            throw new IOException("expected " + edgeCount + " edges but found " + edge);
+        }
+
+        String[] urls = new String[nodeCount];
+        byte[] scratch = new byte[256];
+        for (int v = 0; v < nodeCount; v++) {
+            int length = readCount(buffer, "URL length");
+            if (length > buffer.remaining()) {
+                throw new IOException("truncated URL of node " + v);
+            }
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            urls[v] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+        return new CsrGraph(urls, offsets, targets);
+    }
+
+    /**
+     * Reads a non-negative varint, reporting a truncated or malformed one as an
+     * {@link IOException} that names the field being read.
+     */
+    private static int readCount(ByteBuffer buffer, String field) throws IOException {
+        int value;
+        try {
+            value = VarInts.read(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("truncated CSR graph: file ends inside a " + field, e);
+        } catch (IllegalStateException e) {
+            throw new IOException("malformed " + field + " in CSR graph", e);
+        }
+        if (value < 0) {
+            throw new IOException("negative " + field + " in CSR graph: " + value);
+        }
+        return value;
+    }
+}
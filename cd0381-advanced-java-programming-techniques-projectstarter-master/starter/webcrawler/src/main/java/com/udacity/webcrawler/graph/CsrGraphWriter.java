@@ -0,0 +1,73 @@
+package com.udacity.webcrawler.graph;
+
+import com.udacity.webcrawler.io.VarInts;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Writes a {@link CsrGraph} to a compact binary file that can be loaded by {@link CsrGraphReader}.
+ *
+ * <p>File layout, after a 4-byte magic number and a 1-byte version:
+ * <ol>
+ *   <li>node count and edge count, as varints;</li>
+ *   <li>for each node, its out-degree followed by its sorted out-links, each stored as the varint
+ *       gap from the previous link (the first link is stored as-is);</li>
+ *   <li>for each node, the UTF-8 length of its URL as a varint, followed by the URL bytes.</li>
+ * </ol>
+ */
+public final class CsrGraphWriter {
+
+    static final int MAGIC = 0x43535247; // "CSRG"
+    static final byte VERSION = 1;
+
+    private final CsrGraph graph;
+
+    public CsrGraphWriter(CsrGraph graph) {
+        this.graph = Objects.requireNonNull(graph);
+    }
+
+    /**
+     * Writes the graph to the given {@link Path}, replacing any existing file.
+     */
+    public void write(Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Writes the graph to the given {@link OutputStream}. The stream is flushed but not closed.
+     */
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        VarInts.write(out, graph.nodeCount());
+        VarInts.write(out, graph.edgeCount());
+
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        for (int v = 0; v < graph.nodeCount(); v++) {
+            VarInts.write(out, offsets[v + 1] - offsets[v]);
+            int previous = 0;
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                VarInts.write(out, targets[i] - previous);
+                previous = targets[i];
+            }
+        }
+
+        for (String url : graph.urls()) {
+            byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+            VarInts.write(out, bytes.length);
+            out.write(bytes);
+        }
+        out.flush();
+    }
+}
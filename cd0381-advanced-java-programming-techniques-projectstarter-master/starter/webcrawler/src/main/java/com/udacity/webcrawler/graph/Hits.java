@@ -0,0 +1,132 @@
+package com.udacity.webcrawler.graph;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Computes Kleinberg's HITS hub and authority scores for a {@link CsrGraph} using parallel power
+ * iteration over primitive {@code double} arrays.
+ *
+ * <p>A page's authority score is the sum of the hub scores of the pages linking to it, and its hub
+ * score is the sum of the authority scores of the pages it links to. Both vectors are normalized to
+ * unit length after every step.
+ */
+public final class Hits {
+
+    private final double tolerance;
+    private final int maxIterations;
+
+    /**
+     * Creates a HITS engine.
+     *
+     * @param tolerance     iteration stops once the L1 change of both score vectors drops below
+     *                      this value.
+     * @param maxIterations an upper bound on the number of iterations.
+     */
+    public Hits(double tolerance, int maxIterations) {
+        if (tolerance <= 0) {
+            throw new IllegalArgumentException("tolerance must be positive");
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("maxIterations must be positive");
+        }
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    public Hits() {
+        this(1e-9, 100);
+    }
+
+    /**
+     * The hub and authority scores of every node, indexed by node ID.
+     */
+    public static final class Scores {
+        private final double[] hubs;
+        private final double[] authorities;
+
+        private Scores(double[] hubs, double[] authorities) {
+            this.hubs = hubs;
+            this.authorities = authorities;
+        }
+
+        public double[] getHubs() {
+            return hubs;
+        }
+
+        public double[] getAuthorities() {
+            return authorities;
+        }
+    }
+
+    /**
+     * Computes scores on the common {@link ForkJoinPool}. See {@link #compute(CsrGraph, ForkJoinPool)}.
+     */
+    public Scores compute(CsrGraph graph) {
+        return compute(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes HITS scores on the given pool.
+     */
+    public Scores compute(CsrGraph graph, ForkJoinPool pool) {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(pool);
+        int n = graph.nodeCount();
+        CsrGraph inLinks = graph.transpose();
+        double[] hubs = new double[n];
+        double[] authorities = new double[n];
+        double[] nextHubs = new double[n];
+        double[] nextAuthorities = new double[n];
+        Arrays.fill(hubs, n == 0 ? 0 : 1 / Math.sqrt(n));
+        Arrays.fill(authorities, n == 0 ? 0 : 1 / Math.sqrt(n));
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            step(inLinks, hubs, nextAuthorities, pool);
+            step(graph, nextAuthorities, nextHubs, pool);
+            double delta = distance(authorities, nextAuthorities, pool) + distance(hubs, nextHubs, pool);
+
+            double[] swap = authorities;
+            authorities = nextAuthorities;
+            nextAuthorities = swap;
+            swap = hubs;
+            hubs = nextHubs;
+            nextHubs = swap;
+            if (delta < tolerance) {
+                break;
+            }
+        }
+        return new Scores(hubs, authorities);
+    }
+
+    /**
+     * Sets {@code out[v]} to the sum of {@code in[u]} over every edge {@code v -> u} in the given
+     * graph, then normalizes {@code out} to unit length.
+     */
+    private static void step(CsrGraph graph, double[] in, double[] out, ForkJoinPool pool) {
+        int n = graph.nodeCount();
+        double squares = pool.submit(() -> IntStream.range(0, n).parallel()
+                .mapToDouble(v -> {
+                    double sum = 0;
+                    int end = graph.firstEdge(v) + graph.outDegree(v);
+                    for (int e = graph.firstEdge(v); e < end; e++) {
+                        sum += in[graph.target(e)];
+                    }
+                    out[v] = sum;
+                    return sum * sum;
+                })
+                .sum()).join();
+        double norm = Math.sqrt(squares);
+        if (norm > 0) {
+            pool.submit(() -> IntStream.range(0, n).parallel().forEach(v -> out[v] /= norm)).join();
+        }
+    }
+
+    private static double distance(double[] a, double[] b, ForkJoinPool pool) {
+        return pool.submit(() -> IntStream.range(0, a.length).parallel()
+                .mapToDouble(v -> Math.abs(a[v] - b[v]))
+                .sum()).join();
+    }
+}
@@ -0,0 +1,86 @@
+package com.udacity.webcrawler.graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the hyperlinks discovered during a crawl so they can be turned into a {@link CsrGraph}.
+ *
+ * <p>Recording is safe to call from many crawler threads at once. URLs are interned through a
+ * shared {@link UrlInterner}, but edges are appended to a buffer that only the calling thread
+ * writes to, so workers never contend on the edge list itself. The buffers are held by the
+ * recorder rather than in thread-locals, so that they are not left attached to pool threads that
+ * outlive the crawl.
+ *
+ * <p>A recorder is meant to be used for a single crawl: create it before the crawl starts, and call
+ * {@link #build()} once all workers have finished.
+ */
+public final class LinkGraphRecorder {
+
+    private final UrlInterner interner = new UrlInterner();
+    private final Map<Thread, EdgeBuffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * Records that the page at {@code url} was crawled and links to each of the given URLs.
+     */
+    public void record(String url, List<String> links) {
+        int source = interner.intern(url);
+        if (links.isEmpty()) {
+            return;
+        }
+        EdgeBuffer buffer = buffers.computeIfAbsent(Thread.currentThread(), t -> new EdgeBuffer());
+        for (String link : links) {
+            buffer.add(source, interner.intern(link));
+        }
+    }
+
+    /**
+     * Returns the {@link UrlInterner} that assigns node IDs for this recorder.
+     */
+    public UrlInterner interner() {
+        return interner;
+    }
+
+    /**
+     * Merges the per-thread edge buffers into an immutable {@link CsrGraph}.
+     *
+     * <p>Must only be called after every call to {@link #record(String, List)} has completed (for
+     * example, after the crawl's {@code ForkJoinPool#invoke} has returned).
+     */
+    public CsrGraph build() {
+        int edges = 0;
+        for (EdgeBuffer buffer : buffers.values()) {
+            edges += buffer.size;
+        }
+        int[] sources = new int[edges];
+        int[] dests = new int[edges];
+        int position = 0;
+        for (EdgeBuffer buffer : buffers.values()) {
+            System.arraycopy(buffer.sources, 0, sources, position, buffer.size);
+            System.arraycopy(buffer.dests, 0, dests, position, buffer.size);
+            position += buffer.size;
+        }
+        return CsrGraph.fromEdges(interner.toArray(), sources, dests, edges);
+    }
+
+    /**
+     * A growable pair of primitive arrays, written by exactly one thread.
+     */
+    private static final class EdgeBuffer {
+        private int[] sources = new int[64];
+        private int[] dests = new int[64];
+        private int size;
+
+        void add(int source, int dest) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                dests = Arrays.copyOf(dests, size * 2);
+            }
+            sources[size] = source;
+            dests[size] = dest;
+            size++;
+        }
+    }
+}
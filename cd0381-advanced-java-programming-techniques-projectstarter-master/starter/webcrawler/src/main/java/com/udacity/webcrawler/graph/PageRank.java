@@ -0,0 +1,114 @@
+package com.udacity.webcrawler.graph;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Computes PageRank scores for every node of a {@link CsrGraph} using parallel power iteration.
+ *
+ * <p>Each iteration is a "pull" over the transposed graph: every node sums the contributions of
+ * its in-links, so worker threads only ever write to their own slots of the output array and no
+ * synchronization is needed. All state is kept in primitive {@code double} arrays.
+ *
+ * <p>Rank held by dangling nodes (pages without out-links, including pages that were discovered
+ * but never crawled) is spread evenly over all nodes, so the scores always sum to 1.
+ */
+public final class PageRank {
+
+    private final double damping;
+    private final double tolerance;
+    private final int maxIterations;
+
+    /**
+     * Creates a PageRank engine.
+     *
+     * @param damping       the probability of following a link rather than jumping to a random
+     *                      page; typically 0.85.
+     * @param tolerance     iteration stops once the L1 distance between successive score vectors
+     *                      drops below this value.
+     * @param maxIterations an upper bound on the number of iterations, in case the scores do not
+     *                      converge.
+     */
+    public PageRank(double damping, double tolerance, int maxIterations) {
+        if (damping < 0 || damping > 1) {
+            throw new IllegalArgumentException("damping must be in [0, 1]");
+        }
+        if (tolerance <= 0) {
+            throw new IllegalArgumentException("tolerance must be positive");
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("maxIterations must be positive");
+        }
+        this.damping = damping;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Creates a PageRank engine with the customary damping factor of 0.85.
+     */
+    public PageRank() {
+        this(0.85, 1e-9, 100);
+    }
+
+    /**
+     * Computes scores on the common {@link ForkJoinPool}. See {@link #compute(CsrGraph, ForkJoinPool)}.
+     */
+    public double[] compute(CsrGraph graph) {
+        return compute(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes PageRank scores on the given pool.
+     *
+     * @return an array where element {@code i} is the score of node {@code i}.
+     */
+    public double[] compute(CsrGraph graph, ForkJoinPool pool) {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(pool);
+        int n = graph.nodeCount();
+        if (n == 0) {
+            return new double[0];
+        }
+
+        CsrGraph inLinks = graph.transpose();
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        double[] contribution = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double[] current = rank;
+            double[] updated = next;
+            double dangling = pool.submit(() -> IntStream.range(0, n).parallel()
+                    .mapToDouble(v -> {
+                        int degree = graph.outDegree(v);
+                        contribution[v] = degree == 0 ? 0 : current[v] / degree;
+                        return degree == 0 ? current[v] : 0;
+                    })
+                    .sum()).join();
+
+            double base = (1 - damping) / n + damping * dangling / n;
+            double delta = pool.submit(() -> IntStream.range(0, n).parallel()
+                    .mapToDouble(v -> {
+                        double sum = 0;
+                        int end = inLinks.firstEdge(v) + inLinks.outDegree(v);
+                        for (int e = inLinks.firstEdge(v); e < end; e++) {
+                            sum += contribution[inLinks.target(e)];
+                        }
+                        updated[v] = base + damping * sum;
+                        return Math.abs(updated[v] - current[v]);
+                    })
+                    .sum()).join();
+
+            next = rank;
+            rank = updated;
+            if (delta < tolerance) {
+                break;
+            }
+        }
+        return rank;
+    }
+}
@@ -0,0 +1,50 @@
+package com.udacity.webcrawler.graph;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Provides a static method for selecting the highest-scoring pages of a {@link CsrGraph}.
+ */
+public final class TopPages {
+
+    private TopPages() {
+    }
+
+    /**
+     * Returns the {@code limit} nodes with the highest scores, as a map from URL to score.
+     *
+     * <p>The returned map iterates from the highest score to the lowest. Ties are broken by URL in
+     * alphabetical order, so the result is deterministic.
+     *
+     * @param graph  the graph the scores were computed for.
+     * @param scores the score of each node, indexed by node ID.
+     * @param limit  the maximum number of pages to return.
+     */
+    public static Map<String, Double> select(CsrGraph graph, double[] scores, int limit) {
+        if (scores.length != graph.nodeCount()) {
+            throw new IllegalArgumentException("one score is required per node");
+        }
+        Comparator<Integer> ranking = Comparator.<Integer>comparingDouble(v -> scores[v])
+                .reversed()
+                .thenComparing(graph::url);
+
+        // Keep a bounded min-heap of the best nodes seen so far rather than sorting every node.
+        PriorityQueue<Integer> best = new PriorityQueue<>(ranking.reversed());
+        IntStream.range(0, graph.nodeCount()).forEach(v -> {
+            best.add(v);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        });
+
+        Map<String, Double> top = new LinkedHashMap<>();
+        best.stream()
+                .sorted(ranking)
+                .forEach(v -> top.put(graph.url(v), scores[v]));
+        return top;
+    }
+}
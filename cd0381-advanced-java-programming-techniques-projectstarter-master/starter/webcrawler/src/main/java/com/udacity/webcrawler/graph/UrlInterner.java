@@ -0,0 +1,50 @@
+package com.udacity.webcrawler.graph;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread-safe table that assigns each distinct URL a dense integer ID, starting at zero.
+ *
+ * <p>IDs are handed out in first-seen order and never change, so they can be used directly as
+ * array indices by the graph and ranking code.
+ */
+public final class UrlInterner {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * Returns the ID of the given URL, assigning a new one if the URL has not been seen before.
+     */
+    public int intern(String url) {
+        // Most lookups are for URLs that already have an ID, so try the lock-free read first.
+        Integer id = ids.get(url);
+        if (id != null) {
+            return id;
+        }
+        return ids.computeIfAbsent(Objects.requireNonNull(url), u -> nextId.getAndIncrement());
+    }
+
+    /**
+     * Returns the number of URLs that have been assigned an ID.
+     */
+    public int size() {
+        return nextId.get();
+    }
+
+    /**
+     * Returns an array where element {@code i} is the URL with ID {@code i}.
+     *
+     * <p>This should only be called once all calls to {@link #intern(String)} have completed.
+     */
+    public String[] toArray() {
+        String[] urls = new String[ids.size()];
+        for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+            urls[entry.getValue()] = entry.getKey();
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,206 @@
+package com.udacity.webcrawler.index;
+
+import com.udacity.webcrawler.io.VarInts;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable inverted index from words to the crawled pages that contain them.
+ *
+ * <p>Each term maps to a posting list of {@code (document, term frequency)} pairs, stored in
+ * ascending document order as varint-encoded gaps. The posting lists live in a single
+ * {@link ByteBuffer}, which may be a memory-mapped file (see {@link InvertedIndexReader}), and are
+ * decoded lazily by each query.
+ */
+public final class InvertedIndex {
+
+    private final String[] documents;
+    private final String[] terms;
+    private final int[] documentFrequencies;
+    private final int[] offsets;
+    private final ByteBuffer postings;
+
+    InvertedIndex(
+            String[] documents,
+            String[] terms,
+            int[] documentFrequencies,
+            int[] offsets,
+            ByteBuffer postings) {
+        this.documents = Objects.requireNonNull(documents);
+        this.terms = Objects.requireNonNull(terms);
+        this.documentFrequencies = Objects.requireNonNull(documentFrequencies);
+        this.offsets = Objects.requireNonNull(offsets);
+        this.postings = Objects.requireNonNull(postings);
+        if (offsets.length != terms.length + 1 || documentFrequencies.length != terms.length) {
+            throw new IllegalArgumentException("term arrays have inconsistent lengths");
+        }
+    }
+
+    /**
+     * Returns the number of documents (crawled pages) in the index.
+     */
+    public int documentCount() {
+        return documents.length;
+    }
+
+    /**
+     * Returns the number of distinct terms in the index.
+     */
+    public int termCount() {
+        return terms.length;
+    }
+
+    /**
+     * Returns the number of pages that contain the given term.
+     */
+    public int documentFrequency(String term) {
+        int t = Arrays.binarySearch(terms, term);
+        return t < 0 ? 0 : documentFrequencies[t];
+    }
+
+    /**
+     * Returns the URLs of every page that contains the given term.
+     */
+    public List<String> search(String term) {
+        int t = Arrays.binarySearch(terms, term);
+        if (t < 0) {
+            return List.of();
+        }
+        int[] docs = new int[documentFrequencies[t]];
+        decode(t, docs, null);
+        return urls(docs, docs.length);
+    }
+
+    /**
+     * Returns the URLs of every page that contains all of the given terms.
+     */
+    public List<String> searchAll(String... terms) {
+        if (terms.length == 0) {
+            return List.of();
+        }
+        int[] termIndices = new int[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            termIndices[i] = Arrays.binarySearch(this.terms, terms[i]);
+            if (termIndices[i] < 0) {
+                return List.of();
+            }
+        }
+
+        // Start from the rarest term so the candidate set is as small as possible.
+        Integer[] order = new Integer[terms.length];
+        Arrays.setAll(order, i -> termIndices[i]);
+        Arrays.sort(order, Comparator.comparingInt(t -> documentFrequencies[t]));
+
+        int[] candidates = new int[documentFrequencies[order[0]]];
+        decode(order[0], candidates, null);
+        int count = candidates.length;
+        for (int i = 1; i < order.length && count > 0; i++) {
+            int[] docs = new int[documentFrequencies[order[i]]];
+            decode(order[i], docs, null);
+            count = intersect(candidates, count, docs);
+        }
+        return urls(candidates, count);
+    }
+
+    /**
+     * Returns up to {@code k} pages containing the given term, as a map from URL to the number of
+     * times the term appears on that page. The map iterates from the highest frequency to the
+     * lowest, with ties broken by URL.
+     */
+    public Map<String, Integer> topByFrequency(String term, int k) {
+        int t = Arrays.binarySearch(terms, term);
+        if (t < 0) {
+            return Map.of();
+        }
+        int[] docs = new int[documentFrequencies[t]];
+        int[] frequencies = new int[docs.length];
+        decode(t, docs, frequencies);
+
+        Integer[] order = new Integer[docs.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> frequencies[i])
+                .reversed()
+                .thenComparing(i -> documents[docs[i]]));
+
+        Map<String, Integer> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(k, order.length); i++) {
+            top.put(documents[docs[order[i]]], frequencies[order[i]]);
+        }
+        return top;
+    }
+
+    /**
+     * Decodes the posting list of the term at index {@code t}.
+     *
+     * @param docs        receives the document IDs, in ascending order.
+     * @param frequencies receives the term frequencies, or {@code null} if they are not needed.
+     */
+    private void decode(int t, int[] docs, int[] frequencies) {
+        ByteBuffer buffer = postings.duplicate();
+        buffer.position(offsets[t]);
+        int docId = 0;
+        for (int i = 0; i < docs.length; i++) {
+            docId += VarInts.read(buffer);
+            docs[i] = docId;
+            int frequency = VarInts.read(buffer);
+            if (frequencies != null) {
+                frequencies[i] = frequency;
+            }
+        }
+    }
+
+    /**
+     * Keeps only the first {@code count} elements of {@code candidates} that also appear in
+     * {@code docs}, compacting them to the front. Both arrays must be sorted.
+     *
+     * @return the number of remaining candidates.
+     */
+    private static int intersect(int[] candidates, int count, int[] docs) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < docs.length; i++) {
+            while (j < docs.length && docs[j] < candidates[i]) {
+                j++;
+            }
+            if (j < docs.length && docs[j] == candidates[i]) {
+                candidates[kept++] = candidates[i];
+            }
+        }
+        return kept;
+    }
+
+    private List<String> urls(int[] docs, int count) {
+        List<String> urls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            urls.add(documents[docs[i]]);
+        }
+        return urls;
+    }
+
+    String[] documents() {
+        return documents;
+    }
+
+    String[] terms() {
+        return terms;
+    }
+
+    int[] documentFrequencies() {
+        return documentFrequencies;
+    }
+
+    int[] offsets() {
+        return offsets;
+    }
+
+    ByteBuffer postings() {
+        return postings.duplicate();
+    }
+}
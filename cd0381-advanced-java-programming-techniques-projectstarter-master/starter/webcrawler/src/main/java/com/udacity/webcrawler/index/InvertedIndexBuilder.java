@@ -0,0 +1,147 @@
+package com.udacity.webcrawler.index;
+
+import com.udacity.webcrawler.graph.UrlInterner;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Builds an {@link InvertedIndex} from the pages parsed during a crawl.
+ *
+ * <p>Pages are added concurrently by crawler threads. Each thread accumulates postings in its own
+ * {@link Segment.Builder}, so adding a page never takes a shared lock beyond assigning the page a
+ * document ID. Once a thread's builder holds {@code segmentSize} postings, it is sealed into a
+ * compressed, term-sorted {@link Segment}, which bounds the amount of uncompressed data held per
+ * thread. {@link #build()} merges all segments into the final index. The builders are held by the
+ * index builder rather than in thread-locals, so that they are not left attached to pool threads
+ * that outlive the crawl.
+ *
+ * <p>A builder is meant to be used for a single crawl.
+ */
+public final class InvertedIndexBuilder {
+
+    private static final int DEFAULT_SEGMENT_SIZE = 1 << 16;
+
+    private final int segmentSize;
+    private final UrlInterner documents = new UrlInterner();
+    private final Queue<Segment> sealed = new ConcurrentLinkedQueue<>();
+    private final Map<Thread, Segment.Builder> builders = new ConcurrentHashMap<>();
+
+    public InvertedIndexBuilder() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a builder that seals a thread's postings into a segment every {@code segmentSize}
+     * postings.
+     */
+    public InvertedIndexBuilder(int segmentSize) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("segmentSize must be positive");
+        }
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Adds a crawled page to the index.
+     *
+     * @param url        the URL of the page; it becomes the page's document.
+     * @param wordCounts how many times each word appears on the page, as returned by
+     *                   {@code PageParser.Result#getWordCounts()}.
+     */
+    public void add(String url, Map<String, Integer> wordCounts) {
+        int docId = documents.intern(url);
+        if (wordCounts.isEmpty()) {
+            return;
+        }
+        Segment.Builder builder =
+                builders.computeIfAbsent(Thread.currentThread(), t -> new Segment.Builder());
+        builder.add(docId, wordCounts);
+        if (builder.postingCount() >= segmentSize) {
+            sealed.add(builder.seal());
+        }
+    }
+
+    /**
+     * Merges every segment into an immutable {@link InvertedIndex}.
+     *
+     * <p>Must only be called after every call to {@link #add(String, Map)} has completed.
+     */
+    public InvertedIndex build() {
+        List<Segment> segments = new ArrayList<>(sealed);
+        for (Segment.Builder builder : builders.values()) {
+            if (!builder.isEmpty()) {
+                segments.add(builder.seal());
+            }
+        }
+
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(Comparator.comparing(Cursor::term));
+        for (Segment segment : segments) {
+            if (segment.terms.length > 0) {
+                queue.add(new Cursor(segment));
+            }
+        }
+
+        List<String> terms = new ArrayList<>();
+        List<Integer> frequencies = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+        ByteArrayOutputStream blob = new ByteArrayOutputStream();
+        PostingBuffer merged = new PostingBuffer();
+        while (!queue.isEmpty()) {
+            String term = queue.peek().term();
+            merged.clear();
+            while (!queue.isEmpty() && queue.peek().term().equals(term)) {
+                Cursor cursor = queue.poll();
+                merged.addEncoded(ByteBuffer.wrap(cursor.postings()));
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            terms.add(term);
+            frequencies.add(merged.size());
+            offsets.add(blob.size());
+            blob.writeBytes(merged.encode());
+        }
+
+        offsets.add(blob.size());
+
+        return new InvertedIndex(
+                documents.toArray(),
+                terms.toArray(new String[0]),
+                frequencies.stream().mapToInt(Integer::intValue).toArray(),
+                offsets.stream().mapToInt(Integer::intValue).toArray(),
+                ByteBuffer.wrap(blob.toByteArray()));
+    }
+
+    /**
+     * A position within the sorted terms of one segment.
+     */
+    private static final class Cursor {
+        private final Segment segment;
+        private int index;
+
+        Cursor(Segment segment) {
+            this.segment = segment;
+        }
+
+        String term() {
+            return segment.terms[index];
+        }
+
+        byte[] postings() {
+            return segment.postings[index];
+        }
+
+        boolean advance() {
+            return ++index < segment.terms.length;
+        }
+    }
+}
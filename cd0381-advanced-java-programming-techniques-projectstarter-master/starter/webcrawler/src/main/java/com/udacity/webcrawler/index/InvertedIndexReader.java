@@ -0,0 +1,122 @@
+package com.udacity.webcrawler.index;
+
+import com.udacity.webcrawler.io.VarInts;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads an {@link InvertedIndex} from a file written by {@link InvertedIndexWriter}.
+ *
+ * <p>Only the document and term dictionaries are decoded up front. The posting lists stay in the
+ * memory-mapped file and are decoded on demand by each query, so opening a large index is cheap
+ * and its postings do not count against the Java heap.
+ */
+public final class InvertedIndexReader {
+
+    private InvertedIndexReader() {
+    }
+
+    /**
+     * Opens the index stored at the given {@link Path}.
+     *
+     * @throws IOException if the file cannot be read or is not an inverted index file.
+     */
+    public static InvertedIndex read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Decodes an index from the given buffer, starting at its current position. The returned index
+     * shares the buffer's content for its posting lists.
+     *
+     * @throws IOException if the buffer does not contain an inverted index.
+     */
+    public static InvertedIndex read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 5 || buffer.getInt() != InvertedIndexWriter.MAGIC) {
+            throw new IOException("not an inverted index file");
+        }
+        byte version = buffer.get();
+        if (version != InvertedIndexWriter.VERSION) {
+            throw new IOException("unsupported inverted index version: " + version);
+        }
+
+        // Every document takes at least one byte (its URL length) and every term at least three
+        // (its length, frequency and posting list length), so the counts can be checked before
+        // anything is allocated for them.
+        int documentCount = readCount(buffer, "document count");
+        if (documentCount > buffer.remaining()) {
+            throw new IOException("truncated inverted index: " + documentCount + " documents in "
+                    + buffer.remaining() + " bytes");
+        }
+        String[] documents = new String[documentCount];
+        for (int d = 0; d < documents.length; d++) {
+            documents[d] = readString(buffer, "document URL");
+        }
+
+        int termCount = readCount(buffer, "term count");
+        if (termCount > buffer.remaining() / 3) {
+            throw new IOException("truncated inverted index: " + termCount + " terms in "
+                    + buffer.remaining() + " bytes");
+        }
+        String[] terms = new String[termCount];
+        int[] frequencies = new int[termCount];
+        int[] offsets = new int[termCount + 1];
+        for (int t = 0; t < termCount; t++) {
+            terms[t] = readString(buffer, "term");
+            frequencies[t] = readCount(buffer, "document frequency");
+            if (frequencies[t] > documentCount) {
+                throw new IOException("term " + terms[t] + " is in more documents than the index");
+            }
+            int length = readCount(buffer, "posting list length");
+            // The posting lists follow the dictionary, so they all fit in what is left of it.
+            if (length > buffer.remaining() - offsets[t]) {
+                throw new IOException("truncated posting list of term " + terms[t]);
+            }
+            offsets[t + 1] = offsets[t] + length;
+        }
+
+        ByteBuffer postings = buffer.slice();
+        if (postings.remaining() < offsets[termCount]) {
+            throw new IOException("truncated inverted index file");
+        }
+        return new InvertedIndex(documents, terms, frequencies, offsets, postings);
+    }
+
+    private static String readString(ByteBuffer buffer, String field) throws IOException {
+        int length = readCount(buffer, field + " length");
+        if (length > buffer.remaining()) {
+            throw new IOException("truncated inverted index: file ends inside a " + field);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a non-negative varint, reporting a truncated or malformed one as an
+     * {@link IOException} that names the field being read.
+     */
+    private static int readCount(ByteBuffer buffer, String field) throws IOException {
+        int value;
+        try {
+            value = VarInts.read(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("truncated inverted index: file ends inside a " + field, e);
+        } catch (IllegalStateException e) {
+            throw new IOException("malformed " + field + " in inverted index", e);
+        }
+        if (value < 0) {
+            throw new IOException("negative " + field + " in inverted index: " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,84 @@
+package com.udacity.webcrawler.index;
+
+import com.udacity.webcrawler.io.VarInts;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Writes an {@link InvertedIndex} to a file that can be memory-mapped by
+ * {@link InvertedIndexReader}.
+ *
+ * <p>File layout, after a 4-byte magic number and a 1-byte version:
+ * <ol>
+ *   <li>the document count as a varint, followed by each document URL as a varint UTF-8 length and
+ *       the URL bytes;</li>
+ *   <li>the term count as a varint, followed by each term as a varint UTF-8 length and the term
+ *       bytes, its document frequency and the byte length of its posting list, all as varints;</li>
+ *   <li>all posting lists back to back, in term order.</li>
+ * </ol>
+ */
+public final class InvertedIndexWriter {
+
+    static final int MAGIC = 0x49494458; // "IIDX"
+    static final byte VERSION = 1;
+
+    private final InvertedIndex index;
+
+    public InvertedIndexWriter(InvertedIndex index) {
+        this.index = Objects.requireNonNull(index);
+    }
+
+    /**
+     * Writes the index to the given {@link Path}, replacing any existing file.
+     */
+    public void write(Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Writes the index to the given {@link OutputStream}. The stream is flushed but not closed.
+     */
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+
+        String[] documents = index.documents();
+        VarInts.write(out, documents.length);
+        for (String document : documents) {
+            writeString(out, document);
+        }
+
+        String[] terms = index.terms();
+        int[] frequencies = index.documentFrequencies();
+        int[] offsets = index.offsets();
+        VarInts.write(out, terms.length);
+        for (int t = 0; t < terms.length; t++) {
+            writeString(out, terms[t]);
+            VarInts.write(out, frequencies[t]);
+            VarInts.write(out, offsets[t + 1] - offsets[t]);
+        }
+
+        ByteBuffer postings = index.postings();
+        postings.position(0).limit(offsets[terms.length]);
+        Channels.newChannel(out).write(postings);
+        out.flush();
+    }
+
+    private static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        VarInts.write(out, bytes.length);
+        out.write(bytes);
+    }
+}
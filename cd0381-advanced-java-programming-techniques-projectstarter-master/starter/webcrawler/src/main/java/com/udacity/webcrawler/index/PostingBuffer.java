@@ -0,0 +1,67 @@
+package com.udacity.webcrawler.index;
+
+import com.udacity.webcrawler.io.VarInts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A growable list of {@code (docId, termFrequency)} postings, packed into primitive {@code long}s
+ * so that sorting the array sorts the postings by document ID.
+ */
+final class PostingBuffer {
+
+    private long[] postings = new long[4];
+    private int size;
+
+    void add(int docId, int termFrequency) {
+        if (size == postings.length) {
+            postings = Arrays.copyOf(postings, size * 2);
+        }
+        postings[size++] = ((long) docId << 32) | (termFrequency & 0xFFFFFFFFL);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Appends every posting in the given buffer, as written by {@link #encode()}.
+     */
+    void addEncoded(ByteBuffer encoded) {
+        int docId = 0;
+        while (encoded.hasRemaining()) {
+            docId += VarInts.read(encoded);
+            add(docId, VarInts.read(encoded));
+        }
+    }
+
+    /**
+     * Sorts the postings by document ID and returns them as {@code (docIdGap, termFrequency)}
+     * varint pairs.
+     */
+    byte[] encode() {
+        Arrays.sort(postings, 0, size);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size * 2);
+        try {
+            int previous = 0;
+            for (int i = 0; i < size; i++) {
+                int docId = (int) (postings[i] >>> 32);
+                VarInts.write(out, docId - previous);
+                VarInts.write(out, (int) postings[i]);
+                previous = docId;
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStream never throws.
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,68 @@
+package com.udacity.webcrawler.index;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable, sorted run of posting lists produced by a single crawler thread.
+ *
+ * <p>Terms are sorted so that segments can be combined with a streaming k-way merge. Each posting
+ * list is encoded by {@link PostingBuffer#encode()}.
+ */
+final class Segment {
+
+    final String[] terms;
+    final byte[][] postings;
+
+    private Segment(String[] terms, byte[][] postings) {
+        this.terms = terms;
+        this.postings = postings;
+    }
+
+    /**
+     * Seals the given per-term postings into a segment.
+     */
+    static Segment of(Map<String, PostingBuffer> postingsByTerm) {
+        String[] terms = postingsByTerm.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        byte[][] postings = new byte[terms.length][];
+        for (int t = 0; t < terms.length; t++) {
+            postings[t] = postingsByTerm.get(terms[t]).encode();
+        }
+        return new Segment(terms, postings);
+    }
+
+    /**
+     * Accumulates postings for one thread until they are sealed into a {@link Segment}.
+     */
+    static final class Builder {
+        private final Map<String, PostingBuffer> postingsByTerm = new HashMap<>();
+        private int postingCount;
+
+        void add(int docId, Map<String, Integer> wordCounts) {
+            wordCounts.forEach((word, count) -> postingsByTerm
+                    .computeIfAbsent(word, w -> new PostingBuffer())
+                    .add(docId, count));
+            postingCount += wordCounts.size();
+        }
+
+        int postingCount() {
+            return postingCount;
+        }
+
+        boolean isEmpty() {
+            return postingCount == 0;
+        }
+
+        /**
+         * Seals the accumulated postings and resets this builder.
+         */
+        Segment seal() {
+            Segment segment = Segment.of(postingsByTerm);
+            postingsByTerm.clear();
+            postingCount = 0;
+            return segment;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.udacity.webcrawler.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Static helpers for reading and writing unsigned LEB128 variable-length integers.
+ *
+ * <p>Small values take a single byte, which is what makes delta-encoded, sorted integer lists
+ * (adjacency rows, posting lists) compact on disk.
+ */
+public final class VarInts {
+
+    private VarInts() {
+    }
+
+    /**
+     * Writes a non-negative {@code int} to the given stream using 1 to 5 bytes.
+     *
+     * @throws IllegalArgumentException if the value is negative.
+     */
+    public static void write(OutputStream out, int value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("negative varint: " + value);
+        }
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Writes a non-negative {@code long} to the given stream using 1 to 10 bytes.
+     *
+     * @throws IllegalArgumentException if the value is negative.
+     */
+    public static void write(OutputStream out, long value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("negative varint: " + value);
+        }
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Reads a varint written by {@link #write(OutputStream, int)} from the buffer's current
+     * position, advancing the position past it.
+     *
+     * @throws IllegalStateException if the encoded value does not fit in an {@code int}.
+     */
+    public static int read(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("malformed varint at position " + buffer.position());
+    }
+
+    /**
+     * Reads a varint written by {@link #write(OutputStream, int)} from the given stream.
+     *
+     * @throws EOFException if the stream ends before the varint does.
+     * @throws IOException  if the encoded value does not fit in an {@code int}.
+     */
+    public static int read(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("stream ended inside a varint");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    /**
+     * Reads a varint written by {@link #write(OutputStream, long)} from the given stream.
+     *
+     * @throws EOFException if the stream ends before the varint does.
+     * @throws IOException  if the encoded value does not fit in a {@code long}.
+     */
+    public static long readLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("stream ended inside a varint");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    /**
+     * Returns the number of bytes {@link #write(OutputStream, int)} uses for the given value.
+     */
+    public static int size(int value) {
+        int bytes = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,14 @@
+package com.udacity.webcrawler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Resolving, connecting to and sending the request to a remote host, up to the response headers.
+ */
+@Name("com.udacity.webcrawler.Connect")
+@Label("Connect")
+@Description("DNS lookup, connect and request, up to the response headers")
+public final class ConnectEvent extends CrawlPhaseEvent {
+}
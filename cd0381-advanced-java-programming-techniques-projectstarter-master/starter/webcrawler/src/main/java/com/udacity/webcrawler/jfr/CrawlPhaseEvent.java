@@ -0,0 +1,61 @@
+package com.udacity.webcrawler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+import java.net.URI;
+
+/**
+ * Base class of the JDK Flight Recorder events emitted for each phase of crawling a single page.
+ *
+ * <p>Events are created, {@link #begin() begun} before the phase starts and {@link #finish
+ * finished} after it ends. When no recording has the event enabled, JFR makes this close to free:
+ * {@link #shouldCommit()} is false and the fields are never filled in.
+ */
+@Category("Web Crawler")
+@StackTrace(false)
+public abstract class CrawlPhaseEvent extends Event {
+
+    @Label("URL")
+    String url;
+
+    @Label("Host")
+    String host;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Ends the event and commits it, if it is enabled and passes the recording's threshold.
+     *
+     * @param url   the URL of the page being crawled.
+     * @param depth how many links away from a start page the page was found.
+     * @param bytes the size of the page body, or 0 if it is not known yet.
+     */
+    public void finish(String url, int depth, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.url = url;
+            this.host = hostOf(url);
+            this.depth = depth;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host;
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.udacity.webcrawler.jfr;
+
+import jdk.jfr.Recording;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A JDK Flight Recorder recording of every {@link CrawlPhaseEvent}, written to a file when it is
+ * closed. The resulting {@code .jfr} file can be opened in JDK Mission Control.
+ */
+public final class CrawlRecording implements Closeable {
+
+    /**
+     * Every concrete {@link CrawlPhaseEvent} type.
+     */
+    public static final List<Class<? extends CrawlPhaseEvent>> EVENT_TYPES = List.of(
+            ConnectEvent.class,
+            DownloadEvent.class,
+            ParseEvent.class,
+            TokenizeEvent.class,
+            MergeEvent.class,
+            ScheduleEvent.class);
+
+    private final Recording recording;
+
+    private CrawlRecording(Recording recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Starts recording crawl events. Every event is kept, regardless of how long it took.
+     *
+     * @param destination where the recording is written when it is closed.
+     */
+    public static CrawlRecording start(Path destination) throws IOException {
+        Recording recording = new Recording();
+        recording.setName("webcrawler");
+        recording.setDestination(destination);
+        for (Class<? extends CrawlPhaseEvent> type : EVENT_TYPES) {
+            recording.enable(type).withoutThreshold();
+        }
+        recording.start();
+        return new CrawlRecording(recording);
+    }
+
+    /**
+     * Stops the recording and writes it to its destination.
+     */
+    @Override
+    public void close() {
+        try {
+            recording.stop();
+        } finally {
+            recording.close();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.udacity.webcrawler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Reading a page body, from the network or, for {@code file:} URLs, from disk.
+ */
+@Name("com.udacity.webcrawler.Download")
+@Label("Download")
+@Description("Reading the page body")
+public final class DownloadEvent extends CrawlPhaseEvent {
+}
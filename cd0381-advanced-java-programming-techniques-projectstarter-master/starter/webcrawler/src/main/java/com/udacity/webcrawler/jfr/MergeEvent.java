@@ -0,0 +1,14 @@
+package com.udacity.webcrawler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Merging a page's word counts into the crawl-wide totals.
+ */
+@Name("com.udacity.webcrawler.Merge")
+@Label("Merge")
+@Description("Merging the page's word counts into the crawl totals")
+public final class MergeEvent extends CrawlPhaseEvent {
+}
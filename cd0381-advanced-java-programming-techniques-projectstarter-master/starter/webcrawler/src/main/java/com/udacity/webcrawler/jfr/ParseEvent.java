@@ -0,0 +1,14 @@
+package com.udacity.webcrawler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Parsing a downloaded page body into a Jsoup document.
+ */
+@Name("com.udacity.webcrawler.Parse")
+@Label("Parse")
+@Description("Jsoup parse of the page body")
+public final class ParseEvent extends CrawlPhaseEvent {
+}
@@ -0,0 +1,14 @@
+package com.udacity.webcrawler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Creating the crawl tasks for a page's links.
+ */
+@Name("com.udacity.webcrawler.Schedule")
+@Label("Schedule")
+@Description("Creating crawl tasks for the page's links")
+public final class ScheduleEvent extends CrawlPhaseEvent {
+}
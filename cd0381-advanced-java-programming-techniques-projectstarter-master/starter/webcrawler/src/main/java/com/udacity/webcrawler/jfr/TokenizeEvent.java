@@ -0,0 +1,14 @@
+package com.udacity.webcrawler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Walking a parsed document to extract its words and links.
+ */
+@Name("com.udacity.webcrawler.Tokenize")
+@Label("Tokenize")
+@Description("Extracting words and links from the parsed document")
+public final class TokenizeEvent extends CrawlPhaseEvent {
+}
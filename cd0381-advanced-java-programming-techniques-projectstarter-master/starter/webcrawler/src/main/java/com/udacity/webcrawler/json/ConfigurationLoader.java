@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Objects;
@@ -17,10 +18,19 @@ public final class ConfigurationLoader {
         this.path = Objects.requireNonNull(path);
     }
 
-    public static CrawlerConfiguration read(Reader reader) throws IOException {
+    /**
+     * Reads a configuration from the given JSON, leaving the reader open.
+     *
+     * @throws UncheckedIOException if the JSON cannot be read or is not a valid configuration.
+     */
+    public static CrawlerConfiguration read(Reader reader) {
         ObjectMapper mapper = new ObjectMapper();
         mapper.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
-        return mapper.readValue(reader, CrawlerConfiguration.class);
+        try {
+            return mapper.readValue(reader, CrawlerConfiguration.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     public CrawlerConfiguration load() throws IOException {
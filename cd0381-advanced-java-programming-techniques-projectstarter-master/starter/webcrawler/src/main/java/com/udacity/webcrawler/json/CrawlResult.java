@@ -1,5 +1,7 @@
 package com.udacity.webcrawler.json;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -12,13 +14,28 @@ public final class CrawlResult {
 
   private final Map<String, Integer> wordCounts;
   private final int urlsVisited;
+  private final Map<String, Double> topPages;
+  private final Map<String, Double> topHubs;
+  private final Map<String, Double> topAuthorities;
+  private final String stoppedBy;
 
   /**
-   * Constructs a {@link CrawlResult} with the given word counts and visited URL count.
+   * Constructs a {@link CrawlResult} with the given word counts, visited URL count, top pages, top
+   * hubs and authorities, and budget that stopped the crawl.
    */
-  private CrawlResult(Map<String, Integer> wordCounts, int urlsVisited) {
+  private CrawlResult(
+      Map<String, Integer> wordCounts,
+      int urlsVisited,
+      Map<String, Double> topPages,
+      Map<String, Double> topHubs,
+      Map<String, Double> topAuthorities,
+      String stoppedBy) {
     this.wordCounts = wordCounts;
     this.urlsVisited = urlsVisited;
+    this.topPages = topPages;
+    this.topHubs = topHubs;
+    this.topAuthorities = topAuthorities;
+    this.stoppedBy = stoppedBy;
   }
 
   /**
@@ -52,12 +69,65 @@ public final class CrawlResult {
     return urlsVisited;
   }
 
+  /**
+   * Returns an unmodifiable {@link Map} from URL to PageRank score, for the most important pages in
+   * the crawl's link graph. The map iterates from the highest score to the lowest.
+   *
+   * <p>The size of the returned map is at most the {@code "topPageCount"} option in the crawler
+   * configuration. If that option is 0 (the default), pages are not ranked and the map is empty;
+   * the section is then left out of the JSON output entirely.
+   */
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
+  public Map<String, Double> getTopPages() {
+    return topPages;
+  }
+
+  /**
+   * Returns an unmodifiable {@link Map} from URL to HITS hub score, for the pages that link to the
+   * most authoritative pages of the crawl. The map iterates from the highest score to the lowest.
+   *
+   * <p>Like {@link #getTopPages()}, the map has at most {@code "topPageCount"} entries, and is
+   * empty and left out of the JSON output when that option is 0.
+   */
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
+  public Map<String, Double> getTopHubs() {
+    return topHubs;
+  }
+
+  /**
+   * Returns an unmodifiable {@link Map} from URL to HITS authority score, for the pages that the
+   * best hubs of the crawl link to. The map iterates from the highest score to the lowest.
+   *
+   * <p>Like {@link #getTopPages()}, the map has at most {@code "topPageCount"} entries, and is
+   * empty and left out of the JSON output when that option is 0.
+   */
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
+  public Map<String, Double> getTopAuthorities() {
+    return topAuthorities;
+  }
+
+  /**
+   * Returns the name of the budget option that cut the crawl short, such as {@code "maxPages"} or
+   * {@code "maxPagesPerHost"}, or an empty string if no budget was reached.
+   *
+   * <p>When a budget is reached the result only covers the pages downloaded up to that point. The
+   * section is left out of the JSON output when it is empty.
+   */
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
+  public String getStoppedBy() {
+    return stoppedBy;
+  }
+
   /**
    * A package-private builder class for constructing web crawl {@link CrawlResult}s.
    */
   public static final class Builder {
     private Map<String, Integer> wordFrequencies = new HashMap<>();
     private int pageCount;
+    private Map<String, Double> topPages = new HashMap<>();
+    private Map<String, Double> topHubs = new HashMap<>();
+    private Map<String, Double> topAuthorities = new HashMap<>();
+    private String stoppedBy = "";
 
     /**
      * Sets the word counts. See {@link #getWordCounts()}
@@ -75,11 +145,49 @@ public final class CrawlResult {
       return this;
     }
 
+    /**
+     * Sets the top-ranked pages. See {@link #getTopPages()}.
+     */
+    public Builder setTopPages(Map<String, Double> topPages) {
+      this.topPages = Objects.requireNonNull(topPages);
+      return this;
+    }
+
+    /**
+     * Sets the top hubs. See {@link #getTopHubs()}.
+     */
+    public Builder setTopHubs(Map<String, Double> topHubs) {
+      this.topHubs = Objects.requireNonNull(topHubs);
+      return this;
+    }
+
+    /**
+     * Sets the top authorities. See {@link #getTopAuthorities()}.
+     */
+    public Builder setTopAuthorities(Map<String, Double> topAuthorities) {
+      this.topAuthorities = Objects.requireNonNull(topAuthorities);
+      return this;
+    }
+
+    /**
+     * Sets the budget that stopped the crawl. See {@link #getStoppedBy()}.
+     */
+    public Builder setStoppedBy(String stoppedBy) {
+      this.stoppedBy = Objects.requireNonNull(stoppedBy);
+      return this;
+    }
+
     /**
      * Constructs a {@link CrawlResult} from this builder.
      */
     public CrawlResult build() {
-      return new CrawlResult(Collections.unmodifiableMap(wordFrequencies), pageCount);
+      return new CrawlResult(
+          Collections.unmodifiableMap(wordFrequencies),
+          pageCount,
+          Collections.unmodifiableMap(topPages),
+          Collections.unmodifiableMap(topHubs),
+          Collections.unmodifiableMap(topAuthorities),
+          stoppedBy);
     }
   }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.udacity.webcrawler.json;
+
+import java.nio.file.Path;
+
+/**
+ * The on-disk encodings supported by {@link CrawlResultWriter} and {@link CrawlResultReader}.
+ */
+public enum CrawlResultFormat {
+
+    /**
+     * Human-readable, indented JSON. This is the default, and the format used by
+     * {@link CrawlResultWriter#write(java.io.Writer)}.
+     */
+    PRETTY_JSON,
+
+    /**
+     * JSON without any insignificant whitespace.
+     */
+    COMPACT_JSON,
+
+    /**
+     * Compact JSON, compressed with gzip.
+     */
+    GZIP_JSON,
+
+    /**
+     * A compact, length-prefixed binary encoding. See {@link CrawlResultWriter} for the layout.
+     */
+    BINARY;
+
+    /**
+     * Infers the format from a file name: {@code .gz} selects {@link #GZIP_JSON}, {@code .bin}
+     * selects {@link #BINARY}, and anything else selects {@link #PRETTY_JSON}.
+     */
+    public static CrawlResultFormat forPath(Path path) {
+        String name = path.getFileName().toString();
+        if (name.endsWith(".gz")) {
+            return GZIP_JSON;
+        }
+        if (name.endsWith(".bin")) {
+            return BINARY;
+        }
+        return PRETTY_JSON;
+    }
+}
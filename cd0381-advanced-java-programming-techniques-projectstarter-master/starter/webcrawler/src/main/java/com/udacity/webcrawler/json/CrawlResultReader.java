@@ -0,0 +1,197 @@
+package com.udacity.webcrawler.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.udacity.webcrawler.io.VarInts;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a {@link CrawlResult} written by {@link CrawlResultWriter}, in any
+ * {@link CrawlResultFormat}.
+ *
+ * <p>JSON results are decoded with Jackson's streaming parser straight into the result maps, rather
+ * than through an intermediate tree, so reading a result with millions of word counts does not
+ * need more memory than the result itself. Map iteration order is preserved for every format.
+ */
+public final class CrawlResultReader {
+
+    private static final JsonFactory JSON_FACTORY =
+            new JsonFactory().disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+    private CrawlResultReader() {
+    }
+
+    /**
+     * Reads the result stored at the given {@link Path}, in the format implied by its file name.
+     * See {@link CrawlResultFormat#forPath(Path)}.
+     */
+    public static CrawlResult read(Path path) throws IOException {
+        return read(path, CrawlResultFormat.forPath(path));
+    }
+
+    /**
+     * Reads the result stored at the given {@link Path} in the given format.
+     */
+    public static CrawlResult read(Path path, CrawlResultFormat format) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            return read(in, format);
+        }
+    }
+
+    /**
+     * Reads a result in the given format from the given {@link InputStream}. The stream is not
+     * closed.
+     */
+    public static CrawlResult read(InputStream in, CrawlResultFormat format) throws IOException {
+        Objects.requireNonNull(in);
+        switch (format) {
+            case PRETTY_JSON:
+            case COMPACT_JSON:
+                return parse(JSON_FACTORY.createParser(in));
+            case GZIP_JSON:
+                return parse(JSON_FACTORY.createParser(new GZIPInputStream(in, 1 << 16)));
+            case BINARY:
+                return readBinary(new DataInputStream(in));
+            default:
+                throw new IllegalArgumentException("unsupported format: " + format);
+        }
+    }
+
+    private static CrawlResult parse(JsonParser parser) throws IOException {
+        try (parser) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            CrawlResult.Builder builder = new CrawlResult.Builder();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "wordCounts":
+                        Map<String, Integer> wordCounts = new LinkedHashMap<>();
+                        expect(parser, value, JsonToken.START_OBJECT);
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String word = parser.getCurrentName();
+                            parser.nextToken();
+                            wordCounts.put(word, parser.getIntValue());
+                        }
+                        builder.setWordCounts(wordCounts);
+                        break;
+                    case "topPages":
+                        builder.setTopPages(parseScores(parser, value));
+                        break;
+                    case "topHubs":
+                        builder.setTopHubs(parseScores(parser, value));
+                        break;
+                    case "topAuthorities":
+                        builder.setTopAuthorities(parseScores(parser, value));
+                        break;
+                    case "urlsVisited":
+                        builder.setUrlsVisited(parser.getIntValue());
+                        break;
+                    case "stoppedBy":
+                        builder.setStoppedBy(parser.getValueAsString(""));
+                        break;
+                    default:
+                        // Tolerate fields added by newer writers.
+                        parser.skipChildren();
+                }
+            }
+            return builder.build();
+        }
+    }
+
+    private static Map<String, Double> parseScores(JsonParser parser, JsonToken value)
+            throws IOException {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        expect(parser, value, JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String url = parser.getCurrentName();
+            parser.nextToken();
+            scores.put(url, parser.getDoubleValue());
+        }
+        return scores;
+    }
+
+    private static CrawlResult readBinary(DataInputStream in) throws IOException {
+        if (in.readInt() != CrawlResultWriter.BINARY_MAGIC) {
+            throw new IOException("not a binary crawl result");
+        }
+        byte version = in.readByte();
+        if (version != CrawlResultWriter.BINARY_VERSION) {
+            throw new IOException("unsupported binary crawl result version: " + version);
+        }
+        int urlsVisited = readCount(in, "urlsVisited");
+        String stoppedBy = readString(in);
+
+        int wordCount = readCount(in, "word count");
+        Map<String, Integer> wordCounts = new LinkedHashMap<>(capacityFor(wordCount));
+        for (int i = 0; i < wordCount; i++) {
+            String word = readString(in);
+            wordCounts.put(word, readCount(in, "count of " + word));
+        }
+
+        return new CrawlResult.Builder()
+                .setUrlsVisited(urlsVisited)
+                .setStoppedBy(stoppedBy)
+                .setWordCounts(wordCounts)
+                .setTopPages(readScores(in))
+                .setTopHubs(readScores(in))
+                .setTopAuthorities(readScores(in))
+                .build();
+    }
+
+    private static Map<String, Double> readScores(DataInputStream in) throws IOException {
+        int pageCount = readCount(in, "page count");
+        Map<String, Double> scores = new LinkedHashMap<>(capacityFor(pageCount));
+        for (int i = 0; i < pageCount; i++) {
+            String url = readString(in);
+            scores.put(url, in.readDouble());
+        }
+        return scores;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readCount(in, "string length");
+        // Read in pieces rather than into an array of the stated length, so that a corrupt length
+        // fails at the end of the stream instead of allocating it.
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException("stream ended inside a string");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readCount(DataInputStream in, String field) throws IOException {
+        int value = VarInts.read(in);
+        if (value < 0) {
+            throw new IOException("negative " + field + " in binary crawl result: " + value);
+        }
+        return value;
+    }
+
+    private static int capacityFor(int entries) {
+        // Sized up front so that large results are not rehashed while they are read, but only up
+        // to a bound, since the count has not been checked against the length of the stream.
+        return (int) Math.min(1 << 20, (long) entries * 4 / 3 + 1);
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected)
+            throws IOException {
+        if (actual != expected) {
+            throw new IOException("expected " + expected + " but found " + actual
+                    + " at " + parser.getCurrentLocation());
+        }
+    }
+}
@@ -1,34 +1,139 @@
 package com.udacity.webcrawler.json;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.udacity.webcrawler.io.VarInts;
 
-
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Writes CrawlResult to JSON.
+ *
+ * <p>Besides the default pretty-printed JSON, results can be written in any of the
+ * {@link CrawlResultFormat}s, and read back with {@link CrawlResultReader}.
+ *
+ * <p>The {@link CrawlResultFormat#BINARY} layout is a 4-byte magic number and a 1-byte version,
+ * followed by:
+ * <ol>
+ *   <li>{@code urlsVisited} as a varint;</li>
+ *   <li>{@code stoppedBy} as a varint UTF-8 length and the string bytes;</li>
+ *   <li>the number of word counts as a varint, then each word as a varint UTF-8 length and the
+ *       word bytes, followed by its count as a varint;</li>
+ *   <li>the top pages, the top hubs and the top authorities, each as the number of entries as a
+ *       varint, then each URL as a varint UTF-8 length and the URL bytes, followed by its score
+ *       as an 8-byte big-endian double.</li>
+ * </ol>
+ * Entries appear in the result's map iteration order.
  */
 public final class CrawlResultWriter {
 
+    static final int BINARY_MAGIC = 0x43524C52; // "CRLR"
+    static final byte BINARY_VERSION = 1;
+
+    // ObjectMappers are thread-safe and expensive to create, so they are shared by every writer.
+    private static final ObjectMapper JSON_MAPPER =
+            new ObjectMapper().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
     private final CrawlResult result;
 
     public CrawlResultWriter(CrawlResult result) {
-        this.result = result;
+        this.result = Objects.requireNonNull(result);
     }
 
+    /**
+     * Writes the result to the given {@link Path}, in the format implied by its file name. See
+     * {@link CrawlResultFormat#forPath(Path)}.
+     */
     public void write(Path path) throws IOException {
-        try (Writer writer = Files.newBufferedWriter(path)) {
-            write(writer);
+        write(path, CrawlResultFormat.forPath(path));
+    }
+
+    /**
+     * Writes the result to the given {@link Path} in the given format, replacing any existing file.
+     */
+    public void write(Path path, CrawlResultFormat format) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            write(out, format);
+        }
+    }
+
+    /**
+     * Writes the result to the given {@link OutputStream} in the given format. The stream is
+     * flushed but not closed.
+     */
+    public void write(OutputStream out, CrawlResultFormat format) throws IOException {
+        Objects.requireNonNull(out);
+        switch (format) {
+            case PRETTY_JSON:
+                JSON_MAPPER.writerWithDefaultPrettyPrinter().writeValue(out, result);
+                break;
+            case COMPACT_JSON:
+                JSON_MAPPER.writeValue(out, result);
+                break;
+            case GZIP_JSON:
+                // Finish, but do not close, the gzip stream so the caller's stream stays open.
+                GZIPOutputStream gzip = new GZIPOutputStream(out, 1 << 16);
+                JSON_MAPPER.writeValue(gzip, result);
+                gzip.finish();
+                break;
+            case BINARY:
+                writeBinary(new DataOutputStream(out));
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported format: " + format);
+        }
+        out.flush();
+    }
+
+    private void writeBinary(DataOutputStream out) throws IOException {
+        out.writeInt(BINARY_MAGIC);
+        out.writeByte(BINARY_VERSION);
+        VarInts.write(out, result.getUrlsVisited());
+        writeString(out, result.getStoppedBy());
+
+        VarInts.write(out, result.getWordCounts().size());
+        for (Map.Entry<String, Integer> entry : result.getWordCounts().entrySet()) {
+            writeString(out, entry.getKey());
+            VarInts.write(out, entry.getValue());
         }
+
+        writeScores(out, result.getTopPages());
+        writeScores(out, result.getTopHubs());
+        writeScores(out, result.getTopAuthorities());
+    }
+
+    private static void writeScores(DataOutputStream out, Map<String, Double> scores)
+            throws IOException {
+        VarInts.write(out, scores.size());
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeDouble(entry.getValue());
+        }
+    }
+
+    private static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        VarInts.write(out, bytes.length);
+        out.write(bytes);
     }
 
+    /**
+     * Writes the result to the given {@link Writer} as pretty-printed JSON. The writer is flushed
+     * but not closed.
+     */
     public void write(Writer writer) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectWriter objectWriter = mapper.writerWithDefaultPrettyPrinter();
+        ObjectWriter objectWriter = JSON_MAPPER.writerWithDefaultPrettyPrinter();
         objectWriter.writeValue(writer, result);
     }
 }
@@ -1,22 +1,74 @@
 package com.udacity.webcrawler.json;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.regex.Pattern;
 
+@JsonDeserialize(builder = CrawlerConfiguration.Builder.class)
 public class CrawlerConfiguration {
 
-    private List<String> startPages;
-    private List<Pattern> ignoredUrls;
-    private List<Pattern> ignoredWords;
-    private int parallelism = -1; // default as in test
-    private String implementationOverride = "";
-    private int maxDepth;
-    private Duration timeout;
-    private int popularWordCount;
-    private String profileOutputPath = "";
-    private String resultPath = "";
+    private final List<String> startPages;
+    private final List<Pattern> ignoredUrls;
+    private final List<Pattern> ignoredWords;
+    private final int parallelism;
+    private final String implementationOverride;
+    private final int maxDepth;
+    private final Duration timeout;
+    private final int popularWordCount;
+    private final String profileOutputPath;
+    private final int profileSampleRate;
+    private final int profileSamplesPerSecond;
+    private final String resultPath;
+    private final String linkGraphPath;
+    private final int topPageCount;
+    private final String indexPath;
+    private final String pageResultsPath;
+    private final int metricsPort;
+    private final String flightRecordingPath;
+    private final String traceLogPath;
+    private final String warcRecordPath;
+    private final String warcReplayPath;
+    private final boolean streamingParser;
+    private final String localCorpusPath;
+    private final int maxPages;
+    private final long maxBytes;
+    private final int maxPagesPerHost;
+    private final int maxPagesPerSeed;
+
+    private CrawlerConfiguration(Builder builder) {
+        startPages = List.copyOf(builder.startPages);
+        ignoredUrls = builder.ignoredUrls.stream().map(Pattern::compile).toList();
+        ignoredWords = builder.ignoredWords.stream().map(Pattern::compile).toList();
+        parallelism = builder.parallelism;
+        implementationOverride = builder.implementationOverride;
+        maxDepth = builder.maxDepth;
+        timeout = Duration.ofSeconds(builder.timeoutSeconds);
+        popularWordCount = builder.popularWordCount;
+        profileOutputPath = builder.profileOutputPath;
+        profileSampleRate = builder.profileSampleRate;
+        profileSamplesPerSecond = builder.profileSamplesPerSecond;
+        resultPath = builder.resultPath;
+        linkGraphPath = builder.linkGraphPath;
+        topPageCount = builder.topPageCount;
+        indexPath = builder.indexPath;
+        pageResultsPath = builder.pageResultsPath;
+        metricsPort = builder.metricsPort;
+        flightRecordingPath = builder.flightRecordingPath;
+        traceLogPath = builder.traceLogPath;
+        warcRecordPath = builder.warcRecordPath;
+        warcReplayPath = builder.warcReplayPath;
+        streamingParser = builder.streamingParser;
+        localCorpusPath = builder.localCorpusPath;
+        maxPages = builder.maxPages;
+        maxBytes = builder.maxBytes;
+        maxPagesPerHost = builder.maxPagesPerHost;
+        maxPagesPerSeed = builder.maxPagesPerSeed;
+    }
 
     // Getters
     public List<String> getStartPages() {
@@ -55,9 +107,352 @@ public class CrawlerConfiguration {
         return profileOutputPath;
     }
 
+    /**
+     * Returns how many profiled calls each timed call stands for: the profiler times one in this
+     * many calls, chosen at random. A value of 0 or 1 times every call.
+     */
+    public int getProfileSampleRate() {
+        return profileSampleRate;
+    }
+
+    /**
+     * Returns how many calls of each profiled method the profiler should time per second, adapting
+     * its sampling rate to the call rate. A value of 0 disables adaptive sampling, in which case
+     * {@link #getProfileSampleRate()} applies.
+     */
+    public int getProfileSamplesPerSecond() {
+        return profileSamplesPerSecond;
+    }
+
     public String getResultPath() {
         return resultPath;
     }
 
-    // Setters or builder pattern (if needed)
+    /**
+     * Returns the path where the crawl's link graph is written in CSR binary form, or an empty
+     * string if the link graph should not be recorded.
+     */
+    public String getLinkGraphPath() {
+        return linkGraphPath;
+    }
+
+    /**
+     * Returns how many of the highest-PageRank pages, and of the best HITS hubs and authorities, to
+     * report in the crawl result. A value of 0 disables link ranking.
+     */
+    public int getTopPageCount() {
+        return topPageCount;
+    }
+
+    /**
+     * Returns the path where an inverted index of the crawled pages is written, or an empty string
+     * if no index should be built.
+     */
+    public String getIndexPath() {
+        return indexPath;
+    }
+
+    /**
+     * Returns the path where one NDJSON record per crawled page is streamed, or an empty string if
+     * per-page results should not be written. Paths ending in {@code .gz} are gzip-compressed.
+     */
+    public String getPageResultsPath() {
+        return pageResultsPath;
+    }
+
+    /**
+     * Returns the port on which live crawl metrics are served in Prometheus text format, or 0 if
+     * the metrics server should not be started.
+     */
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    /**
+     * Returns the path where a JDK Flight Recorder recording of the crawl's per-page events is
+     * written, or an empty string if the crawl should not be recorded.
+     */
+    public String getFlightRecordingPath() {
+        return flightRecordingPath;
+    }
+
+    /**
+     * Returns the path where the trace of every crawled URL is written, or an empty string if no
+     * trace should be written. Paths ending in {@code .csv} are written as CSV, and any other path
+     * in a compact binary format.
+     */
+    public String getTraceLogPath() {
+        return traceLogPath;
+    }
+
+    /**
+     * Returns the path of a WARC file that every downloaded page is recorded in, or an empty string
+     * if pages should not be recorded.
+     */
+    public String getWarcRecordPath() {
+        return warcRecordPath;
+    }
+
+    /**
+     * Returns the path of a WARC file, as written with {@link #getWarcRecordPath()}, that pages are
+     * read from instead of being downloaded, or an empty string if pages should be downloaded.
+     */
+    public String getWarcReplayPath() {
+        return warcReplayPath;
+    }
+
+    /**
+     * Returns whether pages are read in a single streaming pass instead of being parsed into a
+     * document tree, which uses less memory per page.
+     */
+    public boolean isStreamingParser() {
+        return streamingParser;
+    }
+
+    /**
+     * Returns the path of a local directory that holds the {@code file://} pages to crawl, or an
+     * empty string if there is none. The directory is scanned before the crawl, so that missing
+     * pages under it fail without a file system lookup.
+     */
+    public String getLocalCorpusPath() {
+        return localCorpusPath;
+    }
+
+    /**
+     * Returns the maximum number of pages a crawl may download, or 0 if there is no limit. Once it
+     * is reached, the crawl stops scheduling new work.
+     */
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    /**
+     * Returns the maximum number of bytes a crawl may download, or 0 if there is no limit. Once it
+     * is reached, the crawl stops scheduling new work.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the maximum number of pages a crawl may download from any single host, or 0 if there
+     * is no limit.
+     */
+    public int getMaxPagesPerHost() {
+        return maxPagesPerHost;
+    }
+
+    /**
+     * Returns the maximum number of pages a crawl may download by following links from any single
+     * start page, or 0 if there is no limit.
+     */
+    public int getMaxPagesPerSeed() {
+        return maxPagesPerSeed;
+    }
+
+    /**
+     * Builds {@link CrawlerConfiguration}s, and reads them from JSON. Options that are not set keep
+     * their defaults: no start pages or patterns, a parallelism of -1, a timeout of one second,
+     * empty strings and zeros.
+     */
+    @JsonPOJOBuilder
+    public static final class Builder {
+        private final List<String> startPages = new ArrayList<>();
+        private final List<String> ignoredUrls = new ArrayList<>();
+        private final List<String> ignoredWords = new ArrayList<>();
+        private int parallelism = -1;
+        private String implementationOverride = "";
+        private int maxDepth;
+        private int timeoutSeconds = 1;
+        private int popularWordCount;
+        private String profileOutputPath = "";
+        private int profileSampleRate;
+        private int profileSamplesPerSecond;
+        private String resultPath = "";
+        private String linkGraphPath = "";
+        private int topPageCount;
+        private String indexPath = "";
+        private String pageResultsPath = "";
+        private int metricsPort;
+        private String flightRecordingPath = "";
+        private String traceLogPath = "";
+        private String warcRecordPath = "";
+        private String warcReplayPath = "";
+        private boolean streamingParser;
+        private String localCorpusPath = "";
+        private int maxPages;
+        private long maxBytes;
+        private int maxPagesPerHost;
+        private int maxPagesPerSeed;
+
+        @JsonProperty("startPages")
+        public Builder addStartPages(String... startPages) {
+            this.startPages.addAll(List.of(startPages));
+            return this;
+        }
+
+        @JsonProperty("ignoredUrls")
+        public Builder addIgnoredUrls(String... ignoredUrls) {
+            this.ignoredUrls.addAll(List.of(ignoredUrls));
+            return this;
+        }
+
+        @JsonProperty("ignoredWords")
+        public Builder addIgnoredWords(String... ignoredWords) {
+            this.ignoredWords.addAll(List.of(ignoredWords));
+            return this;
+        }
+
+        @JsonProperty("parallelism")
+        public Builder setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        @JsonProperty("implementationOverride")
+        public Builder setImplementationOverride(String implementationOverride) {
+            this.implementationOverride = implementationOverride;
+            return this;
+        }
+
+        @JsonProperty("maxDepth")
+        public Builder setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        @JsonProperty("timeoutSeconds")
+        public Builder setTimeoutSeconds(int timeoutSeconds) {
+            this.timeoutSeconds = timeoutSeconds;
+            return this;
+        }
+
+        @JsonProperty("popularWordCount")
+        public Builder setPopularWordCount(int popularWordCount) {
+            this.popularWordCount = popularWordCount;
+            return this;
+        }
+
+        @JsonProperty("profileOutputPath")
+        public Builder setProfileOutputPath(String profileOutputPath) {
+            this.profileOutputPath = profileOutputPath;
+            return this;
+        }
+
+        @JsonProperty("profileSampleRate")
+        public Builder setProfileSampleRate(int profileSampleRate) {
+            this.profileSampleRate = profileSampleRate;
+            return this;
+        }
+
+        @JsonProperty("profileSamplesPerSecond")
+        public Builder setProfileSamplesPerSecond(int profileSamplesPerSecond) {
+            this.profileSamplesPerSecond = profileSamplesPerSecond;
+            return this;
+        }
+
+        @JsonProperty("resultPath")
+        public Builder setResultPath(String resultPath) {
+            this.resultPath = resultPath;
+            return this;
+        }
+
+        @JsonProperty("linkGraphPath")
+        public Builder setLinkGraphPath(String linkGraphPath) {
+            this.linkGraphPath = linkGraphPath;
+            return this;
+        }
+
+        @JsonProperty("topPageCount")
+        public Builder setTopPageCount(int topPageCount) {
+            this.topPageCount = topPageCount;
+            return this;
+        }
+
+        @JsonProperty("indexPath")
+        public Builder setIndexPath(String indexPath) {
+            this.indexPath = indexPath;
+            return this;
+        }
+
+        @JsonProperty("pageResultsPath")
+        public Builder setPageResultsPath(String pageResultsPath) {
+            this.pageResultsPath = pageResultsPath;
+            return this;
+        }
+
+        @JsonProperty("metricsPort")
+        public Builder setMetricsPort(int metricsPort) {
+            this.metricsPort = metricsPort;
+            return this;
+        }
+
+        @JsonProperty("flightRecordingPath")
+        public Builder setFlightRecordingPath(String flightRecordingPath) {
+            this.flightRecordingPath = flightRecordingPath;
+            return this;
+        }
+
+        @JsonProperty("traceLogPath")
+        public Builder setTraceLogPath(String traceLogPath) {
+            this.traceLogPath = traceLogPath;
+            return this;
+        }
+
+        @JsonProperty("warcRecordPath")
+        public Builder setWarcRecordPath(String warcRecordPath) {
+            this.warcRecordPath = warcRecordPath;
+            return this;
+        }
+
+        @JsonProperty("warcReplayPath")
+        public Builder setWarcReplayPath(String warcReplayPath) {
+            this.warcReplayPath = warcReplayPath;
+            return this;
+        }
+
+        @JsonProperty("streamingParser")
+        public Builder setStreamingParser(boolean streamingParser) {
+            this.streamingParser = streamingParser;
+            return this;
+        }
+
+        @JsonProperty("localCorpusPath")
+        public Builder setLocalCorpusPath(String localCorpusPath) {
+            this.localCorpusPath = localCorpusPath;
+            return this;
+        }
+
+        @JsonProperty("maxPages")
+        public Builder setMaxPages(int maxPages) {
+            this.maxPages = maxPages;
+            return this;
+        }
+
+        @JsonProperty("maxBytes")
+        public Builder setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        @JsonProperty("maxPagesPerHost")
+        public Builder setMaxPagesPerHost(int maxPagesPerHost) {
+            this.maxPagesPerHost = maxPagesPerHost;
+            return this;
+        }
+
+        @JsonProperty("maxPagesPerSeed")
+        public Builder setMaxPagesPerSeed(int maxPagesPerSeed) {
+            this.maxPagesPerSeed = maxPagesPerSeed;
+            return this;
+        }
+
+        /**
+         * Returns a new configuration with the options set so far. The URL and word patterns are
+         * compiled here, so an invalid pattern fails the build.
+         */
+        public CrawlerConfiguration build() {
+            return new CrawlerConfiguration(this);
+        }
+    }
 }
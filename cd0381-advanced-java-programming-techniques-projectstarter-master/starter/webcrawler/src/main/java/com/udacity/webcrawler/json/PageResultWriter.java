@@ -0,0 +1,134 @@
+package com.udacity.webcrawler.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.udacity.webcrawler.parser.PageParser;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams one JSON record per crawled page, as newline-delimited JSON (NDJSON).
+ *
+ * <p>Unlike {@link CrawlResultWriter}, which writes the aggregate result once the crawl is over,
+ * this writer emits each page as soon as it has been parsed, so memory use does not grow with the
+ * number of pages crawled. Every record is a single line of the form:
+ *
+ * <pre>
+ * {"url":"...","depth":1,"fetchMicros":1200,"parseMicros":800,"bytes":5120,"links":12,
+ *  "topWords":{"word":3,...}}
+ * </pre>
+ *
+ * <p>All records go through one shared {@link JsonGenerator} on top of a buffered writer. Methods
+ * are safe to call from multiple crawler threads; records are never interleaved.
+ */
+public final class PageResultWriter implements Closeable {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final JsonGenerator generator;
+    private long lastFlush = System.nanoTime();
+    private boolean empty = true;
+
+    /**
+     * Creates a writer that streams records to the given {@link Writer}. Closing this writer
+     * flushes, but does not close, the given writer.
+     */
+    public PageResultWriter(Writer writer) throws IOException {
+        this.generator = FACTORY.createGenerator(Objects.requireNonNull(writer))
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+    }
+
+    private PageResultWriter(JsonGenerator generator) {
+        this.generator = generator;
+        generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+    }
+
+    /**
+     * Opens a writer that streams records to the given {@link Path}, replacing any existing file.
+     * If the file name ends in {@code .gz}, the output is gzip-compressed.
+     */
+    public static PageResultWriter open(Path path) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        try {
+            if (path.getFileName().toString().endsWith(".gz")) {
+                out = new GZIPOutputStream(out, 1 << 16, true);
+            }
+            Writer writer =
+                    new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            return new PageResultWriter(FACTORY.createGenerator(writer));
+        } catch (IOException | RuntimeException e) {
+            try {
+                out.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the record for one crawled page.
+     *
+     * @param url      the URL of the page.
+     * @param depth    how many links away from a start page the page was found; start pages are
+     *                 at depth 0.
+     * @param result   the parse result of the page.
+     * @param topWords the page's most popular words, in the order they should be written.
+     * @throws UncheckedIOException if the record could not be written.
+     */
+    public synchronized void write(
+            String url, int depth, PageParser.Result result, Map<String, Integer> topWords) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("url", url);
+            generator.writeNumberField("depth", depth);
+            generator.writeNumberField("fetchMicros", result.getFetchTime().toNanos() / 1000);
+            generator.writeNumberField("parseMicros", result.getParseTime().toNanos() / 1000);
+            generator.writeNumberField("bytes", result.getByteCount());
+            generator.writeNumberField("links", result.getLinks().size());
+            generator.writeObjectFieldStart("topWords");
+            for (Map.Entry<String, Integer> entry : topWords.entrySet()) {
+                generator.writeNumberField(entry.getKey(), entry.getValue());
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+            empty = false;
+
+            // Flush now and then, so that consumers tailing the file see results while the crawl
+            // is still running, without paying for a flush on every record.
+            long now = System.nanoTime();
+            if (now - lastFlush >= FLUSH_INTERVAL_NANOS) {
+                generator.flush();
+                lastFlush = now;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write page result for " + url, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        // Closed even if the last newline cannot be written, so that the file is not left open.
+        try (JsonGenerator ignored = generator) {
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+        }
+    }
+}
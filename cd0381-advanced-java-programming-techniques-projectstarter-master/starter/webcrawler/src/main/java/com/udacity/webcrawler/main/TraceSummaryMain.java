@@ -0,0 +1,25 @@
+package com.udacity.webcrawler.main;
+
+import com.udacity.webcrawler.trace.TraceSummary;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+public final class TraceSummaryMain {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: TraceSummaryMain <trace-file>");
+            System.exit(1);
+        }
+
+        // The format is chosen by the file name, as when the trace was written
+        TraceSummary summary = TraceSummary.of(Path.of(args[0]));
+        Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        summary.write(writer);
+        writer.flush();
+    }
+}
@@ -1,13 +1,75 @@
 package com.udacity.webcrawler.main;
 
+import com.google.inject.Guice;
+import com.udacity.webcrawler.WebCrawler;
+import com.udacity.webcrawler.WebCrawlerModule;
 import com.udacity.webcrawler.json.ConfigurationLoader;
+import com.udacity.webcrawler.json.CrawlResult;
+import com.udacity.webcrawler.json.CrawlResultWriter;
 import com.udacity.webcrawler.json.CrawlerConfiguration;
+import com.udacity.webcrawler.parser.PageParserFactory;
+import com.udacity.webcrawler.profiler.Profiler;
+import com.udacity.webcrawler.profiler.ProfilerModule;
+import com.udacity.webcrawler.profiler.ProfilerSampling;
 
+import javax.inject.Inject;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.file.Path;
 
 public final class WebCrawlerMain {
 
+    private final CrawlerConfiguration config;
+
+    @Inject
+    private WebCrawler crawler;
+
+    @Inject
+    private Profiler profiler;
+
+    @Inject
+    private PageParserFactory parserFactory;
+
+    private WebCrawlerMain(CrawlerConfiguration config) {
+        this.config = config;
+    }
+
+    private void run() throws IOException {
+        ProfilerSampling sampling = ProfilerSampling.of(
+                config.getProfileSampleRate(), config.getProfileSamplesPerSecond());
+        Guice.createInjector(new WebCrawlerModule(config), new ProfilerModule(sampling))
+                .injectMembers(this);
+
+        if (config.getMetricsPort() > 0) {
+            System.err.println("Metrics: http://localhost:" + config.getMetricsPort() + "/metrics");
+        }
+        CrawlResult result;
+        // Closing the parser factory closes the WARC file the crawl is recorded in, if any.
+        try (PageParserFactory ignored = parserFactory) {
+            result = crawler.crawl(config.getStartPages());
+        }
+
+        // The result and the profile go to standard output unless the configuration names a file.
+        CrawlResultWriter resultWriter = new CrawlResultWriter(result);
+        if (config.getResultPath().isEmpty()) {
+            Writer stdout = new BufferedWriter(new OutputStreamWriter(System.out));
+            resultWriter.write(stdout);
+            stdout.write(System.lineSeparator());
+            stdout.flush();
+        } else {
+            resultWriter.write(Path.of(config.getResultPath()));
+        }
+        if (config.getProfileOutputPath().isEmpty()) {
+            Writer stdout = new BufferedWriter(new OutputStreamWriter(System.out));
+            profiler.writeData(stdout);
+            stdout.flush();
+        } else {
+            profiler.writeData(Path.of(config.getProfileOutputPath()));
+        }
+    }
+
     public static void main(String[] args) throws IOException {
         if (args.length != 1) {
             System.err.println("Usage: WebCrawlerMain <config-file>");
@@ -18,14 +80,6 @@ public final class WebCrawlerMain {
         Path configPath = Path.of(args[0]);
         ConfigurationLoader loader = new ConfigurationLoader(configPath);
         CrawlerConfiguration config = loader.load();
-
-        // Print configuration (debug)
-        System.out.println("Loaded configuration:");
-        System.out.println("Max Depth: " + config.getMaxDepth());
-        System.out.println("Timeout: " + config.getTimeout());
-        System.out.println("Start Pages: " + config.getStartPages());
-        System.out.println("Popular Words: " + config.getPopularWordCount());
-
-
+        new WebCrawlerMain(config).run();
     }
 }
@@ -0,0 +1,148 @@
+package com.udacity.webcrawler.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters for a single crawl, exposed in the Prometheus text exposition format.
+ *
+ * <p>Every counter is a striped {@link LongAdder}, so crawler threads updating them on the hot
+ * path do not contend on a shared cache line. The counters are only summed when they are scraped.
+ *
+ * <p>Throughput is exported as monotonic {@code _total} counters rather than as rates, so that
+ * Prometheus can compute the rate over any window with {@code rate()}.
+ */
+public final class CrawlMetrics {
+
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder frontier = new LongAdder();
+    private final LongAdder visited = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates metrics for a crawl that does not run on a {@link ForkJoinPool}.
+     */
+    public CrawlMetrics() {
+        this(null);
+    }
+
+    /**
+     * Creates metrics for a crawl whose tasks run on the given pool. The pool's queue and steal
+     * statistics are included in every scrape.
+     */
+    public CrawlMetrics(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Records that the given number of URLs were queued for crawling.
+     */
+    public void enqueued(int count) {
+        frontier.add(count);
+    }
+
+    /**
+     * Records that a queued URL was taken off the frontier.
+     */
+    public void dequeued() {
+        frontier.decrement();
+    }
+
+    /**
+     * Records that a URL was added to the visited set.
+     */
+    public void visited() {
+        visited.increment();
+    }
+
+    /**
+     * Records that a page download has started.
+     */
+    public void fetchStarted() {
+        inFlight.increment();
+    }
+
+    /**
+     * Records that a page started with {@link #fetchStarted()} was downloaded and parsed.
+     */
+    public void fetchSucceeded(long byteCount) {
+        inFlight.decrement();
+        pages.increment();
+        bytes.add(byteCount);
+    }
+
+    /**
+     * Records that a page started with {@link #fetchStarted()} could not be downloaded or parsed.
+     *
+     * @param errorType a short name for the kind of error, usually the exception's simple name.
+     */
+    public void fetchFailed(String errorType) {
+        inFlight.decrement();
+        errors.computeIfAbsent(errorType, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Writes a snapshot of every metric to the given {@link Writer}, in the Prometheus text
+     * exposition format (version 0.0.4).
+     */
+    public void writePrometheus(Writer writer) throws IOException {
+        write(writer, "webcrawler_pages_total", "counter", "Pages downloaded and parsed.",
+                pages.sum());
+        write(writer, "webcrawler_bytes_total", "counter", "Page body bytes downloaded.",
+                bytes.sum());
+        write(writer, "webcrawler_fetches_in_flight", "gauge",
+                "Page downloads currently in progress.", inFlight.sum());
+        write(writer, "webcrawler_frontier_size", "gauge",
+                "URLs queued but not yet crawled.", frontier.sum());
+        write(writer, "webcrawler_visited_urls", "gauge",
+                "URLs in the visited set.", visited.sum());
+
+        header(writer, "webcrawler_errors_total", "counter", "Failed pages, by error type.");
+        // Sorted so that consecutive scrapes list the series in a stable order.
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(errors).entrySet()) {
+            writer.write("webcrawler_errors_total{type=\"" + escapeLabel(entry.getKey()) + "\"} "
+                    + entry.getValue().sum() + "\n");
+        }
+
+        if (pool != null) {
+            write(writer, "webcrawler_pool_parallelism", "gauge",
+                    "Target parallelism of the crawl pool.", pool.getParallelism());
+            write(writer, "webcrawler_pool_active_threads", "gauge",
+                    "Pool threads currently running or stealing tasks.", pool.getActiveThreadCount());
+            write(writer, "webcrawler_pool_running_threads", "gauge",
+                    "Pool threads not blocked waiting to join tasks.", pool.getRunningThreadCount());
+            write(writer, "webcrawler_pool_queued_tasks", "gauge",
+                    "Tasks queued in the pool's worker queues.", pool.getQueuedTaskCount());
+            write(writer, "webcrawler_pool_queued_submissions", "gauge",
+                    "Tasks submitted to the pool but not yet started.",
+                    pool.getQueuedSubmissionCount());
+            write(writer, "webcrawler_pool_steals_total", "counter",
+                    "Tasks stolen from one worker queue by another.", pool.getStealCount());
+        }
+    }
+
+    private static void write(Writer writer, String name, String type, String help, long value)
+            throws IOException {
+        header(writer, name, type, help);
+        writer.write(name + " " + value + "\n");
+    }
+
+    private static void header(Writer writer, String name, String type, String help)
+            throws IOException {
+        writer.write("# HELP " + name + " " + help + "\n");
+        writer.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,81 @@
+package com.udacity.webcrawler.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A tiny HTTP server that serves {@link CrawlMetrics} at {@code /metrics} for Prometheus to scrape.
+ *
+ * <p>The server uses the JDK's built-in {@code com.sun.net.httpserver} and a single dispatcher
+ * thread, so it adds no dependencies and no load on the crawl pool.
+ */
+public final class MetricsServer implements Closeable {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+
+    private MetricsServer(HttpServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Starts serving the given metrics on the given port of the loopback interface, so that they
+     * are only reachable from the crawling machine. A port of 0 picks any free port; see
+     * {@link #port()}.
+     *
+     * @throws IOException if the port could not be bound.
+     */
+    public static MetricsServer start(int port, CrawlMetrics metrics) throws IOException {
+        Objects.requireNonNull(metrics);
+        HttpServer server = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> handle(exchange, metrics));
+        server.start();
+        return new MetricsServer(server);
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private static void handle(HttpExchange exchange, CrawlMetrics metrics) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream(4096);
+            try (Writer writer = new OutputStreamWriter(body, StandardCharsets.UTF_8)) {
+                metrics.writePrometheus(writer);
+            }
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                body.writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * Stops the server, without waiting for in-progress scrapes to finish.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,305 @@
+package com.udacity.webcrawler.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Detects the charset of an HTML page from its bytes, for pages that come without one, such as
+ * local files.
+ *
+ * <p>A byte order mark decides the charset. Otherwise, the start of the page is prescanned for a
+ * {@code <meta>} tag that declares it, the way browsers do before decoding a page, and then for an
+ * XML declaration. The prescan reads the bytes as ASCII, skipping comments and the attributes of
+ * other tags, so that it neither decodes the page nor builds a document. Pages that declare no
+ * supported charset are UTF-8, as they are for Jsoup.
+ */
+final class CharsetDetector {
+
+    /**
+     * How many bytes of a page are prescanned: as many as Jsoup reads before it looks for a
+     * declared charset.
+     */
+    static final int PRESCAN_LENGTH = 5 * 1024;
+
+    private static final Pattern CONTENT_TYPE_CHARSET =
+            Pattern.compile("(?i)\\bcharset=\\s*(?:[\"'])?([^\\s,;\"']*)");
+
+    private final ByteBuffer body;
+    private final int end;
+    private int pos;
+
+    private CharsetDetector(ByteBuffer body) {
+        this.body = body;
+        this.end = Math.min(body.limit(), PRESCAN_LENGTH);
+    }
+
+    /**
+     * Returns the charset of the given page body, which is not modified.
+     */
+    static Charset detect(ByteBuffer body) {
+        Charset charset = byteOrderMark(body);
+        if (charset != null) {
+            return charset;
+        }
+        CharsetDetector detector = new CharsetDetector(body);
+        charset = detector.prescan();
+        if (charset == null) {
+            charset = detector.xmlDeclaration();
+        }
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Returns the charset given by the byte order mark of the given page body, or {@code null} if
+     * it has none. As in Jsoup, only bodies of at least four bytes are checked.
+     */
+    static Charset byteOrderMark(ByteBuffer body) {
+        if (body.limit() < 4) {
+            return null;
+        }
+        int b0 = body.get(0) & 0xff;
+        int b1 = body.get(1) & 0xff;
+        int b2 = body.get(2) & 0xff;
+        int b3 = body.get(3) & 0xff;
+        if (b0 == 0 && b1 == 0 && b2 == 0xfe && b3 == 0xff
+                || b0 == 0xff && b1 == 0xfe && b2 == 0 && b3 == 0) {
+            return Charset.forName("UTF-32");
+        }
+        if (b0 == 0xfe && b1 == 0xff || b0 == 0xff && b1 == 0xfe) {
+            return StandardCharsets.UTF_16;
+        }
+        if (b0 == 0xef && b1 == 0xbb && b2 == 0xbf) {
+            return StandardCharsets.UTF_8;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the charset declared by the first {@code <meta>} tag that declares a supported one.
+     */
+    private Charset prescan() {
+        while (pos < end) {
+            if (startsWith("<!--")) {
+                // The dashes of "<!--" may also end the comment, as in "<!-->".
+                int close = indexOf("-->", pos + 2);
+                pos = close < 0 ? end : close + 3;
+            } else if (startsWithIgnoreCase("<meta") && pos + 5 < end
+                    && (isWhitespace(byteAt(pos + 5)) || byteAt(pos + 5) == '/')) {
+                pos += 5;
+                Charset charset = meta();
+                if (charset != null) {
+                    return charset;
+                }
+            } else if (byteAt(pos) == '<' && pos + 1 < end && (isLetter(byteAt(pos + 1))
+                    || byteAt(pos + 1) == '/' && pos + 2 < end && isLetter(byteAt(pos + 2)))) {
+                // Another tag: skip its name and attributes, whose values may hold a '>'.
+                while (pos < end && !isWhitespace(byteAt(pos)) && byteAt(pos) != '>') {
+                    pos++;
+                }
+                String[] attribute;
+                do {
+                    attribute = attribute();
+                } while (attribute != null);
+            } else if (startsWith("<!") || startsWith("</") || startsWith("<?")) {
+                int close = indexOf(">", pos + 2);
+                pos = close < 0 ? end : close + 1;
+            } else {
+                pos++;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the attributes of a {@code <meta>} tag, and returns the charset it declares, if any.
+     */
+    private Charset meta() {
+        String charset = null;
+        String httpEquiv = null;
+        String content = null;
+        String[] attribute;
+        while ((attribute = attribute()) != null) {
+            switch (attribute[0]) {
+                case "charset" -> charset = charset == null ? attribute[1] : charset;
+                case "http-equiv" -> httpEquiv = httpEquiv == null ? attribute[1] : httpEquiv;
+                case "content" -> content = content == null ? attribute[1] : content;
+                default -> {
+                    // Other attributes do not declare a charset.
+                }
+            }
+        }
+        if (charset != null) {
+            return supported(charset);
+        }
+        if (content != null && httpEquiv != null
+                && httpEquiv.trim().equalsIgnoreCase("content-type")) {
+            Matcher matcher = CONTENT_TYPE_CHARSET.matcher(content);
+            if (matcher.find()) {
+                return supported(matcher.group(1));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the next attribute of a tag, as a lowercased name and a value, or returns
+     * {@code null} once the tag ends.
+     */
+    private String[] attribute() {
+        while (pos < end && (isWhitespace(byteAt(pos)) || byteAt(pos) == '/')) {
+            pos++;
+        }
+        if (pos >= end || byteAt(pos) == '>') {
+            pos++;
+            return null;
+        }
+        StringBuilder name = new StringBuilder();
+        while (true) {
+            if (pos >= end) {
+                return null;
+            }
+            int b = byteAt(pos);
+            if (b == '=' && name.length() > 0) {
+                pos++;
+                break;
+            }
+            if (isWhitespace(b)) {
+                while (pos < end && isWhitespace(byteAt(pos))) {
+                    pos++;
+                }
+                if (pos >= end || byteAt(pos) != '=') {
+                    return new String[] {name.toString(), ""};
+                }
+                pos++;
+                break;
+            }
+            if (b == '/' || b == '>') {
+                return new String[] {name.toString(), ""};
+            }
+            name.append((char) (b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b));
+            pos++;
+        }
+
+        while (pos < end && isWhitespace(byteAt(pos))) {
+            pos++;
+        }
+        if (pos >= end) {
+            return null;
+        }
+        StringBuilder value = new StringBuilder();
+        int quote = byteAt(pos);
+        if (quote == '"' || quote == '\'') {
+            pos++;
+            while (pos < end && byteAt(pos) != quote) {
+                value.append((char) byteAt(pos++));
+            }
+            pos++;
+        } else {
+            while (pos < end && !isWhitespace(byteAt(pos)) && byteAt(pos) != '>') {
+                value.append((char) byteAt(pos++));
+            }
+        }
+        return new String[] {name.toString(), value.toString()};
+    }
+
+    /**
+     * Returns the encoding of an XML declaration at the start of the page, if it has one.
+     */
+    private Charset xmlDeclaration() {
+        pos = 0;
+        if (!startsWith("<?xml")) {
+            return null;
+        }
+        pos += 5;
+        String[] attribute;
+        while ((attribute = attribute()) != null) {
+            if (attribute[0].equals("encoding")) {
+                return supported(attribute[1]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the named charset, or {@code null} if it is not supported. As in browsers, a page
+     * that declares UTF-16 or UTF-32 without a byte order mark is read as UTF-8, since the
+     * declaration itself could only be read because the page is ASCII-compatible.
+     */
+    private static Charset supported(String name) {
+        name = name.trim().replace("\"", "").replace("'", "");
+        Charset charset;
+        try {
+            if (Charset.isSupported(name)) {
+                charset = Charset.forName(name);
+            } else if (Charset.isSupported(name.toUpperCase(Locale.ENGLISH))) {
+                charset = Charset.forName(name.toUpperCase(Locale.ENGLISH));
+            } else {
+                return null;
+            }
+        } catch (IllegalCharsetNameException e) {
+            return null;
+        }
+        if (charset.name().startsWith("UTF-16") || charset.name().startsWith("UTF-32")) {
+            return StandardCharsets.UTF_8;
+        }
+        return charset;
+    }
+
+    private int byteAt(int index) {
+        return body.get(index) & 0xff;
+    }
+
+    private boolean startsWith(String prefix) {
+        if (pos + prefix.length() > end) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (byteAt(pos + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean startsWithIgnoreCase(String prefix) {
+        if (pos + prefix.length() > end) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            int b = byteAt(pos + i);
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if (b != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOf(String target, int from) {
+        for (int i = from; i + target.length() <= end; i++) {
+            int j = 0;
+            while (j < target.length() && byteAt(i + j) == target.charAt(j)) {
+                j++;
+            }
+            if (j == target.length()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isLetter(int b) {
+        return b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z';
+    }
+
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\f' || b == '\r';
+    }
+}
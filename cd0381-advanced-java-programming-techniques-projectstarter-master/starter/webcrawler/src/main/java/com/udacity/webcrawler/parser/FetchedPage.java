@@ -0,0 +1,114 @@
+package com.udacity.webcrawler.parser;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * The raw bytes of a fetched page, along with what Jsoup needs to decode them.
+ *
+ * <p>The bytes are held in a {@link ByteBuffer}, so that a large local file can be memory-mapped
+ * instead of copied onto the heap.
+ */
+final class FetchedPage {
+    private final ByteBuffer body;
+    private final String charset;
+    private final String baseUri;
+    private final long fetchedAt = System.nanoTime();
+
+    /**
+     * @param charset the charset of the bytes, or {@code null} to let Jsoup detect it.
+     * @param baseUri the URI relative links are resolved against, or an empty string.
+     */
+    FetchedPage(byte[] bytes, String charset, String baseUri) {
+        this(ByteBuffer.wrap(bytes), charset, baseUri);
+    }
+
+    /**
+     * @param body    the bytes of the page, from its position to its limit.
+     * @param charset the charset of the bytes, or {@code null} to let Jsoup detect it.
+     * @param baseUri the URI relative links are resolved against, or an empty string.
+     */
+    FetchedPage(ByteBuffer body, String charset, String baseUri) {
+        this.body = body.slice();
+        this.charset = charset;
+        this.baseUri = baseUri;
+    }
+
+    /**
+     * Returns a new view of the bytes of the page, from position zero to its length.
+     */
+    ByteBuffer getBody() {
+        return body.duplicate();
+    }
+
+    /**
+     * Returns the number of bytes in the page.
+     */
+    int getLength() {
+        return body.limit();
+    }
+
+    /**
+     * Returns a new stream that reads the bytes of the page.
+     */
+    InputStream openStream() {
+        return new BodyInputStream(getBody());
+    }
+
+    String getCharset() {
+        return charset;
+    }
+
+    String getBaseUri() {
+        return baseUri;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} at which the page was fetched.
+     */
+    long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    /**
+     * An {@link InputStream} over a {@link ByteBuffer}, which reads a mapped file in the chunks its
+     * reader asks for rather than all at once.
+     */
+    private static final class BodyInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BodyInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long count) {
+            int skipped = (int) Math.max(0, Math.min(count, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,599 @@
+package com.udacity.webcrawler.parser;
+
+import org.jsoup.parser.Parser;
+
+import java.util.Locale;
+
+/**
+ * Pulls the text and links out of an HTML page in a single pass, without building a document
+ * tree.
+ *
+ * <p>The page is split into text, tags, comments and other markup by the same rules Jsoup's
+ * tokenizer follows, so each piece of text is reported as the contents of exactly one Jsoup
+ * {@link org.jsoup.nodes.TextNode}, with its character references decoded by Jsoup. Script and
+ * style contents, which Jsoup keeps as data rather than text, are skipped.
+ *
+ * <p>Only Jsoup's tree construction is left out. It makes no difference for well-formed pages, but
+ * it repairs malformed ones in ways this scanner does not: it moves text out of tables, which
+ * changes the order of words but not their counts; it clones unclosed formatting elements such as
+ * {@code <a>}, which can repeat a link; it drops text inside {@code <frameset>}; and it ignores a
+ * few tags, such as {@code <style>} inside {@code <select>}, whose contents are then text.
+ */
+final class HtmlScanner {
+
+    /**
+     * Receives the pieces of a page, in document order.
+     */
+    interface Handler {
+
+        /**
+         * Called with the whole text of each text node, not yet whitespace-normalized.
+         */
+        void text(String text);
+
+        /**
+         * Called with the text of each CDATA section, which Jsoup keeps as it is.
+         */
+        void cdata(String text);
+
+        /**
+         * Called with the {@code href} attribute of each {@code <a>} tag that has one.
+         */
+        void link(String href);
+
+        /**
+         * Called with the {@code href} attribute of each {@code <base>} tag that has one.
+         */
+        void base(String href);
+    }
+
+    private static final int EOF = -1;
+
+    // The elements whose start tags are acted on. The names of other tags are not kept.
+    private static final String[] KNOWN_TAGS = {
+            "a", "base", "script", "style", "xmp", "iframe", "noembed", "noframes", "title",
+            "textarea", "plaintext",
+    };
+
+    private final String html;
+    private final Handler handler;
+    private final int length;
+    private int position;
+
+    // Text that Jsoup would report as one text node can be interrupted by markup it drops, such
+    // as "</>", so it is collected in pieces.
+    private final StringBuilder pendingText = new StringBuilder();
+    private int textStart;
+
+    // The tag being read, with its name if it is one of the known tags.
+    private String tagName;
+    private boolean selfClosing;
+    private String href;
+
+    private HtmlScanner(String html, Handler handler) {
+        this.html = html;
+        this.handler = handler;
+        this.length = html.length();
+    }
+
+    /**
+     * Scans the given page, passing its pieces to the given handler.
+     */
+    static void scan(String html, Handler handler) {
+        new HtmlScanner(html, handler).scan();
+    }
+
+    private void scan() {
+        while (position < length) {
+            if (html.charAt(position) != '<') {
+                position++;
+                continue;
+            }
+            int next = charAt(position + 1);
+            if (isAsciiLetter(next)) {
+                int tagStart = position;
+                if (!readTag(position + 1)) {
+                    dropRest(tagStart);
+                    break;
+                }
+                flushText(tagStart);
+                onTag();
+            } else if (next == '/') {
+                int afterSlash = charAt(position + 2);
+                if (isAsciiLetter(afterSlash)) {
+                    int tagStart = position;
+                    if (!readTag(position + 2)) {
+                        dropRest(tagStart);
+                        break;
+                    }
+                    flushText(tagStart);
+                    textStart = position;
+                } else if (afterSlash == '>') {
+                    // Dropped without ending the text around it.
+                    pendingText.append(decode(html.substring(textStart, position)));
+                    position += 3;
+                    textStart = position;
+                } else if (afterSlash == EOF) {
+                    // Jsoup keeps a "</" at the end of the page as text.
+                    position = length;
+                } else {
+                    skipBogusComment(position + 2);
+                }
+            } else if (next == '!') {
+                if (html.startsWith("--", position + 2)) {
+                    skipComment();
+                } else if (html.regionMatches(true, position + 2, "DOCTYPE", 0, 7)) {
+                    skipBogusComment(position + 9);
+                } else if (html.startsWith("[CDATA[", position + 2)) {
+                    readCdata();
+                } else {
+                    skipBogusComment(position + 2);
+                }
+            } else if (next == '?') {
+                skipBogusComment(position + 1);
+            } else {
+                // A lone '<' is text.
+                position++;
+            }
+        }
+        flushText(length);
+    }
+
+    private int charAt(int index) {
+        return index < length ? html.charAt(index) : EOF;
+    }
+
+    private static boolean isAsciiLetter(int c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == ' ';
+    }
+
+    /**
+     * Reports the text from the last reported markup up to the given index, if there is any.
+     */
+    private void flushText(int end) {
+        String text = decode(html.substring(textStart, end));
+        if (!pendingText.isEmpty()) {
+            text = pendingText.append(text).toString();
+            pendingText.setLength(0);
+        }
+        if (!text.isEmpty()) {
+            handler.text(text);
+        }
+    }
+
+    /**
+     * Reports the text before a tag that the page ends inside of, and drops the tag, as Jsoup
+     * does.
+     */
+    private void dropRest(int tagStart) {
+        flushText(tagStart);
+        position = length;
+        textStart = length;
+    }
+
+    private static String decode(String text) {
+        return text.indexOf('&') < 0 ? text : Parser.unescapeEntities(text, false);
+    }
+
+    /**
+     * Skips a comment, from its opening {@code <!--}, the way Jsoup's comment states do.
+     */
+    private void skipComment() {
+        int start = position;
+        int i = position + 4;
+        if (charAt(i) == '>') {
+            i++;
+        } else if (charAt(i) == '-' && charAt(i + 1) == '>') {
+            i += 2;
+        } else {
+            while (true) {
+                int dashes = html.indexOf("--", i);
+                if (dashes < 0) {
+                    i = length;
+                    break;
+                }
+                i = dashes + 2;
+                while (charAt(i) == '-') {
+                    i++;
+                }
+                if (charAt(i) == '>') {
+                    i++;
+                    break;
+                }
+                if (charAt(i) == '!' && charAt(i + 1) == '>') {
+                    i += 2;
+                    break;
+                }
+            }
+        }
+        flushText(start);
+        position = i;
+        textStart = i;
+    }
+
+    /**
+     * Skips markup that Jsoup reads as a comment or doctype up to the next {@code >}.
+     */
+    private void skipBogusComment(int from) {
+        flushText(position);
+        int end = html.indexOf('>', from);
+        position = end < 0 ? length : end + 1;
+        textStart = position;
+    }
+
+    /**
+     * Reports a CDATA section as its own text node, without decoding it.
+     */
+    private void readCdata() {
+        flushText(position);
+        int start = position + 9;
+        int end = html.indexOf("]]>", start);
+        String text = html.substring(start, end < 0 ? length : end);
+        if (!text.isEmpty()) {
+            handler.cdata(text);
+        }
+        position = end < 0 ? length : end + 3;
+        textStart = position;
+    }
+
+    /**
+     * Reads a tag from its name, which starts at the given index. Returns {@code false} if the
+     * page ends inside the tag, in which case Jsoup drops it.
+     */
+    private boolean readTag(int nameStart) {
+        this.selfClosing = false;
+        this.href = null;
+        int i = nameStart;
+        while (i < length && !isWhitespace(html.charAt(i)) && html.charAt(i) != '/'
+                && html.charAt(i) != '>' && html.charAt(i) != '<') {
+            i++;
+        }
+        if (i == length) {
+            return false;
+        }
+        tagName = knownTag(nameStart, i);
+        if (html.charAt(i) == '<') {
+            // Jsoup ends the tag at a '<' in its name, and reads the '<' again.
+            position = i;
+            return true;
+        }
+        if (html.charAt(i) == '>') {
+            position = i + 1;
+            return true;
+        }
+        return readAttributes(i);
+    }
+
+    /**
+     * Reads the attributes of a tag, from the character after its name, keeping the first
+     * {@code href}.
+     */
+    private boolean readAttributes(int from) {
+        int i = from;
+        boolean afterName = false;
+        while (true) {
+            int c = charAt(i);
+            // Before an attribute name, or after one without a value.
+            if (c == EOF) {
+                return false;
+            }
+            if (isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (c == '/') {
+                if (charAt(i + 1) == '>') {
+                    selfClosing = true;
+                    position = i + 2;
+                    return true;
+                }
+                afterName = false;
+                i++;
+                continue;
+            }
+            if (c == '>') {
+                position = i + 1;
+                return true;
+            }
+            if (c == '<' && !afterName) {
+                position = i;
+                return true;
+            }
+
+            // The attribute name. Its first character is taken even if it is '=' or a quote.
+            int nameStart = i++;
+            while (i < length && !isWhitespace(html.charAt(i)) && html.charAt(i) != '/'
+                    && html.charAt(i) != '=' && html.charAt(i) != '>') {
+                i++;
+            }
+            // Only the first href of links and bases is kept.
+            boolean keep = href == null && ("a".equals(tagName) || "base".equals(tagName))
+                    && isHref(nameStart, i);
+            while (isWhitespace(charAt(i))) {
+                i++;
+            }
+            if (charAt(i) != '=') {
+                if (keep) {
+                    href = "";
+                }
+                afterName = true;
+                continue;
+            }
+
+            // The attribute value.
+            afterName = false;
+            i++;
+            while (isWhitespace(charAt(i))) {
+                i++;
+            }
+            c = charAt(i);
+            if (c == EOF) {
+                return false;
+            }
+            if (c == '"' || c == '\'') {
+                int end = html.indexOf(c, i + 1);
+                if (end < 0) {
+                    return false;
+                }
+                if (keep) {
+                    keepHref(i + 1, end);
+                }
+                i = end + 1;
+            } else if (c == '>') {
+                if (keep) {
+                    href = "";
+                }
+            } else {
+                int valueStart = i;
+                while (i < length && !isWhitespace(html.charAt(i)) && html.charAt(i) != '>') {
+                    i++;
+                }
+                if (keep) {
+                    keepHref(valueStart, i);
+                }
+            }
+        }
+    }
+
+    private void keepHref(int start, int end) {
+        String value = html.substring(start, end);
+        href = value.indexOf('&') < 0 ? value : Parser.unescapeEntities(value, true);
+    }
+
+    /**
+     * Returns the known tag name that the given name matches, or {@code null} if it matches none.
+     * Like Jsoup, which lowercases names in the English locale, only ASCII letters are matched
+     * regardless of case.
+     */
+    private String knownTag(int start, int end) {
+        for (String name : KNOWN_TAGS) {
+            if (end - start == name.length() && regionEqualsIgnoreAsciiCase(start, name)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the given attribute name is {@code href}, once trimmed of control characters
+     * and spaces as Jsoup trims it.
+     */
+    private boolean isHref(int start, int end) {
+        int from = start;
+        int to = end;
+        while (from < to && html.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && html.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return to - from == 4 && regionEqualsIgnoreAsciiCase(from, "href");
+    }
+
+    /**
+     * Returns whether the page has the given lowercase name at the given index, ignoring the case
+     * of ASCII letters.
+     */
+    private boolean regionEqualsIgnoreAsciiCase(int index, String name) {
+        if (index + name.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = html.charAt(index + i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reports the link of the start tag just read, and skips the contents of the elements whose
+     * contents Jsoup does not parse as markup.
+     */
+    private void onTag() {
+        textStart = position;
+        if (tagName == null) {
+            return;
+        }
+        if (href != null) {
+            switch (tagName) {
+                case "a" -> handler.link(href);
+                case "base" -> handler.base(href);
+                default -> {
+                }
+            }
+        }
+        if (selfClosing) {
+            // Jsoup does not switch to reading raw contents for self-closing tags.
+            return;
+        }
+        switch (tagName) {
+            case "script" -> {
+                // Kept as data, not text.
+                position = scriptDataEnd();
+                textStart = position;
+            }
+            case "style" -> {
+                position = rawContentEnd(tagName);
+                textStart = position;
+            }
+            case "xmp", "iframe", "noembed", "noframes" -> {
+                int end = rawContentEnd(tagName);
+                if (end > position) {
+                    handler.text(html.substring(position, end));
+                }
+                position = end;
+                textStart = end;
+            }
+            case "title", "textarea" -> {
+                position = rcdataEnd(tagName);
+                flushText(position);
+                textStart = position;
+            }
+            case "plaintext" -> {
+                position = length;
+                handler.text(html.substring(textStart));
+                textStart = length;
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Returns where the decoded contents of the named element, which start at the current
+     * position, end. Unlike the HTML specification, Jsoup does not let them run on when their end
+     * tag's name does not appear again in lower or upper case: it ends them at the first tag after
+     * the name's last appearance.
+     */
+    private int rcdataEnd(String name) {
+        int end = rawContentEnd(name);
+        String upperName = name.toUpperCase(Locale.ENGLISH);
+        if (end < length
+                && (html.startsWith(name, end + 2) || html.startsWith(upperName, end + 2))) {
+            return end;
+        }
+        int from = Math.max(position,
+                Math.max(html.lastIndexOf("</" + name), html.lastIndexOf("</" + upperName)) + 1);
+        for (int i = html.indexOf('<', from); i >= 0 && i < end; i = html.indexOf('<', i + 1)) {
+            if (isAsciiLetter(charAt(i + 1))) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Returns where the contents of a script, which start at the current position, end. A script
+     * is not closed by a {@code </script>} that follows {@code <!--} and {@code <script>} in it
+     * until a {@code -->} or another {@code </script>}, as the HTML specification's script data
+     * states have it.
+     */
+    private int scriptDataEnd() {
+        boolean escaped = false;
+        boolean doubleEscaped = false;
+        int dashes = 0;
+        int i = position;
+        while (i < length) {
+            char c = html.charAt(i);
+            if (c == '-') {
+                dashes++;
+                i++;
+                continue;
+            }
+            if (c == '>' && dashes >= 2 && escaped) {
+                escaped = false;
+                doubleEscaped = false;
+            } else if (c == '<') {
+                if (!escaped) {
+                    if (isEndTag(i, "script")) {
+                        return i;
+                    }
+                    if (html.startsWith("<!--", i)) {
+                        escaped = true;
+                        dashes = 2;
+                        i += 4;
+                        continue;
+                    }
+                } else if (!doubleEscaped) {
+                    if (isEndTag(i, "script")) {
+                        return i;
+                    }
+                    if (isAsciiLetter(charAt(i + 1))) {
+                        int nameEnd = tagNameEnd(i + 1);
+                        doubleEscaped = isScriptName(i + 1, nameEnd);
+                        dashes = 0;
+                        i = doubleEscaped ? nameEnd + 1 : nameEnd;
+                        continue;
+                    }
+                } else if (charAt(i + 1) == '/') {
+                    int nameEnd = tagNameEnd(i + 2);
+                    doubleEscaped = !isScriptName(i + 2, nameEnd);
+                    dashes = 0;
+                    i = doubleEscaped ? nameEnd : nameEnd + 1;
+                    continue;
+                }
+            }
+            dashes = 0;
+            i++;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the index after the run of ASCII letters that starts at the given index.
+     */
+    private int tagNameEnd(int start) {
+        int i = start;
+        while (isAsciiLetter(charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns whether the given run of letters is "script", followed by a character that ends a
+     * tag name. Jsoup matches it case-sensitively, unlike the HTML specification.
+     */
+    private boolean isScriptName(int start, int end) {
+        int c = charAt(end);
+        return end - start == 6 && html.startsWith("script", start)
+                && (isWhitespace(c) || c == '/' || c == '>');
+    }
+
+    /**
+     * Returns whether an end tag for the named element starts at the given index.
+     */
+    private boolean isEndTag(int index, String name) {
+        int afterName = index + 2 + name.length();
+        return html.startsWith("</", index) && regionEqualsIgnoreAsciiCase(index + 2, name)
+                && (isWhitespace(charAt(afterName)) || charAt(afterName) == '/'
+                || charAt(afterName) == '>');
+    }
+
+    /**
+     * Returns the index of the end tag that closes the raw contents of the named element, which
+     * start at the current position, or the end of the page if there is none.
+     */
+    private int rawContentEnd(String name) {
+        int i = position;
+        while (true) {
+            int end = html.indexOf("</", i);
+            if (end < 0) {
+                return length;
+            }
+            if (isEndTag(end, name)) {
+                return end;
+            }
+            i = end + 2;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.udacity.webcrawler.parser;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An index of the files under a local directory and their sizes, built by scanning the directory
+ * in parallel before a crawl.
+ *
+ * <p>A crawl of a local mirror follows many links to each page, and often some to pages that do
+ * not exist. With the index, the page parser knows whether a file under the directory exists, and
+ * how large it is, without asking the file system, so a link to a missing page fails without a
+ * system call, and each page is read in the way that suits its size. Scanning the directory also
+ * leaves its entries in the operating system's caches before the crawl opens them.
+ *
+ * <p>The directory must not change during the crawl, since the index is not updated.
+ */
+final class LocalCorpus {
+
+    /**
+     * A corpus that knows no files, so that every file is looked up in the file system.
+     */
+    static final LocalCorpus NONE = new LocalCorpus(null, Map.of(), Set.of());
+
+    /**
+     * Returned by {@link #sizeOf} for a path that the index has nothing to say about.
+     */
+    static final long UNKNOWN = -1;
+
+    /**
+     * Returned by {@link #sizeOf} for a path under the directory that does not exist.
+     */
+    static final long MISSING = -2;
+
+    private final Path root;
+    // The size of each regular file, and UNKNOWN for every other entry.
+    private final Map<Path, Long> sizes;
+    // Directories that could not be listed, and symbolic links, whose contents are unknown.
+    private final Set<Path> unscanned;
+
+    private LocalCorpus(Path root, Map<Path, Long> sizes, Set<Path> unscanned) {
+        this.root = root;
+        this.sizes = sizes;
+        this.unscanned = unscanned;
+    }
+
+    /**
+     * Scans the given directory and everything under it, listing directories in parallel.
+     *
+     * @throws IOException if the directory cannot be listed. Subdirectories that cannot be listed
+     *                     are left out of the index instead.
+     */
+    static LocalCorpus scan(Path directory) throws IOException {
+        Path root = directory.toAbsolutePath().normalize();
+        if (!Files.isDirectory(root)) {
+            throw new NotDirectoryException(root.toString());
+        }
+        Map<Path, Long> sizes = new ConcurrentHashMap<>();
+        Set<Path> unscanned = ConcurrentHashMap.newKeySet();
+        sizes.put(root, UNKNOWN);
+        ForkJoinPool.commonPool().invoke(new ScanTask(root, sizes, unscanned));
+        if (unscanned.contains(root)) {
+            throw new IOException("Failed to list " + root);
+        }
+        return new LocalCorpus(root, sizes, unscanned);
+    }
+
+    /**
+     * Returns the size of the given file, {@link #MISSING} if it is under the scanned directory
+     * but does not exist, or {@link #UNKNOWN} if it is not a regular file or not under the
+     * directory.
+     */
+    long sizeOf(Path file) {
+        if (root == null) {
+            return UNKNOWN;
+        }
+        Path path = file.toAbsolutePath().normalize();
+        if (!path.startsWith(root)) {
+            return UNKNOWN;
+        }
+        Long size = sizes.get(path);
+        if (size != null) {
+            return size;
+        }
+        for (Path parent = path.getParent(); parent != null; parent = parent.getParent()) {
+            if (unscanned.contains(parent)) {
+                return UNKNOWN;
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Returns the scanned directory if the given file is under it, or {@code null} otherwise.
+     */
+    Path rootOf(Path file) {
+        if (root == null || !file.toAbsolutePath().normalize().startsWith(root)) {
+            return null;
+        }
+        return root;
+    }
+
+    /**
+     * Returns the number of regular files in the index.
+     */
+    int fileCount() {
+        return (int) sizes.values().stream().filter(size -> size >= 0).count();
+    }
+
+    /**
+     * Lists one directory, and scans its subdirectories in parallel.
+     */
+    private static final class ScanTask extends RecursiveAction {
+        // Tasks are never serialized; RecursiveAction is only Serializable by inheritance.
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path directory;
+        private final transient Map<Path, Long> sizes;
+        private final transient Set<Path> unscanned;
+
+        ScanTask(Path directory, Map<Path, Long> sizes, Set<Path> unscanned) {
+            this.directory = directory;
+            this.sizes = sizes;
+            this.unscanned = unscanned;
+        }
+
+        @Override
+        protected void compute() {
+            List<ScanTask> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    // Symbolic links are not followed, so that a link cannot lead the scan in a
+                    // loop. They, and whatever is under them, are looked up in the file system.
+                    BasicFileAttributes attributes = Files.readAttributes(
+                            entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    sizes.put(entry, attributes.isRegularFile() ? attributes.size() : UNKNOWN);
+                    if (attributes.isSymbolicLink()) {
+                        unscanned.add(entry);
+                    } else if (attributes.isDirectory()) {
+                        subdirectories.add(new ScanTask(entry, sizes, unscanned));
+                    }
+                }
+            } catch (IOException e) {
+                unscanned.add(directory);
+            }
+            invokeAll(subdirectories);
+        }
+    }
+}
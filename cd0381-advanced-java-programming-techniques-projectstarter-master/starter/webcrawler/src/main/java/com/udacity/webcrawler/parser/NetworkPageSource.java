@@ -0,0 +1,92 @@
+package com.udacity.webcrawler.parser;
+
+import com.udacity.webcrawler.jfr.ConnectEvent;
+import com.udacity.webcrawler.jfr.DownloadEvent;
+import com.udacity.webcrawler.warc.WarcWriter;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.UnsupportedMimeTypeException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Downloads pages with Jsoup, and records them in a WARC file if given a {@link WarcWriter}.
+ *
+ * <p>Pages Jsoup refuses, for their HTTP status or content type, are recorded too, without a body,
+ * so that they fail the same way when the crawl is replayed.
+ */
+final class NetworkPageSource implements PageSource {
+
+    /**
+     * Downloads pages without recording them.
+     */
+    static final NetworkPageSource DIRECT = new NetworkPageSource(null);
+
+    private static final byte[] NO_BODY = new byte[0];
+
+    private final WarcWriter recorder;
+
+    /**
+     * @param recorder where to record fetched pages, or {@code null} to not record them.
+     */
+    NetworkPageSource(WarcWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public FetchedPage fetch(String url, int depth, Duration timeout) throws IOException {
+        ConnectEvent connectEvent = new ConnectEvent();
+        connectEvent.begin();
+        Connection.Response response;
+        try {
+            response = Jsoup.connect(url).timeout((int) timeout.toMillis()).execute();
+        } catch (HttpStatusException e) {
+            record(url, e.getUrl(), e.getStatusCode(), "", Map.of(), NO_BODY);
+            throw e;
+        } catch (UnsupportedMimeTypeException e) {
+            record(url, e.getUrl(), 200, "OK", Map.of("Content-Type", e.getMimeType()), NO_BODY);
+            throw e;
+        }
+        connectEvent.finish(url, depth, 0);
+
+        // Jsoup only reads the body once it is asked for it.
+        DownloadEvent downloadEvent = new DownloadEvent();
+        downloadEvent.begin();
+        byte[] bytes;
+        try {
+            bytes = response.bodyAsBytes();
+        } catch (UncheckedIOException e) {
+            // Jsoup wraps failures while reading the body, such as read timeouts, which would
+            // otherwise all be reported as UncheckedIOException. The cause is always the
+            // IOException itself.
+            throw e.getCause();
+        }
+        downloadEvent.finish(url, depth, bytes.length);
+
+        String finalUrl = response.url().toExternalForm();
+        record(url, finalUrl, response.statusCode(), response.statusMessage(), response.headers(),
+                bytes);
+        return new FetchedPage(bytes, response.charset(), finalUrl);
+    }
+
+    /**
+     * Closes the WARC file pages are recorded in, if any.
+     */
+    @Override
+    public void close() throws IOException {
+        if (recorder != null) {
+            recorder.close();
+        }
+    }
+
+    private void record(String requestedUrl, String url, int statusCode, String statusMessage,
+                        Map<String, String> headers, byte[] body) throws IOException {
+        if (recorder != null) {
+            recorder.write(requestedUrl, url, statusCode, statusMessage, headers, body);
+        }
+    }
+}
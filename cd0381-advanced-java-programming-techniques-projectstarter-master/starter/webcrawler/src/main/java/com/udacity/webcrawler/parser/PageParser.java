@@ -1,5 +1,8 @@
 package com.udacity.webcrawler.parser;
 
+import com.udacity.webcrawler.profiler.Profiled;
+
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -7,15 +10,43 @@ import java.util.Map;
 
 public interface PageParser {
 
+    @Profiled
     Result parse();
 
     final class Result {
         private final Map<String, Integer> wordCounts;
         private final List<String> links;
+        private final long byteCount;
+        private final Duration fetchTime;
+        private final Duration parseTime;
+        private final String error;
 
         public Result(Map<String, Integer> wordCounts, List<String> links) {
+            this(wordCounts, links, 0, Duration.ZERO, Duration.ZERO);
+        }
+
+        public Result(
+                Map<String, Integer> wordCounts,
+                List<String> links,
+                long byteCount,
+                Duration fetchTime,
+                Duration parseTime) {
+            this(wordCounts, links, byteCount, fetchTime, parseTime, "");
+        }
+
+        public Result(
+                Map<String, Integer> wordCounts,
+                List<String> links,
+                long byteCount,
+                Duration fetchTime,
+                Duration parseTime,
+                String error) {
             this.wordCounts = wordCounts;
             this.links = links;
+            this.byteCount = byteCount;
+            this.fetchTime = fetchTime;
+            this.parseTime = parseTime;
+            this.error = error;
         }
 
         public Map<String, Integer> getWordCounts() {
@@ -26,9 +57,43 @@ public interface PageParser {
             return links;
         }
 
+        /**
+         * Returns the size of the downloaded page body in bytes, or 0 if the page could not be
+         * fetched.
+         */
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        /**
+         * Returns how long it took to download (or read, for local files) the page body.
+         */
+        public Duration getFetchTime() {
+            return fetchTime;
+        }
+
+        /**
+         * Returns how long it took to parse the page body and extract its words and links.
+         */
+        public Duration getParseTime() {
+            return parseTime;
+        }
+
+        /**
+         * Returns a short name for why the page could not be fetched or parsed, usually the simple
+         * name of the exception that was thrown, or an empty string if the page was parsed.
+         */
+        public String getError() {
+            return error;
+        }
+
         public static class Builder {
             private final Map<String, Integer> wordCounts = new HashMap<>();
             private final List<String> links = new ArrayList<>();
+            private long byteCount;
+            private Duration fetchTime = Duration.ZERO;
+            private Duration parseTime = Duration.ZERO;
+            private String error = "";
 
             public Builder addWord(String word) {
                 if (word == null || word.isEmpty()) {
@@ -46,9 +111,31 @@ public interface PageParser {
                 return this;
             }
 
+            public Builder setByteCount(long byteCount) {
+                this.byteCount = byteCount;
+                return this;
+            }
+
+            public Builder setFetchTime(Duration fetchTime) {
+                this.fetchTime = fetchTime;
+                return this;
+            }
+
+            public Builder setParseTime(Duration parseTime) {
+                this.parseTime = parseTime;
+                return this;
+            }
+
+            public Builder setError(String error) {
+                this.error = error;
+                return this;
+            }
+
             public Result build() {
                 // Return an immutable Result object with copies of current data
-                return new Result(Map.copyOf(wordCounts), List.copyOf(links));
+                return new Result(
+                        Map.copyOf(wordCounts), List.copyOf(links), byteCount, fetchTime, parseTime,
+                        error);
             }
         }
     }
@@ -1,13 +1,42 @@
 package com.udacity.webcrawler.parser;
 
+import java.io.Closeable;
+import java.io.IOException;
+
 /**
  * A factory interface that supplies instances of {@link PageParser} that have common parameters
  * (such as the timeout and ignored words) preset from injected values.
  */
-public interface PageParserFactory {
+public interface PageParserFactory extends Closeable {
 
   /**
    * Returns a {@link PageParser} that parses the given {@link url}.
    */
   PageParser get(String url);
+
+  /**
+   * Returns a {@link PageParser} that parses the given {@link url}, found {@code depth} links away
+   * from a start page. The depth is only used to annotate diagnostics, such as flight recorder
+   * events.
+   */
+  default PageParser get(String url, int depth) {
+    return get(url);
+  }
+
+  /**
+   * Returns a {@link PageParser} that parses the given {@link url}, found {@code depth} links away
+   * from the given start page. Root-relative links in a local page resolve against the directory
+   * of a local start page, unless the page is in the local corpus.
+   */
+  default PageParser get(String url, int depth, String startPage) {
+    return get(url, depth);
+  }
+
+  /**
+   * Releases what the parsers of this factory share, such as a WARC file that fetched pages are
+   * recorded in. Parsers must not be used afterwards.
+   */
+  @Override
+  default void close() throws IOException {
+  }
 }
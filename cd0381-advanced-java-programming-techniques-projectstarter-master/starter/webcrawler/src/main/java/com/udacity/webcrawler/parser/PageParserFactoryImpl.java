@@ -1,9 +1,11 @@
 package com.udacity.webcrawler.parser;
 
 import com.udacity.webcrawler.Timeout;
+import com.udacity.webcrawler.profiler.Probe;
 import com.udacity.webcrawler.profiler.Profiler;
 
 import javax.inject.Inject;
+import java.io.IOException;
 import java.time.Duration;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -13,22 +15,56 @@ import java.util.regex.Pattern;
  */
 final class PageParserFactoryImpl implements PageParserFactory {
   private final Profiler profiler;
-  private final List<Pattern> ignoredWords;
+  private final WordFilter ignoredWords;
   private final Duration timeout;
+  private final PageSource source;
+  private final Probe textNodeProbe;
+  private final boolean streaming;
+  private final LocalCorpus corpus;
+  private final WordDictionary dictionary;
 
   @Inject
   PageParserFactoryImpl(
-      Profiler profiler, @IgnoredWords List<Pattern> ignoredWords, @Timeout Duration timeout) {
+      Profiler profiler,
+      @IgnoredWords List<Pattern> ignoredWords,
+      @Timeout Duration timeout,
+      PageSource source,
+      @StreamingParser boolean streaming,
+      LocalCorpus corpus,
+      WordDictionary dictionary) {
     this.profiler = profiler;
-    this.ignoredWords = ignoredWords;
+    // Compiled once, since every page is filtered with the same patterns.
+    this.ignoredWords = WordFilter.compile(ignoredWords);
     this.timeout = timeout;
+    this.source = source;
+    this.textNodeProbe = profiler.probe(PageParserImpl.class, "processTextNode");
+    this.streaming = streaming;
+    this.corpus = corpus;
+    this.dictionary = dictionary;
   }
 
   @Override
   public PageParser get(String url) {
+    return get(url, 0);
+  }
+
+  @Override
+  public PageParser get(String url, int depth) {
+    return get(url, depth, url);
+  }
+
+  @Override
+  public PageParser get(String url, int depth, String startPage) {
     // Here, parse the page with the initial timeout (instead of just the time remaining), to make
     // the download less likely to fail. Deadline enforcement should happen at a higher level.
-    PageParser delegate = new PageParserImpl(url, timeout, ignoredWords);
+    PageParser delegate = new PageParserImpl(
+        url, startPage, depth, timeout, ignoredWords, textNodeProbe, source, streaming, corpus,
+        dictionary);
     return profiler.wrap(PageParser.class, delegate);
   }
+
+  @Override
+  public void close() throws IOException {
+    source.close();
+  }
 }
@@ -1,6 +1,12 @@
 package com.udacity.webcrawler.parser;
 
+import com.udacity.webcrawler.jfr.DownloadEvent;
+import com.udacity.webcrawler.jfr.ParseEvent;
+import com.udacity.webcrawler.jfr.TokenizeEvent;
+import com.udacity.webcrawler.profiler.Probe;
+import com.udacity.webcrawler.profiler.Profiled;
 import org.jsoup.Jsoup;
+import org.jsoup.internal.StringUtil;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.nodes.Node;
@@ -10,15 +16,21 @@ import org.jsoup.select.NodeVisitor;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.time.Duration;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 /**
@@ -27,34 +39,83 @@ import java.util.regex.Pattern;
  * <p>HTML parsing is done using the JSoup library. This class is a thin adapter around JSoup's API,
  * since JSoup does not know how to correctly resolve relative hyperlinks when parsing HTML from
  * local files.
+ *
+ * <p>In streaming mode, pages are instead read in a single pass by an {@link HtmlScanner}, which
+ * gives the same results as the Jsoup document for well-formed pages without building it. Pages
+ * whose charset must be detected from their contents are still parsed into a document.
+ *
+ * <p>Local files have no declared charset, so it is detected from their bytes by a
+ * {@link CharsetDetector}. Large local files are memory-mapped rather than copied onto the heap,
+ * and a {@link LocalCorpus} can tell which files exist, and how large they are, without asking the
+ * file system.
  */
 final class PageParserImpl implements PageParser {
 
     /**
-     * Matches whitespace characters.
-     */
-    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
-
-    /**
-     * Matches non-word characters.
+     * The size from which local files are memory-mapped. Smaller files are cheaper to read onto
+     * the heap than to map and unmap.
      */
-    private static final Pattern NON_WORD_CHARACTERS = Pattern.compile("\\W");
+    static final int MAPPED_READ_THRESHOLD = 1024 * 1024;
 
     private final String uri;
+    private final String startPage;
+    private final int depth;
     private final Duration timeout;
-    private final List<Pattern> ignoredWords;
+    private final WordFilter ignoredWords;
+    private final Probe textNodeProbe;
+    private final PageSource source;
+    private final boolean streaming;
+    private final LocalCorpus corpus;
+    private final WordDictionary dictionary;
 
     /**
-     * Constructs a page parser with the given parameters.
+     * Constructs a parser for a single page that is not part of a crawl: the page is its own start
+     * page, it is fetched directly and parsed into a Jsoup document, and its words are looked up in
+     * a dictionary of their own.
      *
      * @param uri          the URI of the file to parse.
      * @param timeout      the timeout to use when downloading the file, if it is remote.
      * @param ignoredWords patterns of which words should be ignored by the {@link #parse()} method.
      */
     PageParserImpl(String uri, Duration timeout, List<Pattern> ignoredWords) {
+        this(uri, uri, 0, timeout, WordFilter.compile(ignoredWords), Probe.NONE,
+                NetworkPageSource.DIRECT, false, LocalCorpus.NONE, new WordDictionary());
+    }
+
+    /**
+     * Constructs a page parser with the given parameters.
+     *
+     * @param uri           the URI of the file to parse.
+     * @param startPage     the URI of the start page the file was reached from. Root-relative
+     *                      links in a local file that is not in the corpus resolve against the
+     *                      directory of a local start page.
+     * @param depth         how many links away from a start page the file was found. Only used to
+     *                      annotate flight recorder events.
+     * @param timeout       the timeout to use when downloading the file, if it is remote.
+     * @param ignoredWords  the compiled patterns of words that the {@link #parse()} method ignores.
+     * @param textNodeProbe profiles calls of {@link #processTextNode}.
+     * @param source        where remote files are fetched from.
+     * @param streaming     whether to read pages with an {@link HtmlScanner} instead of parsing
+     *                      them into a Jsoup document.
+     * @param corpus        the index of local files to look files up in. Root-relative links in
+     *                      a file under its directory resolve against that directory.
+     * @param dictionary    the dictionary that gives the instance of each word, shared by every
+     *                      page of a crawl.
+     */
+    PageParserImpl(String uri, String startPage, int depth, Duration timeout,
+                   WordFilter ignoredWords, Probe textNodeProbe, PageSource source,
+                   boolean streaming, LocalCorpus corpus, WordDictionary dictionary) {
         this.uri = Objects.requireNonNull(uri, "uri must not be null");
+        this.startPage = Objects.requireNonNull(startPage, "startPage must not be null");
+        this.depth = depth;
         this.timeout = Objects.requireNonNull(timeout, "timeout must not be null");
         this.ignoredWords = Objects.requireNonNull(ignoredWords, "ignoredWords must not be null");
+        this.textNodeProbe =
+                Objects.requireNonNull(textNodeProbe, "textNodeProbe must not be null");
+        this.source = Objects.requireNonNull(source, "source must not be null");
+        this.streaming = streaming;
+        this.corpus = Objects.requireNonNull(corpus, "corpus must not be null");
+        this.dictionary = Objects.requireNonNull(dictionary, "dictionary must not be null");
     }
 
     @Override
@@ -64,25 +125,53 @@ final class PageParserImpl implements PageParser {
             parsedUri = new URI(uri);
         } catch (URISyntaxException e) {
             // Invalid URI; return empty result
-            return new Result.Builder().build();
+            return new Result.Builder().setError(e.getClass().getSimpleName()).build();
         }
 
-        Document document;
+        long fetchStart = System.nanoTime();
+        FetchedPage page;
+        String html = null;
+        Document document = null;
         try {
-            document = parseDocument(parsedUri);
+            page = fetch(parsedUri);
+            if (streaming && page.getCharset() != null) {
+                html = decode(page);
+            } else {
+                document = parseBody(page);
+            }
         } catch (Exception e) {
             // Handle exceptions like invalid URIs or unsupported mimetypes gracefully
-            return new Result.Builder().build();
+            return new Result.Builder().setError(e.getClass().getSimpleName()).build();
         }
 
-        Result.Builder builder = new Result.Builder();
+        Result.Builder builder = new Result.Builder()
+                .setByteCount(page.getLength())
+                .setFetchTime(Duration.ofNanos(page.getFetchedAt() - fetchStart));
 
         // Traverse the document to gather all links and words
+        TokenizeEvent tokenizeEvent = new TokenizeEvent();
+        tokenizeEvent.begin();
+        WordTokenizer tokenizer = new WordTokenizer(ignoredWords, dictionary);
+        Consumer<String> words = builder::addWord;
+        if (html != null) {
+            scan(html, page.getBaseUri(), parsedUri, tokenizer, words, builder);
+        } else {
+            traverse(document, parsedUri, tokenizer, words, builder);
+        }
+        tokenizeEvent.finish(uri, depth, page.getLength());
+
+        return builder
+                .setParseTime(Duration.ofNanos(System.nanoTime() - page.getFetchedAt()))
+                .build();
+    }
+
+    private void traverse(Document document, URI parsedUri, WordTokenizer tokenizer,
+                          Consumer<String> words, Result.Builder builder) {
         document.traverse(new NodeVisitor() {
             @Override
             public void head(Node node, int depth) {
                 if (node instanceof TextNode) {
-                    processTextNode((TextNode) node, builder);
+                    processTextNode(((TextNode) node).text(), tokenizer, words);
                     return;
                 }
                 if (!(node instanceof Element)) {
@@ -96,22 +185,90 @@ final class PageParserImpl implements PageParser {
                 // No action needed on tail
             }
         });
+    }
 
-        return builder.build();
+    /**
+     * Gathers the links and words of a page in a single pass over its HTML, reporting the same
+     * text and links as {@link #traverse} would for the Jsoup document.
+     */
+    private void scan(String html, String baseUri, URI parsedUri, WordTokenizer tokenizer,
+                      Consumer<String> words, Result.Builder builder) {
+        ScanHandler handler = new ScanHandler(baseUri, parsedUri, tokenizer, words, builder);
+        HtmlScanner.scan(html, handler);
+        handler.addRemoteLinks();
     }
 
-    private void processTextNode(TextNode textNode, Result.Builder builder) {
-        String text = textNode.text().strip();
-        if (text.isEmpty()) {
-            return;
+    /**
+     * Processes the text and links of a page as an {@link HtmlScanner} reads them.
+     */
+    private final class ScanHandler implements HtmlScanner.Handler {
+        private final URI parsedUri;
+        private final WordTokenizer tokenizer;
+        private final Consumer<String> words;
+        private final Result.Builder builder;
+        // The first <base> with a usable href changes the base URI of every link, even earlier
+        // ones, so remote links are only resolved once the whole page has been read.
+        private final List<String> remoteHrefs = new ArrayList<>();
+        private String baseUri;
+        private boolean baseFound;
+
+        ScanHandler(String baseUri, URI parsedUri, WordTokenizer tokenizer,
+                    Consumer<String> words, Result.Builder builder) {
+            this.baseUri = baseUri;
+            this.parsedUri = parsedUri;
+            this.tokenizer = tokenizer;
+            this.words = words;
+            this.builder = builder;
+        }
+
+        @Override
+        public void text(String text) {
+            // Jsoup normalizes the whitespace of text nodes, which only changes their words if
+            // they have a non-breaking space or a character it drops.
+            boolean changesWords = text.indexOf('\u00A0') >= 0 || text.indexOf('\u00AD') >= 0
+                    || text.indexOf('\u200B') >= 0;
+            processTextNode(
+                    changesWords ? StringUtil.normaliseWhitespace(text) : text, tokenizer, words);
+        }
+
+        @Override
+        public void cdata(String text) {
+            processTextNode(text, tokenizer, words);
+        }
+
+        @Override
+        public void link(String href) {
+            if (isLocalFile(parsedUri)) {
+                builder.addLink(resolveLocalLink(parsedUri, href));
+            } else {
+                remoteHrefs.add(href);
+            }
+        }
+
+        @Override
+        public void base(String href) {
+            if (baseFound) {
+                return;
+            }
+            String resolved = StringUtil.resolve(baseUri, href);
+            if (!resolved.isEmpty()) {
+                baseUri = resolved;
+                baseFound = true;
+            }
         }
 
-        Arrays.stream(WHITESPACE.split(text))
-                .filter(s -> !s.isBlank())
-                .filter(s -> ignoredWords.stream().noneMatch(p -> p.matcher(s).matches()))
-                .map(s -> NON_WORD_CHARACTERS.matcher(s).replaceAll(""))
-                .map(String::toLowerCase)
-                .forEach(builder::addWord);
+        void addRemoteLinks() {
+            for (String href : remoteHrefs) {
+                builder.addLink(StringUtil.resolve(baseUri, href));
+            }
+        }
+    }
+
+    @Profiled
+    private void processTextNode(String text, WordTokenizer tokenizer, Consumer<String> words) {
+        try (Probe.Call ignored = textNodeProbe.start()) {
+            tokenizer.tokenize(text, words);
+        }
     }
 
     private void processElementNode(Element element, URI baseUri, Result.Builder builder) {
@@ -120,10 +277,7 @@ final class PageParserImpl implements PageParser {
         }
 
         if (isLocalFile(baseUri)) {
-            // Manually construct absolute URL for local files
-            Path basePath = Path.of(baseUri);
-            Path linkPath = basePath.getParent().resolve(element.attr("href")).normalize();
-            builder.addLink(linkPath.toUri().toString());
+            builder.addLink(resolveLocalLink(baseUri, element.attr("href")));
         } else {
             // Let Jsoup resolve absolute URL for remote resources
             builder.addLink(element.attr("abs:href"));
@@ -131,17 +285,128 @@ final class PageParserImpl implements PageParser {
     }
 
     /**
-     * Parses a document from the provided {@link URI}, either local or remote.
+     * Manually constructs the absolute URL of a link in a local file.
+     *
+     * <p>A root-relative link resolves against the root of the local site the file belongs to:
+     * the corpus directory if the file is in it, or else the directory of the local start page
+     * the file was reached from. Without either, it resolves against the root of the file system.
+     */
+    private String resolveLocalLink(URI baseUri, String href) {
+        Path basePath = Path.of(baseUri);
+        if (href.startsWith("/")) {
+            Path root = siteRoot(basePath);
+            if (root != null) {
+                return root.resolve(href.substring(1)).normalize().toUri().toString();
+            }
+        }
+        return basePath.getParent().resolve(href).normalize().toUri().toString();
+    }
+
+    /**
+     * Returns the root of the local site the given file belongs to, or {@code null} if it has none.
+     */
+    private Path siteRoot(Path file) {
+        Path corpusRoot = corpus.rootOf(file);
+        if (corpusRoot != null) {
+            return corpusRoot;
+        }
+        URI start;
+        try {
+            start = new URI(startPage);
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        return isLocalFile(start) ? Path.of(start).getParent() : null;
+    }
+
+    /**
+     * Downloads the raw body of the page at the provided {@link URI}, either local or remote.
      */
-    private Document parseDocument(URI uri) throws IOException {
+    private FetchedPage fetch(URI uri) throws IOException {
         if (!isLocalFile(uri)) {
-            return Jsoup.parse(uri.toURL(), (int) timeout.toMillis());
+            return source.fetch(uri.toString(), depth, timeout);
         }
 
-        // Workaround for Jsoup baseUri issues on local "file://" URIs:
-        try (InputStream inputStream = Files.newInputStream(Path.of(uri))) {
-            return Jsoup.parse(inputStream, StandardCharsets.UTF_8.name(), "");
+        // Workaround for Jsoup baseUri issues on local "file://" URIs: parse with an empty base.
+        DownloadEvent downloadEvent = new DownloadEvent();
+        downloadEvent.begin();
+        Path path = Path.of(uri);
+        long size = corpus.sizeOf(path);
+        if (size == LocalCorpus.MISSING) {
+            throw new NoSuchFileException(path.toString());
+        }
+        ByteBuffer body = readLocalFile(path, size);
+        downloadEvent.finish(this.uri, depth, body.limit());
+        return new FetchedPage(body, CharsetDetector.detect(body).name(), "");
+    }
+
+    /**
+     * Reads a local file, memory-mapping it if it is at least {@link #MAPPED_READ_THRESHOLD} bytes.
+     *
+     * @param size the size of the file, or a negative number if it is not known.
+     */
+    static ByteBuffer readLocalFile(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path)) {
+            if (size < 0) {
+                size = channel.size();
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to parse: " + path);
+            }
+            if (size >= MAPPED_READ_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer body = ByteBuffer.allocate((int) size);
+            while (body.hasRemaining() && channel.read(body) >= 0) {
+                // Keep reading until the buffer is full or the file ends.
+            }
+            return body.flip();
+        }
+    }
+
+    /**
+     * Parses a downloaded page body into a Jsoup {@link Document}.
+     */
+    private Document parseBody(FetchedPage page) throws IOException {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        // A null charset lets Jsoup detect it from the BOM or <meta> tags. Jsoup decodes the
+        // stream a buffer at a time, so a mapped file is never copied onto the heap whole.
+        Document document =
+                Jsoup.parse(page.openStream(), page.getCharset(), page.getBaseUri());
+        event.finish(uri, depth, page.getLength());
+        return document;
+    }
+
+    /**
+     * Decodes a downloaded page body in its charset, which must be known, the way Jsoup does: a
+     * byte order mark takes precedence over the charset.
+     */
+    private static String decode(FetchedPage page) throws IOException {
+        ByteBuffer body = page.getBody();
+        Charset charset = CharsetDetector.byteOrderMark(body);
+        if (charset == null) {
+            charset = Charset.forName(page.getCharset());
+        } else if (charset.equals(StandardCharsets.UTF_8)) {
+            body.position(3);
+        }
+        if (body.hasArray()) {
+            return new String(body.array(), body.arrayOffset() + body.position(), body.remaining(),
+                    charset);
+        }
+
+        // A mapped file is decoded a buffer at a time, instead of being copied onto the heap first.
+        InputStream stream = page.openStream();
+        stream.skipNBytes(body.position());
+        StringBuilder text = new StringBuilder(body.remaining());
+        try (Reader reader = new InputStreamReader(stream, charset)) {
+            char[] buffer = new char[8192];
+            int count;
+            while ((count = reader.read(buffer)) >= 0) {
+                text.append(buffer, 0, count);
+            }
         }
+        return text.toString();
     }
 
     /**
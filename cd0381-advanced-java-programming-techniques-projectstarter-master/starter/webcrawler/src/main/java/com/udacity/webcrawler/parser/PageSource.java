@@ -0,0 +1,26 @@
+package com.udacity.webcrawler.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Where {@link PageParserImpl} gets remote pages from: the network, or a recorded crawl.
+ */
+interface PageSource extends Closeable {
+
+    /**
+     * Fetches the page at the given remote URL, following redirects.
+     *
+     * @param depth how many links away from a start page the page was found. Only used to annotate
+     *              flight recorder events.
+     */
+    FetchedPage fetch(String url, int depth, Duration timeout) throws IOException;
+
+    /**
+     * Releases the files the source holds open. Sources that hold none do nothing.
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
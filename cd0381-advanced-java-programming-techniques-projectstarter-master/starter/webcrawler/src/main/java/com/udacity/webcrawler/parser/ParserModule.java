@@ -2,7 +2,14 @@ package com.udacity.webcrawler.parser;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Key;
+import com.google.inject.Provides;
+import com.udacity.webcrawler.warc.WarcArchive;
+import com.udacity.webcrawler.warc.WarcWriter;
 
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
@@ -15,28 +22,88 @@ import java.util.regex.Pattern;
 public final class ParserModule extends AbstractModule {
   private final Duration timeout;
   private final List<Pattern> ignoredWords;
+  private final String warcRecordPath;
+  private final String warcReplayPath;
+  private final boolean streamingParser;
+  private final String localCorpusPath;
 
   /**
-   * Creates a {@link ParserModule} from the given timeout and ignored word patterns.
+   * Creates a {@link ParserModule} from the given timeout, ignored word patterns, WARC paths,
+   * parser mode and local corpus path.
    */
-  private ParserModule(Duration timeout, List<Pattern> ignoredWords) {
+  private ParserModule(
+      Duration timeout,
+      List<Pattern> ignoredWords,
+      String warcRecordPath,
+      String warcReplayPath,
+      boolean streamingParser,
+      String localCorpusPath) {
     this.timeout = timeout;
     this.ignoredWords = ignoredWords;
+    this.warcRecordPath = warcRecordPath;
+    this.warcReplayPath = warcReplayPath;
+    this.streamingParser = streamingParser;
+    this.localCorpusPath = localCorpusPath;
   }
 
   @Override
   protected void configure() {
     bind(Key.get(Duration.class, ParseDeadline.class)).toInstance(timeout);
     bind(new Key<List<Pattern>>(IgnoredWords.class) {}).toInstance(ignoredWords);
+    bind(Key.get(Boolean.class, StreamingParser.class)).toInstance(streamingParser);
     bind(PageParserFactory.class).to(PageParserFactoryImpl.class);
   }
 
+  @Provides
+  @Singleton
+  PageSource providePageSource() {
+    if (!warcReplayPath.isEmpty()) {
+      try {
+        return new ReplayPageSource(WarcArchive.open(Path.of(warcReplayPath)));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to open WARC archive", e);
+      }
+    }
+    if (!warcRecordPath.isEmpty()) {
+      try {
+        return new NetworkPageSource(WarcWriter.open(Path.of(warcRecordPath)));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to create WARC file", e);
+      }
+    }
+    return NetworkPageSource.DIRECT;
+  }
+
+  @Provides
+  @Singleton
+  WordDictionary provideWordDictionary() {
+    // Shared by every page parser, so that each word of the crawl has a single instance.
+    return new WordDictionary();
+  }
+
+  @Provides
+  @Singleton
+  LocalCorpus provideLocalCorpus() {
+    if (localCorpusPath.isEmpty()) {
+      return LocalCorpus.NONE;
+    }
+    try {
+      return LocalCorpus.scan(Path.of(localCorpusPath));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to scan local corpus", e);
+    }
+  }
+
   /**
    * A builder class for {@link ParserModule}.
    */
   public static final class Builder {
     private Duration timeout;
     private List<Pattern> ignoredWords;
+    private String warcRecordPath = "";
+    private String warcReplayPath = "";
+    private boolean streamingParser;
+    private String localCorpusPath = "";
 
     /**
      * Sets the timeout that will be used by the page parser.
@@ -54,11 +121,54 @@ public final class ParserModule extends AbstractModule {
       return this;
     }
 
+    /**
+     * Sets the path of a WARC file that every remote page fetched by the page parser is recorded
+     * in, or an empty string to record nothing.
+     */
+    public Builder setWarcRecordPath(String warcRecordPath) {
+      this.warcRecordPath = Objects.requireNonNull(warcRecordPath);
+      return this;
+    }
+
+    /**
+     * Sets the path of a WARC file that the page parser fetches remote pages from instead of the
+     * network, or an empty string to fetch them from the network.
+     */
+    public Builder setWarcReplayPath(String warcReplayPath) {
+      this.warcReplayPath = Objects.requireNonNull(warcReplayPath);
+      return this;
+    }
+
+    /**
+     * Sets whether the page parser reads pages in a single pass, without building a document
+     * tree. This uses much less memory per page, and gives the same results except on some
+     * malformed pages, which the document parser repairs. It is off by default.
+     */
+    public Builder setStreamingParser(boolean streamingParser) {
+      this.streamingParser = streamingParser;
+      return this;
+    }
+
+    /**
+     * Sets the path of a local directory that holds the local pages to crawl, or an empty string
+     * if there is none. The directory is scanned once before the crawl, so that the page parser
+     * knows which local files exist and how large they are without asking the file system. It
+     * must not change during the crawl.
+     */
+    public Builder setLocalCorpusPath(String localCorpusPath) {
+      this.localCorpusPath = Objects.requireNonNull(localCorpusPath);
+      return this;
+    }
+
     /**
      * Builds a {@link ParserModule} from this {@link Builder}.
      */
     public ParserModule build() {
-      return new ParserModule(timeout, ignoredWords);
+      if (!warcRecordPath.isEmpty() && !warcReplayPath.isEmpty()) {
+        throw new IllegalArgumentException("Cannot both record and replay a WARC file");
+      }
+      return new ParserModule(
+          timeout, ignoredWords, warcRecordPath, warcReplayPath, streamingParser, localCorpusPath);
     }
   }
 }
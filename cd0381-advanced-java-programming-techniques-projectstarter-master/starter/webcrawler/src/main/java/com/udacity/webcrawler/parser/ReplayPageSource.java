@@ -0,0 +1,94 @@
+package com.udacity.webcrawler.parser;
+
+import com.udacity.webcrawler.jfr.DownloadEvent;
+import com.udacity.webcrawler.warc.WarcArchive;
+import com.udacity.webcrawler.warc.WarcResponse;
+import org.jsoup.HttpStatusException;
+import org.jsoup.UnsupportedMimeTypeException;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves pages from a {@link WarcArchive} instead of the network, so that a recorded crawl can be
+ * replayed at local-disk speed.
+ *
+ * <p>Responses are checked and decoded the way Jsoup checks and decodes live ones, so a replayed
+ * page parses to exactly what it did when it was recorded, or fails with the same exception. URLs
+ * that were never recorded, such as pages that timed out, fail with a
+ * {@link FileNotFoundException}.
+ */
+final class ReplayPageSource implements PageSource {
+
+    // The patterns Jsoup uses to find the charset and accept the content type of a response.
+    private static final Pattern CHARSET =
+            Pattern.compile("(?i)\\bcharset=\\s*(?:[\"'])?([^\\s,;\"']*)");
+    private static final Pattern XML_CONTENT_TYPE =
+            Pattern.compile("(application|text)/\\w*\\+?xml.*");
+
+    private final WarcArchive archive;
+
+    ReplayPageSource(WarcArchive archive) {
+        this.archive = archive;
+    }
+
+    @Override
+    public FetchedPage fetch(String url, int depth, Duration timeout) throws IOException {
+        DownloadEvent downloadEvent = new DownloadEvent();
+        downloadEvent.begin();
+        WarcResponse response = archive.find(url);
+        if (response == null) {
+            throw new FileNotFoundException("No response recorded for " + url);
+        }
+        int status = response.getStatusCode();
+        if (status < 200 || status >= 400) {
+            throw new HttpStatusException("HTTP error fetching URL", status, response.getUrl());
+        }
+        String contentType = response.getHeader("Content-Type");
+        if (contentType != null && !contentType.startsWith("text/")
+                && !XML_CONTENT_TYPE.matcher(contentType).matches()) {
+            throw new UnsupportedMimeTypeException(
+                    "Unhandled content type. Must be text/*, application/xml, or application/*+xml",
+                    contentType, response.getUrl());
+        }
+        byte[] body = response.getBody();
+        downloadEvent.finish(url, depth, body.length);
+        return new FetchedPage(body, charsetOf(contentType), response.getUrl());
+    }
+
+    /**
+     * Returns the supported charset named by the given content type, or {@code null} to let Jsoup
+     * detect it.
+     */
+    static String charsetOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        Matcher matcher = CHARSET.matcher(contentType);
+        if (!matcher.find()) {
+            return null;
+        }
+        String charset = matcher.group(1).trim().replace("charset=", "").replaceAll("[\"']", "");
+        if (charset.isEmpty()) {
+            return null;
+        }
+        try {
+            if (Charset.isSupported(charset)) {
+                return charset;
+            }
+            charset = charset.toUpperCase(Locale.ENGLISH);
+            if (Charset.isSupported(charset)) {
+                return charset;
+            }
+        } catch (IllegalCharsetNameException e) {
+            // Jsoup falls back to detection too.
+        }
+        return null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.udacity.webcrawler.parser;
+
+import javax.inject.Qualifier;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * A binding annotation for whether pages are read in a single streaming pass instead of being
+ * parsed into a document.
+ *
+ * <p>Like {@link IgnoredWords}, this annotation is package-private, and only used so that the
+ * Guice module in this package can configure the HTML parser implementation.
+ */
+@Qualifier
+@Retention(RetentionPolicy.RUNTIME)
+@interface StreamingParser {
+}
@@ -0,0 +1,109 @@
+package com.udacity.webcrawler.parser;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A concurrent dictionary of the words found by a crawl, which gives every occurrence of a word
+ * the same {@link String} instance.
+ *
+ * <p>Words are looked up straight from the buffer a {@link WordTokenizer} builds them in, so a word
+ * that was seen before, on any page, is not allocated again. Since there is a single instance of
+ * each word, its hash code is only computed once, and maps keyed by words, such as the word counts
+ * of each page and of the whole crawl, find their keys by identity, which {@code HashMap} and
+ * {@code ConcurrentHashMap} check before calling {@code equals}.
+ *
+ * <p>The words are kept in an open-addressed table. Looking up a known word takes no lock: a
+ * {@link String} is safely published by its final fields, and a lookup that misses a word added
+ * by another thread only falls through to the locked path that adds words and grows the table.
+ */
+final class WordDictionary {
+
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    private volatile AtomicReferenceArray<String> table =
+            new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    private int size;
+
+    /**
+     * Returns the word made of the given characters.
+     *
+     * @param chars  a buffer holding the characters of the word from index zero.
+     * @param length the number of characters in the word.
+     * @param hash   the {@link String#hashCode()} of the word.
+     */
+    String intern(char[] chars, int length, int hash) {
+        AtomicReferenceArray<String> table = this.table;
+        int mask = table.length() - 1;
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            String word = table.get(i);
+            if (word == null) {
+                return add(chars, length, hash);
+            }
+            if (word.hashCode() == hash && matches(word, chars, length)) {
+                return word;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of words in the dictionary.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    private synchronized String add(char[] chars, int length, int hash) {
+        // The word may have been added, or the table grown, since the lock-free lookup.
+        AtomicReferenceArray<String> table = this.table;
+        int mask = table.length() - 1;
+        int i = spread(hash) & mask;
+        for (String word; (word = table.get(i)) != null; i = (i + 1) & mask) {
+            if (word.hashCode() == hash && matches(word, chars, length)) {
+                return word;
+            }
+        }
+        String word = new String(chars, 0, length);
+        table.set(i, word);
+        if (++size * 2 > table.length()) {
+            this.table = grow(table);
+        }
+        return word;
+    }
+
+    private static AtomicReferenceArray<String> grow(AtomicReferenceArray<String> table) {
+        AtomicReferenceArray<String> grown = new AtomicReferenceArray<>(table.length() * 2);
+        int mask = grown.length() - 1;
+        for (int j = 0; j < table.length(); j++) {
+            String word = table.get(j);
+            if (word == null) {
+                continue;
+            }
+            int i = spread(word.hashCode()) & mask;
+            while (grown.get(i) != null) {
+                i = (i + 1) & mask;
+            }
+            grown.set(i, word);
+        }
+        return grown;
+    }
+
+    private static boolean matches(String word, char[] chars, int length) {
+        if (word.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mixes the high bits of a hash code into the low bits that index the table, as
+     * {@code HashMap} does, so that they also help spread the words.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,415 @@
+package com.udacity.webcrawler.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The {@link IgnoredWords} patterns compiled into the cheapest checks that give the same results.
+ *
+ * <p>A token is ignored if any pattern {@link java.util.regex.Matcher#matches() matches} all of
+ * it. Most patterns in practice are one of two simple shapes, which are checked without running
+ * a regular expression:
+ * <ul>
+ *   <li>length rules, such as {@code ^.{1,3}$}, which only count the token's code points;</li>
+ *   <li>literals, such as {@code ^the$}, {@code (?i)the} or {@code \Qit's\E}, which are looked up
+ *       in a hash set straight from the token's characters.</li>
+ * </ul>
+ * Any other pattern, or any pattern with a flag that could change what it matches, such as
+ * {@link Pattern#UNICODE_CASE}, is matched as a regular expression.
+ *
+ * <p>This class is immutable and thread-safe, but its {@link Matcher}s are not.
+ */
+final class WordFilter {
+
+    /**
+     * Ignores nothing.
+     */
+    static final WordFilter NONE = compile(List.of());
+
+    // Flags that never change which tokens a literal or length rule matches. MULTILINE only
+    // changes where ^ and $ match inside the input, and they are only allowed at its ends.
+    private static final int NEUTRAL_FLAGS = Pattern.MULTILINE | Pattern.DOTALL
+            | Pattern.UNIX_LINES | Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    private final int[] minLengths;
+    private final int[] maxLengths;
+    private final int[] dotFlags;
+    private final LiteralSet literals;
+    private final LiteralSet asciiCaseInsensitiveLiterals;
+    private final Pattern[] regexes;
+
+    private WordFilter(List<int[]> lengthRules, List<String> literals,
+                       List<String> asciiCaseInsensitiveLiterals, List<Pattern> regexes) {
+        this.minLengths = new int[lengthRules.size()];
+        this.maxLengths = new int[lengthRules.size()];
+        this.dotFlags = new int[lengthRules.size()];
+        for (int i = 0; i < lengthRules.size(); i++) {
+            minLengths[i] = lengthRules.get(i)[0];
+            maxLengths[i] = lengthRules.get(i)[1];
+            dotFlags[i] = lengthRules.get(i)[2];
+        }
+        this.literals = new LiteralSet(literals, false);
+        this.asciiCaseInsensitiveLiterals = new LiteralSet(asciiCaseInsensitiveLiterals, true);
+        this.regexes = regexes.toArray(new Pattern[0]);
+    }
+
+    /**
+     * Compiles the given ignored-word patterns.
+     */
+    static WordFilter compile(List<Pattern> patterns) {
+        List<int[]> lengthRules = new ArrayList<>();
+        List<String> literals = new ArrayList<>();
+        List<String> asciiCaseInsensitiveLiterals = new ArrayList<>();
+        List<Pattern> regexes = new ArrayList<>();
+        for (Pattern pattern : patterns) {
+            Parsed parsed = Parsed.of(pattern);
+            int[] lengthRule = parsed == null ? null : parsed.lengthRule();
+            String literal = parsed == null ? null : parsed.literal();
+            if (lengthRule != null) {
+                lengthRules.add(lengthRule);
+            } else if (literal == null) {
+                regexes.add(pattern);
+            } else if ((parsed.flags & Pattern.CASE_INSENSITIVE) == 0) {
+                literals.add(literal);
+            } else if ((parsed.flags & Pattern.UNICODE_CASE) == 0) {
+                // Without UNICODE_CASE, only ASCII letters match case-insensitively.
+                asciiCaseInsensitiveLiterals.add(asciiLowerCase(literal));
+            } else {
+                regexes.add(pattern);
+            }
+        }
+        return new WordFilter(lengthRules, literals, asciiCaseInsensitiveLiterals, regexes);
+    }
+
+    /**
+     * Returns the number of patterns that are matched as regular expressions.
+     */
+    int regexCount() {
+        return regexes.length;
+    }
+
+    /**
+     * Returns a new matcher for this filter.
+     */
+    Matcher matcher() {
+        return new Matcher();
+    }
+
+    /**
+     * Checks tokens of one text at a time against a {@link WordFilter}. It reuses its regular
+     * expression matchers, so it is not thread-safe.
+     */
+    final class Matcher {
+        private final java.util.regex.Matcher[] regexMatchers =
+                new java.util.regex.Matcher[regexes.length];
+        private CharSequence text = "";
+
+        private Matcher() {
+            for (int i = 0; i < regexMatchers.length; i++) {
+                regexMatchers[i] = regexes[i].matcher("");
+            }
+        }
+
+        /**
+         * Sets the text that following calls of {@link #isIgnored(int, int)} check tokens of.
+         */
+        void reset(CharSequence text) {
+            this.text = text;
+            for (java.util.regex.Matcher matcher : regexMatchers) {
+                matcher.reset(text);
+            }
+        }
+
+        /**
+         * Returns whether the token between the given indices of the text is ignored.
+         */
+        boolean isIgnored(int start, int end) {
+            if (minLengths.length > 0 && matchesLengthRule(start, end)) {
+                return true;
+            }
+            if (literals.contains(text, start, end)
+                    || asciiCaseInsensitiveLiterals.contains(text, start, end)) {
+                return true;
+            }
+            for (java.util.regex.Matcher matcher : regexMatchers) {
+                // Regions have opaque, anchoring bounds, so this matches as if on the token alone.
+                if (matcher.region(start, end).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesLengthRule(int start, int end) {
+            int length = Character.codePointCount(text, start, end);
+            boolean hasNewline = false;
+            boolean hasLineTerminator = false;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                hasNewline |= c == '\n';
+                hasLineTerminator |= c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028'
+                        || c == '\u2029';
+            }
+            for (int i = 0; i < minLengths.length; i++) {
+                // The dot matches any character but line terminators, which DOTALL and
+                // UNIX_LINES narrow down.
+                boolean dotMatchesAll = (dotFlags[i] & Pattern.DOTALL) != 0
+                        || ((dotFlags[i] & Pattern.UNIX_LINES) != 0 ? !hasNewline
+                        : !hasLineTerminator);
+                if (dotMatchesAll && length >= minLengths[i] && length <= maxLengths[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static String asciiLowerCase(CharSequence s) {
+        StringBuilder lower = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            lower.append(asciiLowerCase(s.charAt(i)));
+        }
+        return lower.toString();
+    }
+
+    private static char asciiLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * The shape of a pattern: its flags, including any leading inline flags such as {@code (?i)},
+     * and its body between optional {@code ^} and {@code $} anchors. At the ends of the input,
+     * which {@link java.util.regex.Matcher#matches()} must match, the anchors match trivially.
+     */
+    private static final class Parsed {
+        private final int flags;
+        private final String body;
+        private final boolean nonEmpty;
+
+        private Parsed(int flags, String body, boolean nonEmpty) {
+            this.flags = flags;
+            this.body = body;
+            this.nonEmpty = nonEmpty;
+        }
+
+        /**
+         * Returns the shape of the given pattern, or {@code null} if it has flags that would have
+         * to be matched as a regular expression.
+         */
+        static Parsed of(Pattern pattern) {
+            int flags = pattern.flags();
+            String source = pattern.pattern();
+            if ((flags & Pattern.LITERAL) != 0) {
+                return (flags & ~Pattern.LITERAL & ~NEUTRAL_FLAGS) == 0
+                        ? new Parsed(flags, Pattern.quote(source), false) : null;
+            }
+            int start = 0;
+            if (source.startsWith("(?")) {
+                int close = source.indexOf(')');
+                if (close < 0) {
+                    return null;
+                }
+                for (int i = 2; i < close; i++) {
+                    int flag = inlineFlag(source.charAt(i));
+                    if (flag == 0) {
+                        return null;
+                    }
+                    flags |= flag;
+                }
+                start = close + 1;
+            }
+            if ((flags & Pattern.UNICODE_CHARACTER_CLASS) != 0) {
+                // This also turns on UNICODE_CASE.
+                flags = flags & ~Pattern.UNICODE_CHARACTER_CLASS | Pattern.UNICODE_CASE;
+            }
+            if ((flags & ~NEUTRAL_FLAGS) != 0) {
+                return null;
+            }
+            boolean nonEmpty = false;
+            if (source.startsWith("^", start)) {
+                // In MULTILINE mode, ^ never matches at the end of the input, so not in an empty
+                // one.
+                nonEmpty = (flags & Pattern.MULTILINE) != 0;
+                start++;
+            }
+            int end = source.length();
+            if (end > start && source.charAt(end - 1) == '$'
+                    && !isEscaped(source, start, end - 1)) {
+                end--;
+            }
+            return new Parsed(flags, source.substring(start, end), nonEmpty);
+        }
+
+        private static int inlineFlag(char c) {
+            return switch (c) {
+                case 'i' -> Pattern.CASE_INSENSITIVE;
+                case 'd' -> Pattern.UNIX_LINES;
+                case 'm' -> Pattern.MULTILINE;
+                case 's' -> Pattern.DOTALL;
+                case 'u' -> Pattern.UNICODE_CASE;
+                case 'x' -> Pattern.COMMENTS;
+                case 'U' -> Pattern.UNICODE_CHARACTER_CLASS;
+                default -> 0;
+            };
+        }
+
+        /**
+         * Returns whether the character at the given index is escaped by a backslash, counting
+         * back no further than {@code start}.
+         */
+        private static boolean isEscaped(String s, int start, int index) {
+            int backslashes = 0;
+            for (int i = index - 1; i >= start && s.charAt(i) == '\\'; i--) {
+                backslashes++;
+            }
+            return backslashes % 2 == 1;
+        }
+
+        /**
+         * Returns {@code {min, max, flags}} if the body is a dot with a greedy quantifier, such
+         * as {@code .{1,3}}, or else {@code null}.
+         */
+        int[] lengthRule() {
+            if (body.length() < 2 || body.charAt(0) != '.') {
+                return null;
+            }
+            String quantifier = body.substring(1);
+            int min;
+            int max;
+            switch (quantifier) {
+                case "*" -> {
+                    min = 0;
+                    max = Integer.MAX_VALUE;
+                }
+                case "+" -> {
+                    min = 1;
+                    max = Integer.MAX_VALUE;
+                }
+                case "?" -> {
+                    min = 0;
+                    max = 1;
+                }
+                default -> {
+                    if (!quantifier.matches("\\{\\d{1,9}(,\\d{0,9})?}")) {
+                        return null;
+                    }
+                    String[] bounds = quantifier.substring(1, quantifier.length() - 1)
+                            .split(",", -1);
+                    min = Integer.parseInt(bounds[0]);
+                    max = bounds.length == 1 ? min
+                            : bounds[1].isEmpty() ? Integer.MAX_VALUE
+                            : Integer.parseInt(bounds[1]);
+                }
+            }
+            return new int[] {nonEmpty ? Math.max(min, 1) : min, max, flags};
+        }
+
+        /**
+         * Returns the string the body matches if it is a literal, or else {@code null}. Escaped
+         * metacharacters and {@code \Q...\E} quotes are literal too.
+         */
+        String literal() {
+            StringBuilder literal = new StringBuilder(body.length());
+            int i = 0;
+            while (i < body.length()) {
+                char c = body.charAt(i);
+                if (c != '\\') {
+                    if (METACHARACTERS.indexOf(c) >= 0) {
+                        return null;
+                    }
+                    literal.append(c);
+                    i++;
+                    continue;
+                }
+                if (i + 1 == body.length()) {
+                    return null;
+                }
+                char escaped = body.charAt(i + 1);
+                if (escaped == 'Q') {
+                    int quoteEnd = body.indexOf("\\E", i + 2);
+                    literal.append(body, i + 2, quoteEnd < 0 ? body.length() : quoteEnd);
+                    i = quoteEnd < 0 ? body.length() : quoteEnd + 2;
+                } else if (METACHARACTERS.indexOf(escaped) >= 0) {
+                    literal.append(escaped);
+                    i += 2;
+                } else {
+                    // Escapes such as \w or \t, or errors such as \y.
+                    return null;
+                }
+            }
+            return nonEmpty && literal.isEmpty() ? null : literal.toString();
+        }
+    }
+
+    /**
+     * An open-addressing hash set of strings that is probed with a range of a
+     * {@link CharSequence}, so that looking up a token does not copy it.
+     */
+    private static final class LiteralSet {
+        private final String[] table;
+        private final int mask;
+        private final boolean ignoreAsciiCase;
+        private final int minLength;
+        private final int maxLength;
+
+        LiteralSet(List<String> literals, boolean ignoreAsciiCase) {
+            // At most half full, so that probe sequences stay short.
+            int capacity = Integer.highestOneBit(Math.max(1, literals.size()) * 2) * 2;
+            this.table = new String[capacity];
+            this.mask = capacity - 1;
+            this.ignoreAsciiCase = ignoreAsciiCase;
+            int min = Integer.MAX_VALUE;
+            int max = -1;
+            for (String literal : literals) {
+                int slot = hash(literal, 0, literal.length()) & mask;
+                while (table[slot] != null && !table[slot].equals(literal)) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = literal;
+                min = Math.min(min, literal.length());
+                max = Math.max(max, literal.length());
+            }
+            this.minLength = min;
+            this.maxLength = max;
+        }
+
+        boolean contains(CharSequence text, int start, int end) {
+            int length = end - start;
+            if (length < minLength || length > maxLength) {
+                return false;
+            }
+            int slot = hash(text, start, end) & mask;
+            for (String literal = table[slot]; literal != null; literal = table[slot]) {
+                if (equals(literal, text, start, end)) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        private int hash(CharSequence s, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                char c = s.charAt(i);
+                hash = 31 * hash + (ignoreAsciiCase ? asciiLowerCase(c) : c);
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        private boolean equals(String literal, CharSequence text, int start, int end) {
+            if (literal.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < literal.length(); i++) {
+                char c = text.charAt(start + i);
+                if (literal.charAt(i) != (ignoreAsciiCase ? asciiLowerCase(c) : c)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.udacity.webcrawler.parser;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Splits text into the words a {@link PageParser} counts, in a single pass over its characters.
+ *
+ * <p>The text is split at ASCII whitespace, the characters matched by {@code \s}. Tokens matched
+ * by the {@link WordFilter} are skipped. Each remaining token keeps only its ASCII letters,
+ * digits and underscores, the characters matched by {@code \w}, lowercased. This gives the same
+ * words as stripping the text, splitting it with {@code \s+}, removing {@code \W} from each token
+ * and lowercasing it, but without creating any intermediate strings: tokens are checked against
+ * the filter in place, and words are built in a reused buffer and looked up in a
+ * {@link WordDictionary}, so that only words that were never seen before are allocated.
+ *
+ * <p>Instances reuse their filter matcher and buffer, so they are not thread-safe.
+ */
+final class WordTokenizer {
+
+    private final WordFilter.Matcher ignoredWords;
+    private final WordDictionary dictionary;
+    private char[] word = new char[32];
+
+    /**
+     * @param ignoredWords the tokens to skip. Tokens are checked before non-word characters are
+     *                     removed.
+     * @param dictionary   the dictionary that gives the instance of each word.
+     */
+    WordTokenizer(WordFilter ignoredWords, WordDictionary dictionary) {
+        this.ignoredWords = ignoredWords.matcher();
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Passes each word of the given text to the given consumer, in order.
+     */
+    void tokenize(String text, Consumer<String> words) {
+        int end = text.length();
+        while (end > 0 && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        int start = 0;
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        if (start == end) {
+            return;
+        }
+        ignoredWords.reset(text);
+
+        int tokenStart = -1;
+        for (int i = start; i <= end; i++) {
+            if (i < end && !isSeparator(text.charAt(i))) {
+                if (tokenStart < 0) {
+                    tokenStart = i;
+                }
+            } else if (tokenStart >= 0) {
+                token(text, tokenStart, i, words);
+                tokenStart = -1;
+            }
+        }
+    }
+
+    private void token(String text, int start, int end, Consumer<String> words) {
+        int length = 0;
+        // The String hash code of the word, computed as it is built.
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            } else if (!(c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '_')) {
+                continue;
+            }
+            append(c, length++);
+            hash = 31 * hash + c;
+        }
+        // A token without word characters, such as one of only whitespace, yields no word, whether
+        // or not it is ignored.
+        if (length == 0 || ignoredWords.isIgnored(start, end)) {
+            return;
+        }
+        words.accept(dictionary.intern(word, length, hash));
+    }
+
+    private void append(char c, int index) {
+        if (index == word.length) {
+            word = Arrays.copyOf(word, word.length * 2);
+        }
+        word[index] = c;
+    }
+
+    /**
+     * Returns whether the given character is matched by {@code \s}.
+     */
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
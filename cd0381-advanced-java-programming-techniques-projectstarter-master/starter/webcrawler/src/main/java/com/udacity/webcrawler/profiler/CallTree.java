@@ -0,0 +1,225 @@
+package com.udacity.webcrawler.profiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntFunction;
+
+/**
+ * Records which profiled calls were made from within which other profiled calls, per thread.
+ *
+ * <p>Every thread builds its own tree of frames, so recording never contends with other threads.
+ * The per-thread trees are merged by frame name when the data is written. A frame's total time
+ * includes the time of the profiled calls it made; its self time does not.
+ *
+ * <p>Only nesting within a thread is visible: work that a profiled method hands off to another
+ * thread (such as crawl tasks forked onto a pool) appears at the root of that thread's tree.
+ *
+ * <p>The {@link Sampler} is asked once per outermost call whether to record it. Calls nested in a
+ * recorded call are recorded with the same weight; calls nested in one that is not recorded are
+ * not recorded either.
+ */
+final class CallTree {
+
+    private final Sampler sampler;
+    private final Queue<ThreadTree> trees = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<ThreadTree> currentTree = ThreadLocal.withInitial(() -> {
+        ThreadTree tree = new ThreadTree();
+        trees.add(tree);
+        return tree;
+    });
+
+    CallTree(Sampler sampler) {
+        this.sampler = sampler;
+    }
+
+    /**
+     * Pushes a call of the method with the given slot onto the current thread's stack.
+     *
+     * @return the frame of the call, to be passed to {@link #exit(Frame, long)} once it returns.
+     *         If the call was not sampled, the frame's {@link Frame#isSampled()} is false and the
+     *         call need not be timed.
+     */
+    Frame enter(int slot) {
+        ThreadTree tree = currentTree.get();
+        if (tree.unsampledDepth > 0) {
+            tree.unsampledDepth++;
+            return tree.unsampled;
+        }
+        if (tree.current == tree.root) {
+            int weight = sampler.weight(slot);
+            if (weight == 0) {
+                tree.unsampledDepth = 1;
+                return tree.unsampled;
+            }
+            tree.weight = weight;
+        }
+        Frame frame = tree.current.child(slot, tree);
+        tree.current = frame;
+        return frame;
+    }
+
+    /**
+     * Pops the given frame off its thread's stack, adding the given duration to its total.
+     *
+     * @return the number of calls the recorded call stands for, or 0 if it was not sampled.
+     */
+    int exit(Frame frame, long elapsedNanos) {
+        ThreadTree tree = frame.tree;
+        if (frame == tree.unsampled) {
+            tree.unsampledDepth--;
+            return 0;
+        }
+        int weight = tree.weight;
+        frame.calls += weight;
+        frame.totalNanos += elapsedNanos * weight;
+        tree.current = frame.parent;
+        return weight;
+    }
+
+    /**
+     * Merges the trees of every thread. Calls that are still in progress are not included.
+     *
+     * @param names the name of the method each slot was reserved for.
+     */
+    Summary summarize(IntFunction<String> names) {
+        Summary root = new Summary("");
+        for (ThreadTree tree : trees) {
+            root.addChildrenOf(tree.root, names);
+        }
+        return root;
+    }
+
+    /**
+     * A node in one thread's tree. Only its own thread writes to it.
+     */
+    static final class Frame {
+        private static final Frame[] NO_CHILDREN = new Frame[0];
+
+        private final int slot;
+        private final Frame parent;
+        private final ThreadTree tree;
+        // Copy-on-write, so that summarize() always sees fully constructed children.
+        private volatile Frame[] children = NO_CHILDREN;
+        private long calls;
+        private long totalNanos;
+
+        private Frame(int slot, Frame parent, ThreadTree tree) {
+            this.slot = slot;
+            this.parent = parent;
+            this.tree = tree;
+        }
+
+        /**
+         * Returns whether this call is being recorded.
+         */
+        boolean isSampled() {
+            return this != tree.unsampled;
+        }
+
+        private Frame child(int slot, ThreadTree tree) {
+            Frame[] current = children;
+            for (Frame child : current) {
+                if (child.slot == slot) {
+                    return child;
+                }
+            }
+            Frame child = new Frame(slot, this, tree);
+            Frame[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = child;
+            children = grown;
+            return child;
+        }
+    }
+
+    private static final class ThreadTree {
+        private final Frame root = new Frame(-1, null, this);
+        // Returned for every call that is not sampled; never part of the tree.
+        private final Frame unsampled = new Frame(-1, null, this);
+        private Frame current = root;
+        // The weight of the outermost call in progress, shared by the calls nested in it.
+        private int weight;
+        // The number of calls in progress since an outermost call was not sampled.
+        private int unsampledDepth;
+    }
+
+    /**
+     * A node of the merged call tree.
+     */
+    static final class Summary {
+        private final String name;
+        private final Map<String, Summary> children = new TreeMap<>();
+        private long calls;
+        private long totalNanos;
+
+        private Summary(String name) {
+            this.name = name;
+        }
+
+        private void addChildrenOf(Frame frame, IntFunction<String> names) {
+            for (Frame child : frame.children) {
+                Summary summary =
+                        children.computeIfAbsent(names.apply(child.slot), Summary::new);
+                summary.calls += child.calls;
+                summary.totalNanos += child.totalNanos;
+                summary.addChildrenOf(child, names);
+            }
+        }
+
+        String name() {
+            return name;
+        }
+
+        long calls() {
+            return calls;
+        }
+
+        long totalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Returns the time spent in this frame itself, outside of any profiled calls it made.
+         */
+        long selfNanos() {
+            long childNanos = 0;
+            for (Summary child : children.values()) {
+                childNanos += child.totalNanos;
+            }
+            return Math.max(0, totalNanos - childNanos);
+        }
+
+        Iterable<Summary> children() {
+            return children.values();
+        }
+
+        boolean isEmpty() {
+            return children.isEmpty();
+        }
+
+        /**
+         * Writes every frame below this one in the folded-stack format read by flame graph tools:
+         * one line per call path, with the frames separated by semicolons, followed by the path's
+         * self time in microseconds.
+         */
+        void writeFolded(Writer writer) throws IOException {
+            for (Summary child : children.values()) {
+                child.writeFolded(writer, child.name);
+            }
+        }
+
+        private void writeFolded(Writer writer, String path) throws IOException {
+            long selfMicros = selfNanos() / 1000;
+            if (selfMicros > 0) {
+                writer.write(path + " " + selfMicros + "\n");
+            }
+            for (Summary child : children.values()) {
+                child.writeFolded(writer, path + ";" + child.name);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.udacity.webcrawler.profiler;
+
+/**
+ * Telemetry about the environment a crawl ran in, recorded from {@link
+ * Profiler#startTelemetry(java.util.concurrent.ForkJoinPool, java.util.Collection) the start} of
+ * the crawl until it is closed, and written with the rest of the profile data.
+ */
+public interface CrawlTelemetry extends AutoCloseable {
+
+  /**
+   * Telemetry that records nothing.
+   */
+  CrawlTelemetry NONE = () -> {
+  };
+
+  /**
+   * Stops recording. The recorded telemetry is kept by the {@link Profiler}.
+   */
+  @Override
+  void close();
+}
@@ -0,0 +1,197 @@
+package com.udacity.webcrawler.profiler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent, log-linear histogram of latencies in nanoseconds, in the style of HdrHistogram.
+ *
+ * <p>Values below {@value #SUB_BUCKET_COUNT} are counted exactly. Above that, every power-of-two
+ * range is split into {@value #SUB_BUCKET_COUNT} equal buckets, so any recorded value is reported
+ * within about 0.8% of its true value, across the whole range of {@code long}.
+ *
+ * <p>{@link #record(long)} never allocates and never blocks, so it is safe to call on hot paths
+ * from many threads at once.
+ *
+ * <p>Calls that were sampled are recorded with {@link #record(long, int) a weight}, the number of
+ * calls each stands for. The histogram then holds Horvitz-Thompson estimates of the true count
+ * and total, and accumulates the variance of those estimates.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder countVariance = new LongAdder();
+    private final DoubleAdder totalVariance = new DoubleAdder();
+
+    /**
+     * Records one call that took the given number of nanoseconds.
+     *
+     * @throws IllegalArgumentException if the value is negative.
+     */
+    void record(long nanos) {
+        record(nanos, 1);
+    }
+
+    /**
+     * Records a sampled call that took the given number of nanoseconds and stands for
+     * {@code weight} calls, because it was chosen with probability {@code 1 / weight}.
+     *
+     * @throws IllegalArgumentException if the value is negative or the weight is less than 1.
+     */
+    void record(long nanos, int weight) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("negative elapsed time");
+        }
+        if (weight < 1) {
+            throw new IllegalArgumentException("weight must be at least 1");
+        }
+        counts.addAndGet(bucketOf(nanos), weight);
+        totalNanos.add(nanos * weight);
+        maxNanos.accumulate(nanos);
+        if (weight > 1) {
+            // Unbiased estimate of the variance added by sampling: (1 - p) / p^2 per sampled value.
+            long inflation = (long) weight * (weight - 1);
+            countVariance.add(inflation);
+            totalVariance.add((double) inflation * nanos * nanos);
+        }
+    }
+
+    /**
+     * Returns a point-in-time copy of the histogram. Calls recorded while the copy is being taken
+     * may or may not be included.
+     */
+    Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, totalNanos.sum(), maxNanos.get(), countVariance.sum(),
+                totalVariance.sum());
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Returns the largest value that falls into the given bucket.
+     */
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKET_COUNT - 1;
+        long lowest = (long) (SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+        return lowest + ((1L << shift) - 1);
+    }
+
+    /**
+     * An immutable copy of a {@link LatencyHistogram}.
+     */
+    static final class Snapshot {
+        private static final double Z_95 = 1.96;
+
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long countVariance;
+        private final double totalVariance;
+
+        private Snapshot(long[] counts, long count, long totalNanos, long maxNanos,
+                         long countVariance, double totalVariance) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.countVariance = countVariance;
+            this.totalVariance = totalVariance;
+        }
+
+        long count() {
+            return count;
+        }
+
+        long totalNanos() {
+            return totalNanos;
+        }
+
+        long maxNanos() {
+            return maxNanos;
+        }
+
+        double meanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * Returns whether any of the recorded calls were sampled, making {@link #count()} and
+         * {@link #totalNanos()} estimates.
+         */
+        boolean isEstimate() {
+            return countVariance > 0;
+        }
+
+        /**
+         * Returns the half-width of the 95% confidence interval of {@link #count()}.
+         */
+        double countError() {
+            return Z_95 * Math.sqrt(countVariance);
+        }
+
+        /**
+         * Returns the half-width of the 95% confidence interval of {@link #totalNanos()}.
+         */
+        double totalNanosError() {
+            return Z_95 * Math.sqrt(totalVariance);
+        }
+
+        /**
+         * Returns a snapshot of every call recorded in either this or the given snapshot. Used to
+         * combine overloads of a method, which are reported together.
+         */
+        Snapshot plus(Snapshot other) {
+            long[] sum = counts.clone();
+            for (int i = 0; i < sum.length; i++) {
+                sum[i] += other.counts[i];
+            }
+            return new Snapshot(sum, count + other.count, totalNanos + other.totalNanos,
+                    Math.max(maxNanos, other.maxNanos), countVariance + other.countVariance,
+                    totalVariance + other.totalVariance);
+        }
+
+        /**
+         * Returns the value at the given percentile, between 0 and 100: the smallest recorded
+         * value that is at least as large as that percentage of all recorded values.
+         */
+        long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueIn(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.udacity.webcrawler.profiler;
+
+/**
+ * Times calls of a {@link Profiled} method that a {@link Profiler} cannot wrap, such as a static,
+ * private or final method of a concrete class. Obtained from {@link Profiler#probe(Class, String)}.
+ *
+ * <p>The method times itself by starting a call when it is entered and closing it when it returns:
+ *
+ * <pre>{@code
+ * try (Probe.Call ignored = probe.start()) {
+ *   ...
+ * }
+ * }</pre>
+ *
+ * <p>Calls are recorded exactly as calls through a wrapped interface are: they appear in the
+ * profile data under the method's class and name, are nested in the call tree under any profiled
+ * call in progress on the same thread, and are subject to the profiler's sampling.
+ */
+public interface Probe {
+
+  /**
+   * A probe that records nothing.
+   */
+  Probe NONE = () -> Call.NONE;
+
+  /**
+   * Starts timing a call of the probed method on the current thread.
+   *
+   * @return the call, which must be closed on the same thread when the method returns or throws.
+   */
+  Call start();
+
+  /**
+   * A call in progress.
+   */
+  interface Call extends AutoCloseable {
+
+    /**
+     * A call that records nothing when closed.
+     */
+    Call NONE = () -> {
+    };
+
+    /**
+     * Records the call as finished.
+     */
+    @Override
+    void close();
+  }
+}
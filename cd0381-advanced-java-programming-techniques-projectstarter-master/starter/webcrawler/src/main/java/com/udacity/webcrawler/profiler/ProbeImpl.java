@@ -0,0 +1,41 @@
+package com.udacity.webcrawler.profiler;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link Probe} that records into the same {@link ProfilingState} slot as a wrapped call of the
+ * method would.
+ */
+final class ProbeImpl implements Probe {
+
+    private final LongSupplier nanoTime;
+    private final ProfilingState state;
+    private final int slot;
+
+    ProbeImpl(LongSupplier nanoTime, ProfilingState state, int slot) {
+        this.nanoTime = nanoTime;
+        this.state = state;
+        this.slot = slot;
+    }
+
+    @Override
+    public Call start() {
+        CallTree.Frame frame = state.enter(slot);
+        return new TimedCall(frame, frame.isSampled() ? nanoTime.getAsLong() : 0);
+    }
+
+    private final class TimedCall implements Call {
+        private final CallTree.Frame frame;
+        private final long start;
+
+        TimedCall(CallTree.Frame frame, long start) {
+            this.frame = frame;
+            this.start = start;
+        }
+
+        @Override
+        public void close() {
+            state.exit(frame, slot, frame.isSampled() ? nanoTime.getAsLong() - start : 0);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.udacity.webcrawler.profiler;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Everything {@link ProfilingMethodInterceptor} needs to know about the methods of one proxied
+ * interface, worked out once when the first delegate of a given class is wrapped.
+ *
+ * <p>For each method this holds a {@link MethodHandle} that calls it on the delegate, and whether
+ * it is {@link Profiled}, in which case it also holds the {@link ProfilingState} slot its calls are
+ * recorded in.
+ */
+final class ProfiledMethods {
+
+    private static final MethodType GENERIC_TYPE =
+            MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final Map<Method, Target> targets;
+
+    private ProfiledMethods(Map<Method, Target> targets) {
+        this.targets = targets;
+    }
+
+    /**
+     * Resolves every method of the given interface, plus the public methods of {@link Object}
+     * that proxies forward, for delegates of the given class.
+     */
+    static ProfiledMethods resolve(Class<?> klass, Class<?> delegateClass, ProfilingState state) {
+        Map<Method, Target> targets = new HashMap<>();
+        for (Method method : klass.getMethods()) {
+            add(targets, method, delegateClass, state);
+        }
+        for (Method method : Object.class.getMethods()) {
+            if (!Modifier.isFinal(method.getModifiers())) {
+                add(targets, method, delegateClass, state);
+            }
+        }
+        return new ProfiledMethods(targets);
+    }
+
+    private static void add(
+            Map<Method, Target> targets, Method method, Class<?> delegateClass,
+            ProfilingState state) {
+        int slot = method.isAnnotationPresent(Profiled.class)
+                ? state.slotFor(delegateClass, method)
+                : Target.NOT_PROFILED;
+        targets.put(method, new Target(handleFor(method), slot));
+    }
+
+    private static MethodHandle handleFor(Method method) {
+        try {
+            // Proxied interfaces are often private nested types, which a public lookup can't see.
+            method.setAccessible(true);
+            return MethodHandles.lookup()
+                    .unreflect(method)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(GENERIC_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            // The interceptor falls back to reflection for this method.
+            return null;
+        }
+    }
+
+    /**
+     * Returns the resolved target for the given method, or {@code null} if the method was not
+     * resolved up front.
+     */
+    Target get(Method method) {
+        return targets.get(method);
+    }
+
+    /**
+     * How to call, and where to record calls of, one proxied method.
+     */
+    static final class Target {
+        static final int NOT_PROFILED = -1;
+
+        /**
+         * Calls the method. Takes the delegate and the argument array, and returns the result, or
+         * {@code null} for {@code void} methods. May be {@code null} if the method is only
+         * callable through reflection.
+         */
+        final MethodHandle handle;
+
+        /**
+         * The {@link ProfilingState} slot of the method, or {@link #NOT_PROFILED}.
+         */
+        final int slot;
+
+        Target(MethodHandle handle, int slot) {
+            this.handle = handle;
+            this.slot = slot;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.udacity.webcrawler.profiler;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A utility that wraps an object that should be performance profiled.
@@ -26,6 +28,35 @@ public interface Profiler {
    */
   <T> T wrap(Class<T> klass, T delegate);
 
+  /**
+   * Returns a {@link Probe} that profiles a {@link Profiled} method of a concrete class, for
+   * methods that can't be reached through {@link #wrap(Class, Object) wrap}: static, private or
+   * final methods, and methods of objects that are not created through an interface. Overloads
+   * are reported together, as for wrapped methods.
+   *
+   * <p>Probes should be obtained once, for example when the calling object is constructed, and
+   * reused for every call.
+   *
+   * @param owner      the class that declares the method.
+   * @param methodName the name of the method.
+   * @throws IllegalArgumentException if the class declares no method with the given name that is
+   *                                  annotated with the {@link Profiled} annotation.
+   */
+  Probe probe(Class<?> owner, String methodName);
+
+  /**
+   * Starts recording telemetry about the environment a crawl runs in, until the returned
+   * {@link CrawlTelemetry} is closed: the pool's steals, queued submissions, maximum active and
+   * running threads and compensation threads, the bytes allocated by each crawl thread, and the
+   * garbage collections that ran. The telemetry of every crawl is included in the profile data.
+   *
+   * @param pool    the pool that runs the crawl, or {@code null} if the crawl runs on the calling
+   *                thread.
+   * @param threads the threads that run the crawl. The collection may grow while the crawl runs,
+   *                and must be safe to iterate concurrently.
+   */
+  CrawlTelemetry startTelemetry(ForkJoinPool pool, Collection<Thread> threads);
+
   /**
    * Formats the profile data as a string and writes it to the given {@link Path}.
    *
@@ -44,4 +75,26 @@ public interface Profiler {
    * @throws IOException if there was a problem writing the data.
    */
   void writeData(Writer writer) throws IOException;
+
+  /**
+   * Writes the profiled call tree to the given {@link Path} in the folded-stack format read by
+   * flame graph tools, replacing any existing file.
+   *
+   * <p>Each line is one path through the call tree, from the outermost profiled call to the
+   * innermost, with frames separated by semicolons and followed by the self time of the innermost
+   * frame in microseconds.
+   *
+   * @param path the destination where the folded stacks should be written.
+   * @throws IOException if there was a problem writing the data to file.
+   */
+  void writeFoldedStacks(Path path) throws IOException;
+
+  /**
+   * Writes the profiled call tree to the given {@link Writer} in the folded-stack format. See
+   * {@link #writeFoldedStacks(Path)}.
+   *
+   * @param writer the destination where the folded stacks should be written.
+   * @throws IOException if there was a problem writing the data.
+   */
+  void writeFoldedStacks(Writer writer) throws IOException;
 }
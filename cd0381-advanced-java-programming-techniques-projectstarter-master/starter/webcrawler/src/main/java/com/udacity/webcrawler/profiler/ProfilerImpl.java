@@ -4,15 +4,24 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.time.Clock;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
 
 import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
 
@@ -21,12 +30,49 @@ import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
  */
 final class ProfilerImpl implements Profiler {
 
-    private final Clock clock;
-    private final ProfilingState state = new ProfilingState();
+    private final LongSupplier nanoTime;
+    private final ProfilerSampling sampling;
+    private final ProfilingState state;
     private final ZonedDateTime startTime;
-
+    private final Queue<TelemetryRecorder> telemetry = new ConcurrentLinkedQueue<>();
+
+    // Wrapping happens once per crawled page, so the per-method work is only done for the first
+    // delegate of each class. Keyed by delegate class, then by proxied interface.
+    private final ClassValue<ConcurrentMap<Class<?>, ProfiledMethods>> methodsByDelegateClass =
+            new ClassValue<>() {
+                @Override
+                protected ConcurrentMap<Class<?>, ProfiledMethods> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    /**
+     * Creates a profiler that times calls with the given {@link Clock}.
+     */
     ProfilerImpl(Clock clock) {
-        this.clock = Objects.requireNonNull(clock);
+        this(clock, () -> {
+            Instant now = clock.instant();
+            return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        });
+    }
+
+    /**
+     * Creates a profiler that times calls with the given nanosecond ticker, such as
+     * {@link System#nanoTime()}. The clock is only used to record when profiling started.
+     */
+    ProfilerImpl(Clock clock, LongSupplier nanoTime) {
+        this(clock, nanoTime, ProfilerSampling.everyCall());
+    }
+
+    /**
+     * Creates a profiler that times the calls chosen by the given sampling with the given
+     * nanosecond ticker.
+     */
+    ProfilerImpl(Clock clock, LongSupplier nanoTime, ProfilerSampling sampling) {
+        Objects.requireNonNull(clock);
+        this.nanoTime = Objects.requireNonNull(nanoTime);
+        this.sampling = Objects.requireNonNull(sampling);
+        this.state = new ProfilingState(sampling.newSampler(nanoTime));
         this.startTime = ZonedDateTime.now(clock);
     }
 
@@ -40,12 +86,18 @@ final class ProfilerImpl implements Profiler {
     @SuppressWarnings("unchecked")
     public <T> T wrap(Class<T> klass, T delegate) {
         Objects.requireNonNull(klass);
+        Objects.requireNonNull(delegate);
 
-        if (!isProfiledClass(klass)) {
-            throw new IllegalArgumentException(klass.getName() + " doesn't have profiled methods.");
-        }
+        ProfiledMethods methods = methodsByDelegateClass.get(delegate.getClass())
+                .computeIfAbsent(klass, k -> {
+                    if (!isProfiledClass(k)) {
+                        throw new IllegalArgumentException(
+                                k.getName() + " doesn't have profiled methods.");
+                    }
+                    return ProfiledMethods.resolve(k, delegate.getClass(), state);
+                });
 
-        InvocationHandler handler = new ProfilingMethodInterceptor(clock, delegate, state, startTime);
+        InvocationHandler handler = new ProfilingMethodInterceptor(nanoTime, delegate, state, methods);
 
         return (T) Proxy.newProxyInstance(
                 klass.getClassLoader(),    // use target class loader
@@ -55,6 +107,31 @@ final class ProfilerImpl implements Profiler {
     }
 
 
+    @Override
+    public Probe probe(Class<?> owner, String methodName) {
+        Objects.requireNonNull(owner);
+        Objects.requireNonNull(methodName);
+
+        Method method = Arrays.stream(owner.getDeclaredMethods())
+                .filter(m -> m.getName().equals(methodName))
+                .filter(m -> m.isAnnotationPresent(Profiled.class))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        owner.getName() + " doesn't have a profiled method named " + methodName
+                                + "."));
+        return new ProbeImpl(nanoTime, state, state.slotFor(owner, method));
+    }
+
+
+    @Override
+    public CrawlTelemetry startTelemetry(ForkJoinPool pool, Collection<Thread> threads) {
+        Objects.requireNonNull(threads);
+        TelemetryRecorder recorder = TelemetryRecorder.start(pool, threads, nanoTime);
+        telemetry.add(recorder);
+        return recorder;
+    }
+
+
     @Override
     public void writeData(Path path) {
         Objects.requireNonNull(path);
@@ -76,7 +153,38 @@ final class ProfilerImpl implements Profiler {
     public void writeData(Writer writer) throws IOException {
         writer.write("Run at " + RFC_1123_DATE_TIME.format(startTime));
         writer.write(System.lineSeparator());
+        if (!sampling.isEveryCall()) {
+            writer.write("Sampled " + sampling + "; totals and counts are estimates with 95% "
+                    + "confidence intervals");
+            writer.write(System.lineSeparator());
+        }
         state.write(writer);
+        for (TelemetryRecorder recorder : telemetry) {
+            // Crawls that are still running are left out.
+            TelemetryRecorder.Snapshot snapshot = recorder.snapshot();
+            if (snapshot != null) {
+                writer.write(System.lineSeparator());
+                snapshot.write(writer);
+            }
+        }
         writer.write(System.lineSeparator());
     }
+
+
+    @Override
+    public void writeFoldedStacks(Path path) {
+        Objects.requireNonNull(path);
+
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writeFoldedStacks(writer);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write folded stacks", ex);
+        }
+    }
+
+
+    @Override
+    public void writeFoldedStacks(Writer writer) throws IOException {
+        state.writeFoldedStacks(writer);
+    }
 }
@@ -1,15 +1,43 @@
 package com.udacity.webcrawler.profiler;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+
+import javax.inject.Singleton;
+import java.time.Clock;
+import java.util.Objects;
 
 /**
  * Guice module for setting up the Profiler dependency injection.
  */
 public final class ProfilerModule extends AbstractModule {
 
+    private final ProfilerSampling sampling;
+
+    /**
+     * Creates a module whose {@link Profiler} times every profiled call.
+     */
+    public ProfilerModule() {
+        this(ProfilerSampling.everyCall());
+    }
+
+    /**
+     * Creates a module whose {@link Profiler} times the calls chosen by the given sampling.
+     */
+    public ProfilerModule(ProfilerSampling sampling) {
+        this.sampling = Objects.requireNonNull(sampling);
+    }
+
     @Override
     protected void configure() {
         // You can add custom bindings here if required.
-        bind(Profiler.class).asEagerSingleton();
     }
-}
\ No newline at end of file
+
+    @Provides
+    @Singleton
+    Profiler provideProfiler() {
+        // Calls are timed with System.nanoTime(), which is cheaper and more precise than reading
+        // the wall clock twice per call.
+        return new ProfilerImpl(Clock.systemUTC(), System::nanoTime, sampling);
+    }
+}
@@ -0,0 +1,90 @@
+package com.udacity.webcrawler.profiler;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Controls which profiled calls the {@link Profiler} times.
+ *
+ * <p>By default every call is timed. At high call rates that costs two clock reads and several
+ * shared counter updates per call, so the profiler can instead time a random sample of calls and
+ * scale the totals back up. Sampled totals and call counts are reported as estimates with a 95%
+ * confidence interval.
+ *
+ * <p>Sampling decisions are made once per outermost profiled call on a thread: the profiled calls
+ * it makes are timed if and only if it is, so the call tree stays consistent.
+ */
+public final class ProfilerSampling {
+
+    private static final ProfilerSampling EVERY_CALL = new ProfilerSampling(1, 0);
+
+    private final int oneIn;
+    private final int samplesPerSecond;
+
+    private ProfilerSampling(int oneIn, int samplesPerSecond) {
+        this.oneIn = oneIn;
+        this.samplesPerSecond = samplesPerSecond;
+    }
+
+    /**
+     * Times every profiled call.
+     */
+    public static ProfilerSampling everyCall() {
+        return EVERY_CALL;
+    }
+
+    /**
+     * Times one in {@code n} profiled calls, chosen at random.
+     *
+     * @throws IllegalArgumentException if {@code n} is less than 1.
+     */
+    public static ProfilerSampling oneIn(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be at least 1");
+        }
+        return n == 1 ? EVERY_CALL : new ProfilerSampling(n, 0);
+    }
+
+    /**
+     * Times about {@code samplesPerSecond} calls of each profiled method per second, however often
+     * the method is called. Methods called less often than that are timed on every call.
+     *
+     * @throws IllegalArgumentException if {@code samplesPerSecond} is less than 1.
+     */
+    public static ProfilerSampling adaptive(int samplesPerSecond) {
+        if (samplesPerSecond < 1) {
+            throw new IllegalArgumentException("samplesPerSecond must be at least 1");
+        }
+        return new ProfilerSampling(1, samplesPerSecond);
+    }
+
+    /**
+     * Returns the sampling described by the crawler configuration's {@code profileSampleRate} and
+     * {@code profileSamplesPerSecond} options. A positive {@code samplesPerSecond} selects adaptive
+     * sampling; otherwise one in {@code sampleRate} calls is timed, where 0 means every call.
+     */
+    public static ProfilerSampling of(int sampleRate, int samplesPerSecond) {
+        if (samplesPerSecond > 0) {
+            return adaptive(samplesPerSecond);
+        }
+        return sampleRate <= 1 ? EVERY_CALL : oneIn(sampleRate);
+    }
+
+    boolean isEveryCall() {
+        return oneIn == 1 && samplesPerSecond == 0;
+    }
+
+    Sampler newSampler(LongSupplier nanoTime) {
+        if (samplesPerSecond > 0) {
+            return new Sampler.Adaptive(samplesPerSecond, nanoTime);
+        }
+        return oneIn == 1 ? Sampler.EVERY_CALL : new Sampler.OneIn(oneIn);
+    }
+
+    @Override
+    public String toString() {
+        if (samplesPerSecond > 0) {
+            return "about " + samplesPerSecond + " calls per method per second";
+        }
+        return oneIn == 1 ? "every call" : "1 in " + oneIn + " calls";
+    }
+}
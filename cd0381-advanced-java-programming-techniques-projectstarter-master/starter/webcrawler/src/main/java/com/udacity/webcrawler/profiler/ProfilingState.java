@@ -4,17 +4,55 @@ import java.io.IOException;
 import java.io.Writer;
 import java.lang.reflect.Method;
 import java.time.Duration;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Helper class that records method performance data from the method interceptor.
+ *
+ * <p>Each profiled method gets its own {@link LatencyHistogram}. Histograms are looked up by class
+ * and {@link Method} rather than by a formatted name, so recording a call does not allocate once
+ * the method has been seen. Callers that know their methods up front can go one step further and
+ * reserve a {@link #slotFor(Class, Method) slot} per method, so that recording is a single array
+ * read.
  */
 final class ProfilingState {
-  private final Map<String, Duration> data = new ConcurrentHashMap<>();
+  private final ClassValue<ConcurrentMap<Method, LatencyHistogram>> data =
+      new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<Method, LatencyHistogram> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
+  // ClassValue cannot be iterated, so every class that has recorded data is also kept here.
+  private final Map<Class<?>, ConcurrentMap<Method, LatencyHistogram>> classes =
+      new ConcurrentHashMap<>();
+
+  // Copy-on-write, so that recording by slot needs no locking.
+  private volatile LatencyHistogram[] slots = new LatencyHistogram[0];
+  private volatile String[] slotNames = new String[0];
+
+  private final CallTree callTree;
+
+  /**
+   * Creates a state that records every call.
+   */
+  ProfilingState() {
+    this(Sampler.EVERY_CALL);
+  }
+
+  /**
+   * Creates a state whose {@link #enter(int)} only records the calls chosen by the given sampler.
+   */
+  ProfilingState(Sampler sampler) {
+    this.callTree = new CallTree(Objects.requireNonNull(sampler));
+  }
 
   /**
    * Records the given method invocation data.
@@ -24,14 +62,93 @@ final class ProfilingState {
    * @param elapsed      the amount of time that passed while the method was called.
    */
   void record(Class<?> callingClass, Method method, Duration elapsed) {
-    Objects.requireNonNull(callingClass);
-    Objects.requireNonNull(method);
     Objects.requireNonNull(elapsed);
     if (elapsed.isNegative()) {
       throw new IllegalArgumentException("negative elapsed time");
     }
-    String key = formatMethodCall(callingClass, method);
-    data.compute(key, (k, v) -> (v == null) ? elapsed : v.plus(elapsed));
+    record(callingClass, method, elapsed.toNanos());
+  }
+
+  /**
+   * Records the given method invocation data.
+   *
+   * @param callingClass  the Java class of the object that called the method.
+   * @param method        the method that was called.
+   * @param elapsedNanos  the number of nanoseconds that passed while the method was called.
+   */
+  void record(Class<?> callingClass, Method method, long elapsedNanos) {
+    Objects.requireNonNull(callingClass);
+    Objects.requireNonNull(method);
+    if (elapsedNanos < 0) {
+      throw new IllegalArgumentException("negative elapsed time");
+    }
+    histogramFor(callingClass, method).record(elapsedNanos);
+  }
+
+  /**
+   * Returns the slot reserved for calls of the given method, for use with
+   * {@link #record(int, long)}. Data recorded through the slot is reported together with data
+   * recorded through {@link #record(Class, Method, long)} for the same method.
+   */
+  synchronized int slotFor(Class<?> callingClass, Method method) {
+    Objects.requireNonNull(callingClass);
+    Objects.requireNonNull(method);
+    LatencyHistogram histogram = histogramFor(callingClass, method);
+    LatencyHistogram[] current = slots;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i] == histogram) {
+        return i;
+      }
+    }
+    String[] names = Arrays.copyOf(slotNames, current.length + 1);
+    names[current.length] = formatMethodCall(callingClass, method);
+    slotNames = names;
+    LatencyHistogram[] grown = Arrays.copyOf(current, current.length + 1);
+    grown[current.length] = histogram;
+    slots = grown;
+    return current.length;
+  }
+
+  /**
+   * Records that the current thread is starting a call of the method with the given slot, so
+   * that profiled calls it makes before {@link #exit} are nested under it in the call tree.
+   *
+   * @return the call tree frame of the call. If its {@link CallTree.Frame#isSampled()} is false,
+   *     the call need not be timed, but must still be passed to {@link #exit}.
+   */
+  CallTree.Frame enter(int slot) {
+    return callTree.enter(slot);
+  }
+
+  /**
+   * Records a call started with {@link #enter(int)}, in both the method's histogram and the call
+   * tree. The elapsed time of a call that was not sampled is ignored.
+   */
+  void exit(CallTree.Frame frame, int slot, long elapsedNanos) {
+    int weight = callTree.exit(frame, elapsedNanos);
+    if (weight > 0) {
+      slots[slot].record(elapsedNanos, weight);
+    }
+  }
+
+  /**
+   * Records a call of the method that the given slot was reserved for.
+   *
+   * @param slot         a slot returned by {@link #slotFor(Class, Method)}.
+   * @param elapsedNanos the number of nanoseconds that passed while the method was called.
+   */
+  void record(int slot, long elapsedNanos) {
+    slots[slot].record(elapsedNanos);
+  }
+
+  private LatencyHistogram histogramFor(Class<?> callingClass, Method method) {
+    ConcurrentMap<Method, LatencyHistogram> methods = data.get(callingClass);
+    LatencyHistogram histogram = methods.get(method);
+    if (histogram == null) {
+      classes.putIfAbsent(callingClass, methods);
+      histogram = methods.computeIfAbsent(method, m -> new LatencyHistogram());
+    }
+    return histogram;
   }
 
   /**
@@ -41,19 +158,56 @@ final class ProfilingState {
    * {@link #record(Class, Method, Duration) record} is called three times for the same method
    * {@code M()}, with each invocation taking 1 second. The total {@link Duration} reported by
    * this {@code write()} method for {@code M()} should be 3 seconds.
+   *
+   * <p>The total is followed by the call count and the mean, p50, p90, p99, p99.9 and maximum
+   * latency of a single call. If any calls were sampled, the total and the count are estimates,
+   * and are followed by the half-width of their 95% confidence interval. If calls were recorded through {@link #enter(int)}, the flat list is
+   * followed by the call tree, with each method's total and self time.
    */
   void write(Writer writer) throws IOException {
-    List<String> entries =
-        data.entrySet()
-            .stream()
-            .sorted(Map.Entry.comparingByKey())
-            .map(e -> e.getKey() + " took " + formatDuration(e.getValue()) + System.lineSeparator())
-            .collect(Collectors.toList());
+    Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+    classes.forEach((callingClass, methods) -> methods.forEach((method, histogram) ->
+        snapshots.merge(formatMethodCall(callingClass, method), histogram.snapshot(),
+            LatencyHistogram.Snapshot::plus)));
 
     // We have to use a for-loop here instead of a Stream API method because Writer#write() can
     // throw an IOException, and lambdas are not allowed to throw checked exceptions.
-    for (String entry : entries) {
-      writer.write(entry);
+    for (Map.Entry<String, LatencyHistogram.Snapshot> entry : snapshots.entrySet()) {
+      writer.write(entry.getKey() + " took " + formatStats(entry.getValue())
+          + System.lineSeparator());
+    }
+
+    CallTree.Summary tree = summarizeCallTree();
+    if (!tree.isEmpty()) {
+      writer.write(System.lineSeparator());
+      writer.write("Call tree:" + System.lineSeparator());
+      for (CallTree.Summary child : tree.children()) {
+        writeCallTree(writer, child, 1);
+      }
+    }
+  }
+
+  /**
+   * Writes the call tree in the folded-stack format used by flame graph tools. See
+   * {@link CallTree.Summary#writeFolded(Writer)}.
+   */
+  void writeFoldedStacks(Writer writer) throws IOException {
+    summarizeCallTree().writeFolded(writer);
+  }
+
+  private CallTree.Summary summarizeCallTree() {
+    String[] names = slotNames;
+    return callTree.summarize(slot -> names[slot]);
+  }
+
+  private static void writeCallTree(Writer writer, CallTree.Summary node, int depth)
+      throws IOException {
+    writer.write("  ".repeat(depth) + node.name()
+        + " total " + formatDuration(Duration.ofNanos(node.totalNanos()))
+        + ", self " + formatDuration(Duration.ofNanos(node.selfNanos()))
+        + ", " + node.calls() + " calls" + System.lineSeparator());
+    for (CallTree.Summary child : node.children()) {
+      writeCallTree(writer, child, depth + 1);
     }
   }
 
@@ -68,6 +222,26 @@ final class ProfilingState {
     return String.format("%s#%s", callingClass.getName(), method.getName());
   }
 
+  private static String formatStats(LatencyHistogram.Snapshot stats) {
+    String total = formatDuration(Duration.ofNanos(stats.totalNanos()));
+    String count = Long.toString(stats.count());
+    if (stats.isEstimate()) {
+      total += " +/- " + formatDuration(Duration.ofNanos(Math.round(stats.totalNanosError())));
+      count += " +/- " + Math.round(stats.countError());
+    }
+    return String.format(
+        Locale.ROOT,
+        "%s (count %s, mean %s, p50 %s, p90 %s, p99 %s, p999 %s, max %s)",
+        total,
+        count,
+        formatMillis(stats.meanNanos()),
+        formatMillis(stats.percentile(50)),
+        formatMillis(stats.percentile(90)),
+        formatMillis(stats.percentile(99)),
+        formatMillis(stats.percentile(99.9)),
+        formatMillis(stats.maxNanos()));
+  }
+
   /**
    * Formats the given {@link Duration} for writing to a text file.
    */
@@ -75,4 +249,8 @@ final class ProfilingState {
     return String.format(
         "%sm %ss %sms", duration.toMinutes(), duration.toSecondsPart(), duration.toMillisPart());
   }
+
+  private static String formatMillis(double nanos) {
+    return String.format(Locale.ROOT, "%.3fms", nanos / 1_000_000);
+  }
 }
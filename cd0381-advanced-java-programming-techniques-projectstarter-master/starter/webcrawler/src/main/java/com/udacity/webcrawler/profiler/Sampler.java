@@ -0,0 +1,127 @@
+package com.udacity.webcrawler.profiler;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides whether an outermost profiled call is timed. See {@link ProfilerSampling}.
+ *
+ * <p>Decisions use {@link ThreadLocalRandom}, so threads never contend on a shared random number
+ * generator. Only calls that are sampled touch shared state.
+ */
+interface Sampler {
+
+    Sampler EVERY_CALL = slot -> 1;
+
+    /**
+     * Decides whether to time a call of the method with the given slot.
+     *
+     * @return 0 if the call should not be timed. Otherwise, the number of calls the timed call
+     *         stands for: the inverse of the probability that it was chosen.
+     */
+    int weight(int slot);
+
+    /**
+     * Samples one in {@code n} calls.
+     */
+    final class OneIn implements Sampler {
+        private final int n;
+
+        OneIn(int n) {
+            this.n = n;
+        }
+
+        @Override
+        public int weight(int slot) {
+            return ThreadLocalRandom.current().nextInt(n) == 0 ? n : 0;
+        }
+    }
+
+    /**
+     * Samples each method at a rate that is adjusted every {@link #WINDOW_NANOS} to keep the number
+     * of timed calls near a target.
+     *
+     * <p>The call rate is estimated from the sampled calls alone, by adding up their weights, so
+     * calls that are not sampled only read the method's current rate.
+     */
+    final class Adaptive implements Sampler {
+        static final long WINDOW_NANOS = 100_000_000L;
+
+        private final double samplesPerSecond;
+        private final LongSupplier nanoTime;
+        // Copy-on-write, indexed by slot.
+        private volatile Rate[] rates = new Rate[0];
+
+        Adaptive(int samplesPerSecond, LongSupplier nanoTime) {
+            this.samplesPerSecond = samplesPerSecond;
+            this.nanoTime = nanoTime;
+        }
+
+        @Override
+        public int weight(int slot) {
+            Rate rate = rateFor(slot);
+            int oneIn = rate.oneIn;
+            if (oneIn > 1 && ThreadLocalRandom.current().nextInt(oneIn) != 0) {
+                return 0;
+            }
+            rate.sampled(oneIn, nanoTime.getAsLong(), samplesPerSecond);
+            return oneIn;
+        }
+
+        /**
+         * Returns the current sampling rate of the method with the given slot, as in "one in n".
+         */
+        int oneIn(int slot) {
+            return rateFor(slot).oneIn;
+        }
+
+        private Rate rateFor(int slot) {
+            Rate[] current = rates;
+            if (slot < current.length && current[slot] != null) {
+                return current[slot];
+            }
+            synchronized (this) {
+                current = rates;
+                if (slot >= current.length) {
+                    current = Arrays.copyOf(current, slot + 1);
+                }
+                if (current[slot] == null) {
+                    current[slot] = new Rate(nanoTime.getAsLong());
+                    rates = current;
+                }
+                return current[slot];
+            }
+        }
+
+        private static final class Rate {
+            private volatile int oneIn = 1;
+            private volatile long windowStart;
+            // The estimated number of calls since windowStart.
+            private final AtomicLong windowCalls = new AtomicLong();
+
+            Rate(long now) {
+                this.windowStart = now;
+            }
+
+            void sampled(int weight, long now, double samplesPerSecond) {
+                long calls = windowCalls.addAndGet(weight);
+                if (now - windowStart < WINDOW_NANOS) {
+                    return;
+                }
+                synchronized (this) {
+                    long elapsed = now - windowStart;
+                    if (elapsed < WINDOW_NANOS) {
+                        return;
+                    }
+                    double callsPerSecond = calls * 1e9 / elapsed;
+                    oneIn = (int) Math.min(Integer.MAX_VALUE,
+                            Math.max(1, Math.ceil(callsPerSecond / samplesPerSecond)));
+                    windowCalls.set(0);
+                    windowStart = now;
+                }
+            }
+        }
+    }
+}
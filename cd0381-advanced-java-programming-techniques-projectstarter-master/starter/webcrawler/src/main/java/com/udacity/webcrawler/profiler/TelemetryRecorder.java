@@ -0,0 +1,273 @@
+package com.udacity.webcrawler.profiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Records {@link CrawlTelemetry} by polling the crawl's {@link ForkJoinPool}, the
+ * {@link ThreadMXBean} and the {@link GarbageCollectorMXBean}s from a background thread.
+ *
+ * <p>Pool gauges such as the number of active threads are only meaningful while the crawl runs,
+ * so their maximums are taken over every poll. Steals and garbage collections are counted as the
+ * difference between the start and the end of the crawl.
+ */
+final class TelemetryRecorder implements CrawlTelemetry {
+
+    static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+
+    private final ForkJoinPool pool;
+    private final Collection<Thread> threads;
+    private final LongSupplier nanoTime;
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final List<GarbageCollectorMXBean> gcBeans =
+            ManagementFactory.getGarbageCollectorMXBeans();
+
+    private final long startNanos;
+    private final long startSteals;
+    private final long[] startGcCounts;
+    private final long[] startGcMillis;
+    // Allocated bytes per thread: the value when first seen (if before the crawl started) and the
+    // latest value read. Values of threads that have terminated can no longer be read.
+    private final Map<Thread, long[]> allocated = new LinkedHashMap<>();
+
+    private final Thread poller;
+    private volatile boolean stopped;
+
+    // Written by the poller; read after it has been joined.
+    private int maxQueuedSubmissions;
+    private int maxActiveThreads;
+    private int maxRunningThreads;
+    private int maxPoolSize;
+
+    private Snapshot snapshot;
+
+    private TelemetryRecorder(ForkJoinPool pool, Collection<Thread> threads, LongSupplier nanoTime) {
+        this.pool = pool;
+        this.threads = threads;
+        this.nanoTime = nanoTime;
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threadBean = bean instanceof com.sun.management.ThreadMXBean sunBean
+                && sunBean.isThreadAllocatedMemorySupported()
+                && sunBean.isThreadAllocatedMemoryEnabled() ? sunBean : null;
+
+        this.startNanos = nanoTime.getAsLong();
+        this.startSteals = pool == null ? 0 : pool.getStealCount();
+        this.startGcCounts = new long[gcBeans.size()];
+        this.startGcMillis = new long[gcBeans.size()];
+        for (int i = 0; i < gcBeans.size(); i++) {
+            startGcCounts[i] = Math.max(0, gcBeans.get(i).getCollectionCount());
+            startGcMillis[i] = Math.max(0, gcBeans.get(i).getCollectionTime());
+        }
+        for (Thread thread : List.copyOf(threads)) {
+            long bytes = allocatedBytes(thread);
+            if (bytes >= 0) {
+                allocated.put(thread, new long[]{bytes, bytes});
+            }
+        }
+
+        this.poller = new Thread(this::poll, "crawl-telemetry");
+        poller.setDaemon(true);
+    }
+
+    /**
+     * Starts recording.
+     *
+     * @param pool    the pool that runs the crawl, or {@code null} if it runs on the calling thread.
+     * @param threads the threads that run the crawl. May grow while the crawl runs, and must be
+     *                safe to iterate concurrently.
+     */
+    static TelemetryRecorder start(
+            ForkJoinPool pool, Collection<Thread> threads, LongSupplier nanoTime) {
+        TelemetryRecorder recorder = new TelemetryRecorder(pool, threads, nanoTime);
+        recorder.poller.start();
+        return recorder;
+    }
+
+    private void poll() {
+        while (!stopped) {
+            sample();
+            LockSupport.parkNanos(POLL_INTERVAL.toNanos());
+        }
+    }
+
+    private void sample() {
+        if (pool != null) {
+            maxQueuedSubmissions = Math.max(maxQueuedSubmissions, pool.getQueuedSubmissionCount());
+            maxActiveThreads = Math.max(maxActiveThreads, pool.getActiveThreadCount());
+            maxRunningThreads = Math.max(maxRunningThreads, pool.getRunningThreadCount());
+            maxPoolSize = Math.max(maxPoolSize, pool.getPoolSize());
+        }
+        for (Thread thread : threads) {
+            long bytes = allocatedBytes(thread);
+            if (bytes >= 0) {
+                // Threads first seen after the crawl started have allocated nothing before it.
+                allocated.computeIfAbsent(thread, t -> new long[2])[1] = bytes;
+            }
+        }
+    }
+
+    private long allocatedBytes(Thread thread) {
+        if (threadBean == null || !thread.isAlive()) {
+            return -1;
+        }
+        return threadBean.getThreadAllocatedBytes(thread.threadId());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (snapshot != null) {
+            return;
+        }
+        stopped = true;
+        LockSupport.unpark(poller);
+        try {
+            poller.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sample();
+
+        Map<String, Long> allocatedByThread = new LinkedHashMap<>();
+        allocated.forEach((thread, bytes) ->
+                allocatedByThread.merge(thread.getName(), bytes[1] - bytes[0], Long::sum));
+
+        List<String> gcNames = new ArrayList<>();
+        long[] gcCounts = new long[gcBeans.size()];
+        long[] gcMillis = new long[gcBeans.size()];
+        for (int i = 0; i < gcBeans.size(); i++) {
+            gcNames.add(gcBeans.get(i).getName());
+            gcCounts[i] = Math.max(0, gcBeans.get(i).getCollectionCount()) - startGcCounts[i];
+            gcMillis[i] = Math.max(0, gcBeans.get(i).getCollectionTime()) - startGcMillis[i];
+        }
+
+        snapshot = new Snapshot(
+                Duration.ofNanos(nanoTime.getAsLong() - startNanos),
+                pool == null ? 0 : pool.getParallelism(),
+                pool == null ? 0 : pool.getStealCount() - startSteals,
+                maxQueuedSubmissions,
+                maxActiveThreads,
+                maxRunningThreads,
+                pool == null ? 0 : Math.max(0, maxPoolSize - pool.getParallelism()),
+                threadBean != null,
+                allocatedByThread,
+                gcNames,
+                gcCounts,
+                gcMillis);
+    }
+
+    /**
+     * Returns what was recorded, or {@code null} if recording has not been stopped.
+     */
+    synchronized Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * The telemetry of one finished crawl.
+     */
+    static final class Snapshot {
+        private final Duration elapsed;
+        private final int parallelism;
+        private final long steals;
+        private final int maxQueuedSubmissions;
+        private final int maxActiveThreads;
+        private final int maxRunningThreads;
+        private final int compensationThreads;
+        private final boolean allocationSupported;
+        private final Map<String, Long> allocatedByThread;
+        private final List<String> gcNames;
+        private final long[] gcCounts;
+        private final long[] gcMillis;
+
+        private Snapshot(Duration elapsed, int parallelism, long steals, int maxQueuedSubmissions,
+                         int maxActiveThreads, int maxRunningThreads, int compensationThreads,
+                         boolean allocationSupported, Map<String, Long> allocatedByThread,
+                         List<String> gcNames, long[] gcCounts, long[] gcMillis) {
+            this.elapsed = elapsed;
+            this.parallelism = parallelism;
+            this.steals = steals;
+            this.maxQueuedSubmissions = maxQueuedSubmissions;
+            this.maxActiveThreads = maxActiveThreads;
+            this.maxRunningThreads = maxRunningThreads;
+            this.compensationThreads = compensationThreads;
+            this.allocationSupported = allocationSupported;
+            this.allocatedByThread = allocatedByThread;
+            this.gcNames = gcNames;
+            this.gcCounts = gcCounts;
+            this.gcMillis = gcMillis;
+        }
+
+        long steals() {
+            return steals;
+        }
+
+        int compensationThreads() {
+            return compensationThreads;
+        }
+
+        Map<String, Long> allocatedByThread() {
+            return allocatedByThread;
+        }
+
+        /**
+         * Writes the telemetry as an indented block of lines.
+         */
+        void write(Writer writer) throws IOException {
+            String newline = System.lineSeparator();
+            writer.write("Crawl telemetry (" + formatDuration(elapsed) + "):" + newline);
+            if (parallelism > 0) {
+                writer.write(String.format(Locale.ROOT,
+                        "  pool: parallelism %d, steals %d, max queued submissions %d, "
+                                + "max active threads %d, max running threads %d, "
+                                + "compensation threads %d%n",
+                        parallelism, steals, maxQueuedSubmissions, maxActiveThreads,
+                        maxRunningThreads, compensationThreads));
+            }
+            if (allocationSupported) {
+                long total = allocatedByThread.values().stream().mapToLong(Long::longValue).sum();
+                StringBuilder line = new StringBuilder("  allocated: total ")
+                        .append(formatBytes(total));
+                allocatedByThread.forEach((name, bytes) ->
+                        line.append(", ").append(name).append(' ').append(formatBytes(bytes)));
+                writer.write(line + newline);
+            } else {
+                writer.write("  allocated: not supported by this JVM" + newline);
+            }
+            long pauses = 0;
+            long pauseMillis = 0;
+            StringBuilder gc = new StringBuilder();
+            for (int i = 0; i < gcNames.size(); i++) {
+                pauses += gcCounts[i];
+                pauseMillis += gcMillis[i];
+                gc.append(", ").append(gcNames.get(i)).append(' ').append(gcCounts[i])
+                        .append(" collections ")
+                        .append(formatDuration(Duration.ofMillis(gcMillis[i])));
+            }
+            writer.write("  gc: total " + pauses + " collections "
+                    + formatDuration(Duration.ofMillis(pauseMillis)) + gc + newline);
+        }
+
+        private static String formatDuration(Duration duration) {
+            return String.format(
+                    "%sm %ss %sms",
+                    duration.toMinutes(), duration.toSecondsPart(), duration.toMillisPart());
+        }
+
+        private static String formatBytes(long bytes) {
+            return String.format(Locale.ROOT, "%.1f MiB", bytes / (1024.0 * 1024.0));
+        }
+    }
+}
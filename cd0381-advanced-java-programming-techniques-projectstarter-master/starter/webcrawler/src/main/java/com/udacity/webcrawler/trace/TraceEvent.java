@@ -0,0 +1,35 @@
+package com.udacity.webcrawler.trace;
+
+/**
+ * What happened to a URL, as recorded in a trace file.
+ */
+public enum TraceEvent {
+    /**
+     * The URL was found, either as a start page or as a link, and queued to be crawled.
+     */
+    SCHEDULED,
+
+    /**
+     * The URL passed every check and is about to be downloaded.
+     */
+    STARTED,
+
+    /**
+     * The URL was downloaded and parsed.
+     */
+    FINISHED,
+
+    /**
+     * The URL could not be downloaded or parsed.
+     */
+    FAILED;
+
+    private static final TraceEvent[] VALUES = values();
+
+    static TraceEvent of(int ordinal) {
+        if (ordinal < 0 || ordinal >= VALUES.length) {
+            throw new IllegalArgumentException("unknown trace event: " + ordinal);
+        }
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,146 @@
+package com.udacity.webcrawler.trace;
+
+import com.udacity.webcrawler.io.VarInts;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes drained trace records in one of the {@link TraceFormat}s. Only used by the thread that
+ * drains the {@link TraceRing}.
+ */
+abstract class TraceFileWriter implements TraceRing.Sink, Closeable {
+
+    static final int BINARY_MAGIC = 0x43525452; // "CRTR"
+    static final int BINARY_VERSION = 1;
+
+    private final long startNanos;
+
+    private TraceFileWriter(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Creates a writer that writes to the given stream, which is closed when the writer is.
+     *
+     * @param startNanos the {@link System#nanoTime()} at which the trace started. Record times are
+     *                   written relative to it.
+     */
+    static TraceFileWriter create(OutputStream out, TraceFormat format, long startNanos)
+            throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(out, startNanos);
+            case BINARY -> new Binary(out, startNanos);
+        };
+    }
+
+    @Override
+    public final void accept(TraceEvent event, long nanoTime, String url, int depth, long bytes,
+                             int links, String error) throws IOException {
+        write(event, Math.max(0, (nanoTime - startNanos) / 1000), url, depth, bytes, links,
+                error == null ? "" : error);
+    }
+
+    abstract void write(TraceEvent event, long micros, String url, int depth, long bytes, int links,
+                        String error) throws IOException;
+
+    private static final class Csv extends TraceFileWriter {
+        private final Writer writer;
+
+        Csv(OutputStream out, long startNanos) throws IOException {
+            super(startNanos);
+            this.writer = new BufferedWriter(
+                    new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            writer.write("micros,event,url,depth,bytes,links,error\n");
+        }
+
+        @Override
+        void write(TraceEvent event, long micros, String url, int depth, long bytes, int links,
+                   String error) throws IOException {
+            writer.write(Long.toString(micros));
+            writer.write(',');
+            writer.write(event.name());
+            writer.write(',');
+            writeField(url);
+            writer.write(',');
+            writer.write(Integer.toString(depth));
+            writer.write(',');
+            writer.write(Long.toString(bytes));
+            writer.write(',');
+            writer.write(Integer.toString(links));
+            writer.write(',');
+            writeField(error);
+            writer.write('\n');
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static final class Binary extends TraceFileWriter {
+        private final DataOutputStream out;
+        private final Map<String, Integer> urlIds = new HashMap<>();
+
+        Binary(OutputStream out, long startNanos) throws IOException {
+            super(startNanos);
+            this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+            this.out.writeInt(BINARY_MAGIC);
+            this.out.writeByte(BINARY_VERSION);
+        }
+
+        @Override
+        void write(TraceEvent event, long micros, String url, int depth, long bytes, int links,
+                   String error) throws IOException {
+            out.writeByte(event.ordinal());
+            VarInts.write(out, micros);
+            Integer id = urlIds.get(url);
+            if (id == null) {
+                // A number one past the last one seen introduces a new URL.
+                VarInts.write(out, urlIds.size());
+                writeString(url);
+                urlIds.put(url, urlIds.size());
+            } else {
+                VarInts.write(out, id);
+            }
+            VarInts.write(out, depth);
+            if (event == TraceEvent.FINISHED) {
+                VarInts.write(out, bytes);
+                VarInts.write(out, links);
+            } else if (event == TraceEvent.FAILED) {
+                writeString(error);
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            VarInts.write(out, bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.udacity.webcrawler.trace;
+
+import java.nio.file.Path;
+
+/**
+ * The file formats a trace can be written in.
+ */
+public enum TraceFormat {
+    /**
+     * Comma-separated values with a header row:
+     * {@code micros,event,url,depth,bytes,links,error}. Fields containing commas or quotes are
+     * quoted as in RFC 4180.
+     */
+    CSV,
+
+    /**
+     * A compact binary format. After a header, each record is an event byte followed by
+     * varint-encoded fields, and each URL is written in full only the first time it appears; later
+     * records refer to it by number.
+     */
+    BINARY;
+
+    /**
+     * Chooses the format from the file name: {@link #CSV} for names ending in {@code .csv}, and
+     * {@link #BINARY} otherwise.
+     */
+    public static TraceFormat forPath(Path path) {
+        return path.getFileName().toString().endsWith(".csv") ? CSV : BINARY;
+    }
+}
@@ -0,0 +1,167 @@
+package com.udacity.webcrawler.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records what happened to every URL of a crawl, for post-mortems.
+ *
+ * <p>Crawler threads add records to a preallocated {@link TraceRing} and return immediately; they
+ * never allocate, lock or touch the file. A background thread drains the ring into the trace file
+ * every millisecond. Read the file back with {@link TraceReader}, or summarize it with
+ * {@link TraceSummary}.
+ *
+ * <p>Methods that add records are safe to call from any number of threads.
+ */
+public final class TraceLog implements Closeable {
+
+    static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final long DRAIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final TraceRing ring;
+    private final TraceFileWriter writer;
+    private final Thread drainer;
+    private volatile boolean closed;
+    // The first error the drainer ran into, reported by close(). Written by the drainer only.
+    private IOException failure;
+
+    private TraceLog(TraceRing ring, TraceFileWriter writer) {
+        this.ring = ring;
+        this.writer = writer;
+        this.drainer = new Thread(this::drain, "trace-log-writer");
+        drainer.setDaemon(true);
+    }
+
+    /**
+     * Starts a trace that is written to the given {@link Path}, replacing any existing file. The
+     * format is chosen by {@link TraceFormat#forPath(Path)}.
+     */
+    public static TraceLog open(Path path) throws IOException {
+        return open(Files.newOutputStream(path), TraceFormat.forPath(path), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Starts a trace that is written to the given stream, which is closed when the trace is.
+     *
+     * @param capacity how many records may wait to be written before crawler threads have to wait.
+     */
+    static TraceLog open(OutputStream out, TraceFormat format, int capacity) throws IOException {
+        Objects.requireNonNull(out);
+        TraceRing ring = new TraceRing(capacity);
+        TraceLog log = new TraceLog(ring, TraceFileWriter.create(out, format, System.nanoTime()));
+        log.drainer.start();
+        return log;
+    }
+
+    /**
+     * Records that the given URL was queued to be crawled.
+     */
+    public void scheduled(String url, int depth) {
+        if (closed) {
+            return;
+        }
+        ring.put(TraceEvent.SCHEDULED, System.nanoTime(), url, depth, 0, 0, null);
+    }
+
+    /**
+     * Records that the given URL is about to be downloaded.
+     */
+    public void started(String url, int depth) {
+        if (closed) {
+            return;
+        }
+        ring.put(TraceEvent.STARTED, System.nanoTime(), url, depth, 0, 0, null);
+    }
+
+    /**
+     * Records that the given URL was downloaded and parsed.
+     */
+    public void finished(String url, int depth, long bytes, int links) {
+        if (closed) {
+            return;
+        }
+        ring.put(TraceEvent.FINISHED, System.nanoTime(), url, depth, bytes, links, null);
+    }
+
+    /**
+     * Records that the given URL could not be downloaded or parsed.
+     *
+     * @param error why, such as the simple name of the exception that was thrown.
+     */
+    public void failed(String url, int depth, String error) {
+        if (closed) {
+            return;
+        }
+        ring.put(TraceEvent.FAILED, System.nanoTime(), url, depth, 0, 0, error);
+    }
+
+    private void drain() {
+        while (true) {
+            boolean last = closed;
+            int drained = drainOnce();
+            if (last) {
+                return;
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(DRAIN_INTERVAL_NANOS);
+            }
+        }
+    }
+
+    private int drainOnce() {
+        try {
+            return ring.drain(failure == null ? writer : TraceLog::discard);
+        } catch (IOException e) {
+            // Keep draining, so that crawler threads never wait on a ring that is not emptied.
+            failure = e;
+            return 1;
+        }
+    }
+
+    private static void discard(TraceEvent event, long nanoTime, String url, int depth, long bytes,
+                                int links, String error) {
+    }
+
+    /**
+     * Writes every remaining record and closes the file. Records added after this is called are
+     * dropped.
+     *
+     * @throws IOException if any record could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // A producer may have checked the flag before it was set, and be waiting on a full ring
+        // that the drainer is about to stop emptying.
+        ring.close();
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing the trace", e);
+        }
+        IOException error = failure;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            if (error == null) {
+                error = e;
+            } else {
+                error.addSuppressed(e);
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.udacity.webcrawler.trace;
+
+import com.udacity.webcrawler.io.VarInts;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads trace files written by {@link TraceLog}, one record at a time.
+ */
+public final class TraceReader {
+
+    private TraceReader() {
+    }
+
+    /**
+     * Reads every record of the given trace file, in the format given by its file name.
+     */
+    public static void read(Path path, Consumer<TraceRecord> consumer) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            read(in, TraceFormat.forPath(path), consumer);
+        }
+    }
+
+    /**
+     * Reads every record from the given stream, which is not closed.
+     */
+    public static void read(InputStream in, TraceFormat format, Consumer<TraceRecord> consumer)
+            throws IOException {
+        switch (format) {
+            case CSV -> readCsv(in, consumer);
+            case BINARY -> readBinary(in, consumer);
+        }
+    }
+
+    private static void readCsv(InputStream in, Consumer<TraceRecord> consumer) throws IOException {
+        BufferedReader reader =
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null || !header.startsWith("micros,event,")) {
+            throw new IOException("Not a CSV trace file");
+        }
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            List<String> fields = splitCsv(line);
+            if (fields.size() != 7) {
+                throw new IOException("Malformed trace line: " + line);
+            }
+            try {
+                consumer.accept(new TraceRecord(
+                        Long.parseLong(fields.get(0)),
+                        TraceEvent.valueOf(fields.get(1)),
+                        fields.get(2),
+                        Integer.parseInt(fields.get(3)),
+                        Long.parseLong(fields.get(4)),
+                        Integer.parseInt(fields.get(5)),
+                        fields.get(6)));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Malformed trace line: " + line, e);
+            }
+        }
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(7);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void readBinary(InputStream stream, Consumer<TraceRecord> consumer)
+            throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+        if (in.readInt() != TraceFileWriter.BINARY_MAGIC) {
+            throw new IOException("Not a binary trace file");
+        }
+        int version = in.readUnsignedByte();
+        if (version != TraceFileWriter.BINARY_VERSION) {
+            throw new IOException("Unsupported trace file version " + version);
+        }
+        List<String> urls = new ArrayList<>();
+        while (true) {
+            int event = in.read();
+            if (event < 0) {
+                return;
+            }
+            TraceEvent type;
+            try {
+                type = TraceEvent.of(event);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            long micros = VarInts.readLong(in);
+            int id = VarInts.read(in);
+            if (id == urls.size()) {
+                urls.add(readString(in));
+            } else if (id > urls.size()) {
+                throw new IOException("Unknown URL number " + id);
+            }
+            int depth = VarInts.read(in);
+            long bytes = 0;
+            int links = 0;
+            String error = "";
+            if (type == TraceEvent.FINISHED) {
+                bytes = VarInts.readLong(in);
+                links = VarInts.read(in);
+            } else if (type == TraceEvent.FAILED) {
+                error = readString(in);
+            }
+            consumer.accept(new TraceRecord(micros, type, urls.get(id), depth, bytes, links, error));
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = VarInts.read(in);
+        byte[] bytes = new byte[length];
+        try {
+            in.readFully(bytes);
+        } catch (EOFException e) {
+            throw new EOFException("stream ended inside a string");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,70 @@
+package com.udacity.webcrawler.trace;
+
+import java.util.Objects;
+
+/**
+ * One record read back from a trace file.
+ */
+public final class TraceRecord {
+    private final long micros;
+    private final TraceEvent event;
+    private final String url;
+    private final int depth;
+    private final long bytes;
+    private final int links;
+    private final String error;
+
+    TraceRecord(long micros, TraceEvent event, String url, int depth, long bytes, int links,
+                String error) {
+        this.micros = micros;
+        this.event = Objects.requireNonNull(event);
+        this.url = Objects.requireNonNull(url);
+        this.depth = depth;
+        this.bytes = bytes;
+        this.links = links;
+        this.error = Objects.requireNonNull(error);
+    }
+
+    /**
+     * Returns when the event happened, in microseconds since the trace was started.
+     */
+    public long getMicros() {
+        return micros;
+    }
+
+    public TraceEvent getEvent() {
+        return event;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns how many links away from a start page the URL was found; start pages are at depth 0.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the size of the downloaded page, for {@link TraceEvent#FINISHED} records.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the number of links on the page, for {@link TraceEvent#FINISHED} records.
+     */
+    public int getLinks() {
+        return links;
+    }
+
+    /**
+     * Returns why the URL failed, for {@link TraceEvent#FAILED} records, or an empty string.
+     */
+    public String getError() {
+        return error;
+    }
+}
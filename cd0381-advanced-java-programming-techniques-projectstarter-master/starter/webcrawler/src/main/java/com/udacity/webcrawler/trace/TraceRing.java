@@ -0,0 +1,133 @@
+package com.udacity.webcrawler.trace;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A preallocated, bounded ring buffer of trace records with many producers and one consumer.
+ *
+ * <p>Records have a fixed layout and are stored field by field in parallel arrays, so adding one
+ * never allocates. A producer claims a sequence number with a single atomic increment, fills in
+ * the slot, and publishes it by storing the sequence number in the slot's marker. The consumer
+ * reads slots strictly in sequence order, and only once they are published.
+ *
+ * <p>When the ring is full, producers wait for the consumer rather than drop records, since a
+ * trace with holes is of little use in a post-mortem. Once the ring is {@link #close() closed},
+ * the consumer may be gone, so producers drop their records instead of waiting.
+ */
+final class TraceRing {
+
+    /**
+     * Receives drained records.
+     */
+    interface Sink {
+        void accept(TraceEvent event, long nanoTime, String url, int depth, long bytes, int links,
+                    String error) throws IOException;
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    // published[i] is one more than the sequence number last published in slot i.
+    private final AtomicLongArray published;
+    // The sequence number of the next record the consumer reads. Slots below it may be reused.
+    private volatile long consumed;
+    private volatile boolean closed;
+
+    private final byte[] events;
+    private final long[] nanoTimes;
+    private final String[] urls;
+    private final int[] depths;
+    private final long[] bytes;
+    private final int[] links;
+    private final String[] errors;
+
+    /**
+     * Creates a ring that holds the given number of records, rounded up to a power of two.
+     */
+    TraceRing(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.published = new AtomicLongArray(this.capacity);
+        this.events = new byte[this.capacity];
+        this.nanoTimes = new long[this.capacity];
+        this.urls = new String[this.capacity];
+        this.depths = new int[this.capacity];
+        this.bytes = new long[this.capacity];
+        this.links = new int[this.capacity];
+        this.errors = new String[this.capacity];
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Stops producers from waiting on a full ring. Records that do not fit are dropped from then on.
+     */
+    void close() {
+        closed = true;
+    }
+
+    /**
+     * Adds a record, waiting for the consumer if the ring is full. If the ring is closed while it
+     * is full, the record is dropped.
+     */
+    void put(TraceEvent event, long nanoTime, String url, int depth, long byteCount, int linkCount,
+             String error) {
+        long sequence = claimed.getAndIncrement();
+        while (sequence - consumed >= capacity) {
+            if (closed) {
+                // The slot is never published, so the consumer stops before it, and so before
+                // every later record, which are all dropped too.
+                return;
+            }
+            LockSupport.parkNanos(1_000);
+        }
+        int slot = (int) sequence & mask;
+        events[slot] = (byte) event.ordinal();
+        nanoTimes[slot] = nanoTime;
+        urls[slot] = url;
+        depths[slot] = depth;
+        bytes[slot] = byteCount;
+        links[slot] = linkCount;
+        errors[slot] = error;
+        published.set(slot, sequence + 1);
+    }
+
+    /**
+     * Passes every published record that has not been drained yet to the sink, in order. Must
+     * only be called by one thread at a time.
+     *
+     * @return the number of records drained.
+     */
+    int drain(Sink sink) throws IOException {
+        int drained = 0;
+        while (true) {
+            long sequence = consumed;
+            int slot = (int) sequence & mask;
+            if (published.get(slot) != sequence + 1) {
+                return drained;
+            }
+            TraceEvent event = TraceEvent.of(events[slot]);
+            long nanoTime = nanoTimes[slot];
+            String url = urls[slot];
+            int depth = depths[slot];
+            long byteCount = bytes[slot];
+            int linkCount = links[slot];
+            String error = errors[slot];
+            urls[slot] = null;
+            errors[slot] = null;
+            // Freed before the record is passed on, so that producers waiting on a full ring resume
+            // promptly, and a sink that throws loses only this record.
+            consumed = sequence + 1;
+            drained++;
+            sink.accept(event, nanoTime, url, depth, byteCount, linkCount, error);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.udacity.webcrawler.trace;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarizes a trace: how many URLs reached each stage, how long they waited to be fetched, how
+ * long fetching took, why they failed, and which were slowest.
+ *
+ * <p>Add records in the order they appear in the trace, then call {@link #write(Writer)}.
+ */
+public final class TraceSummary {
+
+    private static final int SLOWEST_COUNT = 10;
+
+    private final Map<TraceEvent, Long> counts = new EnumMap<>(TraceEvent.class);
+    // When each URL was last scheduled and started, for URLs whose fetch has not ended yet.
+    private final Map<String, Long> scheduledAt = new HashMap<>();
+    private final Map<String, Long> startedAt = new HashMap<>();
+    private final List<Long> waitMicros = new ArrayList<>();
+    private final List<Fetch> fetches = new ArrayList<>();
+    private final Map<String, Long> failures = new TreeMap<>();
+    private long bytes;
+    private long links;
+    private long endMicros;
+
+    /**
+     * Reads and summarizes the given trace file.
+     */
+    public static TraceSummary of(Path path) throws IOException {
+        TraceSummary summary = new TraceSummary();
+        TraceReader.read(path, summary::add);
+        return summary;
+    }
+
+    /**
+     * Adds the next record of the trace.
+     */
+    public void add(TraceRecord record) {
+        counts.merge(record.getEvent(), 1L, Long::sum);
+        endMicros = Math.max(endMicros, record.getMicros());
+        String url = record.getUrl();
+        switch (record.getEvent()) {
+            case SCHEDULED -> scheduledAt.putIfAbsent(url, record.getMicros());
+            case STARTED -> {
+                Long scheduled = scheduledAt.remove(url);
+                if (scheduled != null) {
+                    waitMicros.add(record.getMicros() - scheduled);
+                }
+                startedAt.put(url, record.getMicros());
+            }
+            case FINISHED -> {
+                bytes += record.getBytes();
+                links += record.getLinks();
+                ended(record);
+            }
+            case FAILED -> {
+                failures.merge(record.getError(), 1L, Long::sum);
+                ended(record);
+            }
+        }
+    }
+
+    private void ended(TraceRecord record) {
+        Long started = startedAt.remove(record.getUrl());
+        if (started != null) {
+            fetches.add(new Fetch(record.getUrl(), record.getMicros() - started, record.getEvent()));
+        }
+    }
+
+    /**
+     * Returns how many records of the given kind were added.
+     */
+    public long count(TraceEvent event) {
+        return counts.getOrDefault(event, 0L);
+    }
+
+    /**
+     * Writes the summary in a human-readable format.
+     */
+    public void write(Writer writer) throws IOException {
+        writer.write(String.format(Locale.ROOT, "Trace of %.3fs%n", endMicros / 1e6));
+        writer.write(String.format(Locale.ROOT,
+                "URLs: %d scheduled, %d started, %d finished, %d failed%n",
+                count(TraceEvent.SCHEDULED), count(TraceEvent.STARTED),
+                count(TraceEvent.FINISHED), count(TraceEvent.FAILED)));
+        writer.write(String.format(Locale.ROOT, "Downloaded: %d bytes, %d links%n", bytes, links));
+        writePercentiles(writer, "Queue wait",
+                waitMicros.stream().mapToLong(Long::longValue).toArray());
+        writePercentiles(writer, "Fetch time",
+                fetches.stream().mapToLong(fetch -> fetch.micros).toArray());
+        if (!failures.isEmpty()) {
+            writer.write("Failures:" + System.lineSeparator());
+            for (Map.Entry<String, Long> failure : failures.entrySet()) {
+                String error = failure.getKey().isEmpty() ? "(unknown)" : failure.getKey();
+                writer.write(String.format(Locale.ROOT, "  %s: %d%n", error, failure.getValue()));
+            }
+        }
+        if (!fetches.isEmpty()) {
+            writer.write("Slowest URLs:" + System.lineSeparator());
+            List<Fetch> slowest = fetches.stream()
+                    .sorted(Comparator.comparingLong((Fetch fetch) -> fetch.micros).reversed())
+                    .limit(SLOWEST_COUNT)
+                    .toList();
+            for (Fetch fetch : slowest) {
+                writer.write(String.format(Locale.ROOT, "  %s %s%s%n",
+                        formatMicros(fetch.micros), fetch.url, fetch.event == TraceEvent.FAILED ? " (failed)" : ""));
+            }
+        }
+    }
+
+    private static void writePercentiles(Writer writer, String name, long[] micros)
+            throws IOException {
+        if (micros.length == 0) {
+            return;
+        }
+        Arrays.sort(micros);
+        writer.write(String.format(Locale.ROOT, "%s: p50 %s, p90 %s, p99 %s, max %s%n", name,
+                formatMicros(percentile(micros, 0.50)),
+                formatMicros(percentile(micros, 0.90)),
+                formatMicros(percentile(micros, 0.99)),
+                formatMicros(micros[micros.length - 1])));
+    }
+
+    /**
+     * Returns the nearest-rank percentile of the given sorted values.
+     */
+    static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static String formatMicros(long micros) {
+        return String.format(Locale.ROOT, "%.3fms", micros / 1000.0);
+    }
+
+    private static final class Fetch {
+        final String url;
+        final long micros;
+        final TraceEvent event;
+
+        Fetch(String url, long micros, TraceEvent event) {
+            this.url = url;
+            this.micros = micros;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.udacity.webcrawler.warc;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A single decompressed member of a gzip file. WARC files compress every record as its own
+ * member, so records can be decompressed straight from a memory-mapped file, without a stream.
+ */
+final class GzipMember {
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int TRAILER_LENGTH = 8;
+
+    private final byte[] data;
+    private final int dataLength;
+    private final int length;
+
+    private GzipMember(byte[] data, int dataLength, int length) {
+        this.data = data;
+        this.dataLength = dataLength;
+        this.length = length;
+    }
+
+    /**
+     * Decompresses the member at the start of the given buffer. The buffer may extend past the
+     * member, and is not modified.
+     */
+    static GzipMember read(ByteBuffer buffer) throws IOException {
+        int header = headerLength(buffer);
+        Inflater inflater = new Inflater(true);
+        try {
+            ByteBuffer input = buffer.slice(header, buffer.limit() - header);
+            inflater.setInput(input);
+            // Text usually compresses about fourfold.
+            byte[] out = new byte[Math.max(1024, Math.min(input.remaining(), 1 << 20) * 4)];
+            int size = 0;
+            while (!inflater.finished()) {
+                if (size == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                int inflated = inflater.inflate(out, size, out.length - size);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new EOFException("Truncated gzip member");
+                }
+                size += inflated;
+            }
+            int trailer = header + (int) inflater.getBytesRead();
+            if (trailer + TRAILER_LENGTH > buffer.limit()
+                    || littleEndianInt(buffer, trailer + 4) != size) {
+                throw new IOException("Corrupt gzip member: length mismatch");
+            }
+            return new GzipMember(out, size, trailer + TRAILER_LENGTH);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt gzip member", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int littleEndianInt(ByteBuffer buffer, int index) {
+        return (buffer.get(index) & 0xff) | (buffer.get(index + 1) & 0xff) << 8
+                | (buffer.get(index + 2) & 0xff) << 16 | (buffer.get(index + 3) & 0xff) << 24;
+    }
+
+    private static int headerLength(ByteBuffer buffer) throws IOException {
+        try {
+            if ((buffer.get(0) & 0xff) != 0x1f || (buffer.get(1) & 0xff) != 0x8b
+                    || buffer.get(2) != 8) {
+                throw new IOException("Not a gzip member");
+            }
+            int flags = buffer.get(3) & 0xff;
+            int position = 10;
+            if ((flags & FEXTRA) != 0) {
+                position += 2 + ((buffer.get(position) & 0xff)
+                        | (buffer.get(position + 1) & 0xff) << 8);
+            }
+            if ((flags & FNAME) != 0) {
+                while (buffer.get(position++) != 0) {
+                    // Skip the zero-terminated file name.
+                }
+            }
+            if ((flags & FCOMMENT) != 0) {
+                while (buffer.get(position++) != 0) {
+                    // Skip the zero-terminated comment.
+                }
+            }
+            if ((flags & FHCRC) != 0) {
+                position += 2;
+            }
+            return position;
+        } catch (IndexOutOfBoundsException e) {
+            throw new EOFException("Truncated gzip header");
+        }
+    }
+
+    /**
+     * Returns the decompressed bytes. Only the first {@link #getDataLength()} are valid.
+     */
+    byte[] getData() {
+        return data;
+    }
+
+    int getDataLength() {
+        return dataLength;
+    }
+
+    /**
+     * Returns the compressed length of the member, including its header and trailer.
+     */
+    int getLength() {
+        return length;
+    }
+}
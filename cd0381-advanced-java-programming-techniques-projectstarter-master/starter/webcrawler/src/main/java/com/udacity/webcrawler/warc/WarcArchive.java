@@ -0,0 +1,169 @@
+package com.udacity.webcrawler.warc;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A WARC file, such as one written by {@link WarcWriter}, opened to look up recorded responses by
+ * URL.
+ *
+ * <p>The file is memory-mapped, so looking up a response costs no system calls: its record is
+ * found in an index of offsets, and decompressed straight from the mapped pages. The index is
+ * read from the file's {@link WarcWriter#indexPath(Path) index file} if there is one, or else
+ * built by scanning every record when the archive is opened.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class WarcArchive {
+
+    private static final long SEGMENT_STRIDE = 1L << 30;
+    // Mappings overlap by this much, so that any record up to this long lies within one of them.
+    private static final int MAX_RECORD_LENGTH = 64 << 20;
+
+    private final MappedByteBuffer[] segments;
+    private final Map<String, Location> index = new HashMap<>();
+
+    private WarcArchive(MappedByteBuffer[] segments, Path indexPath) throws IOException {
+        this.segments = segments;
+        // The index is complete before the constructor returns, so it is safely published.
+        if (Files.isRegularFile(indexPath)) {
+            readIndex(indexPath);
+        } else {
+            scan();
+        }
+    }
+
+    /**
+     * Maps the WARC file at the given path into memory and reads or builds its index.
+     */
+    public static WarcArchive open(Path path) throws IOException {
+        MappedByteBuffer[] segments;
+        // Mappings stay valid after their channel is closed.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT_STRIDE - 1) / SEGMENT_STRIDE)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = i * SEGMENT_STRIDE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(SEGMENT_STRIDE + MAX_RECORD_LENGTH, size - start));
+            }
+        }
+
+        return new WarcArchive(segments, WarcWriter.indexPath(path));
+    }
+
+    /**
+     * Returns the number of URLs with a recorded response.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the response recorded for the given URL, or {@code null} if there is none. A URL
+     * that was redirected has the response of the page it was redirected to.
+     */
+    public WarcResponse find(String url) throws IOException {
+        Location location = index.get(url);
+        if (location == null) {
+            return null;
+        }
+        GzipMember member = GzipMember.read(view(location.offset, location.length));
+        return WarcResponse.of(WarcRecord.parse(member.getData(), member.getDataLength()));
+    }
+
+    private void readIndex(Path indexPath) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(indexPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ", 3);
+                if (parts.length != 3) {
+                    throw new IOException("Invalid WARC index line: " + line);
+                }
+                try {
+                    // Later lines win, as when a URL was recorded twice.
+                    index.put(parts[2],
+                            new Location(Long.parseLong(parts[0]), Integer.parseInt(parts[1])));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid WARC index line: " + line, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Indexes responses by their target URI, and by the URIs of the requests they answer.
+     */
+    private void scan() throws IOException {
+        Map<String, Location> responses = new HashMap<>();
+        List<String[]> requests = new ArrayList<>();
+        long size = segments.length == 0
+                ? 0
+                : (segments.length - 1) * SEGMENT_STRIDE + segments[segments.length - 1].capacity();
+        long offset = 0;
+        while (offset < size) {
+            GzipMember member = GzipMember.read(view(offset, -1));
+            WarcRecord record = WarcRecord.parse(member.getData(), member.getDataLength());
+            Location location = new Location(offset, member.getLength());
+            String target = record.getField("WARC-Target-URI");
+            switch (record.getType()) {
+                case "response" -> {
+                    responses.put(record.getField("WARC-Record-ID"), location);
+                    if (target != null) {
+                        index.put(target, location);
+                    }
+                }
+                case "request" -> requests.add(
+                        new String[] {target, record.getField("WARC-Concurrent-To")});
+                default -> {
+                }
+            }
+            offset += member.getLength();
+        }
+        for (String[] request : requests) {
+            Location response = request[1] == null ? null : responses.get(request[1]);
+            if (request[0] != null && response != null) {
+                index.putIfAbsent(request[0], response);
+            }
+        }
+    }
+
+    /**
+     * Returns a buffer over the file from the given offset, of the given length, or as far as the
+     * mapping allows if the length is negative.
+     */
+    private ByteBuffer view(long offset, int length) throws IOException {
+        int segment = (int) (offset / SEGMENT_STRIDE);
+        if (segment >= segments.length) {
+            throw new IOException("WARC offset out of range: " + offset);
+        }
+        MappedByteBuffer buffer = segments[segment];
+        int start = (int) (offset - segment * SEGMENT_STRIDE);
+        int available = buffer.capacity() - start;
+        if (length > available) {
+            throw new IOException("WARC record longer than " + MAX_RECORD_LENGTH + " bytes");
+        }
+        return buffer.slice(start, length < 0 ? available : length);
+    }
+
+    private static final class Location {
+        private final long offset;
+        private final int length;
+
+        Location(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.udacity.webcrawler.warc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A decompressed WARC record: its named fields and content block. The block is not copied out of
+ * the decompressed bytes, but located by {@link #getBlockStart()} and {@link #getBlockEnd()}.
+ */
+final class WarcRecord {
+    private final Map<String, String> fields;
+    private final byte[] bytes;
+    private final int blockStart;
+    private final int blockEnd;
+
+    private WarcRecord(Map<String, String> fields, byte[] bytes, int blockStart, int blockEnd) {
+        this.fields = fields;
+        this.bytes = bytes;
+        this.blockStart = blockStart;
+        this.blockEnd = blockEnd;
+    }
+
+    /**
+     * Parses the record in the first {@code length} of the given decompressed bytes.
+     */
+    static WarcRecord parse(byte[] bytes, int length) throws IOException {
+        int headerEnd = indexOf(bytes, 0, length);
+        if (headerEnd < 0 || !startsWith(bytes, WarcWriter.VERSION)) {
+            throw new IOException("Not a WARC/1.1 record");
+        }
+        Map<String, String> fields = parseFields(bytes, 0, headerEnd);
+        int blockStart = headerEnd + 4;
+        long blockLength;
+        try {
+            blockLength = Long.parseLong(fields.getOrDefault("Content-Length", "-1"));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid WARC Content-Length", e);
+        }
+        if (blockLength < 0 || blockStart + blockLength > length) {
+            throw new IOException("Truncated WARC record");
+        }
+        return new WarcRecord(fields, bytes, blockStart, (int) (blockStart + blockLength));
+    }
+
+    /**
+     * Parses {@code Name: value} lines separated by CRLF, the first of which is a start line, such
+     * as the WARC version or an HTTP status line. Names are case-insensitive; the first value of a
+     * repeated name wins.
+     */
+    static Map<String, String> parseFields(byte[] bytes, int start, int end) {
+        Map<String, String> fields = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        String[] lines = new String(bytes, start, end - start, StandardCharsets.UTF_8)
+                .split(WarcWriter.CRLF);
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) {
+                fields.putIfAbsent(lines[i].substring(0, colon).strip(),
+                        lines[i].substring(colon + 1).strip());
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Returns the index of the first blank line, CRLF CRLF, in the given range, or -1.
+     */
+    static int indexOf(byte[] bytes, int start, int end) {
+        for (int i = start; i + 3 < end; i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n' && bytes[i + 2] == '\r'
+                    && bytes[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(byte[] bytes, String prefix) {
+        if (bytes.length < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (bytes[i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String getType() {
+        return fields.getOrDefault("WARC-Type", "");
+    }
+
+    /**
+     * Returns the value of the given named field, or {@code null} if there is none.
+     */
+    String getField(String name) {
+        return fields.get(name);
+    }
+
+    /**
+     * Returns the decompressed record, which contains the block.
+     */
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    int getBlockStart() {
+        return blockStart;
+    }
+
+    int getBlockEnd() {
+        return blockEnd;
+    }
+}
@@ -0,0 +1,74 @@
+package com.udacity.webcrawler.warc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A recorded HTTP response, as read from a {@link WarcArchive}.
+ */
+public final class WarcResponse {
+    private final String url;
+    private final int statusCode;
+    private final Map<String, String> headers;
+    private final byte[] body;
+
+    private WarcResponse(String url, int statusCode, Map<String, String> headers, byte[] body) {
+        this.url = url;
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    /**
+     * Parses the HTTP response in the block of the given {@code response} record.
+     */
+    static WarcResponse of(WarcRecord record) throws IOException {
+        byte[] bytes = record.getBytes();
+        int start = record.getBlockStart();
+        int end = record.getBlockEnd();
+        int headerEnd = WarcRecord.indexOf(bytes, start, end);
+        String url = record.getField("WARC-Target-URI");
+        if (headerEnd < 0 || url == null) {
+            throw new IOException("Invalid WARC response record");
+        }
+        String statusLine = new String(bytes, start, headerEnd - start, StandardCharsets.UTF_8)
+                .lines().findFirst().orElse("");
+        String[] parts = statusLine.split(" ", 3);
+        int statusCode;
+        try {
+            statusCode = Integer.parseInt(parts.length > 1 ? parts[1] : "");
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid HTTP status line: " + statusLine, e);
+        }
+        return new WarcResponse(url, statusCode, WarcRecord.parseFields(bytes, start, headerEnd),
+                Arrays.copyOfRange(bytes, headerEnd + 4, end));
+    }
+
+    /**
+     * Returns the URL of the page this response is for, after any redirects.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns the value of the given response header, or {@code null} if there is none. Names are
+     * case-insensitive.
+     */
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * Returns the decoded response body.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+}
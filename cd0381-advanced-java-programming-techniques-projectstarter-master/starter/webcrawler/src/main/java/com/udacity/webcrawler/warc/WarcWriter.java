@@ -0,0 +1,196 @@
+package com.udacity.webcrawler.warc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records fetched pages in a WARC file, the standard format of web archives, so that a crawl can
+ * later be replayed from a {@link WarcArchive}.
+ *
+ * <p>Every fetch is written as a {@code response} record followed by the {@code request} record
+ * it answers, each compressed as its own gzip member, so that any record can be read from its
+ * offset alone. The fetcher follows redirects itself, so a response may be for the URL a request
+ * was redirected to; the two are linked by {@code WARC-Concurrent-To}. Offsets of responses are
+ * also written to an index file next to the archive; see {@link #indexPath(Path)}.
+ *
+ * <p>Each record is flushed as soon as it is written, so the archive is complete even if the
+ * writer is never closed. This class is thread-safe.
+ */
+public final class WarcWriter implements Closeable {
+
+    static final String VERSION = "WARC/1.1";
+    static final String CRLF = "\r\n";
+
+    // Headers that describe how the body was sent rather than the body, which is stored decoded.
+    private static final String[] TRANSFER_HEADERS =
+            {"Content-Encoding", "Content-Length", "Transfer-Encoding"};
+
+    private final FileChannel channel;
+    private final Writer index;
+    private long offset;
+
+    private WarcWriter(FileChannel channel, Writer index) {
+        this.channel = channel;
+        this.index = index;
+    }
+
+    /**
+     * Creates a WARC file at the given path, and its index, replacing any existing files.
+     */
+    public static WarcWriter open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        WarcWriter writer;
+        try {
+            writer = new WarcWriter(channel,
+                    Files.newBufferedWriter(indexPath(path), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        byte[] info = ("software: udacity-webcrawler" + CRLF + "format: WARC File Format 1.1"
+                + CRLF).getBytes(StandardCharsets.UTF_8);
+        writer.append(record("warcinfo", newRecordId(), null, null, "application/warc-fields",
+                info));
+        return writer;
+    }
+
+    /**
+     * Returns the path of the index of the WARC file at the given path.
+     */
+    public static Path indexPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".idx");
+    }
+
+    /**
+     * Records a fetch of {@code requestedUrl} that was answered by the page at {@code url}, after
+     * any redirects.
+     *
+     * @param headers the response headers. Headers about the transfer encoding are dropped, since
+     *                the body is recorded as it was decoded.
+     */
+    public void write(String requestedUrl, String url, int statusCode, String statusMessage,
+                      Map<String, String> headers, byte[] body) throws IOException {
+        StringBuilder http = new StringBuilder(256)
+                .append("HTTP/1.1 ").append(statusCode).append(' ')
+                .append(statusMessage == null ? "" : statusMessage).append(CRLF);
+        headers.forEach((name, value) -> {
+            if (!isTransferHeader(name)) {
+                http.append(name).append(": ").append(value).append(CRLF);
+            }
+        });
+        http.append("Content-Length: ").append(body.length).append(CRLF).append(CRLF);
+        byte[] head = http.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] block = new byte[head.length + body.length];
+        System.arraycopy(head, 0, block, 0, head.length);
+        System.arraycopy(body, 0, block, head.length, body.length);
+
+        URI requested = URI.create(requestedUrl);
+        String path = requested.getRawPath() == null || requested.getRawPath().isEmpty()
+                ? "/" : requested.getRawPath();
+        String query = requested.getRawQuery() == null ? "" : "?" + requested.getRawQuery();
+        byte[] request = ("GET " + path + query + " HTTP/1.1" + CRLF
+                + "Host: " + requested.getRawAuthority() + CRLF + CRLF)
+                .getBytes(StandardCharsets.UTF_8);
+
+        String responseId = newRecordId();
+        byte[] responseRecord = record("response", responseId, url, null,
+                "application/http;msgtype=response", block);
+        byte[] requestRecord = record("request", newRecordId(), requestedUrl, responseId,
+                "application/http;msgtype=request", request);
+
+        synchronized (this) {
+            long responseOffset = offset;
+            append(responseRecord);
+            append(requestRecord);
+            writeIndex(responseOffset, responseRecord.length, url);
+            if (!requestedUrl.equals(url)) {
+                writeIndex(responseOffset, responseRecord.length, requestedUrl);
+            }
+            index.flush();
+        }
+    }
+
+    private void writeIndex(long recordOffset, int length, String url) throws IOException {
+        index.write(Long.toString(recordOffset));
+        index.write(' ');
+        index.write(Integer.toString(length));
+        index.write(' ');
+        index.write(url);
+        index.write('\n');
+    }
+
+    private void append(byte[] member) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(member);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        offset += member.length;
+    }
+
+    /**
+     * Returns a complete, gzip-compressed WARC record.
+     */
+    private static byte[] record(String type, String recordId, String targetUri,
+                                 String concurrentTo, String contentType, byte[] block)
+            throws IOException {
+        StringBuilder header = new StringBuilder(256)
+                .append(VERSION).append(CRLF)
+                .append("WARC-Type: ").append(type).append(CRLF)
+                .append("WARC-Record-ID: ").append(recordId).append(CRLF)
+                .append("WARC-Date: ")
+                .append(Instant.now().truncatedTo(ChronoUnit.MILLIS)).append(CRLF);
+        if (targetUri != null) {
+            header.append("WARC-Target-URI: ").append(targetUri).append(CRLF);
+        }
+        if (concurrentTo != null) {
+            header.append("WARC-Concurrent-To: ").append(concurrentTo).append(CRLF);
+        }
+        header.append("Content-Type: ").append(contentType).append(CRLF)
+                .append("Content-Length: ").append(block.length).append(CRLF)
+                .append(CRLF);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(block.length / 2 + 256);
+        try (OutputStream gzip = new GZIPOutputStream(bytes, 8192)) {
+            gzip.write(header.toString().getBytes(StandardCharsets.UTF_8));
+            gzip.write(block);
+            gzip.write((CRLF + CRLF).getBytes(StandardCharsets.US_ASCII));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String newRecordId() {
+        return "<urn:uuid:" + UUID.randomUUID() + ">";
+    }
+
+    private static boolean isTransferHeader(String name) {
+        for (String header : TRANSFER_HEADERS) {
+            if (header.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try (channel) {
+            index.close();
+        }
+    }
+}
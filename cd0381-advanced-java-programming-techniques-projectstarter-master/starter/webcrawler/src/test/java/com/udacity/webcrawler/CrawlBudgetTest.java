@@ -0,0 +1,117 @@
+package com.udacity.webcrawler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class CrawlBudgetTest {
+
+  @Test
+  public void unlimitedBudgetNeverStops() {
+    CrawlBudget.Tracker tracker = CrawlBudget.UNLIMITED.start(1);
+    for (int i = 0; i < 1000; i++) {
+      assertThat(tracker.tryStartPage("https://example.com/" + i, 0)).isTrue();
+      tracker.addBytes(1 << 20);
+    }
+    assertThat(tracker.isExhausted()).isFalse();
+    assertThat(tracker.stoppedBy()).isEmpty();
+  }
+
+  @Test
+  public void maxPagesStopsAtTheLastPage() {
+    CrawlBudget.Tracker tracker = new CrawlBudget(3, 0, 0, 0).start(1);
+    assertThat(tracker.tryStartPage("https://example.com/1", 0)).isTrue();
+    assertThat(tracker.tryStartPage("https://example.com/2", 0)).isTrue();
+    assertThat(tracker.isExhausted()).isFalse();
+    assertThat(tracker.tryStartPage("https://example.com/3", 0)).isTrue();
+    assertThat(tracker.isExhausted()).isTrue();
+    // A crawl of exactly maxPages pages was not cut short.
+    assertThat(tracker.stoppedBy()).isEmpty();
+    assertThat(tracker.tryStartPage("https://example.com/4", 0)).isFalse();
+    assertThat(tracker.stoppedBy()).isEqualTo("maxPages");
+  }
+
+  @Test
+  public void pagesLeftOutAfterTheBudgetRanOutStopTheCrawl() {
+    CrawlBudget.Tracker tracker = new CrawlBudget(1, 0, 0, 0).start(1);
+    tracker.turnedAway();
+    assertThat(tracker.stoppedBy()).isEmpty();
+    assertThat(tracker.tryStartPage("https://example.com/1", 0)).isTrue();
+    assertThat(tracker.stoppedBy()).isEmpty();
+    tracker.turnedAway();
+    assertThat(tracker.stoppedBy()).isEqualTo("maxPages");
+  }
+
+  @Test
+  public void maxBytesStopsOnceReached() {
+    CrawlBudget.Tracker tracker = new CrawlBudget(0, 100, 0, 0).start(1);
+    tracker.addBytes(60);
+    assertThat(tracker.isExhausted()).isFalse();
+    tracker.addBytes(40);
+    assertThat(tracker.isExhausted()).isTrue();
+    assertThat(tracker.stoppedBy()).isEmpty();
+    assertThat(tracker.tryStartPage("https://example.com/", 0)).isFalse();
+    assertThat(tracker.stoppedBy()).isEqualTo("maxBytes");
+  }
+
+  @Test
+  public void perHostAndPerSeedCapsOnlyTurnAwayTheirPages() {
+    CrawlBudget.Tracker tracker = new CrawlBudget(0, 0, 2, 3).start(2);
+    assertThat(tracker.tryStartPage("https://a.example/1", 0)).isTrue();
+    assertThat(tracker.tryStartPage("https://A.example:8080/2", 0)).isTrue();
+    assertThat(tracker.tryStartPage("https://a.example/3", 1)).isFalse();
+    assertThat(tracker.stoppedBy()).isEqualTo("maxPagesPerHost");
+
+    assertThat(tracker.tryStartPage("https://b.example/1", 0)).isTrue();
+    assertThat(tracker.tryStartPage("https://c.example/1", 0)).isFalse();
+    assertThat(tracker.tryStartPage("https://c.example/1", 1)).isTrue();
+    assertThat(tracker.isExhausted()).isFalse();
+    // The first cap to turn a page away is reported.
+    assertThat(tracker.stoppedBy()).isEqualTo("maxPagesPerHost");
+  }
+
+  @Test
+  public void totalBudgetTakesPrecedenceOverCaps() {
+    CrawlBudget.Tracker tracker = new CrawlBudget(2, 0, 1, 0).start(1);
+    assertThat(tracker.tryStartPage("https://a.example/1", 0)).isTrue();
+    assertThat(tracker.tryStartPage("https://a.example/2", 0)).isFalse();
+    assertThat(tracker.tryStartPage("https://b.example/1", 0)).isTrue();
+    assertThat(tracker.stoppedBy()).isEqualTo("maxPagesPerHost");
+    assertThat(tracker.tryStartPage("https://c.example/1", 0)).isFalse();
+    assertThat(tracker.stoppedBy()).isEqualTo("maxPages");
+  }
+
+  @Test
+  public void concurrentPagesNeverExceedTheBudget() throws Exception {
+    CrawlBudget.Tracker tracker = new CrawlBudget(1000, 0, 0, 0).start(1);
+    AtomicInteger started = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      threads.add(new Thread(() -> {
+        for (int i = 0; i < 500; i++) {
+          if (tracker.tryStartPage("https://example.com/", 0)) {
+            started.incrementAndGet();
+          }
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertThat(started.get()).isEqualTo(1000);
+  }
+
+  @Test
+  public void hostOf() {
+    assertThat(CrawlBudget.hostOf("https://Example.com/a")).isEqualTo("example.com");
+    assertThat(CrawlBudget.hostOf("http://user@example.com:8080?q")).isEqualTo("example.com");
+    assertThat(CrawlBudget.hostOf("https://example.com")).isEqualTo("example.com");
+    assertThat(CrawlBudget.hostOf("file:///tmp/page.html")).isEmpty();
+    assertThat(CrawlBudget.hostOf("mailto:someone")).isEmpty();
+  }
+}
@@ -0,0 +1,70 @@
+package com.udacity.webcrawler;
+
+import com.google.inject.Guice;
+import com.google.inject.Key;
+import com.udacity.webcrawler.parser.PageParserFactory;
+import com.udacity.webcrawler.parser.ParserModule;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class FlightRecordingTest {
+
+  @TempDir
+  Path tempDir;
+
+  private static PageParserFactory parserFactory() {
+    Duration timeout = Duration.ofSeconds(5);
+    return Guice.createInjector(
+            new ParserModule.Builder().setTimeout(timeout).setIgnoredWords(List.of()).build(),
+            new NoOpProfilerModule(),
+            binder -> binder.bind(Key.get(Duration.class, Timeout.class)).toInstance(timeout))
+        .getInstance(PageParserFactory.class);
+  }
+
+  @Test
+  public void recordsPhaseEventsForLocalCrawl() throws Exception {
+    Path recording = tempDir.resolve("crawl.jfr");
+    WebCrawler crawler = new ParallelWebCrawler(
+        Clock.systemUTC(), parserFactory(), Duration.ofSeconds(10), 3, 2, List.of(), 2,
+        new CrawlOutputs.Builder().setFlightRecordingPath(recording.toString()).build(),
+        CrawlBudget.UNLIMITED, new NoOpProfiler());
+
+    Path page = tempDir.resolve("start.html");
+    Files.writeString(page, "<html><body><p>The quick brown fox.</p>"
+        + "<a href=\"next.html\">next</a></body></html>");
+    Files.writeString(tempDir.resolve("next.html"), "<html><body>jumped over</body></html>");
+    String startPage = page.toUri().toString();
+    crawler.crawl(List.of(startPage));
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(recording);
+    Set<String> types = events.stream()
+        .map(e -> e.getEventType().getName())
+        .collect(Collectors.toSet());
+    assertThat(types).containsAtLeast(
+        "com.udacity.webcrawler.Download",
+        "com.udacity.webcrawler.Parse",
+        "com.udacity.webcrawler.Tokenize",
+        "com.udacity.webcrawler.Merge",
+        "com.udacity.webcrawler.Schedule");
+
+    RecordedEvent download = events.stream()
+        .filter(e -> e.getEventType().getName().equals("com.udacity.webcrawler.Download"))
+        .filter(e -> e.getString("url").equals(startPage))
+        .findFirst()
+        .orElseThrow();
+    assertThat(download.getInt("depth")).isEqualTo(0);
+    assertThat(download.getLong("bytes")).isGreaterThan(0L);
+  }
+}
@@ -0,0 +1,132 @@
+package com.udacity.webcrawler;
+
+import com.google.inject.Guice;
+import com.google.inject.Key;
+import com.udacity.webcrawler.json.CrawlResult;
+import com.udacity.webcrawler.parser.PageParserFactory;
+import com.udacity.webcrawler.parser.ParserModule;
+import com.udacity.webcrawler.testing.StandInServer;
+import com.udacity.webcrawler.testing.SyntheticSite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures a whole {@link ParallelWebCrawler#crawl(List)} of a 500-page {@link SyntheticSite},
+ * with 1,000 words each and up to 8 child links.
+ *
+ * <p>With the {@code file} transport, pages are read from disk, so that network latency does not
+ * hide the crawler's own costs: scheduling, parsing, merging word counts and sorting them. With
+ * {@code http}, they are served by a {@link StandInServer} with a log-normal latency of 2ms median
+ * and 20ms at the 99th percentile, which shows how well the threads hide network waits.
+ *
+ * <p>Run {@link #main(String[])} from the test classpath; results are also written to
+ * {@code parallel-crawl.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ParallelCrawlBenchmark {
+
+    private static final int PAGE_COUNT = 500;
+
+    @Param({"1", "4"})
+    public int threadCount;
+
+    @Param({"file", "http"})
+    public String transport;
+
+    private Path site;
+    private StandInServer server;
+    private List<String> startPages;
+    private WebCrawler crawler;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        site = Files.createTempDirectory("parallel-crawl-benchmark");
+        String startPage = new SyntheticSite.Builder()
+                .setDirectory(site)
+                .setPageCount(PAGE_COUNT)
+                .setFanout(8)
+                .setDepth(3)
+                .setWordsPerPage(1_000)
+                .build()
+                .write()
+                .startPage();
+        if (transport.equals("http")) {
+            server = StandInServer.start().serveDirectory(site);
+            server.setConditions(new StandInServer.Conditions.Builder()
+                    .setLatency(StandInServer.Latency.logNormal(
+                            Duration.ofMillis(2), Duration.ofMillis(20)))
+                    .build());
+            startPage = server.url("page-0.html");
+        }
+        startPages = List.of(startPage);
+
+        Duration timeout = Duration.ofMinutes(1);
+        PageParserFactory parserFactory = Guice.createInjector(
+                        new ParserModule.Builder().setTimeout(timeout).setIgnoredWords(List.of())
+                                .build(),
+                        new NoOpProfilerModule(),
+                        binder -> binder.bind(Key.get(Duration.class, Timeout.class))
+                                .toInstance(timeout))
+                .getInstance(PageParserFactory.class);
+        crawler = new ParallelWebCrawler(
+                Clock.systemUTC(), parserFactory, timeout, 10, threadCount, List.of(), 20,
+                CrawlOutputs.NONE, CrawlBudget.UNLIMITED, new NoOpProfiler());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        try (Stream<Path> files = Files.walk(site)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public CrawlResult crawl() {
+        return crawler.crawl(startPages);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ParallelCrawlBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("parallel-crawl.json")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,367 @@
+package com.udacity.webcrawler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.inject.Guice;
+import com.google.inject.Key;
+import com.udacity.webcrawler.json.CrawlResult;
+import com.udacity.webcrawler.parser.PageParserFactory;
+import com.udacity.webcrawler.parser.ParserModule;
+import com.udacity.webcrawler.testing.StandInServer;
+import com.udacity.webcrawler.testing.SyntheticSite;
+import com.udacity.webcrawler.trace.TraceEvent;
+import com.udacity.webcrawler.trace.TraceReader;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Measures how crawl throughput scales with parallelism. It crawls the same {@link SyntheticSite}
+ * with {@link SequentialWebCrawler}, the baseline, and with {@link ParallelWebCrawler} at
+ * parallelism 1, 2, 4 and so on up to a maximum, and writes one report row per configuration.
+ *
+ * <p>By default, pages are served by a {@link StandInServer} with log-normal latency, since
+ * waiting on the network is what parallelism hides; {@code --transport=file} reads them from disk
+ * instead, which leaves only the crawler's CPU work to scale.
+ *
+ * <p>Each row has the number of threads the crawler actually used, since it may cap the
+ * parallelism it is given; the pages crawled per second; the 99th percentile of page latency,
+ * from the start of a page's fetch to the end of its parse, read from the crawl's trace; the peak
+ * heap; the process's CPU utilization, which includes the stand-in server's threads; and the
+ * speedup and efficiency relative to the baseline. Every configuration is crawled once to warm
+ * up and then {@code --runs} times, and the run of median duration is reported.
+ *
+ * <p>The report is CSV, or JSON if the output file name ends in {@code .json}, so that reports of
+ * two releases can be compared. Run {@link #main(String[])} from the test classpath, or
+ * {@code mvn -P scaling verify -Dscaling.args="--pages=5000"}.
+ */
+public final class ScalingBenchmark {
+
+    private static final String USAGE = "Usage: ScalingBenchmark [--output=scaling.csv]"
+            + " [--pages=2000] [--max-parallelism=256] [--runs=3] [--transport=http|file]"
+            + " [--latency-ms=5]";
+    private static final Duration TIMEOUT = Duration.ofMinutes(10);
+    private static final int FANOUT = 8;
+    private static final int POPULAR_WORD_COUNT = 10;
+
+    private final Settings settings;
+    private final PageParserFactory parserFactory;
+    private final Path traceFile;
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans()
+            .stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+    private final com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private ScalingBenchmark(Settings settings, Path traceFile) {
+        this.settings = settings;
+        this.traceFile = traceFile;
+        this.parserFactory = Guice.createInjector(
+                        new ParserModule.Builder().setTimeout(TIMEOUT).setIgnoredWords(List.of())
+                                .build(),
+                        new NoOpProfilerModule(),
+                        binder -> binder.bind(Key.get(Duration.class, Timeout.class))
+                                .toInstance(TIMEOUT))
+                .getInstance(PageParserFactory.class);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Settings settings;
+        try {
+            settings = Settings.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        Path site = Files.createTempDirectory("scaling-benchmark");
+        boolean http = settings.transport.equals("http");
+        try (StandInServer server = http ? StandInServer.start() : null) {
+            String startPage = new SyntheticSite.Builder()
+                    .setDirectory(site)
+                    .setPageCount(settings.pages)
+                    .setFanout(FANOUT)
+                    .setDepth(depthFor(settings.pages))
+                    .build()
+                    .write()
+                    .startPage();
+            if (server != null) {
+                Duration median = Duration.ofNanos((long) (settings.latencyMillis * 1_000_000));
+                server.serveDirectory(site).setConditions(new StandInServer.Conditions.Builder()
+                        .setLatency(StandInServer.Latency.logNormal(
+                                median, median.multipliedBy(10)))
+                        .build());
+                startPage = server.url("page-0.html");
+            }
+
+            List<Row> rows =
+                    new ScalingBenchmark(settings, site.resolve("trace.bin")).run(startPage);
+            write(settings, rows);
+        } finally {
+            delete(site);
+        }
+    }
+
+    private List<Row> run(String startPage) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        Row baseline = measure("sequential", 1, sequential(), startPage);
+        rows.add(baseline);
+        for (int parallelism : parallelisms(settings.maxParallelism)) {
+            rows.add(measure("parallel", parallelism, parallel(parallelism), startPage));
+        }
+        for (Row row : rows) {
+            row.speedup = row.pagesPerSecond / baseline.pagesPerSecond;
+            row.efficiency = row.speedup / row.parallelism;
+        }
+        return rows;
+    }
+
+    private Row measure(String crawlerName, int parallelism, WebCrawler crawler, String startPage)
+            throws IOException {
+        System.err.printf(Locale.ROOT, "Crawling %d pages with %s crawler, parallelism %d%n",
+                settings.pages, crawlerName, parallelism);
+        crawl(crawlerName, parallelism, crawler, startPage);
+        List<Row> runs = new ArrayList<>();
+        for (int i = 0; i < settings.runs; i++) {
+            runs.add(crawl(crawlerName, parallelism, crawler, startPage));
+        }
+        runs.sort(Comparator.comparingDouble(row -> row.seconds));
+        return runs.get(runs.size() / 2);
+    }
+
+    private Row crawl(String crawlerName, int parallelism, WebCrawler crawler, String startPage)
+            throws IOException {
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long cpuStart = os.getProcessCpuTime();
+        long start = System.nanoTime();
+        CrawlResult result = crawler.crawl(List.of(startPage));
+        long elapsed = System.nanoTime() - start;
+        long cpu = os.getProcessCpuTime() - cpuStart;
+
+        Row row = new Row(crawlerName, parallelism);
+        row.threads = Math.min(parallelism, crawler.getMaxParallelism());
+        row.pages = result.getUrlsVisited();
+        row.seconds = elapsed / 1e9;
+        row.pagesPerSecond = row.pages / row.seconds;
+        // Pools peak at different times, so their sum bounds the peak from above.
+        row.peakHeapBytes =
+                heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        row.cpuUtilization = (double) cpu / elapsed / os.getAvailableProcessors();
+        readTrace(row);
+        return row;
+    }
+
+    /**
+     * Reads the page latencies and failures of the last crawl from its trace.
+     */
+    private void readTrace(Row row) throws IOException {
+        Map<String, Long> startedAt = new HashMap<>();
+        List<Long> latencies = new ArrayList<>();
+        TraceReader.read(traceFile, record -> {
+            switch (record.getEvent()) {
+                case STARTED -> startedAt.put(record.getUrl(), record.getMicros());
+                case FINISHED, FAILED -> {
+                    Long started = startedAt.remove(record.getUrl());
+                    if (started != null) {
+                        latencies.add(record.getMicros() - started);
+                    }
+                    if (record.getEvent() == TraceEvent.FAILED) {
+                        row.failedPages++;
+                    }
+                }
+                default -> {
+                }
+            }
+        });
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        row.p99LatencyMillis = sorted.length == 0
+                ? 0
+                : sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1000.0;
+    }
+
+    private WebCrawler sequential() {
+        return new SequentialWebCrawler(
+                Clock.systemUTC(), parserFactory, TIMEOUT, POPULAR_WORD_COUNT, Integer.MAX_VALUE,
+                List.of(), outputs(), CrawlBudget.UNLIMITED, new NoOpProfiler());
+    }
+
+    private WebCrawler parallel(int parallelism) {
+        return new ParallelWebCrawler(
+                Clock.systemUTC(), parserFactory, TIMEOUT, POPULAR_WORD_COUNT, parallelism,
+                List.of(), Integer.MAX_VALUE, outputs(), CrawlBudget.UNLIMITED,
+                new NoOpProfiler());
+    }
+
+    private CrawlOutputs outputs() {
+        // The trace is where the page latencies are read from.
+        return new CrawlOutputs.Builder().setTraceLogPath(traceFile.toString()).build();
+    }
+
+    /**
+     * Returns the powers of two up to the given maximum, followed by the maximum itself.
+     */
+    static List<Integer> parallelisms(int max) {
+        List<Integer> parallelisms = new ArrayList<>();
+        for (int parallelism = 1; parallelism < max; parallelism *= 2) {
+            parallelisms.add(parallelism);
+        }
+        parallelisms.add(max);
+        return parallelisms;
+    }
+
+    /**
+     * Returns the smallest depth of a site with the benchmark's fanout that holds the given number
+     * of pages.
+     */
+    private static int depthFor(int pages) {
+        int depth = 0;
+        for (long capacity = 1, width = 1; capacity < pages; depth++) {
+            width *= FANOUT;
+            capacity += width;
+        }
+        return depth;
+    }
+
+    private static void write(Settings settings, List<Row> rows) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(settings.output, StandardCharsets.UTF_8)) {
+            if (settings.output.getFileName().toString().endsWith(".json")) {
+                Map<String, Object> report = new LinkedHashMap<>();
+                report.put("javaVersion", System.getProperty("java.version"));
+                report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+                report.put("transport", settings.transport);
+                report.put("latencyMillis", settings.latencyMillis);
+                report.put("pages", settings.pages);
+                report.put("runs", settings.runs);
+                report.put("rows", rows.stream().map(Row::toMap).toList());
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                        .writeValue(writer, report);
+            } else {
+                writer.write(String.join(",", Row.COLUMNS));
+                writer.write('\n');
+                for (Row row : rows) {
+                    writer.write(row.toCsv());
+                    writer.write('\n');
+                }
+            }
+        }
+        System.err.println("Wrote " + settings.output);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * The command-line options.
+     */
+    static final class Settings {
+        private Path output = Path.of("scaling.csv");
+        private int pages = 2_000;
+        private int maxParallelism = 256;
+        private int runs = 3;
+        private String transport = "http";
+        private double latencyMillis = 5;
+
+        static Settings parse(String[] args) {
+            Settings settings = new Settings();
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                if (!arg.startsWith("--") || equals < 0) {
+                    throw new IllegalArgumentException("Unknown argument: " + arg);
+                }
+                String value = arg.substring(equals + 1);
+                try {
+                    switch (arg.substring(2, equals)) {
+                        case "output" -> settings.output = Path.of(value);
+                        case "pages" -> settings.pages = Integer.parseInt(value);
+                        case "max-parallelism" -> settings.maxParallelism = Integer.parseInt(value);
+                        case "runs" -> settings.runs = Integer.parseInt(value);
+                        case "transport" -> settings.transport = value;
+                        case "latency-ms" -> settings.latencyMillis = Double.parseDouble(value);
+                        default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Not a number: " + arg);
+                }
+            }
+            if (settings.pages < 1 || settings.maxParallelism < 1 || settings.runs < 1
+                    || settings.latencyMillis <= 0
+                    || !(settings.transport.equals("http") || settings.transport.equals("file"))) {
+                throw new IllegalArgumentException("Invalid arguments");
+            }
+            return settings;
+        }
+    }
+
+    /**
+     * The measurements of one crawler configuration.
+     */
+    static final class Row {
+        static final List<String> COLUMNS = List.of(
+                "crawler", "parallelism", "threads", "pages", "failedPages", "seconds",
+                "pagesPerSecond", "p99LatencyMillis", "peakHeapBytes", "cpuUtilization", "speedup",
+                "efficiency");
+
+        private final String crawler;
+        private final int parallelism;
+        private int threads;
+        private int pages;
+        private int failedPages;
+        private double seconds;
+        private double pagesPerSecond;
+        private double p99LatencyMillis;
+        private long peakHeapBytes;
+        private double cpuUtilization;
+        private double speedup;
+        private double efficiency;
+
+        Row(String crawler, int parallelism) {
+            this.crawler = crawler;
+            this.parallelism = parallelism;
+        }
+
+        Map<String, Object> toMap() {
+            List<Object> values = values();
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                map.put(COLUMNS.get(i), values.get(i));
+            }
+            return map;
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%.3f,%.1f,%.2f,%d,%.3f,%.3f,%.3f",
+                    values().toArray());
+        }
+
+        private List<Object> values() {
+            return List.of(crawler, parallelism, threads, pages, failedPages, seconds,
+                    pagesPerSecond, p99LatencyMillis, peakHeapBytes, cpuUtilization, speedup,
+                    efficiency);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.udacity.webcrawler;
+
+import com.google.inject.Guice;
+import com.google.inject.Key;
+import com.udacity.webcrawler.json.CrawlResult;
+import com.udacity.webcrawler.json.CrawlResultWriter;
+import com.udacity.webcrawler.parser.PageParserFactory;
+import com.udacity.webcrawler.parser.ParserModule;
+import com.udacity.webcrawler.testing.StandInServer;
+import com.udacity.webcrawler.testing.SyntheticSite;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class SyntheticSiteCrawlTest {
+
+  private static final Duration TIMEOUT = Duration.ofMinutes(1);
+  private static final int POPULAR_WORD_COUNT = 20;
+
+  @TempDir
+  Path tempDir;
+
+  private static PageParserFactory parserFactory() {
+    return parserFactory(new ParserModule.Builder());
+  }
+
+  private static PageParserFactory parserFactory(ParserModule.Builder parserModule) {
+    return Guice.createInjector(
+            parserModule.setTimeout(TIMEOUT).setIgnoredWords(List.of()).build(),
+            new NoOpProfilerModule(),
+            binder -> binder.bind(Key.get(Duration.class, Timeout.class)).toInstance(TIMEOUT))
+        .getInstance(PageParserFactory.class);
+  }
+
+  private static WebCrawler sequential(int maxDepth) {
+    return sequential(maxDepth, parserFactory());
+  }
+
+  private static WebCrawler sequential(int maxDepth, PageParserFactory parserFactory) {
+    return new SequentialWebCrawler(
+        Clock.systemUTC(), parserFactory, TIMEOUT, POPULAR_WORD_COUNT, maxDepth, List.of(),
+        CrawlOutputs.NONE, CrawlBudget.UNLIMITED, new NoOpProfiler());
+  }
+
+  private static WebCrawler parallel(int maxDepth) {
+    return parallel(maxDepth, parserFactory());
+  }
+
+  private static WebCrawler parallel(int maxDepth, PageParserFactory parserFactory) {
+    return new ParallelWebCrawler(
+        Clock.systemUTC(), parserFactory, TIMEOUT, POPULAR_WORD_COUNT, 4, List.of(), maxDepth,
+        CrawlOutputs.NONE, CrawlBudget.UNLIMITED, new NoOpProfiler());
+  }
+
+  private static String json(CrawlResult result) throws Exception {
+    StringWriter out = new StringWriter();
+    new CrawlResultWriter(result).write(out);
+    return out.toString();
+  }
+
+  private SyntheticSite writeSite() throws Exception {
+    return new SyntheticSite.Builder()
+        .setDirectory(tempDir)
+        .setPageCount(1_500)
+        .setFanout(6)
+        .setDepth(5)
+        .setCycleLinks(3)
+        .setVocabularySize(2_000)
+        .setWordsPerPage(120)
+        .build()
+        .write();
+  }
+
+  @Test
+  public void siteShape() throws Exception {
+    SyntheticSite site = writeSite();
+
+    assertThat(site.pageCount()).isEqualTo(1_500);
+    // 1 + 6 + 36 + 216 pages fill the first levels; the rest are split between the last two.
+    assertThat(site.pagesWithin(0)).isEqualTo(1);
+    assertThat(site.pagesWithin(3)).isEqualTo(259);
+    assertThat(site.pagesWithin(4)).isEqualTo(1_499);
+    assertThat(site.pagesWithin(5)).isEqualTo(1_500);
+    assertThat(tempDir.resolve("page-1499.html").toFile().isFile()).isTrue();
+  }
+
+  @Test
+  public void crawlersMatchExpectedResult() throws Exception {
+    SyntheticSite site = writeSite();
+
+    for (int maxDepth : new int[] {1, 3, 5, 10}) {
+      CrawlResult expected = site.expectedResult(maxDepth, POPULAR_WORD_COUNT);
+      for (WebCrawler crawler : List.of(sequential(maxDepth), parallel(maxDepth))) {
+        CrawlResult result = crawler.crawl(List.of(site.startPage()));
+
+        assertThat(result.getUrlsVisited()).isEqualTo(expected.getUrlsVisited());
+        assertThat(result.getWordCounts().entrySet())
+            .containsExactlyElementsIn(expected.getWordCounts().entrySet())
+            .inOrder();
+      }
+    }
+  }
+
+  @Test
+  public void crawlersRankPagesHubsAndAuthorities() throws Exception {
+    SyntheticSite site = writeSite();
+    CrawlOutputs outputs = new CrawlOutputs.Builder().setTopPageCount(5).build();
+
+    for (WebCrawler crawler : List.of(
+        new SequentialWebCrawler(
+            Clock.systemUTC(), parserFactory(), TIMEOUT, POPULAR_WORD_COUNT, 3, List.of(),
+            outputs, CrawlBudget.UNLIMITED, new NoOpProfiler()),
+        new ParallelWebCrawler(
+            Clock.systemUTC(), parserFactory(), TIMEOUT, POPULAR_WORD_COUNT, 4, List.of(), 3,
+            outputs, CrawlBudget.UNLIMITED, new NoOpProfiler()))) {
+      CrawlResult result = crawler.crawl(List.of(site.startPage()));
+
+      assertThat(result.getTopPages()).hasSize(5);
+      assertThat(result.getTopHubs()).hasSize(5);
+      assertThat(result.getTopAuthorities()).hasSize(5);
+      assertThat(json(result)).contains("\"topAuthorities\"");
+    }
+  }
+
+  @Test
+  public void crawlersMatchExpectedResultOverHttp() throws Exception {
+    SyntheticSite site = writeSite();
+
+    try (StandInServer server = StandInServer.start().serveDirectory(tempDir)) {
+      server.setConditions(new StandInServer.Conditions.Builder()
+          .setLatency(StandInServer.Latency.uniform(Duration.ZERO, Duration.ofMillis(2)))
+          .setRedirects(1)
+          .setChunked(true)
+          .build());
+      CrawlResult expected = site.expectedResult(4, POPULAR_WORD_COUNT);
+      for (WebCrawler crawler : List.of(sequential(4), parallel(4))) {
+        CrawlResult result = crawler.crawl(List.of(server.url("page-0.html")));
+
+        assertThat(result.getUrlsVisited()).isEqualTo(expected.getUrlsVisited());
+        assertThat(result.getWordCounts().entrySet())
+            .containsExactlyElementsIn(expected.getWordCounts().entrySet())
+            .inOrder();
+      }
+    }
+  }
+
+  @Test
+  public void streamingParserMatchesExpectedResult() throws Exception {
+    SyntheticSite site = writeSite();
+
+    PageParserFactory streaming =
+        parserFactory(new ParserModule.Builder().setStreamingParser(true));
+    CrawlResult expected = site.expectedResult(5, POPULAR_WORD_COUNT);
+    for (WebCrawler crawler : List.of(sequential(5, streaming), parallel(5, streaming))) {
+      CrawlResult result = crawler.crawl(List.of(site.startPage()));
+
+      assertThat(result.getUrlsVisited()).isEqualTo(expected.getUrlsVisited());
+      assertThat(result.getWordCounts().entrySet())
+          .containsExactlyElementsIn(expected.getWordCounts().entrySet())
+          .inOrder();
+    }
+  }
+
+  @Test
+  public void localCorpusMatchesExpectedResult() throws Exception {
+    SyntheticSite site = writeSite();
+
+    PageParserFactory indexed =
+        parserFactory(new ParserModule.Builder().setLocalCorpusPath(tempDir.toString()));
+    CrawlResult expected = site.expectedResult(5, POPULAR_WORD_COUNT);
+    for (WebCrawler crawler : List.of(sequential(5, indexed), parallel(5, indexed))) {
+      CrawlResult result = crawler.crawl(List.of(site.startPage()));
+
+      assertThat(result.getUrlsVisited()).isEqualTo(expected.getUrlsVisited());
+      assertThat(result.getWordCounts().entrySet())
+          .containsExactlyElementsIn(expected.getWordCounts().entrySet())
+          .inOrder();
+    }
+  }
+
+  @Test
+  public void replayedCrawlMatchesRecordedCrawl() throws Exception {
+    SyntheticSite site = writeSite();
+    Path warc = tempDir.resolve("crawl.warc.gz");
+
+    String recorded;
+    String startPage;
+    try (StandInServer server = StandInServer.start().serveDirectory(tempDir);
+         PageParserFactory recording =
+             parserFactory(new ParserModule.Builder().setWarcRecordPath(warc.toString()))) {
+      // Some pages fail, so that failures are recorded and replayed too.
+      server.setConditions(new StandInServer.Conditions.Builder()
+          .setRedirects(1)
+          .setChunked(true)
+          .setErrorRate(0.05)
+          .build());
+      startPage = server.url("page-0.html");
+      recorded = json(sequential(4, recording).crawl(List.of(startPage)));
+    }
+
+    // The server is gone, so every page has to come from the archive.
+    PageParserFactory replay =
+        parserFactory(new ParserModule.Builder().setWarcReplayPath(warc.toString()));
+    for (WebCrawler crawler : List.of(sequential(4, replay), parallel(4, replay))) {
+      assertThat(json(crawler.crawl(List.of(startPage)))).isEqualTo(recorded);
+    }
+    assertThat(recorded).isNotEqualTo(json(site.expectedResult(4, POPULAR_WORD_COUNT)));
+  }
+
+  @Test
+  public void sameOptionsWriteTheSameSite() throws Exception {
+    CrawlResult first = writeSite().expectedResult(10, POPULAR_WORD_COUNT);
+    CrawlResult second = writeSite().expectedResult(10, POPULAR_WORD_COUNT);
+
+    assertThat(second.getWordCounts()).isEqualTo(first.getWordCounts());
+  }
+}
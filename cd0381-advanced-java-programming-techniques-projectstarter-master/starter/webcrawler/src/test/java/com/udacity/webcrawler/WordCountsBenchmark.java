@@ -0,0 +1,71 @@
+package com.udacity.webcrawler;
+
+import com.udacity.webcrawler.testing.HtmlFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link WordCounts#sort(Map, int)} picking the 10 most popular words, for word count
+ * maps the size of a single page up to the size of a large crawl.
+ *
+ * <p>Run {@link #main(String[])} from the test classpath; results are also written to
+ * {@code word-counts.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class WordCountsBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int mapSize;
+
+    private Map<String, Integer> counts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        counts = new HashMap<>();
+        // Mix vocabulary words, which have realistic lengths, with unique ones to reach the size.
+        for (int i = 0; counts.size() < mapSize; i++) {
+            String word = i % 2 == 0 ? HtmlFixtures.word(random) : "w" + Integer.toString(i, 36);
+            counts.merge(word, 1 + random.nextInt(1000), Integer::sum);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Integer> sort() {
+        return WordCounts.sort(counts, 10);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(WordCountsBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("word-counts.json")
+                .build();
+        new Runner(options).run();
+    }
+}
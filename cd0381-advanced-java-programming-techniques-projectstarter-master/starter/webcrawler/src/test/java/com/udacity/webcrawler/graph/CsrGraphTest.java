@@ -0,0 +1,157 @@
+package com.udacity.webcrawler.graph;
+
+import com.udacity.webcrawler.io.VarInts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class CsrGraphTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  public void recorderBuildsSortedDeduplicatedRows() {
+    LinkGraphRecorder recorder = new LinkGraphRecorder();
+    recorder.record("a", List.of("c", "b", "c"));
+    recorder.record("b", List.of("a"));
+    recorder.record("c", List.of());
+
+    CsrGraph graph = recorder.build();
+
+    assertThat(graph.nodeCount()).isEqualTo(3);
+    assertWithMessage("Duplicate links from the same page should be collapsed")
+        .that(graph.edgeCount())
+        .isEqualTo(3);
+    assertThat(outLinks(graph, "a")).containsExactly("b", "c");
+    assertThat(outLinks(graph, "b")).containsExactly("a");
+    assertThat(outLinks(graph, "c")).isEmpty();
+  }
+
+  @Test
+  public void recordsFromManyThreads() throws Exception {
+    LinkGraphRecorder recorder = new LinkGraphRecorder();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      int worker = t;
+      threads.add(new Thread(() -> {
+        for (int i = 0; i < 1000; i++) {
+          recorder.record("page-" + worker + "-" + i, List.of("hub", "page-" + worker + "-" + (i + 1)));
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    CsrGraph graph = recorder.build();
+
+    // 4 workers * 1001 distinct pages, plus the shared hub.
+    assertThat(graph.nodeCount()).isEqualTo(4 * 1001 + 1);
+    assertThat(graph.edgeCount()).isEqualTo(4 * 1000 * 2);
+  }
+
+  @Test
+  public void roundTripsThroughFile() throws Exception {
+    LinkGraphRecorder recorder = new LinkGraphRecorder();
+    for (int i = 0; i < 500; i++) {
+      recorder.record("https://example.com/" + i,
+          List.of("https://example.com/" + (i * 7 % 500), "https://example.com/café"));
+    }
+    CsrGraph expected = recorder.build();
+    Path path = tempDir.resolve("graph.csr");
+
+    new CsrGraphWriter(expected).write(path);
+    CsrGraph actual = CsrGraphReader.read(path);
+
+    assertThat(actual.nodeCount()).isEqualTo(expected.nodeCount());
+    assertThat(actual.edgeCount()).isEqualTo(expected.edgeCount());
+    for (int v = 0; v < expected.nodeCount(); v++) {
+      assertThat(actual.url(v)).isEqualTo(expected.url(v));
+      assertThat(outLinks(actual, actual.url(v))).isEqualTo(outLinks(expected, expected.url(v)));
+    }
+  }
+
+  @Test
+  public void rejectsTruncatedFile() throws Exception {
+    LinkGraphRecorder recorder = new LinkGraphRecorder();
+    recorder.record("https://example.com/a", List.of("https://example.com/b"));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new CsrGraphWriter(recorder.build()).write(out);
+    byte[] bytes = out.toByteArray();
+
+    for (int length = 5; length < bytes.length; length++) {
+      ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(bytes, length));
+      assertThrows(IOException.class, () -> CsrGraphReader.read(truncated),
+          "read " + length + " of " + bytes.length + " bytes");
+    }
+  }
+
+  @Test
+  public void rejectsCountsLargerThanTheFile() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new DataOutputStream(out).writeInt(CsrGraphWriter.MAGIC);
+    out.write(CsrGraphWriter.VERSION);
+    VarInts.write(out, Integer.MAX_VALUE - 1); // node count
+    VarInts.write(out, 0); // edge count
+
+    assertThrows(IOException.class,
+        () -> CsrGraphReader.read(ByteBuffer.wrap(out.toByteArray())));
+  }
+
+  @Test
+  public void rejectsLinkToMissingNode() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new DataOutputStream(out).writeInt(CsrGraphWriter.MAGIC);
+    out.write(CsrGraphWriter.VERSION);
+    VarInts.write(out, 1); // node count
+    VarInts.write(out, 1); // edge count
+    VarInts.write(out, 1); // out-degree of node 0
+    VarInts.write(out, 1); // link to node 1, which does not exist
+    VarInts.write(out, 1); // URL length
+    out.write('a');
+
+    assertThrows(IOException.class,
+        () -> CsrGraphReader.read(ByteBuffer.wrap(out.toByteArray())));
+  }
+
+  @Test
+  public void transposeReversesEdges() {
+    LinkGraphRecorder recorder = new LinkGraphRecorder();
+    recorder.record("a", List.of("b", "c"));
+    recorder.record("b", List.of("c"));
+
+    CsrGraph inLinks = recorder.build().transpose();
+
+    assertThat(outLinks(inLinks, "c")).containsExactly("a", "b").inOrder();
+    assertThat(outLinks(inLinks, "a")).isEmpty();
+  }
+
+  private static List<String> outLinks(CsrGraph graph, String url) {
+    for (int v = 0; v < graph.nodeCount(); v++) {
+      if (graph.url(v).equals(url)) {
+        List<String> links = new ArrayList<>();
+        for (int e = graph.firstEdge(v); e < graph.firstEdge(v) + graph.outDegree(v); e++) {
+          links.add(graph.url(graph.target(e)));
+        }
+        return links;
+      }
+    }
+    throw new AssertionError("no node for " + url);
+  }
+}
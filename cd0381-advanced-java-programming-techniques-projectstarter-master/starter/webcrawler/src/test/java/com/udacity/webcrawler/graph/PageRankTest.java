@@ -0,0 +1,71 @@
+package com.udacity.webcrawler.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+public final class PageRankTest {
+
+  @Test
+  public void scoresSumToOneAndFavorLinkedPages() {
+    LinkGraphRecorder recorder = new LinkGraphRecorder();
+    recorder.record("a", List.of("b", "c"));
+    recorder.record("b", List.of("c"));
+    recorder.record("c", List.of("a"));
+    recorder.record("d", List.of("c"));
+    CsrGraph graph = recorder.build();
+
+    double[] scores = new PageRank().compute(graph, new ForkJoinPool(2));
+
+    assertThat(Arrays.stream(scores).sum()).isWithin(1e-9).of(1.0);
+    Map<String, Double> top = TopPages.select(graph, scores, 2);
+    assertWithMessage("The page with the most in-links should rank first")
+        .that(top.keySet())
+        .containsExactly("c", "a")
+        .inOrder();
+  }
+
+  @Test
+  public void danglingPagesKeepScoresNormalized() {
+    LinkGraphRecorder recorder = new LinkGraphRecorder();
+    recorder.record("a", List.of("b"));
+    recorder.record("b", List.of());
+    CsrGraph graph = recorder.build();
+
+    double[] scores = new PageRank().compute(graph);
+
+    assertThat(Arrays.stream(scores).sum()).isWithin(1e-9).of(1.0);
+    assertThat(scores[1]).isGreaterThan(scores[0]);
+  }
+
+  @Test
+  public void emptyGraph() {
+    CsrGraph graph = new LinkGraphRecorder().build();
+
+    assertThat(new PageRank().compute(graph)).isEmpty();
+    assertThat(TopPages.select(graph, new double[0], 10)).isEmpty();
+  }
+
+  @Test
+  public void hitsSeparatesHubsFromAuthorities() {
+    LinkGraphRecorder recorder = new LinkGraphRecorder();
+    recorder.record("hub-1", List.of("auth-1", "auth-2"));
+    recorder.record("hub-2", List.of("auth-1", "auth-2"));
+    recorder.record("auth-1", List.of());
+    recorder.record("auth-2", List.of());
+    CsrGraph graph = recorder.build();
+
+    Hits.Scores scores = new Hits().compute(graph);
+
+    assertThat(TopPages.select(graph, scores.getHubs(), 2).keySet())
+        .containsExactly("hub-1", "hub-2");
+    assertThat(TopPages.select(graph, scores.getAuthorities(), 2).keySet())
+        .containsExactly("auth-1", "auth-2");
+  }
+}
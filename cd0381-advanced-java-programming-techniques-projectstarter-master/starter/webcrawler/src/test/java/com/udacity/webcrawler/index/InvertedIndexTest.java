@@ -0,0 +1,121 @@
+package com.udacity.webcrawler.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class InvertedIndexTest {
+
+  @TempDir
+  Path tempDir;
+
+  private static InvertedIndex sampleIndex(int segmentSize) {
+    InvertedIndexBuilder builder = new InvertedIndexBuilder(segmentSize);
+    builder.add("https://example.com/a", Map.of("quick", 1, "brown", 2, "fox", 1));
+    builder.add("https://example.com/b", Map.of("lazy", 1, "brown", 1, "dog", 3));
+    builder.add("https://example.com/c", Map.of("quick", 4, "dog", 1));
+    builder.add("https://example.com/empty", Map.of());
+    return builder.build();
+  }
+
+  @Test
+  public void termSearch() {
+    InvertedIndex index = sampleIndex(1000);
+
+    assertThat(index.documentCount()).isEqualTo(4);
+    assertThat(index.documentFrequency("brown")).isEqualTo(2);
+    assertThat(index.search("brown"))
+        .containsExactly("https://example.com/a", "https://example.com/b");
+    assertThat(index.search("missing")).isEmpty();
+  }
+
+  @Test
+  public void andSearch() {
+    InvertedIndex index = sampleIndex(1000);
+
+    assertThat(index.searchAll("quick", "dog")).containsExactly("https://example.com/c");
+    assertThat(index.searchAll("brown", "dog", "lazy")).containsExactly("https://example.com/b");
+    assertThat(index.searchAll("fox", "lazy")).isEmpty();
+    assertThat(index.searchAll("fox", "missing")).isEmpty();
+  }
+
+  @Test
+  public void topByFrequency() {
+    InvertedIndex index = sampleIndex(1000);
+
+    assertThat(index.topByFrequency("dog", 10).entrySet())
+        .containsExactly(
+            Map.entry("https://example.com/b", 3),
+            Map.entry("https://example.com/c", 1))
+        .inOrder();
+    assertThat(index.topByFrequency("quick", 1))
+        .containsExactly("https://example.com/c", 4);
+  }
+
+  @Test
+  public void smallSegmentsMergeToSameIndex() {
+    InvertedIndex merged = sampleIndex(1);
+    InvertedIndex single = sampleIndex(1000);
+
+    assertWithMessage("Sealing many tiny segments should not change query results")
+        .that(merged.searchAll("quick", "dog"))
+        .isEqualTo(single.searchAll("quick", "dog"));
+    assertThat(merged.topByFrequency("brown", 10)).isEqualTo(single.topByFrequency("brown", 10));
+  }
+
+  @Test
+  public void roundTripsThroughMappedFile() throws Exception {
+    InvertedIndex expected = sampleIndex(2);
+    Path path = tempDir.resolve("crawl.idx");
+
+    new InvertedIndexWriter(expected).write(path);
+    InvertedIndex actual = InvertedIndexReader.read(path);
+
+    assertThat(actual.documentCount()).isEqualTo(expected.documentCount());
+    assertThat(actual.termCount()).isEqualTo(expected.termCount());
+    for (String term : new String[] {"quick", "brown", "fox", "lazy", "dog"}) {
+      assertThat(actual.search(term)).isEqualTo(expected.search(term));
+      assertThat(actual.topByFrequency(term, 10)).isEqualTo(expected.topByFrequency(term, 10));
+    }
+  }
+
+  @Test
+  public void rejectsTruncatedFile() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new InvertedIndexWriter(sampleIndex(2)).write(out);
+    byte[] bytes = out.toByteArray();
+
+    for (int length = 5; length < bytes.length; length++) {
+      ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(bytes, length));
+      assertThrows(IOException.class, () -> InvertedIndexReader.read(truncated),
+          "read " + length + " of " + bytes.length + " bytes");
+    }
+  }
+
+  @Test
+  public void rejectsCountsLargerThanTheFile() throws Exception {
+    for (int count : new int[] {-1, Integer.MAX_VALUE}) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      new DataOutputStream(out).writeInt(InvertedIndexWriter.MAGIC);
+      out.write(InvertedIndexWriter.VERSION);
+      // A negative int is written as the 5-byte varint of its unsigned value.
+      for (int shift = 0; shift < 35; shift += 7) {
+        out.write((count >>> shift) & 0x7F | (shift < 28 ? 0x80 : 0));
+      }
+
+      assertThrows(IOException.class,
+          () -> InvertedIndexReader.read(ByteBuffer.wrap(out.toByteArray())));
+    }
+  }
+}
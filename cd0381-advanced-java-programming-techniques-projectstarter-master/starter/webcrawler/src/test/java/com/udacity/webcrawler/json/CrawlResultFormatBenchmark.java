@@ -0,0 +1,91 @@
+package com.udacity.webcrawler.json;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures write and read throughput of every {@link CrawlResultFormat} for a result with
+ * 10<sup>6</sup> word counts, and prints the encoded size of each format during setup.
+ *
+ * <p>Run {@link #main(String[])} from the test classpath; results are also written to
+ * {@code crawl-result-format.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CrawlResultFormatBenchmark {
+
+    private static final int WORD_COUNT = 1_000_000;
+
+    @Param({"PRETTY_JSON", "COMPACT_JSON", "GZIP_JSON", "BINARY"})
+    public CrawlResultFormat format;
+
+    private CrawlResult result;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Word frequencies in real crawls are heavily skewed, so most counts are small.
+        Random random = new Random(42);
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int i = 0; i < WORD_COUNT; i++) {
+            counts.put("word" + Integer.toString(i, 36), 1 + 1000 / (1 + random.nextInt(1000)));
+        }
+        result = new CrawlResult.Builder()
+                .setUrlsVisited(WORD_COUNT / 10)
+                .setWordCounts(counts)
+                .build();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CrawlResultWriter(result).write(out, format);
+        encoded = out.toByteArray();
+        System.out.printf("%n%s: %,d bytes%n", format, encoded.length);
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encoded.length);
+        new CrawlResultWriter(result).write(out, format);
+        return out.size();
+    }
+
+    @Benchmark
+    public CrawlResult read() throws IOException {
+        return CrawlResultReader.read(new ByteArrayInputStream(encoded), format);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CrawlResultFormatBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("crawl-result-format.json")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,156 @@
+package com.udacity.webcrawler.json;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class CrawlResultReaderTest {
+
+  @TempDir
+  Path tempDir;
+
+  private static CrawlResult sampleResult() {
+    // We are using LinkedHashMaps because the iteration order of the maps matters.
+    Map<String, Integer> counts = new LinkedHashMap<>();
+    counts.put("foobar", 98);
+    counts.put("foo", 12);
+    counts.put("naïve", 3);
+    counts.put("bar", 1);
+    Map<String, Double> topPages = new LinkedHashMap<>();
+    topPages.put("https://example.com/", 0.5);
+    topPages.put("https://example.com/about", 0.125);
+    Map<String, Double> topHubs = new LinkedHashMap<>();
+    topHubs.put("https://example.com/links", 0.75);
+    topHubs.put("https://example.com/", 0.25);
+    return new CrawlResult.Builder()
+        .setUrlsVisited(17)
+        .setWordCounts(counts)
+        .setTopPages(topPages)
+        .setTopHubs(topHubs)
+        .setTopAuthorities(Map.of("https://example.com/about", 1.0))
+        .build();
+  }
+
+  private static void assertSameResult(CrawlResult actual, CrawlResult expected) {
+    assertThat(actual.getUrlsVisited()).isEqualTo(expected.getUrlsVisited());
+    assertThat(actual.getWordCounts().entrySet())
+        .containsExactlyElementsIn(expected.getWordCounts().entrySet())
+        .inOrder();
+    assertThat(actual.getTopPages().entrySet())
+        .containsExactlyElementsIn(expected.getTopPages().entrySet())
+        .inOrder();
+    assertThat(actual.getTopHubs().entrySet())
+        .containsExactlyElementsIn(expected.getTopHubs().entrySet())
+        .inOrder();
+    assertThat(actual.getTopAuthorities()).isEqualTo(expected.getTopAuthorities());
+  }
+
+  @ParameterizedTest
+  @EnumSource(CrawlResultFormat.class)
+  public void roundTripsThroughStream(CrawlResultFormat format) throws Exception {
+    CrawlResult expected = sampleResult();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new CrawlResultWriter(expected).write(out, format);
+    CrawlResult actual = CrawlResultReader.read(new ByteArrayInputStream(out.toByteArray()), format);
+
+    assertSameResult(actual, expected);
+  }
+
+  @Test
+  public void formatFollowsFileName() throws Exception {
+    CrawlResult expected = sampleResult();
+
+    for (String name : new String[] {"result.json", "result.json.gz", "result.bin"}) {
+      Path path = tempDir.resolve(name);
+      new CrawlResultWriter(expected).write(path);
+      assertSameResult(CrawlResultReader.read(path), expected);
+    }
+  }
+
+  @Test
+  public void compactIsSmallerThanPretty() throws Exception {
+    CrawlResult result = sampleResult();
+    Map<CrawlResultFormat, Integer> sizes = new LinkedHashMap<>();
+    for (CrawlResultFormat format : CrawlResultFormat.values()) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      new CrawlResultWriter(result).write(out, format);
+      sizes.put(format, out.size());
+    }
+
+    assertThat(sizes.get(CrawlResultFormat.COMPACT_JSON))
+        .isLessThan(sizes.get(CrawlResultFormat.PRETTY_JSON));
+    assertThat(sizes.get(CrawlResultFormat.BINARY))
+        .isLessThan(sizes.get(CrawlResultFormat.COMPACT_JSON));
+  }
+
+  @Test
+  public void ignoresUnknownJsonFields() throws Exception {
+    String json = "{\"version\":{\"major\":2},\"wordCounts\":{\"foo\":1},\"urlsVisited\":3}";
+    CrawlResult result = CrawlResultReader.read(
+        new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), CrawlResultFormat.COMPACT_JSON);
+
+    assertThat(result.getUrlsVisited()).isEqualTo(3);
+    assertThat(result.getWordCounts()).containsExactly("foo", 1);
+    assertThat(result.getTopPages()).isEmpty();
+  }
+
+  @Test
+  public void rejectsOtherBinaryVersions() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new CrawlResultWriter(sampleResult()).write(out, CrawlResultFormat.BINARY);
+    byte[] bytes = out.toByteArray();
+    bytes[4] = 2;
+
+    IOException e = assertThrows(IOException.class, () -> CrawlResultReader.read(
+        new ByteArrayInputStream(bytes), CrawlResultFormat.BINARY));
+    assertThat(e).hasMessageThat().contains("version");
+  }
+
+  @Test
+  public void rejectsCorruptBinaryLengths() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new CrawlResultWriter(sampleResult()).write(out, CrawlResultFormat.BINARY);
+    byte[] bytes = out.toByteArray();
+
+    // The stoppedBy length follows the 1-byte urlsVisited: claim a huge string, then a negative
+    // one, which a 5-byte varint can encode.
+    for (byte[] length : new byte[][] {
+        {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07},
+        {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F}}) {
+      ByteArrayOutputStream corrupt = new ByteArrayOutputStream();
+      corrupt.write(bytes, 0, 6);
+      corrupt.write(length);
+      corrupt.write(bytes, 7, bytes.length - 7);
+
+      assertThrows(IOException.class, () -> CrawlResultReader.read(
+          new ByteArrayInputStream(corrupt.toByteArray()), CrawlResultFormat.BINARY));
+    }
+  }
+
+  @Test
+  public void rejectsTruncatedBinaryResult() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new CrawlResultWriter(sampleResult()).write(out, CrawlResultFormat.BINARY);
+    byte[] bytes = out.toByteArray();
+
+    for (int length = 0; length < bytes.length; length++) {
+      byte[] truncated = Arrays.copyOf(bytes, length);
+      assertThrows(IOException.class, () -> CrawlResultReader.read(
+          new ByteArrayInputStream(truncated), CrawlResultFormat.BINARY));
+    }
+  }
+}
@@ -46,4 +46,42 @@ public final class CrawlResultWriterTest {
 
     assertThat(written).matches(expected);
   }
+
+  @Test
+  public void testTopPagesSection() throws Exception {
+    Map<String, Double> topPages = new LinkedHashMap<>();
+    topPages.put("https://example.com/", 0.5);
+    topPages.put("https://example.com/about", 0.25);
+    CrawlResult result =
+        new CrawlResult.Builder()
+            .setUrlsVisited(2)
+            .setWordCounts(Map.of("foo", 1))
+            .setTopPages(topPages)
+            .build();
+
+    CloseableStringWriter stringWriter = new CloseableStringWriter();
+    new CrawlResultWriter(result).write(stringWriter);
+    String written = stringWriter.toString();
+
+    Pattern expected =
+        Pattern.compile(".*\"topPages\".*:.*\\{" +
+            ".*\"https://example.com/\".*:.*0\\.5," +
+            ".*\"https://example.com/about\".*:.*0\\.25" +
+            ".*}.*", Pattern.DOTALL);
+    assertThat(written).matches(expected);
+  }
+
+  @Test
+  public void testTopPagesOmittedWhenEmpty() throws Exception {
+    CrawlResult result =
+        new CrawlResult.Builder()
+            .setUrlsVisited(1)
+            .setWordCounts(Map.of("foo", 1))
+            .build();
+
+    CloseableStringWriter stringWriter = new CloseableStringWriter();
+    new CrawlResultWriter(result).write(stringWriter);
+
+    assertThat(stringWriter.toString()).doesNotContain("topPages");
+  }
 }
@@ -0,0 +1,87 @@
+package com.udacity.webcrawler.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udacity.webcrawler.parser.PageParser;
+import com.udacity.webcrawler.testing.CloseableStringWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+public final class PageResultWriterTest {
+
+  @TempDir
+  Path tempDir;
+
+  private static final PageParser.Result RESULT =
+      new PageParser.Result(
+          Map.of("quick", 2, "fox", 1),
+          List.of("https://example.com/a", "https://example.com/b"),
+          4096,
+          Duration.ofMillis(12),
+          Duration.ofMillis(3));
+
+  @Test
+  public void writesOneRecordPerLine() throws Exception {
+    Map<String, Integer> topWords = new LinkedHashMap<>();
+    topWords.put("quick", 2);
+    topWords.put("fox", 1);
+
+    CloseableStringWriter stringWriter = new CloseableStringWriter();
+    try (PageResultWriter writer = new PageResultWriter(stringWriter)) {
+      writer.write("https://example.com/", 0, RESULT, topWords);
+      writer.write("https://example.com/a", 1, RESULT, Map.of());
+    }
+    assertWithMessage("Streams should usually be closed in the same scope where they were created")
+        .that(stringWriter.isClosed())
+        .isFalse();
+
+    List<String> lines = stringWriter.toString().lines().collect(Collectors.toList());
+    assertThat(lines).hasSize(2);
+
+    JsonNode first = new ObjectMapper().readTree(lines.get(0));
+    assertThat(first.get("url").asText()).isEqualTo("https://example.com/");
+    assertThat(first.get("depth").asInt()).isEqualTo(0);
+    assertThat(first.get("fetchMicros").asLong()).isEqualTo(12_000);
+    assertThat(first.get("parseMicros").asLong()).isEqualTo(3_000);
+    assertThat(first.get("bytes").asLong()).isEqualTo(4096);
+    assertThat(first.get("links").asInt()).isEqualTo(2);
+    assertThat(first.get("topWords").get("quick").asInt()).isEqualTo(2);
+
+    JsonNode second = new ObjectMapper().readTree(lines.get(1));
+    assertThat(second.get("depth").asInt()).isEqualTo(1);
+    assertThat(second.get("topWords").size()).isEqualTo(0);
+  }
+
+  @Test
+  public void gzipOutputForGzPaths() throws Exception {
+    Path path = tempDir.resolve("pages.ndjson.gz");
+    try (PageResultWriter writer = PageResultWriter.open(path)) {
+      for (int i = 0; i < 1000; i++) {
+        writer.write("https://example.com/" + i, 1, RESULT, Map.of("quick", 2));
+      }
+    }
+
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        new GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8))) {
+      List<String> lines = reader.lines().collect(Collectors.toList());
+      assertThat(lines).hasSize(1000);
+      assertThat(new ObjectMapper().readTree(lines.get(999)).get("url").asText())
+          .isEqualTo("https://example.com/999");
+    }
+  }
+}
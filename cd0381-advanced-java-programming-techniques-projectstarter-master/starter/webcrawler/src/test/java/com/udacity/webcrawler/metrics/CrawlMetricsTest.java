@@ -0,0 +1,74 @@
+package com.udacity.webcrawler.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class CrawlMetricsTest {
+
+  private static CrawlMetrics sampleMetrics(ForkJoinPool pool) {
+    CrawlMetrics metrics = new CrawlMetrics(pool);
+    metrics.enqueued(3);
+    metrics.dequeued();
+    metrics.visited();
+    metrics.fetchStarted();
+    metrics.fetchSucceeded(2048);
+    metrics.fetchStarted();
+    metrics.fetchFailed("SocketTimeoutException");
+    metrics.fetchStarted();
+    return metrics;
+  }
+
+  @Test
+  public void writesPrometheusTextFormat() throws Exception {
+    StringWriter writer = new StringWriter();
+    sampleMetrics(null).writePrometheus(writer);
+    String text = writer.toString();
+
+    assertThat(text).contains("# TYPE webcrawler_pages_total counter\nwebcrawler_pages_total 1\n");
+    assertThat(text).contains("\nwebcrawler_bytes_total 2048\n");
+    assertThat(text).contains("\nwebcrawler_fetches_in_flight 1\n");
+    assertThat(text).contains("\nwebcrawler_frontier_size 2\n");
+    assertThat(text).contains("\nwebcrawler_visited_urls 1\n");
+    assertThat(text).contains("\nwebcrawler_errors_total{type=\"SocketTimeoutException\"} 1\n");
+    // Rates are left to Prometheus, which computes them from the counters over any window.
+    assertThat(text).doesNotContain("_per_second");
+    assertThat(text).doesNotContain("webcrawler_pool_");
+  }
+
+  @Test
+  public void includesPoolStatistics() throws Exception {
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      StringWriter writer = new StringWriter();
+      sampleMetrics(pool).writePrometheus(writer);
+
+      assertThat(writer.toString()).contains("\nwebcrawler_pool_parallelism 2\n");
+      assertThat(writer.toString()).contains("# TYPE webcrawler_pool_steals_total counter\n");
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void serverServesMetrics() throws Exception {
+    try (MetricsServer server = MetricsServer.start(0, sampleMetrics(null))) {
+      HttpResponse<String> response = HttpClient.newHttpClient().send(
+          HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + "/metrics"))
+              .build(),
+          HttpResponse.BodyHandlers.ofString());
+
+      assertThat(response.statusCode()).isEqualTo(200);
+      assertThat(response.headers().firstValue("Content-Type").orElse(""))
+          .startsWith("text/plain; version=0.0.4");
+      assertThat(response.body()).contains("\nwebcrawler_pages_total 1\n");
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.udacity.webcrawler.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class CharsetDetectorTest {
+
+  private static Charset detect(String html) {
+    return CharsetDetector.detect(ByteBuffer.wrap(html.getBytes(StandardCharsets.ISO_8859_1)));
+  }
+
+  @Test
+  public void defaultsToUtf8() {
+    assertThat(detect("")).isEqualTo(StandardCharsets.UTF_8);
+    assertThat(detect("<p>no declaration</p>")).isEqualTo(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void readsMetaCharset() {
+    assertThat(detect("<html><head><meta charset=\"windows-1252\"></head>"))
+        .isEqualTo(Charset.forName("windows-1252"));
+    assertThat(detect("<META CHARSET=iso-8859-1>")).isEqualTo(StandardCharsets.ISO_8859_1);
+    assertThat(detect("<meta name=viewport charset='ISO-8859-15'/>"))
+        .isEqualTo(Charset.forName("ISO-8859-15"));
+  }
+
+  @Test
+  public void readsHttpEquivContentType() {
+    assertThat(detect(
+        "<meta http-equiv=\"Content-Type\" content=\"text/html; charset=ISO-8859-1\">"))
+        .isEqualTo(StandardCharsets.ISO_8859_1);
+    assertThat(detect(
+        "<meta content='text/html;charset=\"windows-1251\"' http-equiv=content-type>"))
+        .isEqualTo(Charset.forName("windows-1251"));
+    // Without http-equiv, the content is not a content type.
+    assertThat(detect("<meta content=\"text/html; charset=ISO-8859-1\">"))
+        .isEqualTo(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void skipsCommentsAndAttributesOfOtherTags() {
+    assertThat(detect("<!-- <meta charset=iso-8859-1> --><p>text</p>"))
+        .isEqualTo(StandardCharsets.UTF_8);
+    assertThat(detect("<div title='<meta charset=iso-8859-1>'>text</div>"))
+        .isEqualTo(StandardCharsets.UTF_8);
+    assertThat(detect("<!--><meta charset=iso-8859-1>")).isEqualTo(StandardCharsets.ISO_8859_1);
+  }
+
+  @Test
+  public void skipsUnsupportedDeclarations() {
+    assertThat(detect("<meta charset=no-such-charset><meta charset=iso-8859-1>"))
+        .isEqualTo(StandardCharsets.ISO_8859_1);
+    assertThat(detect("<meta charset=\"\">")).isEqualTo(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void declaredUtf16IsReadAsUtf8() {
+    assertThat(detect("<meta charset=utf-16>")).isEqualTo(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void onlyPrescansTheStartOfThePage() {
+    String padding = "x".repeat(CharsetDetector.PRESCAN_LENGTH);
+    assertThat(detect(padding + "<meta charset=iso-8859-1>")).isEqualTo(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void readsXmlDeclaration() {
+    assertThat(detect("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><html></html>"))
+        .isEqualTo(StandardCharsets.ISO_8859_1);
+  }
+
+  @Test
+  public void byteOrderMarkOverridesDeclaration() {
+    byte[] html = "\uFEFF<meta charset=iso-8859-1>".getBytes(StandardCharsets.UTF_16LE);
+    assertThat(CharsetDetector.detect(ByteBuffer.wrap(html))).isEqualTo(StandardCharsets.UTF_16);
+
+    html = "\uFEFF<meta charset=iso-8859-1>".getBytes(StandardCharsets.UTF_8);
+    assertThat(CharsetDetector.detect(ByteBuffer.wrap(html))).isEqualTo(StandardCharsets.UTF_8);
+  }
+}
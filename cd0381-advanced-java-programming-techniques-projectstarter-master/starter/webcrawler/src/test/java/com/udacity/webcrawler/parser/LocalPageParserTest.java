@@ -0,0 +1,160 @@
+package com.udacity.webcrawler.parser;
+
+import com.udacity.webcrawler.profiler.Probe;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class LocalPageParserTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+  private static final String HEAD = "<!DOCTYPE html><html><head><title>Local</title></head><body>";
+  private static final String PARAGRAPH =
+      "<p>Grüße aus Köln, <a href=\"next.html\">weiter</a> nach Zürich.</p>\n";
+  private static final String TAIL = "</body></html>";
+
+  @TempDir
+  Path tempDir;
+
+  private static PageParser.Result parse(Path file, boolean streaming, LocalCorpus corpus) {
+    return parse(file, file, streaming, corpus);
+  }
+
+  private static PageParser.Result parse(
+      Path file, Path startPage, boolean streaming, LocalCorpus corpus) {
+    return new PageParserImpl(file.toUri().toString(), startPage.toUri().toString(), 0, TIMEOUT,
+        WordFilter.NONE, Probe.NONE, NetworkPageSource.DIRECT, streaming, corpus,
+        new WordDictionary()).parse();
+  }
+
+  private Path write(String name, String html, Charset charset) throws Exception {
+    Path file = tempDir.resolve(name);
+    Files.writeString(file, html, charset);
+    return file;
+  }
+
+  @Test
+  public void onlyLargeFilesAreMemoryMapped() throws Exception {
+    Path small = write("small.html", HEAD + PARAGRAPH + TAIL, StandardCharsets.UTF_8);
+    Path large = write("large.html",
+        HEAD + "x".repeat(PageParserImpl.MAPPED_READ_THRESHOLD) + TAIL, StandardCharsets.UTF_8);
+
+    assertThat(PageParserImpl.readLocalFile(small, -1).isDirect()).isFalse();
+    assertThat(PageParserImpl.readLocalFile(large, -1).isDirect()).isTrue();
+    assertThat(PageParserImpl.readLocalFile(large, -1).limit()).isEqualTo(Files.size(large));
+  }
+
+  @Test
+  public void mappedFilesParseLikeHeapFiles() throws Exception {
+    // Enough multi-byte paragraphs for the large page to be mapped, and decoded in many pieces.
+    int repeats = PageParserImpl.MAPPED_READ_THRESHOLD / PARAGRAPH.length() + 1;
+    Path small = write("small.html", HEAD + PARAGRAPH + TAIL, StandardCharsets.UTF_8);
+    Path large = write("large.html", HEAD + PARAGRAPH.repeat(repeats) + TAIL,
+        StandardCharsets.UTF_8);
+
+    for (boolean streaming : new boolean[] {false, true}) {
+      PageParser.Result one = parse(small, streaming, LocalCorpus.NONE);
+      PageParser.Result many = parse(large, streaming, LocalCorpus.NONE);
+
+      assertThat(many.getError()).isEmpty();
+      assertThat(many.getByteCount()).isEqualTo(Files.size(large));
+      for (Map.Entry<String, Integer> word : one.getWordCounts().entrySet()) {
+        int count = word.getKey().equals("local") ? 1 : word.getValue() * repeats;
+        assertThat(many.getWordCounts()).containsEntry(word.getKey(), count);
+      }
+      assertThat(many.getWordCounts().size()).isEqualTo(one.getWordCounts().size());
+      assertThat(many.getLinks().size()).isEqualTo(repeats);
+    }
+  }
+
+  @Test
+  public void decodesLocalFilesInTheirDeclaredCharset() throws Exception {
+    // In windows-1252, the non-breaking space separates the words. Read as UTF-8, its byte would
+    // be malformed and dropped, joining them.
+    String html = "<html><head><meta charset=\"windows-1252\"></head>"
+        + "<body><p>separate\u00A0words</p></body></html>";
+    Path file = write("windows-1252.html", html, Charset.forName("windows-1252"));
+
+    for (boolean streaming : new boolean[] {false, true}) {
+      assertThat(parse(file, streaming, LocalCorpus.NONE).getWordCounts())
+          .isEqualTo(Map.of("separate", 1, "words", 1));
+    }
+  }
+
+  @Test
+  public void corpusIndexesFileSizes() throws Exception {
+    Path page = write("page.html", HEAD + PARAGRAPH + TAIL, StandardCharsets.UTF_8);
+    Files.createDirectories(tempDir.resolve("nested/deeper"));
+    Path nested = write("nested/deeper/page.html", HEAD + TAIL, StandardCharsets.UTF_8);
+
+    LocalCorpus corpus = LocalCorpus.scan(tempDir);
+
+    assertThat(corpus.fileCount()).isEqualTo(2);
+    assertThat(corpus.sizeOf(page)).isEqualTo(Files.size(page));
+    assertThat(corpus.sizeOf(nested)).isEqualTo(Files.size(nested));
+    assertThat(corpus.sizeOf(tempDir.resolve("nested/../page.html"))).isEqualTo(Files.size(page));
+    assertThat(corpus.sizeOf(tempDir.resolve("nested"))).isEqualTo(LocalCorpus.UNKNOWN);
+    assertThat(corpus.sizeOf(tempDir.resolve("missing.html"))).isEqualTo(LocalCorpus.MISSING);
+    assertThat(corpus.sizeOf(tempDir.resolve("nested/missing/page.html")))
+        .isEqualTo(LocalCorpus.MISSING);
+    assertThat(corpus.sizeOf(tempDir.getParent())).isEqualTo(LocalCorpus.UNKNOWN);
+    assertThat(LocalCorpus.NONE.sizeOf(page)).isEqualTo(LocalCorpus.UNKNOWN);
+  }
+
+  @Test
+  public void corpusAnswersWithoutTheFileSystem() throws Exception {
+    Path page = write("page.html", HEAD + PARAGRAPH + TAIL, StandardCharsets.UTF_8);
+    LocalCorpus corpus = LocalCorpus.scan(tempDir);
+    // Written after the scan, so only the file system knows about it.
+    Path later = write("later.html", HEAD + PARAGRAPH + TAIL, StandardCharsets.UTF_8);
+
+    PageParser.Result indexed = parse(page, false, corpus);
+    assertThat(indexed.getError()).isEmpty();
+    assertThat(indexed.getLinks()).containsExactly(tempDir.resolve("next.html").toUri().toString());
+    assertThat(indexed.getWordCounts())
+        .isEqualTo(parse(page, false, LocalCorpus.NONE).getWordCounts());
+
+    assertThat(parse(later, false, corpus).getError()).isEqualTo("NoSuchFileException");
+    assertThat(parse(later, false, LocalCorpus.NONE).getError()).isEmpty();
+    assertThat(parse(tempDir.resolve("missing.html"), true, corpus).getError())
+        .isEqualTo("NoSuchFileException");
+  }
+
+  @Test
+  public void rootRelativeLinksResolveAgainstTheSiteRoot() throws Exception {
+    Path start = write("index.html", HEAD + TAIL, StandardCharsets.UTF_8);
+    Files.createDirectories(tempDir.resolve("docs"));
+    Path page = write("docs/page.html",
+        HEAD + "<a href=\"/about.html\">about</a> <a href=\"next.html\">next</a>" + TAIL,
+        StandardCharsets.UTF_8);
+    String about = tempDir.resolve("about.html").toUri().toString();
+    String next = tempDir.resolve("docs/next.html").toUri().toString();
+
+    for (boolean streaming : new boolean[] {false, true}) {
+      // Against the directory of the start page the crawl reached the page from.
+      assertThat(parse(page, start, streaming, LocalCorpus.NONE).getLinks())
+          .containsExactly(about, next).inOrder();
+      // Against the corpus directory, whichever page the crawl started from.
+      assertThat(parse(page, page, streaming, LocalCorpus.scan(tempDir)).getLinks())
+          .containsExactly(about, next).inOrder();
+    }
+  }
+
+  @Test
+  public void corpusMustBeADirectory() throws Exception {
+    Path page = write("page.html", HEAD + TAIL, StandardCharsets.UTF_8);
+    NotDirectoryException e =
+        assertThrows(NotDirectoryException.class, () -> LocalCorpus.scan(page));
+    assertThat(e.getMessage()).contains("page.html");
+  }
+}
@@ -0,0 +1,106 @@
+package com.udacity.webcrawler.parser;
+
+import com.udacity.webcrawler.profiler.Probe;
+import com.udacity.webcrawler.testing.HtmlFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PageParserImpl#parse()} of a local {@code file://} page, from reading the file
+ * to building the {@link PageParser.Result}:
+ * <ul>
+ *   <li>{@code small}: about 2 KB, a typical short page;</li>
+ *   <li>{@code medium}: about 200 KB, a long article;</li>
+ *   <li>{@code huge}: about 8 MB, a generated dump or log page.</li>
+ * </ul>
+ *
+ * <p>Each page is parsed into a Jsoup document ({@code document}) and read in a single streaming
+ * pass ({@code streaming}). Add {@code -prof gc} to compare how much each mode allocates. As in a
+ * crawl, every parse looks its words up in the same {@link WordDictionary}.
+ *
+ * <p>Run {@link #main(String[])} from the test classpath; results are also written to
+ * {@code page-parser.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class PageParserBenchmark {
+
+    @Param({"small", "medium", "huge"})
+    public String size;
+
+    @Param({"document", "streaming"})
+    public String mode;
+
+    private final WordDictionary dictionary = new WordDictionary();
+    private Path page;
+    private String uri;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int bytes = switch (size) {
+            case "small" -> 2 * 1024;
+            case "medium" -> 200 * 1024;
+            case "huge" -> 8 * 1024 * 1024;
+            default -> throw new IllegalArgumentException("unknown page size: " + size);
+        };
+        Random random = new Random(42);
+        List<String> links = new ArrayList<>();
+        for (int i = 0; i < bytes / 2048 + 1; i++) {
+            links.add("https://example.com/" + i + ".html");
+        }
+        page = Files.createTempFile("page-parser-benchmark", ".html");
+        Files.writeString(page, HtmlFixtures.page(random, bytes, links), StandardCharsets.UTF_8);
+        uri = page.toUri().toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(page);
+    }
+
+    @Benchmark
+    public PageParser.Result parse() {
+        return new PageParserImpl(uri, uri, 0, Duration.ofSeconds(10), WordFilter.NONE, Probe.NONE,
+                NetworkPageSource.DIRECT, mode.equals("streaming"), LocalCorpus.NONE, dictionary)
+                .parse();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PageParserBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("page-parser.json")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.udacity.webcrawler.parser;
+
+import com.udacity.webcrawler.testing.StandInServer;
+import com.udacity.webcrawler.testing.StandInServer.Conditions;
+import com.udacity.webcrawler.testing.StandInServer.Latency;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class RemotePageParserTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+  private static final String PAGE =
+      "<html><body><p>Hello remote world, hello!</p><a href=\"next.html\">next</a></body></html>";
+
+  private static PageParser.Result parse(String url, Duration timeout) {
+    return new PageParserImpl(url, timeout, List.of()).parse();
+  }
+
+  @Test
+  public void parsesPageOverHttp() throws Exception {
+    try (StandInServer server = StandInServer.start().serve("index.html", PAGE)) {
+      PageParser.Result result = parse(server.url("index.html"), TIMEOUT);
+
+      assertThat(result.getError()).isEmpty();
+      assertThat(result.getWordCounts())
+          .isEqualTo(Map.of("hello", 2, "remote", 1, "world", 1, "next", 1));
+      assertThat(result.getLinks()).containsExactly(server.url("next.html"));
+      assertThat(result.getByteCount()).isEqualTo(PAGE.length());
+    }
+  }
+
+  @Test
+  public void followsRedirectsAndChunkedBodies() throws Exception {
+    try (StandInServer server = StandInServer.start().serve("index.html", PAGE)) {
+      server.setConditions(new Conditions.Builder().setRedirects(3).setChunked(true).build());
+
+      PageParser.Result result = parse(server.url("index.html"), TIMEOUT);
+
+      assertThat(result.getError()).isEmpty();
+      assertThat(result.getWordCounts().get("hello")).isEqualTo(2);
+      // Links resolve against the page the redirects ended at.
+      assertThat(result.getLinks()).containsExactly(server.url("next.html"));
+      assertThat(server.requestCount()).isEqualTo(4);
+    }
+  }
+
+  @Test
+  public void serverErrorsAndMissingPagesAreReported() throws Exception {
+    try (StandInServer server = StandInServer.start().serve("index.html", PAGE)) {
+      assertThat(parse(server.url("missing.html"), TIMEOUT).getError())
+          .isEqualTo("HttpStatusException");
+
+      server.setConditions(new Conditions.Builder().setErrorRate(1).build());
+      PageParser.Result result = parse(server.url("index.html"), TIMEOUT);
+
+      assertThat(result.getError()).isEqualTo("HttpStatusException");
+      assertThat(result.getWordCounts()).isEqualTo(Map.of());
+    }
+  }
+
+  @Test
+  public void slowLorisBodyHitsTheTimeout() throws Exception {
+    try (StandInServer server = StandInServer.start().serve("index.html", PAGE)) {
+      // The headers arrive at once, but the whole body would take several seconds.
+      server.setConditions(
+          new Conditions.Builder().setSlowLorisInterval(Duration.ofMillis(50)).build());
+
+      long start = System.nanoTime();
+      PageParser.Result result = parse(server.url("index.html"), Duration.ofMillis(500));
+
+      assertThat(result.getError()).isEqualTo("SocketTimeoutException");
+      assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis()).isAtMost(3_000);
+    }
+  }
+
+  @Test
+  public void latencyAndBandwidthApplyPerHost() throws Exception {
+    String bigPage = "<html><body><p>" + "word ".repeat(10_000) + "</p></body></html>";
+    try (StandInServer server = StandInServer.start().serve("big.html", bigPage)) {
+      server.setConditions("localhost", new Conditions.Builder()
+          .setLatency(Latency.fixed(Duration.ofMillis(200)))
+          .setBytesPerSecond(100_000)
+          .build());
+
+      PageParser.Result slow = parse(server.url("localhost", "big.html"), TIMEOUT);
+      PageParser.Result fast = parse(server.url("127.0.0.1", "big.html"), TIMEOUT);
+
+      assertThat(slow.getWordCounts()).isEqualTo(Map.of("word", 10_000));
+      assertThat(fast.getWordCounts()).isEqualTo(Map.of("word", 10_000));
+      // 200ms of latency, then about 50,000 bytes at 100,000 bytes per second.
+      assertThat(slow.getFetchTime().toMillis()).isAtLeast(650);
+      assertThat(fast.getFetchTime().toMillis()).isLessThan(slow.getFetchTime().toMillis());
+    }
+  }
+}
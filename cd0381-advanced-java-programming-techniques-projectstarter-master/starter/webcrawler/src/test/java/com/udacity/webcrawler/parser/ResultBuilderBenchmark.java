@@ -0,0 +1,72 @@
+package com.udacity.webcrawler.parser;
+
+import com.udacity.webcrawler.testing.HtmlFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PageParser.Result.Builder#addWord(String)}, which the parser calls once for
+ * every word of every page. Each invocation adds the words of a 2,000-word page to a new builder,
+ * and the score is per word.
+ *
+ * <p>Run {@link #main(String[])} from the test classpath; results are also written to
+ * {@code result-builder.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultBuilderBenchmark {
+
+    private static final int WORDS_PER_PAGE = 2_000;
+
+    private String[] words;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        words = new String[WORDS_PER_PAGE];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = HtmlFixtures.word(random);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS_PER_PAGE)
+    public PageParser.Result.Builder addWord() {
+        PageParser.Result.Builder builder = new PageParser.Result.Builder();
+        for (String word : words) {
+            builder.addWord(word);
+        }
+        return builder;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ResultBuilderBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("result-builder.json")
+                .build();
+        new Runner(options).run();
+    }
+}
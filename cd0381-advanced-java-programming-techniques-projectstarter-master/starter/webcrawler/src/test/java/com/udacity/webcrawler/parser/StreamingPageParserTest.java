@@ -0,0 +1,162 @@
+package com.udacity.webcrawler.parser;
+
+import com.udacity.webcrawler.profiler.Probe;
+import com.udacity.webcrawler.testing.HtmlFixtures;
+import com.udacity.webcrawler.testing.StandInServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+public final class StreamingPageParserTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+  private static final WordFilter IGNORED_WORDS =
+      WordFilter.compile(List.of(Pattern.compile("^.{1,2}$"), Pattern.compile("(?i)the")));
+
+  private static final String[] TRICKY_PAGES = {
+      "",
+      "plain text without any markup",
+      "<p>Fish &amp; chips &lt;3 &copy &notanentity; &#65;&#x42;C</p>",
+      "<p>one<!-- hidden words -->two<!---->three<!-->four<!--->five<!-- a --!> six</p>",
+      "<p>before<!-- never closed",
+      "<p>foo</>bar</p><p>baz</3>qux<?pi text?>quux</p>",
+      "<![CDATA[raw &amp; kept]]> after <![CDATA[unterminated",
+      "<script>var words = 'not counted';</script><style>p { color: red }</style>shown",
+      "<script>a</scripty> still script</script >after<script/>counted</script>",
+      "<script><!--<script>x</script>still script--></script>after <SCRIPT><!--<SCRIPT></script>y",
+      "<style/>counted <title/>also <textarea/>counted",
+      "<title>Tom &amp; Jerry <b>not bold</b></title><textarea>\nsome &lt;text</textarea>",
+      "<textarea>never closed <b>bold</b> text",
+      "<textarea>closed <b>in</b> mixed</TextArea> case",
+      "<xmp><b>raw &amp;</b></xmp><iframe>frame <i>text</i></iframe>"
+          + "<noembed>embed</noembed><noframes>frames</noframes>",
+      "<p>before <plaintext><b>everything &amp; after</b></plaintext> is text",
+      "<div <a href=first.html>one</a></div>",
+      "<a href='x.html''y'>two</a> <a HREF = \"y.html\" href=z.html>three</a>",
+      "<a href=\"q.html?a=1&amp;b=2&lt\">four</a> <a href=unquoted/>five</a>",
+      "<a x <b>six</b></a> <a x= <b>seven</a> <a name=anchor>no link</a>",
+      "a<b<i>c</i> and a<b",
+      "<p>dangling <a href=\"never.html\" title=\"unterminated",
+      "<p>nbsp&nbsp;joined\u00A0here soft\u00ADhyphen zero\u200Bwidth tab\tnew\nline</p>",
+      "<!DOCTYPE html><html><head><meta charset=\"utf-8\"></head><body>words</body></html>",
+      "<table>cells<tr><td>one</td>two</tr></table>",
+      "<p>end with </",
+  };
+
+  @TempDir
+  Path tempDir;
+
+  private PageParser.Result parse(Path file, boolean streaming) {
+    String uri = file.toUri().toString();
+    return new PageParserImpl(uri, uri, 0, TIMEOUT, IGNORED_WORDS, Probe.NONE,
+        NetworkPageSource.DIRECT, streaming, LocalCorpus.NONE, new WordDictionary()).parse();
+  }
+
+  private void assertSameResults(String html) throws Exception {
+    Path file = tempDir.resolve("page.html");
+    Files.writeString(file, html, StandardCharsets.UTF_8);
+    PageParser.Result document = parse(file, false);
+    PageParser.Result streamed = parse(file, true);
+
+    assertWithMessage("words of %s", html)
+        .that(streamed.getWordCounts()).isEqualTo(document.getWordCounts());
+    assertWithMessage("links of %s", html)
+        .that(streamed.getLinks()).isEqualTo(document.getLinks());
+    assertThat(streamed.getByteCount()).isEqualTo(document.getByteCount());
+  }
+
+  @Test
+  public void matchesDocumentParserOnTrickyMarkup() throws Exception {
+    for (String html : TRICKY_PAGES) {
+      assertSameResults(html);
+    }
+  }
+
+  @Test
+  public void matchesDocumentParserOnGeneratedPages() throws Exception {
+    Random random = new Random(48);
+    for (int i = 0; i < 20; i++) {
+      List<String> links = new ArrayList<>();
+      for (int j = 0; j < 10; j++) {
+        links.add("../pages/" + HtmlFixtures.word(random) + ".html");
+      }
+      assertSameResults(HtmlFixtures.page(random, 8_000, links));
+    }
+  }
+
+  @Test
+  public void matchesDocumentParserOnRandomMarkup() throws Exception {
+    // Fragments of markup that Jsoup's tree builder leaves alone, in any order.
+    String[] fragments = {
+        " ", "\n", "word", "Mixed", "x", "&amp;", "&lt", "&nbsp;", "\u00A0", "<", ">", "&", "'",
+        "\"", "=", "/", "!", "-", "<p>", "</p>", "<div class=\"c\">", "</div>", "<br/>",
+        "<span title='a > b'>", "</span>", "<!--", "-->", "<!", "<?", "</", "</>", "<![CDATA[",
+        "]]>", "<script>", "</script>", "<style>", "</style>", "<title>", "</title>",
+        "<textarea>", "</textarea>", "<xmp>", "</xmp>", "<a href=\"l.html\">link</a>",
+        "<img alt=", "<base href=\"b/\">", "<SCRIPT>", "</SCRIPT >", "--!>", "<iframe>",
+        "</iframe>",
+    };
+    Random random = new Random(480);
+    for (int i = 0; i < 2_000; i++) {
+      StringBuilder html = new StringBuilder();
+      int length = random.nextInt(40);
+      for (int j = 0; j < length; j++) {
+        html.append(fragments[random.nextInt(fragments.length)]);
+      }
+      assertSameResults(html.toString());
+    }
+  }
+
+  @Test
+  public void byteOrderMarkOverridesCharset() throws Exception {
+    String html = "<p>Grüße aus Köln</p><a href=\"next.html\">next</a>";
+    for (Charset charset : List.of(StandardCharsets.UTF_8, StandardCharsets.UTF_16BE,
+        StandardCharsets.UTF_16LE)) {
+      // The local file charset is UTF-8, so only the byte order mark gives the right one.
+      Path file = tempDir.resolve("bom-" + charset.name() + ".html");
+      Files.writeString(file, "\uFEFF" + html, charset);
+
+      PageParser.Result streamed = parse(file, true);
+
+      assertThat(streamed.getWordCounts()).isEqualTo(parse(file, false).getWordCounts());
+      assertThat(streamed.getWordCounts()).containsEntry("next", 1);
+    }
+  }
+
+  @Test
+  public void remoteLinksResolveAgainstTheFirstBase() throws Exception {
+    String page = "<html><head><title>Base</title></head><body>"
+        + "<a href=\"before.html\">before</a>"
+        + "<base target=\"_blank\"><base href=\"/docs/\"><base href=\"/ignored/\">"
+        + "<a href=\"after.html\">after</a> <a href=\"http://example.com/x\">absolute</a>"
+        + "</body></html>";
+    try (StandInServer server = StandInServer.start().serve("site/index.html", page)) {
+      String url = server.url("site/index.html");
+      PageParser.Result document = new PageParserImpl(url, url, 0, TIMEOUT, IGNORED_WORDS,
+          Probe.NONE, NetworkPageSource.DIRECT, false, LocalCorpus.NONE, new WordDictionary())
+          .parse();
+      PageParser.Result streamed = new PageParserImpl(url, url, 0, TIMEOUT, IGNORED_WORDS,
+          Probe.NONE, NetworkPageSource.DIRECT, true, LocalCorpus.NONE, new WordDictionary())
+          .parse();
+
+      assertThat(streamed.getError()).isEmpty();
+      assertThat(streamed.getLinks()).containsExactly(
+          server.url("docs/before.html"), server.url("docs/after.html"), "http://example.com/x")
+          .inOrder();
+      assertThat(streamed.getLinks()).isEqualTo(document.getLinks());
+      assertThat(streamed.getWordCounts()).isEqualTo(document.getWordCounts());
+    }
+  }
+}
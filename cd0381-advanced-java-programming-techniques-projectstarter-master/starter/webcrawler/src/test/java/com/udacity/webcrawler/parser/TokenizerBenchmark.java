@@ -0,0 +1,117 @@
+package com.udacity.webcrawler.parser;
+
+import com.udacity.webcrawler.testing.HtmlFixtures;
+import com.udacity.webcrawler.testing.RegexTokenizer;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.TextNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the {@link WordTokenizer} with the {@link RegexTokenizer} it replaced, on the text
+ * nodes of a 200 KB page. Each invocation tokenizes every text node of the page, ignoring:
+ * <ul>
+ *   <li>{@code none}: no words;</li>
+ *   <li>{@code some}: a length rule and a case-insensitive literal;</li>
+ *   <li>{@code stopWords}: a length rule and 300 anchored literals, like a typical
+ *       configuration;</li>
+ *   <li>{@code regex}: patterns that the {@link WordFilter} has to match as regular
+ *       expressions.</li>
+ * </ul>
+ *
+ * <p>Run {@link #main(String[])} from the test classpath, with {@code -prof gc} to also compare
+ * allocation; results are also written to {@code tokenizer.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    @Param({"none", "some", "stopWords", "regex"})
+    public String ignoredWords;
+
+    private String[] texts;
+    private List<Pattern> patterns;
+    private WordFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String html = HtmlFixtures.page(random, 200 * 1024, List.of());
+        List<String> nodeTexts = new ArrayList<>();
+        for (Element element : Jsoup.parse(html).getAllElements()) {
+            for (TextNode node : element.textNodes()) {
+                nodeTexts.add(node.text());
+            }
+        }
+        texts = nodeTexts.toArray(new String[0]);
+        patterns = switch (ignoredWords) {
+            case "none" -> List.of();
+            case "some" -> List.of(Pattern.compile("^.{1,3}$"), Pattern.compile("(?i)the"));
+            case "stopWords" -> {
+                List<Pattern> stopWords = new ArrayList<>();
+                stopWords.add(Pattern.compile("^.{1,3}$"));
+                for (int i = 0; i < 300; i++) {
+                    stopWords.add(Pattern.compile("^" + HtmlFixtures.word(random) + "$"));
+                }
+                yield stopWords;
+            }
+            case "regex" -> List.of(Pattern.compile("^\\w{1,3}$"), Pattern.compile("the.*"));
+            default -> throw new IllegalArgumentException("unknown ignoredWords: " + ignoredWords);
+        };
+        filter = WordFilter.compile(patterns);
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        for (String text : texts) {
+            for (String word : RegexTokenizer.words(text, patterns)) {
+                blackhole.consume(word);
+            }
+        }
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole blackhole) {
+        // A tokenizer is created per page, as the parser does.
+        WordTokenizer tokenizer = new WordTokenizer(filter, new WordDictionary());
+        for (String text : texts) {
+            tokenizer.tokenize(text, blackhole::consume);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TokenizerBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("tokenizer.json")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,92 @@
+package com.udacity.webcrawler.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class WordDictionaryTest {
+
+  private static String intern(WordDictionary dictionary, String word) {
+    // Padded, since the tokenizer's buffer is usually longer than the word in it.
+    char[] buffer = (word + "#####").toCharArray();
+    return dictionary.intern(buffer, word.length(), word.hashCode());
+  }
+
+  @Test
+  public void returnsOneInstancePerWord() {
+    WordDictionary dictionary = new WordDictionary();
+
+    String crawl = intern(dictionary, "crawl");
+
+    assertThat(crawl).isEqualTo("crawl");
+    assertThat(intern(dictionary, "crawl")).isSameInstanceAs(crawl);
+    assertThat(intern(dictionary, "crawler")).isEqualTo("crawler");
+    assertThat(intern(dictionary, "craw")).isEqualTo("craw");
+    assertThat(intern(dictionary, "")).isEqualTo("");
+    assertThat(dictionary.size()).isEqualTo(4);
+  }
+
+  @Test
+  public void tellsApartWordsWithTheSameHashCode() {
+    WordDictionary dictionary = new WordDictionary();
+
+    // "Aa" and "BB" are the classic pair of strings with equal hash codes.
+    String first = intern(dictionary, "AaAa");
+    String second = intern(dictionary, "BBBB");
+
+    assertThat(first.hashCode()).isEqualTo(second.hashCode());
+    assertThat(first).isEqualTo("AaAa");
+    assertThat(second).isEqualTo("BBBB");
+    assertThat(intern(dictionary, "AaAa")).isSameInstanceAs(first);
+    assertThat(intern(dictionary, "BBBB")).isSameInstanceAs(second);
+  }
+
+  @Test
+  public void keepsWordsAsItGrows() {
+    WordDictionary dictionary = new WordDictionary();
+    List<String> words = new ArrayList<>();
+    for (int i = 0; i < 50_000; i++) {
+      words.add(intern(dictionary, "word" + i));
+    }
+
+    assertThat(dictionary.size()).isEqualTo(50_000);
+    for (int i = 0; i < 50_000; i++) {
+      assertThat(intern(dictionary, "word" + i)).isSameInstanceAs(words.get(i));
+    }
+  }
+
+  @Test
+  public void threadsShareOneInstancePerWord() throws Exception {
+    WordDictionary dictionary = new WordDictionary();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String[]>> results = new ArrayList<>();
+      for (int thread = 0; thread < 4; thread++) {
+        results.add(executor.submit(() -> {
+          String[] words = new String[20_000];
+          for (int i = 0; i < words.length; i++) {
+            words[i] = intern(dictionary, "word" + i);
+          }
+          return words;
+        }));
+      }
+
+      String[] first = results.get(0).get();
+      for (Future<String[]> result : results) {
+        String[] words = result.get();
+        for (int i = 0; i < words.length; i++) {
+          assertThat(words[i]).isSameInstanceAs(first[i]);
+        }
+      }
+      assertThat(dictionary.size()).isEqualTo(20_000);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
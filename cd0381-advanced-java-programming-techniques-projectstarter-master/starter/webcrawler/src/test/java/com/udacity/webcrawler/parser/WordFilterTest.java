@@ -0,0 +1,120 @@
+package com.udacity.webcrawler.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+public final class WordFilterTest {
+
+  private static final List<Pattern> FAST_PATTERNS = List.of(
+      Pattern.compile("^.{1,3}$"),
+      Pattern.compile(".{2}"),
+      Pattern.compile(".{5,}"),
+      Pattern.compile("^.*$"),
+      Pattern.compile(".+"),
+      Pattern.compile(".?"),
+      Pattern.compile("(?s).{1,3}"),
+      Pattern.compile("(?d)^.{1,3}$"),
+      Pattern.compile("(?m)^.*$"),
+      Pattern.compile("^$"),
+      Pattern.compile(""),
+      Pattern.compile("^the$"),
+      Pattern.compile("(?i)the"),
+      Pattern.compile("^it's$"),
+      Pattern.compile("\\Qa.b\\E"),
+      Pattern.compile("a\\.b"),
+      Pattern.compile("\\$"),
+      Pattern.compile("a\\\\$"),
+      Pattern.compile("(?i)été"),
+      Pattern.compile("(?i)^k$"),
+      Pattern.compile("(?u)^\u017F$"),
+      Pattern.compile("^a$", Pattern.LITERAL),
+      Pattern.compile("A.B", Pattern.LITERAL | Pattern.CASE_INSENSITIVE),
+      Pattern.compile("it's", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE));
+
+  private static final List<Pattern> REGEX_PATTERNS = List.of(
+      Pattern.compile("(?iu)^k$"),
+      Pattern.compile("(?iU)s"),
+      Pattern.compile("the", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE),
+      Pattern.compile(".{1,3}", Pattern.COMMENTS),
+      Pattern.compile("(?m)^$"),
+      Pattern.compile("^\\w{1,3}$"),
+      Pattern.compile("the.*"),
+      Pattern.compile(".{1,3}?"),
+      Pattern.compile("(?i:the)"),
+      Pattern.compile("a|b"),
+      Pattern.compile("[ab]"),
+      Pattern.compile("\\t"));
+
+  private static final List<String> TOKENS = List.of(
+      "", "a", "ab", "abc", "abcd", "abcdef", "The", "THE", "the", "theory", "it's", "IT'S",
+      "a.b", "A.B", "axb", "$", "a$", "a\\", "^a$", "^A$", "été", "ÉTÉ", "Été", "k", "K", "\u212A",
+      "s", "S", "\u017F", "\u017F\u212A", "a b", "x\u0085", "\r", "ab\n", "\t", "😀", "😀😀😀",
+      "😀😀😀😀", "\uD800", "a|b");
+
+  private static boolean matchesAny(List<Pattern> patterns, String token) {
+    return patterns.stream().anyMatch(p -> p.matcher(token).matches());
+  }
+
+  private static boolean isIgnored(WordFilter filter, String token) {
+    // Tokens are checked in place, in the middle of a longer text.
+    String text = "x " + token + " y";
+    WordFilter.Matcher matcher = filter.matcher();
+    matcher.reset(text);
+    return matcher.isIgnored(2, 2 + token.length());
+  }
+
+  @Test
+  public void simplePatternsAreNotMatchedAsRegularExpressions() {
+    assertThat(WordFilter.compile(FAST_PATTERNS).regexCount()).isEqualTo(0);
+    assertThat(WordFilter.compile(REGEX_PATTERNS).regexCount())
+        .isEqualTo(REGEX_PATTERNS.size());
+  }
+
+  @Test
+  public void eachPatternMatchesLikeItsRegularExpression() {
+    List<Pattern> patterns = new ArrayList<>(FAST_PATTERNS);
+    patterns.addAll(REGEX_PATTERNS);
+    for (Pattern pattern : patterns) {
+      WordFilter filter = WordFilter.compile(List.of(pattern));
+      for (String token : TOKENS) {
+        assertWithMessage("%s on %s", pattern, token)
+            .that(isIgnored(filter, token))
+            .isEqualTo(pattern.matcher(token).matches());
+      }
+    }
+  }
+
+  @Test
+  public void combinedPatternsMatchLikeAnyOfThem() {
+    List<Pattern> stopWords = new ArrayList<>();
+    stopWords.add(Pattern.compile("^.{1,3}$"));
+    for (String word : List.of("about", "because", "there", "which", "would")) {
+      stopWords.add(Pattern.compile("^" + word + "$"));
+      stopWords.add(Pattern.compile("(?i)" + word + "s"));
+    }
+    stopWords.add(Pattern.compile("the.*"));
+    WordFilter filter = WordFilter.compile(stopWords);
+
+    List<String> tokens = new ArrayList<>(TOKENS);
+    tokens.addAll(List.of("about", "About", "aboutS", "WHICHS", "because", "therefore", "wo"));
+    for (String token : tokens) {
+      assertWithMessage(token)
+          .that(isIgnored(filter, token))
+          .isEqualTo(matchesAny(stopWords, token));
+    }
+    assertThat(filter.regexCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void noPatternsIgnoreNothing() {
+    for (String token : TOKENS) {
+      assertThat(isIgnored(WordFilter.NONE, token)).isFalse();
+    }
+  }
+}
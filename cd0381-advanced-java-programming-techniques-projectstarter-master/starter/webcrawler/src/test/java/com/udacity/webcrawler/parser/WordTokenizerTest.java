@@ -0,0 +1,116 @@
+package com.udacity.webcrawler.parser;
+
+import com.udacity.webcrawler.testing.HtmlFixtures;
+import com.udacity.webcrawler.testing.RegexTokenizer;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.TextNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class WordTokenizerTest {
+
+  private static final List<Pattern> IGNORED_WORDS =
+      List.of(Pattern.compile("^.{1,3}$"), Pattern.compile("(?i)the"), Pattern.compile("\\bx\\w*"));
+
+  private static final String[] TRICKY_TEXTS = {
+      "",
+      "   ",
+      "Hello, World!",
+      "  leading and trailing\t\n",
+      "don't STOP-believing__ 42nd",
+      "THE the The theory",
+      "one\u000Btwo\ffour\rfive",
+      " em space     nbsp inside",
+      "café naïve über straße",
+      "-- ... !!! a-b c_d",
+      "x-ray xylophone box",
+      "emoji 😀 here😀there",
+  };
+
+  private static List<String> words(String text, List<Pattern> ignoredWords) {
+    List<String> words = new ArrayList<>();
+    new WordTokenizer(WordFilter.compile(ignoredWords), new WordDictionary())
+        .tokenize(text, words::add);
+    return words;
+  }
+
+  @Test
+  public void matchesRegexTokenizer() {
+    for (String text : TRICKY_TEXTS) {
+      for (List<Pattern> ignoredWords : List.of(List.<Pattern>of(), IGNORED_WORDS)) {
+        assertThat(words(text, ignoredWords))
+            .containsExactlyElementsIn(RegexTokenizer.words(text, ignoredWords))
+            .inOrder();
+      }
+    }
+  }
+
+  @Test
+  public void matchesRegexTokenizerOnRandomText() {
+    String alphabet = "aZ_9x-'. \t\n\u000B\u2003\u00A0\u00E9";
+    Random random = new Random(42);
+    for (int i = 0; i < 10_000; i++) {
+      StringBuilder text = new StringBuilder();
+      for (int j = random.nextInt(12); j > 0; j--) {
+        text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+      }
+      assertThat(words(text.toString(), IGNORED_WORDS))
+          .containsExactlyElementsIn(RegexTokenizer.words(text.toString(), IGNORED_WORDS))
+          .inOrder();
+    }
+  }
+
+  @Test
+  public void matchesRegexTokenizerOnPageText() {
+    String html = HtmlFixtures.page(new Random(7), 64 * 1024, List.of("https://example.com/"));
+    WordTokenizer tokenizer =
+        new WordTokenizer(WordFilter.compile(IGNORED_WORDS), new WordDictionary());
+    List<String> words = new ArrayList<>();
+    List<String> expected = new ArrayList<>();
+    for (Element element : Jsoup.parse(html).getAllElements()) {
+      for (TextNode node : element.textNodes()) {
+        tokenizer.tokenize(node.text(), words::add);
+        expected.addAll(RegexTokenizer.words(node.text(), IGNORED_WORDS));
+      }
+    }
+
+    assertThat(words).containsExactlyElementsIn(expected).inOrder();
+    assertThat(words.size()).isAtLeast(5_000);
+  }
+
+  @Test
+  public void reusedTokenizerGrowsItsBuffer() {
+    String longWord = "w".repeat(1_000);
+    WordTokenizer tokenizer = new WordTokenizer(WordFilter.NONE, new WordDictionary());
+    List<String> words = new ArrayList<>();
+
+    tokenizer.tokenize("short " + longWord.toUpperCase() + " short", words::add);
+    tokenizer.tokenize("again", words::add);
+
+    assertThat(words).containsExactly("short", longWord, "short", "again").inOrder();
+  }
+
+  @Test
+  public void tokenizersSharingADictionaryShareWords() {
+    WordDictionary dictionary = new WordDictionary();
+    List<String> first = new ArrayList<>();
+    List<String> second = new ArrayList<>();
+
+    new WordTokenizer(WordFilter.NONE, dictionary).tokenize("Crawl the web, crawl!", first::add);
+    new WordTokenizer(WordFilter.NONE, dictionary).tokenize("the CRAWL", second::add);
+
+    assertThat(first).containsExactly("crawl", "the", "web", "crawl").inOrder();
+    assertThat(second).containsExactly("the", "crawl").inOrder();
+    assertThat(first.get(3)).isSameInstanceAs(first.get(0));
+    assertThat(second.get(0)).isSameInstanceAs(first.get(1));
+    assertThat(second.get(1)).isSameInstanceAs(first.get(0));
+    assertThat(dictionary.size()).isEqualTo(3);
+  }
+}
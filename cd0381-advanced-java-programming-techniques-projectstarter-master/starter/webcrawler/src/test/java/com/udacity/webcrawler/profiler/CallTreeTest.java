@@ -0,0 +1,97 @@
+package com.udacity.webcrawler.profiler;
+
+import com.udacity.webcrawler.testing.CloseableStringWriter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class CallTreeTest {
+  private static final String OUTER = "com.udacity.webcrawler.profiler.CallTreeTest$OuterImpl";
+  private static final String INNER = "com.udacity.webcrawler.profiler.CallTreeTest$InnerImpl";
+
+  private final FakeClock clock = new FakeClock();
+  private final Profiler profiler = new ProfilerImpl(clock);
+
+  @Test
+  public void nestedCallsHaveSelfAndTotalTime() throws Exception {
+    Inner inner = profiler.wrap(Inner.class, new InnerImpl(clock));
+    Outer outer = profiler.wrap(Outer.class, new OuterImpl(clock, inner));
+
+    outer.crawl(3);
+
+    CloseableStringWriter writer = new CloseableStringWriter();
+    profiler.writeData(writer);
+    String written = writer.toString();
+
+    // The flat list still reports the outer total, which includes the nested calls.
+    assertThat(written).contains(OUTER + "#crawl took 0m 7s 0ms");
+    assertThat(written).contains(
+        "Call tree:" + System.lineSeparator()
+            + "  " + OUTER + "#crawl total 0m 7s 0ms, self 0m 1s 0ms, 1 calls"
+            + System.lineSeparator()
+            + "    " + INNER + "#parse total 0m 6s 0ms, self 0m 6s 0ms, 3 calls");
+  }
+
+  @Test
+  public void foldedStacks() throws Exception {
+    Inner inner = profiler.wrap(Inner.class, new InnerImpl(clock));
+    Outer outer = profiler.wrap(Outer.class, new OuterImpl(clock, inner));
+
+    outer.crawl(2);
+    inner.parse();
+
+    CloseableStringWriter writer = new CloseableStringWriter();
+    profiler.writeFoldedStacks(writer);
+    List<String> lines = writer.toString().lines().collect(Collectors.toList());
+
+    assertThat(lines).containsExactly(
+        OUTER + "#crawl 1000000",
+        OUTER + "#crawl;" + INNER + "#parse 4000000",
+        INNER + "#parse 2000000");
+  }
+
+  private interface Outer {
+    @Profiled
+    void crawl(int pages);
+  }
+
+  private interface Inner {
+    @Profiled
+    void parse();
+  }
+
+  private static final class OuterImpl implements Outer {
+    private final FakeClock clock;
+    private final Inner inner;
+
+    OuterImpl(FakeClock clock, Inner inner) {
+      this.clock = clock;
+      this.inner = inner;
+    }
+
+    @Override
+    public void crawl(int pages) {
+      clock.tick(Duration.ofSeconds(1));
+      for (int i = 0; i < pages; i++) {
+        inner.parse();
+      }
+    }
+  }
+
+  private static final class InnerImpl implements Inner {
+    private final FakeClock clock;
+
+    InnerImpl(FakeClock clock) {
+      this.clock = clock;
+    }
+
+    @Override
+    public void parse() {
+      clock.tick(Duration.ofSeconds(2));
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package com.udacity.webcrawler.profiler;
+
+import com.udacity.webcrawler.testing.CloseableStringWriter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class CrawlTelemetryTest {
+
+  private final Profiler profiler = new ProfilerImpl(Clock.systemUTC(), System::nanoTime);
+
+  @Test
+  public void poolTelemetry() throws Exception {
+    Set<Thread> workers = ConcurrentHashMap.newKeySet();
+    ForkJoinPool pool = new ForkJoinPool(2, p -> {
+      ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+      workers.add(worker);
+      return worker;
+    }, null, false);
+
+    try (CrawlTelemetry ignored = profiler.startTelemetry(pool, workers)) {
+      assertThat(pool.invoke(new Sum(0, 1 << 16))).isEqualTo(((1L << 16) - 1) * (1 << 16) / 2);
+    } finally {
+      pool.shutdown();
+    }
+
+    String written = write();
+    assertThat(written).contains("Crawl telemetry (");
+    assertThat(written).contains("  pool: parallelism 2, steals ");
+    // How many compensation threads the pool starts depends on scheduling, so only the field is
+    // checked.
+    assertThat(written).containsMatch("compensation threads \\d+\\R");
+    assertThat(written).contains("  allocated: total ");
+    for (Thread worker : workers) {
+      assertThat(written).contains(worker.getName() + " ");
+    }
+    assertThat(written).contains("  gc: total ");
+  }
+
+  @Test
+  public void callingThreadTelemetry() throws Exception {
+    try (CrawlTelemetry ignored =
+             profiler.startTelemetry(null, List.of(Thread.currentThread()))) {
+      byte[][] garbage = new byte[64][];
+      for (int i = 0; i < garbage.length; i++) {
+        garbage[i] = new byte[16 * 1024];
+      }
+      assertThat(garbage[63].length).isEqualTo(16 * 1024);
+    }
+
+    String written = write();
+    assertThat(written).doesNotContain("pool:");
+    assertThat(written).contains(Thread.currentThread().getName() + " ");
+  }
+
+  @Test
+  public void runningCrawlsAreLeftOut() throws Exception {
+    CrawlTelemetry telemetry = profiler.startTelemetry(null, List.of(Thread.currentThread()));
+    try {
+      assertThat(write()).doesNotContain("Crawl telemetry");
+    } finally {
+      telemetry.close();
+    }
+    assertThat(write()).contains("Crawl telemetry");
+  }
+
+  private String write() throws Exception {
+    CloseableStringWriter writer = new CloseableStringWriter();
+    profiler.writeData(writer);
+    return writer.toString();
+  }
+
+  private static final class Sum extends RecursiveTask<Long> {
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+
+    Sum(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Long compute() {
+      if (to - from <= 1024) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+          sum += Long.valueOf(i);
+        }
+        return sum;
+      }
+      int middle = (from + to) >>> 1;
+      Sum left = new Sum(from, middle);
+      left.fork();
+      return new Sum(middle, to).compute() + left.join();
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package com.udacity.webcrawler.profiler;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+public final class LatencyHistogramTest {
+
+  @Test
+  public void bucketsCoverEveryValue() {
+    for (long value : new long[] {0, 1, 127, 128, 129, 1000, 1_000_000_000L, Long.MAX_VALUE}) {
+      int bucket = LatencyHistogram.bucketOf(value);
+      assertThat(LatencyHistogram.highestValueIn(bucket)).isAtLeast(value);
+      if (bucket > 0) {
+        assertThat(LatencyHistogram.highestValueIn(bucket - 1)).isLessThan(value);
+      }
+    }
+  }
+
+  @Test
+  public void percentilesAreWithinOnePercent() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.count()).isEqualTo(1000);
+    assertThat(snapshot.maxNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1000));
+    assertThat(snapshot.meanNanos()).isWithin(1).of(500.5e6);
+    assertThat((double) snapshot.percentile(50)).isWithin(5e6).of(500e6);
+    assertThat((double) snapshot.percentile(90)).isWithin(9e6).of(900e6);
+    assertThat((double) snapshot.percentile(99)).isWithin(9.9e6).of(990e6);
+    assertThat(snapshot.percentile(100)).isEqualTo(snapshot.maxNanos());
+  }
+
+  @Test
+  public void concurrentRecordingLosesNothing() throws Exception {
+    LatencyHistogram histogram = new LatencyHistogram();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    for (int t = 0; t < 4; t++) {
+      executor.execute(() -> {
+        for (int i = 0; i < 100_000; i++) {
+          histogram.record(i);
+        }
+      });
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+    assertThat(histogram.snapshot().count()).isEqualTo(400_000);
+    assertThat(histogram.snapshot().maxNanos()).isEqualTo(99_999);
+  }
+
+  @Test
+  public void profilingStateWritesDistribution() throws Exception {
+    ProfilingState state = new ProfilingState();
+    Method method = Object.class.getMethod("toString");
+    for (int i = 0; i < 99; i++) {
+      state.record(String.class, method, Duration.ofMillis(10));
+    }
+    state.record(String.class, method, Duration.ofSeconds(10));
+
+    StringWriter writer = new StringWriter();
+    state.write(writer);
+    String written = writer.toString();
+
+    assertWithMessage("One slow call should be visible next to many fast ones")
+        .that(written)
+        .contains("java.lang.String#toString took 0m 10s 990ms (count 100, ");
+    assertThat(written).contains("p50 10.0");
+    assertThat(written).contains("max 10000.000ms");
+  }
+}
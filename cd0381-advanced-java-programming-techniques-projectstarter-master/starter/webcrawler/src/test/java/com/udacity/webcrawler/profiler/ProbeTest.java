@@ -0,0 +1,131 @@
+package com.udacity.webcrawler.profiler;
+
+import com.udacity.webcrawler.testing.CloseableStringWriter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ProbeTest {
+  private static final String TOKENIZER = "com.udacity.webcrawler.profiler.ProbeTest$Tokenizer";
+  private static final String PAGE = "com.udacity.webcrawler.profiler.ProbeTest$PageImpl";
+
+  private final FakeClock clock = new FakeClock();
+  private final Profiler profiler = new ProfilerImpl(clock);
+
+  @Test
+  public void methodWithoutAnnotation() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> profiler.probe(Tokenizer.class, "helper"),
+        "Probing a method that is not @Profiled should throw an IllegalArgumentException.");
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> profiler.probe(Tokenizer.class, "missing"),
+        "Probing a method that does not exist should throw an IllegalArgumentException.");
+  }
+
+  @Test
+  public void staticAndPrivateMethodsAreProfiled() throws Exception {
+    Tokenizer tokenizer = new Tokenizer(clock, profiler.probe(Tokenizer.class, "tokenize"));
+
+    Tokenizer.count(clock, profiler.probe(Tokenizer.class, "count"));
+    tokenizer.run(2);
+
+    CloseableStringWriter writer = new CloseableStringWriter();
+    profiler.writeData(writer);
+    String written = writer.toString();
+
+    assertThat(written).contains(TOKENIZER + "#count took 0m 1s 0ms (count 1,");
+    assertThat(written).contains(TOKENIZER + "#tokenize took 0m 6s 0ms (count 2,");
+  }
+
+  @Test
+  public void probedCallsNestUnderWrappedCalls() throws Exception {
+    Tokenizer tokenizer = new Tokenizer(clock, profiler.probe(Tokenizer.class, "tokenize"));
+    Page page = profiler.wrap(Page.class, new PageImpl(clock, tokenizer));
+
+    page.parse();
+
+    CloseableStringWriter writer = new CloseableStringWriter();
+    profiler.writeFoldedStacks(writer);
+
+    assertThat(writer.toString().lines().collect(Collectors.toList())).containsExactly(
+        PAGE + "#parse 1000000",
+        PAGE + "#parse;" + TOKENIZER + "#tokenize 3000000");
+  }
+
+  @Test
+  public void exceptionsStillRecordTheCall() throws Exception {
+    Probe probe = profiler.probe(Tokenizer.class, "count");
+
+    assertThrows(IllegalStateException.class, () -> {
+      try (Probe.Call ignored = probe.start()) {
+        clock.tick(Duration.ofSeconds(2));
+        throw new IllegalStateException();
+      }
+    });
+
+    CloseableStringWriter writer = new CloseableStringWriter();
+    profiler.writeData(writer);
+    assertThat(writer.toString()).contains(TOKENIZER + "#count took 0m 2s 0ms (count 1,");
+  }
+
+  private static final class Tokenizer {
+    private final FakeClock clock;
+    private final Probe tokenizeProbe;
+
+    Tokenizer(FakeClock clock, Probe tokenizeProbe) {
+      this.clock = clock;
+      this.tokenizeProbe = tokenizeProbe;
+    }
+
+    @Profiled
+    static void count(FakeClock clock, Probe probe) {
+      try (Probe.Call ignored = probe.start()) {
+        clock.tick(Duration.ofSeconds(1));
+      }
+    }
+
+    void run(int times) {
+      for (int i = 0; i < times; i++) {
+        tokenize();
+      }
+    }
+
+    @Profiled
+    private void tokenize() {
+      try (Probe.Call ignored = tokenizeProbe.start()) {
+        clock.tick(Duration.ofSeconds(3));
+      }
+    }
+
+    @SuppressWarnings("unused")
+    private void helper() {
+    }
+  }
+
+  private interface Page {
+    @Profiled
+    void parse();
+  }
+
+  private static final class PageImpl implements Page {
+    private final FakeClock clock;
+    private final Tokenizer tokenizer;
+
+    PageImpl(FakeClock clock, Tokenizer tokenizer) {
+      this.clock = clock;
+      this.tokenizer = tokenizer;
+    }
+
+    @Override
+    public void parse() {
+      clock.tick(Duration.ofSeconds(1));
+      tokenizer.run(1);
+    }
+  }
+}
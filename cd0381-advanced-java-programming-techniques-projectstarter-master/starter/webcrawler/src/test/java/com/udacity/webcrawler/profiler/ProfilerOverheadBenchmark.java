@@ -0,0 +1,134 @@
+package com.udacity.webcrawler.profiler;
+
+import com.udacity.webcrawler.NoOpProfiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Proxy;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-call overhead of a profiled method call through:
+ * <ul>
+ *   <li>{@link NoOpProfiler}, which does not wrap at all;</li>
+ *   <li>{@link ReflectiveProfilingMethodInterceptor}, the original reflective interceptor that
+ *       reads the clock twice and allocates a {@link java.time.Duration} per call;</li>
+ *   <li>{@link ProfilerImpl} as configured by {@link ProfilerModule}, with method handles,
+ *       {@link System#nanoTime()} and pre-assigned counter slots.</li>
+ * </ul>
+ * Each is also measured while a parser is wrapped per call, the way
+ * {@code PageParserFactoryImpl} does for every crawled URL.
+ *
+ * <p>Run {@link #main(String[])} from the test classpath; results are also written to
+ * {@code profiler-overhead.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProfilerOverheadBenchmark {
+
+    /**
+     * The interface being profiled. Public so that every profiler can proxy it.
+     */
+    public interface Work {
+        @Profiled
+        int work(int value);
+    }
+
+    static final class WorkImpl implements Work {
+        @Override
+        public int work(int value) {
+            return value * 31 + 7;
+        }
+    }
+
+    private final WorkImpl delegate = new WorkImpl();
+    private Profiler noOpProfiler;
+    private Profiler fastProfiler;
+    private ProfilingState reflectiveState;
+    private Work noOp;
+    private Work reflective;
+    private Work fast;
+    private int value;
+
+    @Setup
+    public void setUp() {
+        noOpProfiler = new NoOpProfiler();
+        fastProfiler = new ProfilerImpl(Clock.systemUTC(), System::nanoTime);
+        reflectiveState = new ProfilingState();
+
+        noOp = noOpProfiler.wrap(Work.class, delegate);
+        reflective = wrapReflectively(delegate);
+        fast = fastProfiler.wrap(Work.class, delegate);
+    }
+
+    private Work wrapReflectively(Work work) {
+        return (Work) Proxy.newProxyInstance(
+                Work.class.getClassLoader(),
+                new Class<?>[]{Work.class},
+                new ReflectiveProfilingMethodInterceptor(
+                        Clock.systemUTC(), work, reflectiveState, ZonedDateTime.now()));
+    }
+
+    @Benchmark
+    public int direct() {
+        return delegate.work(value++);
+    }
+
+    @Benchmark
+    public int noOpProfiler() {
+        return noOp.work(value++);
+    }
+
+    @Benchmark
+    public int reflectiveProfiler() {
+        return reflective.work(value++);
+    }
+
+    @Benchmark
+    public int fastProfiler() {
+        return fast.work(value++);
+    }
+
+    @Benchmark
+    public int noOpProfilerWrapPerCall() {
+        return noOpProfiler.wrap(Work.class, delegate).work(value++);
+    }
+
+    @Benchmark
+    public int reflectiveProfilerWrapPerCall() {
+        return wrapReflectively(delegate).work(value++);
+    }
+
+    @Benchmark
+    public int fastProfilerWrapPerCall() {
+        return fastProfiler.wrap(Work.class, delegate).work(value++);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ProfilerOverheadBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("profiler-overhead.json")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,119 @@
+package com.udacity.webcrawler.profiler;
+
+import com.udacity.webcrawler.testing.CloseableStringWriter;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class SamplingTest {
+  private static final long MILLIS = 1_000_000;
+
+  @Test
+  public void nestedCallsShareTheOutermostDecision() throws Exception {
+    // Samples every other outermost call, each standing for two calls.
+    int[] decisions = {0};
+    ProfilingState state = new ProfilingState(slot -> decisions[0]++ % 2 == 0 ? 2 : 0);
+    int outer = state.slotFor(Outer.class, method("crawl"));
+    int inner = state.slotFor(Inner.class, method("parse"));
+
+    for (int i = 0; i < 4; i++) {
+      CallTree.Frame crawl = state.enter(outer);
+      for (int j = 0; j < 3; j++) {
+        CallTree.Frame parse = state.enter(inner);
+        state.exit(parse, inner, 2 * MILLIS);
+      }
+      state.exit(crawl, outer, 7 * MILLIS);
+    }
+
+    assertThat(decisions[0]).isEqualTo(4);
+    String written = write(state);
+    assertThat(written).contains(
+        "SamplingTest$Outer#crawl took 0m 0s 28ms +/- 0m 0s 27ms (count 4 +/- 4,");
+    assertThat(written).contains(
+        "SamplingTest$Inner#parse took 0m 0s 24ms +/- 0m 0s 13ms (count 12 +/- 7,");
+    assertThat(written)
+        .contains("SamplingTest$Outer#crawl total 0m 0s 28ms, self 0m 0s 4ms, 4 calls");
+  }
+
+  @Test
+  public void oneInNEstimatesTheTotal() throws Exception {
+    ProfilingState state = new ProfilingState(new Sampler.OneIn(10));
+    int slot = state.slotFor(Inner.class, method("parse"));
+
+    int calls = 100_000;
+    for (int i = 0; i < calls; i++) {
+      CallTree.Frame frame = state.enter(slot);
+      state.exit(frame, slot, MILLIS);
+    }
+
+    Matcher matcher = Pattern.compile("count (\\d+) \\+/- (\\d+)").matcher(write(state));
+    assertThat(matcher.find()).isTrue();
+    long estimate = Long.parseLong(matcher.group(1));
+    long error = Long.parseLong(matcher.group(2));
+    assertThat(estimate % 10).isEqualTo(0);
+    // Allow for twice the 95% interval, so that the test almost never fails by chance.
+    assertThat(Math.abs(estimate - calls)).isAtMost(2 * error);
+  }
+
+  @Test
+  public void adaptiveSamplingFollowsTheCallRate() {
+    AtomicLong now = new AtomicLong();
+    Sampler.Adaptive sampler = new Sampler.Adaptive(1_000, now::get);
+
+    // One million calls per second for two seconds.
+    long weights = 0;
+    for (int i = 0; i < 2_000_000; i++) {
+      now.addAndGet(1_000);
+      weights += sampler.weight(0);
+    }
+
+    assertThat(sampler.oneIn(0)).isAtLeast(500);
+    assertThat(sampler.oneIn(0)).isAtMost(2_000);
+    assertThat((double) weights).isWithin(200_000).of(2_000_000);
+  }
+
+  @Test
+  public void samplingIsReported() throws Exception {
+    FakeClock clock = new FakeClock();
+    Profiler profiler = new ProfilerImpl(clock, System::nanoTime, ProfilerSampling.oneIn(4));
+
+    CloseableStringWriter writer = new CloseableStringWriter();
+    profiler.writeData(writer);
+
+    assertThat(writer.toString()).contains("Sampled 1 in 4 calls;");
+  }
+
+  @Test
+  public void configurationSelectsSampling() {
+    assertThat(ProfilerSampling.of(0, 0).toString()).isEqualTo("every call");
+    assertThat(ProfilerSampling.of(1, 0).toString()).isEqualTo("every call");
+    assertThat(ProfilerSampling.of(50, 0).toString()).isEqualTo("1 in 50 calls");
+    assertThat(ProfilerSampling.of(50, 200).toString())
+        .isEqualTo("about 200 calls per method per second");
+  }
+
+  private static String write(ProfilingState state) throws Exception {
+    CloseableStringWriter writer = new CloseableStringWriter();
+    state.write(writer);
+    return writer.toString();
+  }
+
+  private static Method method(String name) throws NoSuchMethodException {
+    return name.equals("crawl") ? Outer.class.getMethod(name) : Inner.class.getMethod(name);
+  }
+
+  private interface Outer {
+    @Profiled
+    void crawl();
+  }
+
+  private interface Inner {
+    @Profiled
+    void parse();
+  }
+}
@@ -0,0 +1,66 @@
+package com.udacity.webcrawler.testing;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates deterministic HTML pages for benchmarks, so that they do not depend on checked-in
+ * fixtures or the network.
+ */
+public final class HtmlFixtures {
+
+  private static final String[] VOCABULARY = vocabulary(5_000);
+
+  private HtmlFixtures() {
+  }
+
+  /**
+   * Returns an HTML page of roughly the given size in bytes, made of paragraphs of random words
+   * and linking to each of the given URLs.
+   */
+  public static String page(Random random, int approximateBytes, List<String> links) {
+    StringBuilder html = new StringBuilder(approximateBytes + 256);
+    html.append("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"UTF-8\">\n")
+        .append("<title>").append(word(random)).append(' ').append(word(random))
+        .append("</title>\n</head>\n<body>\n");
+    int nextLink = 0;
+    while (html.length() < approximateBytes || nextLink < links.size()) {
+      html.append("<p>");
+      int words = 20 + random.nextInt(60);
+      for (int i = 0; i < words; i++) {
+        if (i > 0) {
+          html.append(' ');
+        }
+        html.append(word(random));
+      }
+      if (nextLink < links.size()) {
+        html.append(" <a href=\"").append(links.get(nextLink++)).append("\">")
+            .append(word(random)).append("</a>");
+      }
+      html.append("</p>\n");
+    }
+    return html.append("</body>\n</html>\n").toString();
+  }
+
+  /**
+   * Returns a word drawn from a fixed vocabulary with a skewed distribution, so that some words
+   * are much more frequent than others, as in real text.
+   */
+  public static String word(Random random) {
+    double skewed = Math.pow(random.nextDouble(), 3);
+    return VOCABULARY[(int) (skewed * VOCABULARY.length)];
+  }
+
+  private static String[] vocabulary(int size) {
+    Random random = new Random(7);
+    String[] words = new String[size];
+    for (int i = 0; i < size; i++) {
+      char[] letters = new char[3 + random.nextInt(8)];
+      for (int j = 0; j < letters.length; j++) {
+        letters[j] = (char) ('a' + random.nextInt(26));
+      }
+      words[i] = new String(letters);
+    }
+    return words;
+  }
+}
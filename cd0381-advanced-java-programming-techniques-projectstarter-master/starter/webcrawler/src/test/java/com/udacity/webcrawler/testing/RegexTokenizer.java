@@ -0,0 +1,35 @@
+package com.udacity.webcrawler.testing;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The regular-expression tokenizer that the page parser used before its single-pass tokenizer,
+ * kept as the reference its words are checked and benchmarked against.
+ */
+public final class RegexTokenizer {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Pattern NON_WORD_CHARACTERS = Pattern.compile("\\W");
+
+  private RegexTokenizer() {
+  }
+
+  /**
+   * Returns the words of the given text, skipping tokens matched by any of the given patterns.
+   */
+  public static List<String> words(String text, List<Pattern> ignoredWords) {
+    String stripped = text.strip();
+    if (stripped.isEmpty()) {
+      return List.of();
+    }
+    return Arrays.stream(WHITESPACE.split(stripped))
+        .filter(s -> !s.isBlank())
+        .filter(s -> ignoredWords.stream().noneMatch(p -> p.matcher(s).matches()))
+        .map(s -> NON_WORD_CHARACTERS.matcher(s).replaceAll(""))
+        .map(String::toLowerCase)
+        .filter(s -> !s.isEmpty())
+        .toList();
+  }
+}
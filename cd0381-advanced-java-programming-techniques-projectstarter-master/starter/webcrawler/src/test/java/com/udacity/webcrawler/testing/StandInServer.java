@@ -0,0 +1,434 @@
+package com.udacity.webcrawler.testing;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An HTTP server on the loopback interface that stands in for remote sites, so that the crawlers'
+ * network path can be tested and benchmarked offline.
+ *
+ * <p>It serves pages registered with {@link #serve(String, String)} or read from a directory,
+ * such as one written by {@link SyntheticSite}, under the network {@link Conditions} configured
+ * for the host the client asked for. Hosts are told apart by the {@code Host} header, so
+ * {@code localhost} and {@code 127.0.0.1} can be given different conditions; see
+ * {@link #url(String, String)}.
+ *
+ * <p>Every request is handled on its own daemon thread, so slow responses do not hold up others.
+ * Close the server to stop it.
+ */
+public final class StandInServer implements AutoCloseable {
+
+  private static final String CONTENT_TYPE = "text/html; charset=utf-8";
+
+  static {
+    // Without TCP_NODELAY, every response on a kept-alive connection stalls for the client's
+    // delayed ACK, about 40ms. The JDK server reads this once, when it is first used.
+    if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+  }
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final Map<String, byte[]> pages = new ConcurrentHashMap<>();
+  private final Map<String, Conditions> conditionsByHost = new ConcurrentHashMap<>();
+  private final AtomicLong requests = new AtomicLong();
+  private volatile Path directory;
+  private volatile Conditions defaultConditions = Conditions.NONE;
+
+  private StandInServer(HttpServer server, ExecutorService executor) {
+    this.server = server;
+    this.executor = executor;
+  }
+
+  /**
+   * Starts a server on a free port of the loopback interface.
+   */
+  public static StandInServer start() throws IOException {
+    // Leave room for a connection from every thread of a highly parallel crawl.
+    HttpServer server =
+        HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+    ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "stand-in-server");
+      thread.setDaemon(true);
+      return thread;
+    });
+    StandInServer standIn = new StandInServer(server, executor);
+    server.createContext("/", standIn::handle);
+    server.setExecutor(executor);
+    server.start();
+    return standIn;
+  }
+
+  /**
+   * Returns the port the server is listening on.
+   */
+  public int port() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Returns the URL of the given page on host {@code localhost}.
+   */
+  public String url(String path) {
+    return url("localhost", path);
+  }
+
+  /**
+   * Returns the URL of the given page on the given host, which must resolve to the loopback
+   * interface, such as {@code localhost} or {@code 127.0.0.1}.
+   */
+  public String url(String host, String path) {
+    return "http://" + host + ":" + port() + "/" + stripSlash(path);
+  }
+
+  /**
+   * Serves the given HTML at the given path. Pages registered this way take precedence over the
+   * directory.
+   */
+  public StandInServer serve(String path, String html) {
+    pages.put(stripSlash(path), html.getBytes(StandardCharsets.UTF_8));
+    return this;
+  }
+
+  /**
+   * Serves the files of the given directory, at their paths relative to it.
+   */
+  public StandInServer serveDirectory(Path directory) {
+    this.directory = directory.toAbsolutePath().normalize();
+    return this;
+  }
+
+  /**
+   * Sets the conditions for hosts that have none of their own.
+   */
+  public StandInServer setConditions(Conditions conditions) {
+    this.defaultConditions = Objects.requireNonNull(conditions);
+    return this;
+  }
+
+  /**
+   * Sets the conditions for requests to the given host.
+   */
+  public StandInServer setConditions(String host, Conditions conditions) {
+    conditionsByHost.put(host.toLowerCase(Locale.ROOT), Objects.requireNonNull(conditions));
+    return this;
+  }
+
+  /**
+   * Returns the number of requests received so far, including redirects and failed ones.
+   */
+  public long requestCount() {
+    return requests.get();
+  }
+
+  private void handle(HttpExchange exchange) {
+    requests.incrementAndGet();
+    try (exchange) {
+      Conditions conditions = conditionsFor(exchange.getRequestHeaders().getFirst("Host"));
+      Random random = ThreadLocalRandom.current();
+      sleepNanos(conditions.latency.sampleNanos(random));
+
+      if (conditions.errorRate > 0 && random.nextDouble() < conditions.errorRate) {
+        sendStatus(exchange, conditions.errorStatus);
+        return;
+      }
+
+      String path = stripSlash(exchange.getRequestURI().getPath());
+      int hop = redirectHop(exchange.getRequestURI().getQuery(), conditions.redirects);
+      if (hop > 0) {
+        exchange.getResponseHeaders().set("Location", "/" + path + "?hop=" + (hop - 1));
+        exchange.sendResponseHeaders(302, -1);
+        return;
+      }
+
+      byte[] body = find(path);
+      if (body == null) {
+        sendStatus(exchange, 404);
+        return;
+      }
+      exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+      boolean chunked = conditions.chunked || conditions.slowLorisNanos > 0;
+      // A length of 0 makes the JDK server use chunked transfer encoding.
+      exchange.sendResponseHeaders(200, chunked ? 0 : body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        writeBody(out, body, conditions);
+      }
+    } catch (IOException e) {
+      // The client went away, typically because it timed out.
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private Conditions conditionsFor(String hostHeader) {
+    if (hostHeader == null) {
+      return defaultConditions;
+    }
+    int colon = hostHeader.lastIndexOf(':');
+    String host = colon < 0 ? hostHeader : hostHeader.substring(0, colon);
+    return conditionsByHost.getOrDefault(host.toLowerCase(Locale.ROOT), defaultConditions);
+  }
+
+  /**
+   * Returns how many more redirects the request should get. The first request of a page has no
+   * {@code hop} parameter, and each redirect counts it down to 0.
+   */
+  private static int redirectHop(String query, int redirects) {
+    if (query != null) {
+      for (String parameter : query.split("&")) {
+        if (parameter.startsWith("hop=")) {
+          return Integer.parseInt(parameter.substring(4));
+        }
+      }
+    }
+    return redirects;
+  }
+
+  private byte[] find(String path) throws IOException {
+    byte[] page = pages.get(path);
+    Path root = directory;
+    if (page != null || root == null) {
+      return page;
+    }
+    Path file = root.resolve(path).normalize();
+    if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+      return null;
+    }
+    return Files.readAllBytes(file);
+  }
+
+  private static void writeBody(OutputStream out, byte[] body, Conditions conditions)
+      throws IOException, InterruptedException {
+    if (conditions.slowLorisNanos > 0) {
+      for (byte b : body) {
+        out.write(b);
+        out.flush();
+        sleepNanos(conditions.slowLorisNanos);
+      }
+      return;
+    }
+    if (conditions.bytesPerSecond <= 0) {
+      out.write(body);
+      return;
+    }
+    // Send about a hundred chunks per second, each after the time it takes at the given rate.
+    int chunk = (int) Math.max(1, Math.min(body.length, conditions.bytesPerSecond / 100));
+    long start = System.nanoTime();
+    for (int offset = 0; offset < body.length; offset += chunk) {
+      int length = Math.min(chunk, body.length - offset);
+      long due = start + (offset + length) * TimeUnit.SECONDS.toNanos(1)
+          / conditions.bytesPerSecond;
+      sleepNanos(due - System.nanoTime());
+      out.write(body, offset, length);
+      out.flush();
+    }
+  }
+
+  private static void sendStatus(HttpExchange exchange, int status) throws IOException {
+    byte[] body = ("<html><body>status " + status + "</body></html>")
+        .getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  private static void sleepNanos(long nanos) throws InterruptedException {
+    if (nanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+  }
+
+  private static String stripSlash(String path) {
+    return path.startsWith("/") ? path.substring(1) : path;
+  }
+
+  /**
+   * Stops the server, cutting off responses in progress.
+   */
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  /**
+   * How long a response is held back before it starts.
+   */
+  @FunctionalInterface
+  public interface Latency {
+
+    /**
+     * Returns a delay in nanoseconds, using the given source of randomness.
+     */
+    long sampleNanos(Random random);
+
+    /**
+     * No delay at all.
+     */
+    static Latency none() {
+      return random -> 0;
+    }
+
+    /**
+     * The same delay every time.
+     */
+    static Latency fixed(Duration delay) {
+      long nanos = delay.toNanos();
+      return random -> nanos;
+    }
+
+    /**
+     * A delay drawn uniformly between the given bounds.
+     */
+    static Latency uniform(Duration min, Duration max) {
+      long low = min.toNanos();
+      long high = max.toNanos();
+      if (high < low) {
+        throw new IllegalArgumentException("max must not be less than min");
+      }
+      return random -> low + (long) (random.nextDouble() * (high - low));
+    }
+
+    /**
+     * A log-normally distributed delay with the given median and 99th percentile, the long-tailed
+     * shape of real network latencies.
+     */
+    static Latency logNormal(Duration median, Duration p99) {
+      double mu = Math.log(median.toNanos());
+      // 2.326 is the 99th percentile of the standard normal distribution.
+      double sigma = Math.log((double) p99.toNanos() / median.toNanos()) / 2.326;
+      if (!(sigma >= 0)) {
+        throw new IllegalArgumentException("p99 must not be less than the median");
+      }
+      return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+  }
+
+  /**
+   * The network conditions a host is served under. Build them with {@link Builder}.
+   */
+  public static final class Conditions {
+
+    /**
+     * A fast, reliable network.
+     */
+    public static final Conditions NONE = new Builder().build();
+
+    private final Latency latency;
+    private final long bytesPerSecond;
+    private final long slowLorisNanos;
+    private final double errorRate;
+    private final int errorStatus;
+    private final int redirects;
+    private final boolean chunked;
+
+    private Conditions(Builder builder) {
+      this.latency = builder.latency;
+      this.bytesPerSecond = builder.bytesPerSecond;
+      this.slowLorisNanos = builder.slowLorisInterval.toNanos();
+      this.errorRate = builder.errorRate;
+      this.errorStatus = builder.errorStatus;
+      this.redirects = builder.redirects;
+      this.chunked = builder.chunked;
+    }
+
+    /**
+     * A builder for {@link Conditions}. By default, nothing is slowed down or fails.
+     */
+    public static final class Builder {
+      private Latency latency = Latency.none();
+      private long bytesPerSecond;
+      private Duration slowLorisInterval = Duration.ZERO;
+      private double errorRate;
+      private int errorStatus = 503;
+      private int redirects;
+      private boolean chunked;
+
+      /**
+       * Sets the delay before each response, including redirects and errors.
+       */
+      public Builder setLatency(Latency latency) {
+        this.latency = Objects.requireNonNull(latency);
+        return this;
+      }
+
+      /**
+       * Limits how fast page bodies are sent. 0 means unlimited.
+       */
+      public Builder setBytesPerSecond(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        return this;
+      }
+
+      /**
+       * Sends page bodies one byte at a time, waiting the given interval after each byte, to
+       * test timeouts that only a whole download can trip. Zero turns this off.
+       */
+      public Builder setSlowLorisInterval(Duration interval) {
+        this.slowLorisInterval = Objects.requireNonNull(interval);
+        return this;
+      }
+
+      /**
+       * Sets the fraction of requests, between 0 and 1, answered with the error status.
+       */
+      public Builder setErrorRate(double errorRate) {
+        if (errorRate < 0 || errorRate > 1) {
+          throw new IllegalArgumentException("errorRate must be between 0 and 1");
+        }
+        this.errorRate = errorRate;
+        return this;
+      }
+
+      /**
+       * Sets the status of injected errors; 503 by default.
+       */
+      public Builder setErrorStatus(int errorStatus) {
+        this.errorStatus = errorStatus;
+        return this;
+      }
+
+      /**
+       * Sets how many redirects each page is reached through.
+       */
+      public Builder setRedirects(int redirects) {
+        this.redirects = redirects;
+        return this;
+      }
+
+      /**
+       * Sends page bodies with chunked transfer encoding instead of a {@code Content-Length}.
+       */
+      public Builder setChunked(boolean chunked) {
+        this.chunked = chunked;
+        return this;
+      }
+
+      public Conditions build() {
+        return new Conditions(this);
+      }
+    }
+  }
+}
@@ -0,0 +1,364 @@
+package com.udacity.webcrawler.testing;
+
+import com.udacity.webcrawler.json.CrawlResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * A generated site of local HTML pages, for scaling benchmarks and for checking crawl results
+ * exactly, at sizes far beyond the hand-written pages in {@code src/test/data}.
+ *
+ * <p>The pages form a tree of the configured depth under the start page: every page links to its
+ * children on the next level, at most {@code fanout} of them, and each level is as wide as the
+ * fanout allows until the pages run out. On top of the tree, every page may link back to some of
+ * its ancestors, which makes the link graph cyclic. Page text is drawn from a fixed vocabulary
+ * whose word frequencies follow a Zipf distribution, as in natural language.
+ *
+ * <p>Because a page is only ever linked to by its parent and its own descendants, the crawlers
+ * always reach it first from its parent, whatever order they visit pages in. That makes the result
+ * of a crawl predictable: see {@link #expectedResult(int, int)}.
+ */
+public final class SyntheticSite {
+
+  private static final int WORDS_PER_PARAGRAPH = 40;
+
+  private final Path directory;
+  private final int depth;
+  private final int cycleLinks;
+  private final int wordsPerPage;
+  private final long seed;
+  private final String[] vocabulary;
+  private final double[] cumulativeFrequencies;
+  // The first page of each level, plus one past the last page of the last level.
+  private final int[] levelStarts;
+  // How often each word occurs on the pages of each level: wordCounts[level][word].
+  private final long[][] wordCounts;
+
+  private SyntheticSite(Builder builder) {
+    this.directory = builder.directory.toAbsolutePath().normalize();
+    this.depth = builder.depth;
+    this.cycleLinks = builder.cycleLinks;
+    this.wordsPerPage = builder.wordsPerPage;
+    this.seed = builder.seed;
+    this.vocabulary = vocabulary(builder.vocabularySize);
+    this.cumulativeFrequencies = zipf(builder.vocabularySize, builder.zipfExponent);
+    this.levelStarts = levelStarts(builder.pageCount, builder.fanout, builder.depth);
+    this.wordCounts = new long[depth + 1][vocabulary.length];
+  }
+
+  /**
+   * Returns the {@code file://} URL of the start page.
+   */
+  public String startPage() {
+    return url(0);
+  }
+
+  /**
+   * Returns the {@code file://} URL of the given page.
+   */
+  public String url(int page) {
+    return directory.resolve(fileName(page)).toUri().toString();
+  }
+
+  /**
+   * Returns the number of pages of the site.
+   */
+  public int pageCount() {
+    return levelStarts[depth + 1];
+  }
+
+  /**
+   * Returns the number of pages within the given number of links from the start page.
+   */
+  public int pagesWithin(int links) {
+    return levelStarts[Math.min(links, depth) + 1];
+  }
+
+  /**
+   * Returns the result a crawl of the {@link #startPage()} with the given {@code "maxDepth"} and
+   * {@code "popularWordCount"} options must produce, if it is not cut short by a timeout or
+   * budget and no words are ignored.
+   */
+  public CrawlResult expectedResult(int maxDepth, int popularWordCount) {
+    int levels = Math.min(maxDepth, depth + 1);
+    long[] totals = new long[vocabulary.length];
+    for (int level = 0; level < levels; level++) {
+      for (int word = 0; word < totals.length; word++) {
+        totals[word] += wordCounts[level][word];
+      }
+    }
+    Integer[] words = new Integer[totals.length];
+    int distinct = 0;
+    for (int word = 0; word < totals.length; word++) {
+      if (totals[word] > 0) {
+        words[distinct++] = word;
+      }
+    }
+    // The order documented by CrawlResult#getWordCounts().
+    Arrays.sort(words, 0, distinct, Comparator
+        .comparingLong((Integer word) -> totals[word]).reversed()
+        .thenComparing((Integer word) -> vocabulary[word].length(), Comparator.reverseOrder())
+        .thenComparing(word -> vocabulary[word]));
+    Map<String, Integer> popular = new LinkedHashMap<>();
+    for (int i = 0; i < Math.min(distinct, popularWordCount); i++) {
+      popular.put(vocabulary[words[i]], Math.toIntExact(totals[words[i]]));
+    }
+    return new CrawlResult.Builder()
+        .setWordCounts(popular)
+        .setUrlsVisited(maxDepth <= 0 ? 0 : levelStarts[levels])
+        .build();
+  }
+
+  /**
+   * Writes every page of the site to its directory, replacing existing pages.
+   */
+  public SyntheticSite write() throws IOException {
+    Files.createDirectories(directory);
+    for (long[] counts : wordCounts) {
+      Arrays.fill(counts, 0);
+    }
+    Random random = new Random(seed);
+    StringBuilder html = new StringBuilder(wordsPerPage * 8 + 1024);
+    for (int level = 0; level <= depth; level++) {
+      for (int page = levelStarts[level]; page < levelStarts[level + 1]; page++) {
+        html.setLength(0);
+        writePage(html, page, level, random);
+        Path file = directory.resolve(fileName(page));
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+          writer.append(html);
+        }
+      }
+    }
+    return this;
+  }
+
+  private void writePage(StringBuilder html, int page, int level, Random random) {
+    html.append("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"UTF-8\">\n")
+        .append("</head>\n<body>\n");
+    for (int i = 0; i < wordsPerPage; i++) {
+      if (i % WORDS_PER_PARAGRAPH == 0) {
+        html.append(i == 0 ? "<p>" : "</p>\n<p>");
+      } else {
+        html.append(' ');
+      }
+      appendWord(html, level, random);
+    }
+    if (wordsPerPage > 0) {
+      html.append("</p>\n");
+    }
+    if (level < depth) {
+      int width = levelStarts[level + 1] - levelStarts[level];
+      for (int child = levelStarts[level + 1] + (page - levelStarts[level]);
+           child < levelStarts[level + 2];
+           child += width) {
+        appendLink(html, child, level, random);
+      }
+    }
+    for (int i = 0; level > 0 && i < cycleLinks; i++) {
+      int ancestor = page;
+      for (int up = 1 + random.nextInt(level); up > 0; up--) {
+        ancestor = parent(ancestor);
+      }
+      appendLink(html, ancestor, level, random);
+    }
+    html.append("</body>\n</html>\n");
+  }
+
+  private void appendLink(StringBuilder html, int target, int level, Random random) {
+    // Relative, since that is how the parser resolves links between local files.
+    html.append("<p><a href=\"").append(fileName(target)).append("\">");
+    appendWord(html, level, random);
+    html.append("</a></p>\n");
+  }
+
+  private void appendWord(StringBuilder html, int level, Random random) {
+    int word = Arrays.binarySearch(cumulativeFrequencies, random.nextDouble());
+    if (word < 0) {
+      word = Math.min(-word - 1, vocabulary.length - 1);
+    }
+    wordCounts[level][word]++;
+    html.append(vocabulary[word]);
+  }
+
+  private int parent(int page) {
+    int level = levelOf(page);
+    int parentWidth = levelStarts[level] - levelStarts[level - 1];
+    return levelStarts[level - 1] + (page - levelStarts[level]) % parentWidth;
+  }
+
+  private int levelOf(int page) {
+    int level = Arrays.binarySearch(levelStarts, page);
+    return level >= 0 ? level : -level - 2;
+  }
+
+  private static String fileName(int page) {
+    return "page-" + page + ".html";
+  }
+
+  /**
+   * Splits the pages into levels, making each level as wide as the fanout allows while keeping at
+   * least one page for each deeper level.
+   */
+  private static int[] levelStarts(int pageCount, int fanout, int depth) {
+    int[] starts = new int[depth + 2];
+    starts[1] = 1;
+    long width = 1;
+    for (int level = 1; level <= depth; level++) {
+      int remaining = pageCount - starts[level];
+      int reserved = depth - level;
+      width = Math.min(width * fanout, remaining - reserved);
+      if (width < 1) {
+        throw new IllegalArgumentException(
+            "a site of depth " + depth + " needs at least " + (depth + 1) + " pages");
+      }
+      starts[level + 1] = starts[level] + (int) width;
+    }
+    if (starts[depth + 1] != pageCount) {
+      throw new IllegalArgumentException("a site of depth " + depth + " and fanout " + fanout
+          + " holds at most " + starts[depth + 1] + " pages, not " + pageCount);
+    }
+    return starts;
+  }
+
+  /**
+   * Returns distinct lowercase words, so that the parser counts each exactly as written.
+   */
+  private static String[] vocabulary(int size) {
+    String[] words = new String[size];
+    for (int i = 0; i < size; i++) {
+      // Bijective base 26, offset so that every word has at least three letters.
+      StringBuilder word = new StringBuilder();
+      for (long n = i + 26 * 26 + 26 + 1; n > 0; n = (n - 1) / 26) {
+        word.append((char) ('a' + (n - 1) % 26));
+      }
+      words[i] = word.toString();
+    }
+    return words;
+  }
+
+  private static double[] zipf(int size, double exponent) {
+    double[] cumulative = new double[size];
+    double total = 0;
+    for (int rank = 0; rank < size; rank++) {
+      total += 1 / Math.pow(rank + 1, exponent);
+      cumulative[rank] = total;
+    }
+    for (int rank = 0; rank < size; rank++) {
+      cumulative[rank] /= total;
+    }
+    return cumulative;
+  }
+
+  /**
+   * A builder for {@link SyntheticSite}s. Every option except the directory has a default.
+   */
+  public static final class Builder {
+    private Path directory;
+    private int pageCount = 1_000;
+    private int fanout = 10;
+    private int depth = 3;
+    private int cycleLinks = 2;
+    private int vocabularySize = 10_000;
+    private double zipfExponent = 1.0;
+    private int wordsPerPage = 200;
+    private long seed = 42;
+
+    /**
+     * Sets the directory the pages are written to. It is created if it does not exist.
+     */
+    public Builder setDirectory(Path directory) {
+      this.directory = Objects.requireNonNull(directory);
+      return this;
+    }
+
+    /**
+     * Sets the number of pages. It must fit in a tree of the given depth and fanout.
+     */
+    public Builder setPageCount(int pageCount) {
+      this.pageCount = pageCount;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of child pages each page links to.
+     */
+    public Builder setFanout(int fanout) {
+      this.fanout = fanout;
+      return this;
+    }
+
+    /**
+     * Sets the number of links between the start page and the deepest pages.
+     */
+    public Builder setDepth(int depth) {
+      this.depth = depth;
+      return this;
+    }
+
+    /**
+     * Sets the number of links from every page, other than the start page, back to one of its
+     * ancestors, chosen at random.
+     */
+    public Builder setCycleLinks(int cycleLinks) {
+      this.cycleLinks = cycleLinks;
+      return this;
+    }
+
+    /**
+     * Sets the number of distinct words pages are written with.
+     */
+    public Builder setVocabularySize(int vocabularySize) {
+      this.vocabularySize = vocabularySize;
+      return this;
+    }
+
+    /**
+     * Sets the exponent of the Zipf distribution of word frequencies: the word of rank {@code k}
+     * is {@code k^exponent} times less frequent than the most frequent one.
+     */
+    public Builder setZipfExponent(double zipfExponent) {
+      this.zipfExponent = zipfExponent;
+      return this;
+    }
+
+    /**
+     * Sets the number of words of body text on every page, not counting link text.
+     */
+    public Builder setWordsPerPage(int wordsPerPage) {
+      this.wordsPerPage = wordsPerPage;
+      return this;
+    }
+
+    /**
+     * Sets the seed of the random choices, so that the same options always generate the same
+     * site.
+     */
+    public Builder setSeed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /**
+     * Constructs a {@link SyntheticSite} from this builder. Call {@link SyntheticSite#write()} to
+     * write its pages.
+     */
+    public SyntheticSite build() {
+      Objects.requireNonNull(directory, "directory must be set");
+      if (pageCount < 1 || fanout < 1 || depth < 0 || cycleLinks < 0 || vocabularySize < 1
+          || wordsPerPage < 0 || zipfExponent < 0) {
+        throw new IllegalArgumentException("invalid synthetic site options");
+      }
+      return new SyntheticSite(this);
+    }
+  }
+}
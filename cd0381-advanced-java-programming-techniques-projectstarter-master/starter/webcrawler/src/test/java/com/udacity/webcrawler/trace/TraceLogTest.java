@@ -0,0 +1,146 @@
+package com.udacity.webcrawler.trace;
+
+import com.udacity.webcrawler.testing.CloseableStringWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class TraceLogTest {
+
+  @Test
+  public void csvRoundTrip() throws Exception {
+    roundTrip(TraceFormat.CSV);
+  }
+
+  @Test
+  public void binaryRoundTrip() throws Exception {
+    roundTrip(TraceFormat.BINARY);
+  }
+
+  private static void roundTrip(TraceFormat format) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (TraceLog trace = TraceLog.open(out, format, 16)) {
+      trace.scheduled("https://example.com/", 0);
+      trace.started("https://example.com/", 0);
+      trace.finished("https://example.com/", 0, 1234, 2);
+      trace.scheduled("https://example.com/a,\"b\"", 1);
+      trace.started("https://example.com/a,\"b\"", 1);
+      trace.failed("https://example.com/a,\"b\"", 1, "HttpStatusException");
+    }
+
+    List<TraceRecord> records = read(out, format);
+    assertThat(records.stream().map(TraceRecord::getEvent).toList()).containsExactly(
+        TraceEvent.SCHEDULED, TraceEvent.STARTED, TraceEvent.FINISHED,
+        TraceEvent.SCHEDULED, TraceEvent.STARTED, TraceEvent.FAILED).inOrder();
+    TraceRecord finished = records.get(2);
+    assertThat(finished.getUrl()).isEqualTo("https://example.com/");
+    assertThat(finished.getBytes()).isEqualTo(1234);
+    assertThat(finished.getLinks()).isEqualTo(2);
+    TraceRecord failed = records.get(5);
+    assertThat(failed.getUrl()).isEqualTo("https://example.com/a,\"b\"");
+    assertThat(failed.getDepth()).isEqualTo(1);
+    assertThat(failed.getError()).isEqualTo("HttpStatusException");
+    for (int i = 1; i < records.size(); i++) {
+      assertThat(records.get(i).getMicros()).isAtLeast(records.get(i - 1).getMicros());
+    }
+  }
+
+  @Test
+  public void concurrentProducersLoseNothing() throws Exception {
+    int threadCount = 4;
+    int perThread = 5_000;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    // A tiny ring, so that producers keep running into a full ring and have to wait.
+    try (TraceLog trace = TraceLog.open(out, TraceFormat.BINARY, 8)) {
+      List<Thread> threads = new ArrayList<>();
+      for (int t = 0; t < threadCount; t++) {
+        int thread = t;
+        threads.add(new Thread(() -> {
+          for (int i = 0; i < perThread; i++) {
+            trace.scheduled("https://example.com/" + thread + "/" + i, thread);
+          }
+        }));
+      }
+      threads.forEach(Thread::start);
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    }
+
+    Set<String> urls = new HashSet<>();
+    for (TraceRecord record : read(out, TraceFormat.BINARY)) {
+      assertThat(record.getUrl()).startsWith("https://example.com/" + record.getDepth() + "/");
+      urls.add(record.getUrl());
+    }
+    assertThat(urls).hasSize(threadCount * perThread);
+  }
+
+  @Test
+  public void closingAFullRingReleasesWaitingProducers() throws Exception {
+    TraceRing ring = new TraceRing(1);
+    ring.put(TraceEvent.SCHEDULED, 0, "https://example.com/", 0, 0, 0, null);
+    // Nothing drains the ring, as after the trace's drainer has exited.
+    Thread producer = new Thread(
+        () -> ring.put(TraceEvent.STARTED, 1, "https://example.com/", 0, 0, 0, null));
+    producer.start();
+    ring.close();
+    producer.join(10_000);
+    assertThat(producer.isAlive()).isFalse();
+
+    List<String> drained = new ArrayList<>();
+    ring.drain((event, nanoTime, url, depth, bytes, links, error) -> drained.add(event.name()));
+    assertThat(drained).containsExactly("SCHEDULED");
+  }
+
+  @Test
+  public void summary() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (TraceLog trace = TraceLog.open(out, TraceFormat.CSV, 16)) {
+      trace.scheduled("https://example.com/", 0);
+      trace.started("https://example.com/", 0);
+      trace.finished("https://example.com/", 0, 100, 2);
+      trace.scheduled("https://example.com/a", 1);
+      trace.scheduled("https://example.com/b", 1);
+      trace.started("https://example.com/a", 1);
+      trace.failed("https://example.com/a", 1, "SocketTimeoutException");
+      trace.started("https://example.com/b", 1);
+      trace.finished("https://example.com/b", 1, 50, 0);
+    }
+
+    TraceSummary summary = new TraceSummary();
+    read(out, TraceFormat.CSV).forEach(summary::add);
+    assertThat(summary.count(TraceEvent.FAILED)).isEqualTo(1);
+
+    CloseableStringWriter writer = new CloseableStringWriter();
+    summary.write(writer);
+    String written = writer.toString();
+    assertThat(written).contains("URLs: 3 scheduled, 3 started, 2 finished, 1 failed");
+    assertThat(written).contains("Downloaded: 150 bytes, 2 links");
+    assertThat(written).contains("Queue wait: p50 ");
+    assertThat(written).contains("Fetch time: p50 ");
+    assertThat(written).contains("  SocketTimeoutException: 1");
+    assertThat(written).contains(" https://example.com/a (failed)");
+  }
+
+  @Test
+  public void percentiles() {
+    long[] sorted = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+    assertThat(TraceSummary.percentile(sorted, 0.5)).isEqualTo(5);
+    assertThat(TraceSummary.percentile(sorted, 0.9)).isEqualTo(9);
+    assertThat(TraceSummary.percentile(sorted, 0.99)).isEqualTo(10);
+  }
+
+  private static List<TraceRecord> read(ByteArrayOutputStream out, TraceFormat format)
+      throws Exception {
+    List<TraceRecord> records = new ArrayList<>();
+    TraceReader.read(new ByteArrayInputStream(out.toByteArray()), format, records::add);
+    return records;
+  }
+}
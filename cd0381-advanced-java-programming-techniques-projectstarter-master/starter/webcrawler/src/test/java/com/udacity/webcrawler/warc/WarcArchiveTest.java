@@ -0,0 +1,107 @@
+package com.udacity.webcrawler.warc;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class WarcArchiveTest {
+
+  @TempDir
+  Path tempDir;
+
+  private Path writeArchive() throws Exception {
+    Path path = tempDir.resolve("crawl.warc.gz");
+    try (WarcWriter writer = WarcWriter.open(path)) {
+      writer.write(
+          "http://example.com/",
+          "http://example.com/",
+          200,
+          "OK",
+          Map.of("Content-Type", "text/html; charset=UTF-8", "Content-Encoding", "gzip"),
+          "<p>hello</p>".getBytes(StandardCharsets.UTF_8));
+      writer.write(
+          "http://example.com/old",
+          "http://example.com/new",
+          200,
+          "OK",
+          Map.of("Content-Type", "text/html"),
+          "<p>moved</p>".getBytes(StandardCharsets.UTF_8));
+      writer.write(
+          "http://example.com/missing",
+          "http://example.com/missing",
+          404,
+          "Not Found",
+          Map.of(),
+          new byte[0]);
+    }
+    return path;
+  }
+
+  @Test
+  public void recordedResponsesAreFoundByUrl() throws Exception {
+    WarcArchive archive = WarcArchive.open(writeArchive());
+
+    assertThat(archive.size()).isEqualTo(4);
+    WarcResponse page = archive.find("http://example.com/");
+    assertThat(page.getUrl()).isEqualTo("http://example.com/");
+    assertThat(page.getStatusCode()).isEqualTo(200);
+    assertThat(page.getHeader("content-type")).isEqualTo("text/html; charset=UTF-8");
+    // The body is stored decoded, so the headers describe it as it is stored.
+    assertThat(page.getHeader("Content-Encoding")).isNull();
+    assertThat(page.getHeader("Content-Length")).isEqualTo("12");
+    assertThat(new String(page.getBody(), StandardCharsets.UTF_8)).isEqualTo("<p>hello</p>");
+    assertThat(archive.find("http://example.com/missing").getStatusCode()).isEqualTo(404);
+    assertThat(archive.find("http://example.com/never")).isNull();
+  }
+
+  @Test
+  public void redirectedRequestsFindTheFinalResponse() throws Exception {
+    WarcArchive archive = WarcArchive.open(writeArchive());
+
+    WarcResponse moved = archive.find("http://example.com/old");
+    assertThat(moved.getUrl()).isEqualTo("http://example.com/new");
+    assertThat(new String(moved.getBody(), StandardCharsets.UTF_8)).isEqualTo("<p>moved</p>");
+    assertThat(archive.find("http://example.com/new").getUrl())
+        .isEqualTo("http://example.com/new");
+  }
+
+  @Test
+  public void archiveWithoutIndexIsScanned() throws Exception {
+    Path path = writeArchive();
+    Files.delete(WarcWriter.indexPath(path));
+
+    WarcArchive archive = WarcArchive.open(path);
+
+    assertThat(archive.size()).isEqualTo(4);
+    assertThat(archive.find("http://example.com/old").getUrl())
+        .isEqualTo("http://example.com/new");
+    assertThat(archive.find("http://example.com/missing").getStatusCode()).isEqualTo(404);
+  }
+
+  @Test
+  public void everyRecordIsItsOwnGzipMember() throws Exception {
+    Path path = writeArchive();
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+
+    // A warcinfo record, then a response and a request record for each fetch.
+    List<String> types = new ArrayList<>();
+    while (buffer.hasRemaining()) {
+      GzipMember member = GzipMember.read(buffer.slice());
+      types.add(WarcRecord.parse(member.getData(), member.getDataLength()).getType());
+      buffer.position(buffer.position() + member.getLength());
+    }
+    assertThat(types).containsExactly(
+        "warcinfo", "response", "request", "response", "request", "response", "request")
+        .inOrder();
+    assertThat(Files.readAllLines(WarcWriter.indexPath(path))).hasSize(4);
+  }
+}